@@ -2,27 +2,74 @@ package com.shipmanagement;
 
 import java.sql.Connection;
 import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 
 
+/**
+ * A cargo hold and its manifest. Items are keyed by name (in the order they
+ * were first loaded), so adding or removing an item is a single map update
+ * whatever the size of the manifest. Each change writes the item's row in
+ * cargo_items and the hold's used capacity in one transaction.
+ *
+ * With write-behind enabled (-Dcargo.writeBehind=true, or
+ * {@link #enableWriteBehind}) item changes only mark the hold dirty and a
+ * {@link CargoWriteBehind} writes the latest state in batches; see there for
+ * when that happens. Creating and loading holds is unaffected.
+ */
 public class Cargo {
+    private static final String LOAD_SQL =
+        "SELECT c.owner_name, c.capacity, c.used_capacity, i.name, i.amount " +
+        "FROM cargo c LEFT JOIN cargo_items i ON i.cargo_id = c.cargo_id " +
+        "WHERE c.cargo_id = ? ORDER BY i.id";
+    private static final String UPSERT_ITEM_SQL =
+        "INSERT INTO cargo_items (cargo_id, name, amount) VALUES (?, ?, ?) " +
+        "ON CONFLICT(cargo_id, name) DO UPDATE SET amount = excluded.amount";
+    private static final String DELETE_ITEM_SQL = "DELETE FROM cargo_items WHERE cargo_id = ? AND name = ?";
+    private static final String UPDATE_CAPACITY_SQL = "UPDATE cargo SET used_capacity = ? WHERE cargo_id = ?";
+
+    private static volatile CargoWriteBehind writeBehind = Boolean.getBoolean("cargo.writeBehind")
+        ? new CargoWriteBehind(Long.getLong("cargo.writeBehind.intervalMs", 200L),
+                               Integer.getInteger("cargo.writeBehind.maxDirty", 256))
+        : null;
+
     private String cargoId;
     private String ownerName;
-    private List<CargoItem> items;
+    private final Map<String, CargoItem> items;
     private double capacity;
     private double usedCapacity;
 
+    /**
+     * Creates a new, empty cargo hold. Saving it replaces any hold stored under
+     * the same id, and its manifest with it.
+     */
     public Cargo(String cargoId, String ownerName, double capacity) {
         this.cargoId = cargoId;
         this.ownerName = ownerName;
         this.capacity = capacity;
-        this.items = new ArrayList<>();
+        this.items = new LinkedHashMap<>();
         this.usedCapacity = 0;
+        CargoWriteBehind buffer = getWriteBehind();
+        if (buffer != null) {
+            // Pending changes to a hold stored under this id no longer apply
+            buffer.discard(cargoId);
+        }
         saveToDatabase();
     }
+    
+    // A hold read back from the database; not saved again
+    private Cargo(String cargoId, String ownerName, double capacity, double usedCapacity) {
+        this.cargoId = cargoId;
+        this.ownerName = ownerName;
+        this.capacity = capacity;
+        this.items = new LinkedHashMap<>();
+        this.usedCapacity = usedCapacity;
+    }
 
     public Cargo(double capacity) {
         this("", "", capacity);
@@ -34,7 +81,7 @@ public class Cargo {
 
     private void saveToDatabase() {
         String sql = "INSERT OR REPLACE INTO cargo (cargo_id, owner_name, capacity, used_capacity) VALUES (?, ?, ?, ?)";
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = DatabaseConnection.getWriteConnection("Cargo.saveToDatabase");
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setString(1, cargoId);
             pstmt.setString(2, ownerName);
@@ -52,58 +99,138 @@ public class Cargo {
         }
     }
 
-    public void addItem(String name, int amount, double itemWeight) {
+    /**
+     * Loads a hold and its whole manifest in one query.
+     * @return The hold, or null if there is none with this id
+     */
+    public static Cargo load(String cargoId) throws SQLException {
+        CargoWriteBehind buffer = getWriteBehind();
+        if (buffer != null && buffer.isDirty(cargoId)) {
+            buffer.flush();
+        }
+        try (Connection conn = DatabaseConnection.getConnection("Cargo.load");
+             PreparedStatement pstmt = conn.prepareStatement(LOAD_SQL)) {
+            pstmt.setString(1, cargoId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                Cargo cargo = null;
+                while (rs.next()) {
+                    if (cargo == null) {
+                        cargo = new Cargo(cargoId, rs.getString("owner_name"),
+                                          rs.getDouble("capacity"), rs.getDouble("used_capacity"));
+                    }
+                    String name = rs.getString("name");
+                    if (name != null) {
+                        cargo.items.put(name, new CargoItem(name, rs.getInt("amount")));
+                    }
+                }
+                return cargo;
+            }
+        }
+    }
+
+    /**
+     * Turns on write-behind for item changes made from now on, replacing (and
+     * flushing) any buffer already in use.
+     * @param intervalMillis How often dirty holds are flushed
+     * @param maxDirty Number of dirty holds that triggers a flush before the timer does
+     */
+    public static synchronized void enableWriteBehind(long intervalMillis, int maxDirty) {
+        CargoWriteBehind previous = writeBehind;
+        writeBehind = new CargoWriteBehind(intervalMillis, maxDirty);
+        if (previous != null) {
+            previous.close();
+        }
+    }
+
+    /**
+     * Flushes any buffered changes and goes back to writing each change as it
+     * happens. Called by {@link DatabaseConnection#shutdown()} before the write
+     * queue closes.
+     */
+    public static synchronized void disableWriteBehind() {
+        if (writeBehind != null) {
+            writeBehind.close();
+            writeBehind = null;
+        }
+    }
+
+    /**
+     * Writes all buffered changes now and waits for them to commit. Does
+     * nothing unless write-behind is enabled.
+     * @return The number of holds written
+     */
+    public static int flush() throws SQLException {
+        CargoWriteBehind buffer = getWriteBehind();
+        return buffer == null ? 0 : buffer.flush();
+    }
+
+    /**
+     * The write-behind buffer in use, or null if changes are written through.
+     */
+    public static CargoWriteBehind getWriteBehind() {
+        return writeBehind;
+    }
+
+    public synchronized void addItem(String name, int amount, double itemWeight) {
         if (usedCapacity + (amount * itemWeight) > capacity) {
             throw new IllegalStateException("Not enough capacity");
         }
         
-        for (CargoItem item : items) {
-            if (item.getName().equals(name)) {
-                item.setAmount(item.getAmount() + amount);
-                usedCapacity += amount * itemWeight;
-                updateDatabase();
-                return;
-            }
+        CargoItem item = items.get(name);
+        if (item == null) {
+            item = new CargoItem(name, amount);
+            items.put(name, item);
+        } else {
+            item.setAmount(item.getAmount() + amount);
         }
-        
-        CargoItem newItem = new CargoItem(name, amount);
-        items.add(newItem);
         usedCapacity += amount * itemWeight;
-        updateDatabase();
+        updateDatabase(name, item.getAmount());
     }
     
-    public void removeItem(String name, int amount, double itemWeight) {
-        for (CargoItem item : items) {
-            if (item.getName().equals(name)) {
-                if (item.getAmount() < amount) {
-                    throw new IllegalStateException("Not enough items to remove");
-                }
-                item.setAmount(item.getAmount() - amount);
-                usedCapacity -= amount * itemWeight;
-                
-                if (item.getAmount() == 0) {
-                    items.remove(item);
-                }
-                
-                updateDatabase();
-                return;
-            }
+    public synchronized void removeItem(String name, int amount, double itemWeight) {
+        CargoItem item = items.get(name);
+        if (item == null) {
+            throw new IllegalArgumentException("Item not found: " + name);
         }
-        throw new IllegalArgumentException("Item not found: " + name);
+        if (item.getAmount() < amount) {
+            throw new IllegalStateException("Not enough items to remove");
+        }
+        item.setAmount(item.getAmount() - amount);
+        usedCapacity -= amount * itemWeight;
+        
+        if (item.getAmount() == 0) {
+            items.remove(name);
+        }
+        
+        updateDatabase(name, item.getAmount());
     }
     
-    private void updateDatabase() {
-        String sql = "UPDATE cargo SET used_capacity = ? WHERE cargo_id = ?";
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setDouble(1, usedCapacity);
-            pstmt.setString(2, cargoId);
-            pstmt.executeUpdate();
-            
-            // Explicitly commit the transaction if auto-commit is disabled
-            if (!conn.getAutoCommit()) {
-                conn.commit();
-            }
+    // Writes one item's new amount (0 deletes its row) and the hold's used capacity,
+    // or leaves that to the write-behind buffer
+    private void updateDatabase(String name, int amount) {
+        CargoWriteBehind buffer = getWriteBehind();
+        if (buffer != null && buffer.markDirty(this, name)) {
+            return;
+        }
+        
+        double used = usedCapacity;
+        try {
+            // Goes through the group-commit queue, which owns the transaction
+            DatabaseConnection.write("Cargo.updateDatabase", conn -> {
+                try (PreparedStatement pstmt = conn.prepareStatement(amount > 0 ? UPSERT_ITEM_SQL : DELETE_ITEM_SQL)) {
+                    pstmt.setString(1, cargoId);
+                    pstmt.setString(2, name);
+                    if (amount > 0) {
+                        pstmt.setInt(3, amount);
+                    }
+                    pstmt.executeUpdate();
+                }
+                try (PreparedStatement pstmt = conn.prepareStatement(UPDATE_CAPACITY_SQL)) {
+                    pstmt.setDouble(1, used);
+                    pstmt.setString(2, cargoId);
+                    return pstmt.executeUpdate();
+                }
+            });
         } catch (SQLException e) {
             System.err.println("Error updating cargo: " + e.getMessage());
             e.printStackTrace();
@@ -131,15 +258,22 @@ public class Cargo {
         return capacity;
     }
     
-    public double getUsedCapacity() {
+    public synchronized double getUsedCapacity() {
         return usedCapacity;
     }
     
-    public double getAvailableCapacity() {
+    public synchronized double getAvailableCapacity() {
         return capacity - usedCapacity;
     }
     
-    public List<CargoItem> getItems() {
-        return new ArrayList<>(items);
+    public synchronized List<CargoItem> getItems() {
+        return new ArrayList<>(items.values());
+    }
+    
+    /**
+     * The item with this name, or null if it is not on the manifest.
+     */
+    public synchronized CargoItem getItem(String name) {
+        return items.get(name);
     }
 }
@@ -0,0 +1,299 @@
+package com.shipmanagement;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.shipmanagement.metrics.Metrics;
+
+/**
+ * Write-behind buffer for cargo changes. Instead of writing each addItem and
+ * removeItem, a hold is marked dirty along with the names of the items that
+ * changed; a flush then writes only the latest state of each dirty hold: one
+ * row per changed item and the used capacity once. A crane loading 2,000
+ * pallets of one kind into a hold between two flushes costs two statements
+ * rather than 4,000.
+ *
+ * Flushes run on a background timer, as soon as the number of dirty holds
+ * reaches a threshold, on {@link #flush()}, and when the buffer is closed or
+ * the JVM shuts down. All dirty holds are written in a single queued write,
+ * i.e. one transaction. If it fails the holds are marked dirty again and the
+ * next flush retries them.
+ *
+ * Changes are not durable until flushed: a crash loses whatever happened since
+ * the last flush.
+ */
+public class CargoWriteBehind implements AutoCloseable {
+
+    private static final String UPSERT_ITEM_SQL =
+        "INSERT INTO cargo_items (cargo_id, name, amount) VALUES (?, ?, ?) " +
+        "ON CONFLICT(cargo_id, name) DO UPDATE SET amount = excluded.amount";
+    private static final String DELETE_ITEM_SQL = "DELETE FROM cargo_items WHERE cargo_id = ? AND name = ?";
+    private static final String UPDATE_CAPACITY_SQL = "UPDATE cargo SET used_capacity = ? WHERE cargo_id = ?";
+
+    // Metrics; process-wide so they are exported once whichever buffer is active
+    private static final LongAdder changes = new LongAdder();
+    private static final LongAdder coalesced = new LongAdder();
+    private static final LongAdder flushes = new LongAdder();
+    private static final LongAdder holdsWritten = new LongAdder();
+    private static final LongAdder failedFlushes = new LongAdder();
+
+    static {
+        Metrics.registerCounter("cargo_write_behind_changes_total",
+            "Cargo item changes buffered for write-behind", changes::sum);
+        Metrics.registerCounter("cargo_write_behind_coalesced_total",
+            "Buffered cargo changes absorbed by a later change to the same hold", coalesced::sum);
+        Metrics.registerCounter("cargo_write_behind_flushes_total",
+            "Write-behind flushes that wrote at least one hold", flushes::sum);
+        Metrics.registerCounter("cargo_write_behind_holds_written_total",
+            "Cargo holds written by write-behind flushes", holdsWritten::sum);
+        Metrics.registerCounter("cargo_write_behind_failed_flushes_total",
+            "Write-behind flushes that failed and were retried", failedFlushes::sum);
+    }
+
+    // Changes to one hold since it was last flushed
+    private static final class Dirty {
+        final Cargo cargo;
+        final Set<String> items = new HashSet<>();
+        int changes;
+
+        Dirty(Cargo cargo) {
+            this.cargo = cargo;
+        }
+    }
+
+    // The state of one hold as of a flush
+    private static final class Snapshot {
+        final String cargoId;
+        final double usedCapacity;
+        final Map<String, Integer> amounts = new LinkedHashMap<>();
+
+        Snapshot(String cargoId, double usedCapacity) {
+            this.cargoId = cargoId;
+            this.usedCapacity = usedCapacity;
+        }
+    }
+
+    private final int maxDirty;
+    private final ConcurrentHashMap<String, Dirty> dirty = new ConcurrentHashMap<>();
+    // Holds taken by the flush in progress, until their write has committed
+    private final Set<String> inFlight = ConcurrentHashMap.newKeySet();
+    private final Object flushLock = new Object();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    private final ScheduledExecutorService timer;
+    private final Thread shutdownHook;
+
+    private volatile boolean closed;
+
+    /**
+     * @param intervalMillis How often dirty holds are flushed
+     * @param maxDirty Number of dirty holds that triggers a flush before the timer does
+     */
+    public CargoWriteBehind(long intervalMillis, int maxDirty) {
+        if (intervalMillis < 1 || maxDirty < 1) {
+            throw new IllegalArgumentException("Flush interval and threshold must be at least 1");
+        }
+        this.maxDirty = maxDirty;
+
+        this.timer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "cargo-write-behind");
+            thread.setDaemon(true);
+            return thread;
+        });
+        timer.scheduleWithFixedDelay(this::flushQuietly, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+
+        this.shutdownHook = new Thread(this::flushQuietly, "cargo-write-behind-shutdown");
+        Runtime.getRuntime().addShutdownHook(shutdownHook);
+    }
+
+    /**
+     * Records that an item of this hold changed. The caller holds the hold's lock.
+     * @return false if the buffer has been closed, in which case the caller must
+     *         write the change itself
+     */
+    boolean markDirty(Cargo cargo, String itemName) {
+        changes.increment();
+        Dirty entry = dirty.compute(cargo.getCargoId(), (id, current) -> {
+            // A different instance under the same id replaces the hold, as a save would
+            if (current == null || current.cargo != cargo) {
+                current = new Dirty(cargo);
+            }
+            current.items.add(itemName);
+            current.changes++;
+            return current;
+        });
+        if (entry.changes == 1 && dirty.size() >= maxDirty && flushScheduled.compareAndSet(false, true)) {
+            timer.execute(() -> {
+                flushScheduled.set(false);
+                flushQuietly();
+            });
+        }
+        // close() sets the flag before its final flush, so if it is still clear
+        // that flush will see this change
+        return !closed;
+    }
+
+    /**
+     * Drops the buffered changes of a hold, e.g. because it is being replaced.
+     * Waits for a flush in progress to commit first, so the old hold's changes
+     * cannot land after the caller has saved its replacement.
+     */
+    void discard(String cargoId) {
+        synchronized (flushLock) {
+            dirty.remove(cargoId);
+        }
+    }
+
+    /**
+     * Whether the hold has changes not yet committed, including ones being flushed right now.
+     */
+    public boolean isDirty(String cargoId) {
+        return dirty.containsKey(cargoId) || inFlight.contains(cargoId);
+    }
+
+    /**
+     * Writes the latest state of every dirty hold and waits for it to commit.
+     * @return The number of holds written
+     */
+    public int flush() throws SQLException {
+        synchronized (flushLock) {
+            List<Dirty> taken = new ArrayList<>();
+            for (String cargoId : dirty.keySet()) {
+                // Marked in flight first so the hold never looks clean mid-flush
+                inFlight.add(cargoId);
+                Dirty entry = dirty.remove(cargoId);
+                if (entry != null) {
+                    taken.add(entry);
+                }
+            }
+            if (taken.isEmpty()) {
+                inFlight.clear();
+                return 0;
+            }
+
+            List<Snapshot> snapshots = new ArrayList<>(taken.size());
+            for (Dirty entry : taken) {
+                snapshots.add(snapshot(entry));
+            }
+
+            try {
+                DatabaseConnection.write("CargoWriteBehind.flush", conn -> {
+                    try (PreparedStatement upsert = conn.prepareStatement(UPSERT_ITEM_SQL);
+                         PreparedStatement delete = conn.prepareStatement(DELETE_ITEM_SQL);
+                         PreparedStatement capacity = conn.prepareStatement(UPDATE_CAPACITY_SQL)) {
+                        for (Snapshot snapshot : snapshots) {
+                            for (Map.Entry<String, Integer> item : snapshot.amounts.entrySet()) {
+                                PreparedStatement pstmt = item.getValue() > 0 ? upsert : delete;
+                                pstmt.setString(1, snapshot.cargoId);
+                                pstmt.setString(2, item.getKey());
+                                if (item.getValue() > 0) {
+                                    pstmt.setInt(3, item.getValue());
+                                }
+                                pstmt.addBatch();
+                            }
+                            capacity.setDouble(1, snapshot.usedCapacity);
+                            capacity.setString(2, snapshot.cargoId);
+                            capacity.addBatch();
+                        }
+                        upsert.executeBatch();
+                        delete.executeBatch();
+                        return capacity.executeBatch().length;
+                    }
+                });
+            } catch (SQLException | RuntimeException e) {
+                failedFlushes.increment();
+                requeue(taken);
+                throw e;
+            } finally {
+                inFlight.clear();
+            }
+
+            flushes.increment();
+            holdsWritten.add(taken.size());
+            for (Dirty entry : taken) {
+                coalesced.add(entry.changes - 1);
+            }
+            return taken.size();
+        }
+    }
+
+    private static Snapshot snapshot(Dirty entry) {
+        Cargo cargo = entry.cargo;
+        synchronized (cargo) {
+            Snapshot snapshot = new Snapshot(cargo.getCargoId(), cargo.getUsedCapacity());
+            for (String name : entry.items) {
+                CargoItem item = cargo.getItem(name);
+                snapshot.amounts.put(name, item == null ? 0 : item.getAmount());
+            }
+            return snapshot;
+        }
+    }
+
+    // Puts failed holds back, merged with anything that changed in the meantime
+    private void requeue(List<Dirty> failed) {
+        for (Dirty entry : failed) {
+            dirty.merge(entry.cargo.getCargoId(), entry, (current, old) -> {
+                if (current.cargo != old.cargo) {
+                    return current;
+                }
+                current.items.addAll(old.items);
+                current.changes += old.changes;
+                return current;
+            });
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (SQLException | RuntimeException e) {
+            System.err.println("Error flushing cargo changes: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Buffer size and totals, suitable for JSON serialization.
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("dirtyHolds", dirty.size());
+        stats.put("changes", changes.sum());
+        stats.put("coalesced", coalesced.sum());
+        stats.put("flushes", flushes.sum());
+        stats.put("holdsWritten", holdsWritten.sum());
+        stats.put("failedFlushes", failedFlushes.sum());
+        return stats;
+    }
+
+    /**
+     * Stops the timer and flushes whatever is still dirty.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        timer.shutdown();
+        try {
+            timer.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            Runtime.getRuntime().removeShutdownHook(shutdownHook);
+        } catch (IllegalStateException e) {
+            // Already shutting down; the hook is running or about to
+        }
+        flushQuietly();
+    }
+}
@@ -1,28 +1,83 @@
 package com.shipmanagement;
 
+import java.io.IOException;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
-import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import org.mindrot.jbcrypt.BCrypt;
 import org.sqlite.SQLiteConfig;
 import org.sqlite.SQLiteDataSource;
 
+import com.shipmanagement.auth.PasswordHasher;
+import com.shipmanagement.booking.BookingCalendar;
+import com.shipmanagement.booking.BookingIndex;
+import com.shipmanagement.cache.ShipCache;
+import com.shipmanagement.dao.ShipDAO;
+import com.shipmanagement.db.ColumnIndex;
+import com.shipmanagement.db.ConnectionPool;
+import com.shipmanagement.db.Migrations;
+import com.shipmanagement.db.RowMapper;
+import com.shipmanagement.db.RowMappers;
+import com.shipmanagement.db.SchemaMigrator;
+import com.shipmanagement.db.WriteQueue;
+import com.shipmanagement.metrics.Metrics;
+import com.shipmanagement.model.Booking;
+import com.shipmanagement.model.ProblemReport;
+import com.shipmanagement.model.Task;
 import com.shipmanagement.model.User;
+import com.shipmanagement.telemetry.ShipPositions;
 
 public class DatabaseConnection {
     private static SQLiteDataSource dataSource;
+    private static ConnectionPool pool;
+    private static WriteQueue writeQueue;
     
     // Add a test connection field for unit testing
     private static Connection testConnection = null;
     
+    // Opt-in (-Ddb.metrics.callerNames) stack walk to label unlabelled borrows
+    private static final boolean CALLER_NAMES = Boolean.getBoolean("db.metrics.callerNames");
+    private static final StackWalker STACK_WALKER = StackWalker.getInstance();
+    // Frames skipped when naming the caller of an unlabelled connection borrow
+    private static final Set<String> PLUMBING_METHODS =
+        Set.of("getConnection", "getWriteConnection", "write", "callerName");
+    
+    // List queries shared by the list and streaming variants
+    private static final String USER_BOOKINGS_SQL =
+        "SELECT b.*, s.name as ship_name, s.type as ship_type " +
+        "FROM bookings b " +
+        "JOIN ships s ON b.ship_id = s.id " +
+        "WHERE b.user_id = ? " +
+        "ORDER BY b.created_at DESC";
+    
+    private static final String USER_TASKS_SQL =
+        "SELECT t.*, " +
+        "s1.first_name || ' ' || s1.last_name as assigned_to_name, " +
+        "s2.first_name || ' ' || s2.last_name as assigned_by_name, " +
+        "sh.name as ship_name " +
+        "FROM tasks t " +
+        "LEFT JOIN staff s1 ON t.assigned_to = s1.id " +
+        "LEFT JOIN staff s2 ON t.assigned_by = s2.id " +
+        "LEFT JOIN ships sh ON t.ship_id = sh.id " +
+        "WHERE t.assigned_to = ? OR t.assigned_by = ? " +
+        "ORDER BY t.created_at DESC";
+    
+    private static final String ALL_REPORTS_SQL =
+        "SELECT r.*, u.username as generated_by_username, s.name as ship_name " +
+        "FROM reports r " +
+        "LEFT JOIN users u ON r.generated_by = u.id " +
+        "LEFT JOIN ships s ON r.ship_id = s.id " +
+        "ORDER BY r.created_at DESC";
+    
     static {
         try {
             // Configure SQLite
@@ -30,10 +85,24 @@ public class DatabaseConnection {
             config.enforceForeignKeys(true);
             config.setJournalMode(SQLiteConfig.JournalMode.WAL);
             config.setSynchronous(SQLiteConfig.SynchronousMode.NORMAL);
+            config.setBusyTimeout(5000);
             
             // Set up the data source
             dataSource = new SQLiteDataSource(config);
-            dataSource.setUrl("jdbc:sqlite:ship_management.db");
+            dataSource.setUrl(System.getProperty("db.url", "jdbc:sqlite:ship_management.db"));
+            
+            // Set up the connection pool (-Ddb.pool.readers / -Ddb.pool.timeoutMs / -Ddb.statementCache.size)
+            int readers = Integer.getInteger("db.pool.readers", 4);
+            long acquireTimeout = Long.getLong("db.pool.timeoutMs", 5000L);
+            int statementCacheSize = Integer.getInteger("db.statementCache.size", 64);
+            pool = new ConnectionPool(dataSource, readers, acquireTimeout, statementCacheSize);
+            pool.setUsageListener((method, isWriter, heldNanos) ->
+                Metrics.recordDbCall(method, isWriter ? "writer" : "reader", heldNanos, false));
+            
+            // Group-commit queue for hot write paths (-Ddb.writeQueue.batchSize / -Ddb.writeQueue.lingerMs)
+            int batchSize = Integer.getInteger("db.writeQueue.batchSize", 64);
+            long lingerMs = Long.getLong("db.writeQueue.lingerMs", 0L);
+            writeQueue = new WriteQueue(pool, batchSize, lingerMs);
             
             // Initialize database
             initializeDatabase();
@@ -43,12 +112,146 @@ public class DatabaseConnection {
         }
     }
     
+    /**
+     * Borrows a pooled connection for reading. Closing it returns it to the pool.
+     * Prefer {@link #getConnection(String)}, which labels the timing without a stack walk.
+     */
     public static Connection getConnection() throws SQLException {
+        return getConnection(callerName());
+    }
+    
+    /**
+     * Borrows a pooled connection for reading. Closing it returns it to the pool.
+     * @param label Caller for the database timings, e.g. "ShipDAO.getShipById"
+     */
+    public static Connection getConnection(String label) throws SQLException {
         // If a test connection is set, return it instead of a real connection
         if (testConnection != null) {
             return testConnection;
         }
-        return dataSource.getConnection();
+        long start = System.nanoTime();
+        try {
+            return pool.getConnection(label);
+        } catch (SQLException e) {
+            Metrics.recordDbCall(label, "reader", System.nanoTime() - start, true);
+            throw e;
+        }
+    }
+    
+    /**
+     * Borrows the single writer connection. Prefer {@link #getWriteConnection(String)}.
+     */
+    public static Connection getWriteConnection() throws SQLException {
+        return getWriteConnection(callerName());
+    }
+    
+    /**
+     * Borrows the single writer connection. Use this for INSERT/UPDATE/DELETE so
+     * writers queue up in the pool instead of fighting over the SQLite write lock.
+     * @param label Caller for the database timings, e.g. "ShipDAO.addShip"
+     */
+    public static Connection getWriteConnection(String label) throws SQLException {
+        if (testConnection != null) {
+            return testConnection;
+        }
+        long start = System.nanoTime();
+        try {
+            return pool.getWriteConnection(label);
+        } catch (SQLException e) {
+            Metrics.recordDbCall(label, "writer", System.nanoTime() - start, true);
+            throw e;
+        }
+    }
+    
+    /**
+     * Runs a mutation through the group-commit write queue. Prefer {@link #write(String, WriteQueue.WriteOperation)}.
+     */
+    public static <T> T write(WriteQueue.WriteOperation<T> operation) throws SQLException {
+        return write(callerName(), operation);
+    }
+    
+    /**
+     * Runs a mutation through the group-commit write queue and waits for it to be
+     * committed. Concurrent callers share one transaction, but each gets its own
+     * result back. The operation must not commit or roll back itself.
+     * @param label Caller for the database timings, e.g. "DatabaseConnection.addTask"
+     */
+    public static <T> T write(String label, WriteQueue.WriteOperation<T> operation) throws SQLException {
+        if (testConnection != null) {
+            T result = operation.execute(testConnection);
+            if (!testConnection.getAutoCommit()) {
+                testConnection.commit();
+            }
+            return result;
+        }
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            T result = writeQueue.execute(operation);
+            failed = false;
+            return result;
+        } finally {
+            Metrics.recordDbCall(label, "queue", System.nanoTime() - start, failed);
+        }
+    }
+    
+    // Label for callers that pass none. Walking the stack on every borrow is too
+    // costly for the hot path, so it only happens with -Ddb.metrics.callerNames=true
+    // (e.g. to find unlabelled call sites); otherwise they share "unlabelled".
+    private static String callerName() {
+        if (!CALLER_NAMES) {
+            return "unlabelled";
+        }
+        return STACK_WALKER.walk(frames -> frames
+            .filter(frame -> !(frame.getClassName().equals(DatabaseConnection.class.getName())
+                               && PLUMBING_METHODS.contains(frame.getMethodName())))
+            .findFirst()
+            .map(frame -> simpleClassName(frame.getClassName()) + "." + enclosingMethodName(frame.getMethodName()))
+            .orElse("unknown"));
+    }
+    
+    private static String simpleClassName(String className) {
+        return className.substring(className.lastIndexOf('.') + 1);
+    }
+    
+    // lambda$addBooking$0 -> addBooking
+    private static String enclosingMethodName(String methodName) {
+        if (methodName.startsWith("lambda$")) {
+            int end = methodName.indexOf('$', 7);
+            return end > 7 ? methodName.substring(7, end) : methodName;
+        }
+        return methodName;
+    }
+    
+    /**
+     * Get connection pool metrics (wait times, utilization, timeouts)
+     * @return Pool statistics as a map
+     */
+    public static Map<String, Object> getPoolStats() {
+        Map<String, Object> stats = pool.getStats();
+        stats.put("writeQueue", writeQueue.getStats());
+        CargoWriteBehind cargoWriteBehind = Cargo.getWriteBehind();
+        if (cargoWriteBehind != null) {
+            stats.put("cargoWriteBehind", cargoWriteBehind.getStats());
+        }
+        return stats;
+    }
+    
+    /**
+     * Get ship cache metrics (hit ratio, evictions, size)
+     * @return Cache statistics as a map
+     */
+    public static Map<String, Object> getCacheStats() {
+        return ShipCache.getStats();
+    }
+    
+    /**
+     * Flush buffered and queued writes and close all pooled connections. Called from the JVM shutdown hook.
+     */
+    public static void shutdown() {
+        Cargo.disableWriteBehind();
+        writeQueue.close();
+        pool.close();
     }
     
     // Method to set a test connection for unit tests
@@ -62,143 +265,14 @@ public class DatabaseConnection {
     }
     
     private static void initializeDatabase() {
-        try (Connection conn = getConnection();
+        try (Connection conn = getWriteConnection("DatabaseConnection.initializeDatabase");
              Statement stmt = conn.createStatement()) {
             
             // Enable foreign keys
             stmt.execute("PRAGMA foreign_keys = ON");
             
-            // Create users table
-            stmt.execute("CREATE TABLE IF NOT EXISTS users (" +
-                "id INTEGER PRIMARY KEY AUTOINCREMENT, " +
-                "username TEXT UNIQUE NOT NULL, " +
-                "password TEXT NOT NULL, " +
-                "role TEXT NOT NULL DEFAULT 'user', " +
-                "created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP)");
-
-            // Create ships table
-            stmt.execute("CREATE TABLE IF NOT EXISTS ships (" +
-                "id INTEGER PRIMARY KEY AUTOINCREMENT, " +
-                "name TEXT NOT NULL, " +
-                "type TEXT, " +
-                "capacity INTEGER, " +
-                "status TEXT, " +
-                "created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP)");
-                
-            // Create crew_members table
-            stmt.execute("CREATE TABLE IF NOT EXISTS crew_members (" +
-                "id INTEGER PRIMARY KEY AUTOINCREMENT, " +
-                "first_name TEXT NOT NULL, " +
-                "last_name TEXT NOT NULL, " +
-                "position TEXT, " +
-                "rank TEXT, " +
-                "nationality TEXT, " +
-                "date_of_birth TEXT, " +
-                "license_number TEXT UNIQUE, " +
-                "ship_id INTEGER, " +
-                "created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP, " +
-                "FOREIGN KEY (ship_id) REFERENCES ships(id) ON DELETE SET NULL)");
-                
-            // Create reports table
-            stmt.execute("CREATE TABLE IF NOT EXISTS reports (" +
-                "id INTEGER PRIMARY KEY AUTOINCREMENT, " +
-                "title TEXT NOT NULL, " +
-                "report_type TEXT NOT NULL, " +
-                "content TEXT NOT NULL, " +
-                "generated_by INTEGER, " +
-                "ship_id INTEGER, " +
-                "created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP, " +
-                "FOREIGN KEY (generated_by) REFERENCES users(id) ON DELETE SET NULL, " +
-                "FOREIGN KEY (ship_id) REFERENCES ships(id) ON DELETE SET NULL)");
-            
-            // Create docks table
-            stmt.execute("CREATE TABLE IF NOT EXISTS docks (" +
-                "id INTEGER PRIMARY KEY AUTOINCREMENT, " +
-                "name TEXT NOT NULL, " +
-                "location TEXT NOT NULL, " +
-                "capacity INTEGER, " +
-                "status TEXT DEFAULT 'available', " + // available, occupied, maintenance
-                "ship_id INTEGER, " +
-                "created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP, " +
-                "FOREIGN KEY (ship_id) REFERENCES ships(id) ON DELETE SET NULL)");
-                
-            // Create cargo table
-            stmt.execute("CREATE TABLE IF NOT EXISTS cargo (" +
-                "cargo_id TEXT PRIMARY KEY, " +
-                "owner_name TEXT, " +
-                "capacity REAL, " +
-                "used_capacity REAL DEFAULT 0)");
-                
-            // Create ship_locations table
-            stmt.execute("CREATE TABLE IF NOT EXISTS ship_locations (" +
-                "id INTEGER PRIMARY KEY AUTOINCREMENT, " +
-                "ship_id INTEGER NOT NULL, " +
-                "latitude REAL, " +
-                "longitude REAL, " +
-                "current_port TEXT, " +
-                "status TEXT, " + // at sea, docked, in transit
-                "last_updated TIMESTAMP DEFAULT CURRENT_TIMESTAMP, " +
-                "FOREIGN KEY (ship_id) REFERENCES ships(id) ON DELETE CASCADE)");
-                
-            // Create tasks table
-            stmt.execute("CREATE TABLE IF NOT EXISTS tasks (" +
-                "id INTEGER PRIMARY KEY AUTOINCREMENT, " +
-                "title TEXT NOT NULL, " +
-                "description TEXT, " +
-                "assigned_by INTEGER, " + // admin user id
-                "assigned_to INTEGER, " + // staff user id
-                "ship_id INTEGER, " +
-                "priority TEXT DEFAULT 'medium', " + // low, medium, high, urgent
-                "status TEXT DEFAULT 'pending', " + // pending, accepted, in_progress, completed, rejected
-                "due_date TEXT, " +
-                "created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP, " +
-                "updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP, " +
-                "FOREIGN KEY (assigned_by) REFERENCES users(id) ON DELETE SET NULL, " +
-                "FOREIGN KEY (assigned_to) REFERENCES users(id) ON DELETE SET NULL, " +
-                "FOREIGN KEY (ship_id) REFERENCES ships(id) ON DELETE SET NULL)");
-                
-            // Create problem_reports table
-            stmt.execute("CREATE TABLE IF NOT EXISTS problem_reports (" +
-                "id INTEGER PRIMARY KEY AUTOINCREMENT, " +
-                "title TEXT NOT NULL, " +
-                "description TEXT NOT NULL, " +
-                "reported_by INTEGER NOT NULL, " + // staff user id
-                "ship_id INTEGER, " +
-                "severity TEXT DEFAULT 'medium', " + // low, medium, high, critical
-                "status TEXT DEFAULT 'open', " + // open, in_progress, resolved, closed
-                "resolution_notes TEXT, " +
-                "created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP, " +
-                "resolved_at TIMESTAMP, " +
-                "FOREIGN KEY (reported_by) REFERENCES users(id) ON DELETE SET NULL, " +
-                "FOREIGN KEY (ship_id) REFERENCES ships(id) ON DELETE SET NULL)");
-            
-            // Create staff table
-            stmt.execute("CREATE TABLE IF NOT EXISTS staff (" +
-                "id INTEGER PRIMARY KEY AUTOINCREMENT, " +
-                "first_name TEXT NOT NULL, " +
-                "last_name TEXT NOT NULL, " +
-                "username TEXT UNIQUE NOT NULL, " +
-                "password TEXT NOT NULL, " +
-                "role TEXT NOT NULL, " +
-                "status TEXT NOT NULL DEFAULT 'active', " +
-                "ship_id INTEGER, " +
-                "email TEXT, " +
-                "phone TEXT, " +
-                "created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP, " +
-                "FOREIGN KEY (ship_id) REFERENCES ships(id) ON DELETE SET NULL)");
-            
-            // Create bookings table
-            stmt.execute("CREATE TABLE IF NOT EXISTS bookings (" +
-                "id INTEGER PRIMARY KEY AUTOINCREMENT, " +
-                "ship_id INTEGER NOT NULL, " +
-                "user_id INTEGER NOT NULL, " +
-                "start_date TEXT NOT NULL, " +
-                "end_date TEXT NOT NULL, " +
-                "purpose TEXT, " +
-                "status TEXT NOT NULL DEFAULT 'pending', " +
-                "created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP, " +
-                "FOREIGN KEY (ship_id) REFERENCES ships(id) ON DELETE CASCADE, " +
-                "FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE)");
+            // Create or upgrade the schema; a no-op once it is current
+            new SchemaMigrator(Migrations.all()).migrate(conn);
             
             // Insert admin user if not exists
             try (PreparedStatement checkStmt = conn.prepareStatement("SELECT COUNT(*) FROM users WHERE role = 'admin'");
@@ -430,7 +504,7 @@ public class DatabaseConnection {
     
     public static boolean userExists(String username) {
         String sql = "SELECT COUNT(*) FROM users WHERE username = ?";
-        try (Connection conn = getConnection();
+        try (Connection conn = getConnection("DatabaseConnection.userExists");
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setString(1, username);
             ResultSet rs = pstmt.executeQuery();
@@ -443,7 +517,7 @@ public class DatabaseConnection {
     
     public static User getUserByUsername(String username) {
         String sql = "SELECT * FROM users WHERE username = ?";
-        try (Connection conn = getConnection();
+        try (Connection conn = getConnection("DatabaseConnection.getUserByUsername");
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setString(1, username);
             ResultSet rs = pstmt.executeQuery();
@@ -462,21 +536,45 @@ public class DatabaseConnection {
         return null;
     }
     
+    /**
+     * Loads a user without the password hash
+     * @param id The user ID
+     * @return The user, or null if there is none with this ID
+     */
+    public static User getUserById(int id) throws SQLException {
+        String sql = "SELECT id, username, role FROM users WHERE id = ?";
+        try (Connection conn = getConnection("DatabaseConnection.getUserById");
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setInt(1, id);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (!rs.next()) {
+                    return null;
+                }
+                User user = new User();
+                user.setId(rs.getInt("id"));
+                user.setUsername(rs.getString("username"));
+                user.setRole(rs.getString("role"));
+                return user;
+            }
+        }
+    }
+    
     /**
      * Creates a new user in the database
      * @param username The username
      * @param password The password (will be hashed)
      * @param role The user role (user, staff, admin)
      * @return true if user was created successfully, false otherwise
+     * @throws PasswordHasher.SaturatedException if password hashing is at capacity
      */
     public static boolean createUser(String username, String password, String role) {
         if (usernameExists(username)) {
             return false;
         }
-        String hashedPassword = BCrypt.hashpw(password, BCrypt.gensalt());
+        String hashedPassword = PasswordHasher.getDefault().hash(password);
         String sql = "INSERT INTO users (username, password, role) VALUES (?, ?, ?)";
         
-        try (Connection conn = getConnection();
+        try (Connection conn = getWriteConnection("DatabaseConnection.createUser");
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setString(1, username);
             pstmt.setString(2, hashedPassword);
@@ -494,7 +592,7 @@ public class DatabaseConnection {
      * @return true if the username exists, false otherwise
      */
     public static boolean usernameExists(String username) {
-        try (Connection conn = getConnection();
+        try (Connection conn = getConnection("DatabaseConnection.usernameExists");
              PreparedStatement stmt = conn.prepareStatement(
                  "SELECT COUNT(*) FROM users WHERE username = ?"
              )) {
@@ -518,20 +616,11 @@ public class DatabaseConnection {
         List<Map<String, Object>> crew = new ArrayList<>();
         String sql = "SELECT * FROM crew_members";
         
-        try (Connection conn = getConnection();
+        try (Connection conn = getConnection("DatabaseConnection.getAllCrewMembers");
              Statement stmt = conn.createStatement();
              ResultSet rs = stmt.executeQuery(sql)) {
             
-            ResultSetMetaData metaData = rs.getMetaData();
-            int columnCount = metaData.getColumnCount();
-            
-            while (rs.next()) {
-                Map<String, Object> row = new HashMap<>();
-                for (int i = 1; i <= columnCount; i++) {
-                    row.put(metaData.getColumnName(i), rs.getObject(i));
-                }
-                crew.add(row);
-            }
+            crew = RowMappers.toList(rs, RowMappers::map);
         } catch (SQLException e) {
             e.printStackTrace();
         }
@@ -545,7 +634,7 @@ public class DatabaseConnection {
                     "nationality, date_of_birth, license_number, ship_id) " +
                     "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
         
-        try (Connection conn = getConnection();
+        try (Connection conn = getWriteConnection("DatabaseConnection.addCrewMember");
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setString(1, firstName);
@@ -562,7 +651,12 @@ public class DatabaseConnection {
                 pstmt.setNull(8, java.sql.Types.INTEGER);
             }
             
-            return pstmt.executeUpdate() > 0;
+            boolean added = pstmt.executeUpdate() > 0;
+            if (shipId != null) {
+                // Cached ship details include the crew list
+                ShipCache.invalidate(shipId);
+            }
+            return added;
         } catch (SQLException e) {
             e.printStackTrace();
             return false;
@@ -571,41 +665,33 @@ public class DatabaseConnection {
     
     public static List<Map<String, Object>> getAllReports() {
         List<Map<String, Object>> reports = new ArrayList<>();
-        String sql = "SELECT r.*, u.username as generated_by_username, s.name as ship_name " +
-                   "FROM reports r " +
-                   "LEFT JOIN users u ON r.generated_by = u.id " +
-                   "LEFT JOIN ships s ON r.ship_id = s.id " +
-                   "ORDER BY r.created_at DESC";
         
-        try (Connection conn = getConnection();
+        try (Connection conn = getConnection("DatabaseConnection.getAllReports");
              Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
+             ResultSet rs = stmt.executeQuery(ALL_REPORTS_SQL)) {
             
-            while (rs.next()) {
-                Map<String, Object> report = new HashMap<>();
-                report.put("id", rs.getInt("id"));
-                report.put("title", rs.getString("title"));
-                report.put("report_type", rs.getString("report_type"));
-                report.put("content", rs.getString("content"));
-                report.put("generated_by", rs.getInt("generated_by"));
-                report.put("generated_by_username", rs.getString("generated_by_username"));
-                report.put("ship_id", rs.getInt("ship_id"));
-                report.put("ship_name", rs.getString("ship_name"));
-                report.put("created_at", rs.getString("created_at"));
-                reports.add(report);
-            }
+            reports = RowMappers.toList(rs, RowMappers::report);
         } catch (SQLException e) {
             e.printStackTrace();
         }
         return reports;
     }
     
+    /**
+     * Stream all reports to a sink row by row, after the reader connection is released
+     * @param sink Receives each report
+     * @return The number of reports streamed
+     */
+    public static int streamAllReports(RowMappers.RowSink<Map<String, Object>> sink) throws SQLException, IOException {
+        return stream("DatabaseConnection.streamAllReports", ALL_REPORTS_SQL, RowMappers::report, sink);
+    }
+    
     public static boolean addReport(String title, String reportType, String content, 
                                  Integer generatedBy, Integer shipId) {
         String sql = "INSERT INTO reports (title, report_type, content, generated_by, ship_id) " +
                     "VALUES (?, ?, ?, ?, ?)";
         
-        try (Connection conn = getConnection();
+        try (Connection conn = getWriteConnection("DatabaseConnection.addReport");
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setString(1, title);
@@ -636,23 +722,14 @@ public class DatabaseConnection {
         int offset = (page - 1) * pageSize;
         String sql = "SELECT * FROM ships ORDER BY name LIMIT ? OFFSET ?";
         
-        try (Connection conn = getConnection();
+        try (Connection conn = getConnection("DatabaseConnection.getAllShips");
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setInt(1, pageSize);
             pstmt.setInt(2, offset);
             
             ResultSet rs = pstmt.executeQuery();
-            ResultSetMetaData metaData = rs.getMetaData();
-            int columnCount = metaData.getColumnCount();
-            
-            while (rs.next()) {
-                Map<String, Object> row = new HashMap<>();
-                for (int i = 1; i <= columnCount; i++) {
-                    row.put(metaData.getColumnName(i), rs.getObject(i));
-                }
-                ships.add(row);
-            }
+            ships = RowMappers.toList(rs, RowMappers::map);
         } catch (SQLException e) {
             e.printStackTrace();
         }
@@ -667,7 +744,7 @@ public class DatabaseConnection {
         List<Map<String, Object>> ships = new ArrayList<>();
         String sql = "SELECT * FROM ships";
         
-        try (Connection conn = getConnection();
+        try (Connection conn = getConnection("DatabaseConnection.getAllShips");
              Statement stmt = conn.createStatement();
              ResultSet rs = stmt.executeQuery(sql)) {
             
@@ -689,14 +766,28 @@ public class DatabaseConnection {
     }
     
     /**
-     * Get ship details by ID
+     * Get ship details by ID, served from the ship cache when possible
      * @param shipId The ship ID
      * @return Ship details as a map
      */
     public static Map<String, Object> getShipById(int shipId) {
+        try {
+            // A test connection may point at a different database than the cache saw
+            if (testConnection != null) {
+                return loadShipById(shipId);
+            }
+            return ShipCache.getShipDetails(shipId, DatabaseConnection::loadShipById);
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        
+        return null;
+    }
+    
+    private static Map<String, Object> loadShipById(int shipId) throws SQLException {
         String sql = "SELECT * FROM ships WHERE id = ?";
         
-        try (Connection conn = getConnection();
+        try (Connection conn = getConnection("DatabaseConnection.loadShipById");
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setInt(1, shipId);
@@ -732,8 +823,6 @@ public class DatabaseConnection {
                 ship.put("crew", crew);
                 return ship;
             }
-        } catch (SQLException e) {
-            e.printStackTrace();
         }
         
         return null;
@@ -742,45 +831,19 @@ public class DatabaseConnection {
     /**
      * Get tasks assigned to a specific user
      * @param userId The user ID
-     * @return List of tasks as maps
+     * @return List of tasks
      */
-    public static List<Map<String, Object>> getUserTasks(int userId) {
-        List<Map<String, Object>> tasks = new ArrayList<>();
-        String sql = "SELECT t.*, " +
-                    "s1.first_name || ' ' || s1.last_name as assigned_to_name, " +
-                    "s2.first_name || ' ' || s2.last_name as assigned_by_name, " +
-                    "sh.name as ship_name " +
-                    "FROM tasks t " +
-                    "LEFT JOIN staff s1 ON t.assigned_to = s1.id " +
-                    "LEFT JOIN staff s2 ON t.assigned_by = s2.id " +
-                    "LEFT JOIN ships sh ON t.ship_id = sh.id " +
-                    "WHERE t.assigned_to = ? OR t.assigned_by = ? " +
-                    "ORDER BY t.created_at DESC";
+    public static List<Task> getUserTasks(int userId) {
+        List<Task> tasks = new ArrayList<>();
         
-        try (Connection conn = getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+        try (Connection conn = getConnection("DatabaseConnection.getUserTasks");
+             PreparedStatement pstmt = conn.prepareStatement(USER_TASKS_SQL)) {
             
             pstmt.setInt(1, userId);
             pstmt.setInt(2, userId);
             ResultSet rs = pstmt.executeQuery();
             
-            while (rs.next()) {
-                Map<String, Object> task = new HashMap<>();
-                task.put("id", rs.getInt("id"));
-                task.put("title", rs.getString("title"));
-                task.put("description", rs.getString("description"));
-                task.put("status", rs.getString("status"));
-                task.put("assigned_to", rs.getObject("assigned_to"));
-                task.put("assigned_to_name", rs.getString("assigned_to_name"));
-                task.put("assigned_by", rs.getInt("assigned_by"));
-                task.put("assigned_by_name", rs.getString("assigned_by_name"));
-                task.put("ship_id", rs.getObject("ship_id"));
-                task.put("ship_name", rs.getString("ship_name"));
-                task.put("due_date", rs.getString("due_date"));
-                task.put("created_at", rs.getString("created_at"));
-                task.put("updated_at", rs.getString("updated_at"));
-                tasks.add(task);
-            }
+            tasks = RowMappers.toList(rs, RowMappers::task);
         } catch (SQLException e) {
             e.printStackTrace();
         }
@@ -788,6 +851,16 @@ public class DatabaseConnection {
         return tasks;
     }
     
+    /**
+     * Stream tasks assigned to or by a user to a sink row by row
+     * @param userId The user ID
+     * @param sink Receives each task once the reader connection is released
+     * @return The number of tasks streamed
+     */
+    public static int streamUserTasks(int userId, RowMappers.RowSink<Task> sink) throws SQLException, IOException {
+        return stream("DatabaseConnection.streamUserTasks", USER_TASKS_SQL, RowMappers::task, sink, userId, userId);
+    }
+    
     /**
      * Get all users (for admin)
      * @return List of users as maps
@@ -796,7 +869,7 @@ public class DatabaseConnection {
         List<Map<String, Object>> users = new ArrayList<>();
         String sql = "SELECT id, username, role, created_at FROM users";
         
-        try (Connection conn = getConnection();
+        try (Connection conn = getConnection("DatabaseConnection.getAllUsers");
              Statement stmt = conn.createStatement();
              ResultSet rs = stmt.executeQuery(sql)) {
             
@@ -820,12 +893,13 @@ public class DatabaseConnection {
      * @param username The username of the user
      * @param newPassword The new password (will be hashed before storing)
      * @return true if password was updated successfully, false otherwise
+     * @throws PasswordHasher.SaturatedException if password hashing is at capacity
      */
     public static boolean updateUserPassword(String username, String newPassword) {
-        String hashedPassword = BCrypt.hashpw(newPassword, BCrypt.gensalt());
+        String hashedPassword = PasswordHasher.getDefault().hash(newPassword);
         String sql = "UPDATE users SET password = ? WHERE username = ?";
         
-        try (Connection conn = getConnection();
+        try (Connection conn = getWriteConnection("DatabaseConnection.updateUserPassword");
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setString(1, hashedPassword);
             pstmt.setString(2, username);
@@ -841,11 +915,12 @@ public class DatabaseConnection {
      * @param username The username of the user
      * @param password The password to verify
      * @return true if password matches, false otherwise
+     * @throws PasswordHasher.SaturatedException if password hashing is at capacity
      */
     public static boolean verifyUserPassword(String username, String password) {
         User user = getUserByUsername(username);
         if (user != null) {
-            return BCrypt.checkpw(password, user.getPassword());
+            return PasswordHasher.getDefault().verify(password, user.getPassword());
         }
         return false;
     }
@@ -854,7 +929,7 @@ public class DatabaseConnection {
      * Add demo data to the database for testing purposes
      */
     public static void addDemoData() {
-        try (Connection conn = getConnection()) {
+        try (Connection conn = getWriteConnection("DatabaseConnection.addDemoData")) {
             // Check if we already have demo data
             try (Statement stmt = conn.createStatement();
                  ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM ships")) {
@@ -909,6 +984,10 @@ public class DatabaseConnection {
                     pstmt.executeUpdate();
                 }
             }
+            ShipDAO.invalidateShipCount();
+            ShipCache.invalidateAll();
+            BookingIndex.invalidate();
+            ShipPositions.invalidate();
             
             // Add demo crew members
             String[][] crewNames = {
@@ -1088,7 +1167,7 @@ public class DatabaseConnection {
     public static List<Map<String, Object>> getAllDocks() throws SQLException {
         String sql = "SELECT * FROM docks ORDER BY name";
         
-        try (Connection conn = getConnection();
+        try (Connection conn = getConnection("DatabaseConnection.getAllDocks");
              PreparedStatement pstmt = conn.prepareStatement(sql);
              ResultSet rs = pstmt.executeQuery()) {
             
@@ -1104,7 +1183,7 @@ public class DatabaseConnection {
     public static Map<String, Object> getDockById(int dockId) throws SQLException {
         String sql = "SELECT * FROM docks WHERE id = ?";
         
-        try (Connection conn = getConnection();
+        try (Connection conn = getConnection("DatabaseConnection.getDockById");
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setInt(1, dockId);
@@ -1130,7 +1209,7 @@ public class DatabaseConnection {
     public static int addDock(String name, String location, int capacity, String status) throws SQLException {
         String sql = "INSERT INTO docks (name, location, capacity, status) VALUES (?, ?, ?, ?)";
         
-        try (Connection conn = getConnection();
+        try (Connection conn = getWriteConnection("DatabaseConnection.addDock");
              PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
             
             pstmt.setString(1, name);
@@ -1166,7 +1245,7 @@ public class DatabaseConnection {
     public static boolean updateDock(int id, String name, String location, int capacity, String status) throws SQLException {
         String sql = "UPDATE docks SET name = ?, location = ?, capacity = ?, status = ? WHERE id = ?";
         
-        try (Connection conn = getConnection();
+        try (Connection conn = getWriteConnection("DatabaseConnection.updateDock");
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setString(1, name);
@@ -1188,7 +1267,7 @@ public class DatabaseConnection {
     public static boolean deleteDock(int id) throws SQLException {
         String sql = "DELETE FROM docks WHERE id = ?";
         
-        try (Connection conn = getConnection();
+        try (Connection conn = getWriteConnection("DatabaseConnection.deleteDock");
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setInt(1, id);
@@ -1202,32 +1281,19 @@ public class DatabaseConnection {
      * Get all bookings from the database
      * @return List of booking objects
      */
-    public static List<Map<String, Object>> getAllBookings() {
-        List<Map<String, Object>> bookings = new ArrayList<>();
+    public static List<Booking> getAllBookings() {
+        List<Booking> bookings = new ArrayList<>();
         String sql = "SELECT b.*, s.name as ship_name, u.username as user_username " +
                    "FROM bookings b " +
                    "JOIN ships s ON b.ship_id = s.id " +
                    "JOIN users u ON b.user_id = u.id " +
                    "ORDER BY b.id";
         
-        try (Connection conn = getConnection();
+        try (Connection conn = getConnection("DatabaseConnection.getAllBookings");
              Statement stmt = conn.createStatement();
              ResultSet rs = stmt.executeQuery(sql)) {
             
-            while (rs.next()) {
-                Map<String, Object> booking = new HashMap<>();
-                booking.put("id", rs.getInt("id"));
-                booking.put("ship_id", rs.getInt("ship_id"));
-                booking.put("ship_name", rs.getString("ship_name"));
-                booking.put("user_id", rs.getInt("user_id"));
-                booking.put("user_username", rs.getString("user_username"));
-                booking.put("start_date", rs.getString("start_date"));
-                booking.put("end_date", rs.getString("end_date"));
-                booking.put("purpose", rs.getString("purpose"));
-                booking.put("status", rs.getString("status"));
-                booking.put("created_at", rs.getString("created_at"));
-                bookings.add(booking);
-            }
+            bookings = RowMappers.toList(rs, RowMappers::booking);
         } catch (SQLException e) {
             e.printStackTrace();
         }
@@ -1248,7 +1314,7 @@ public class DatabaseConnection {
                    "JOIN users u ON b.user_id = u.id " +
                    "WHERE b.id = ?";
         
-        try (Connection conn = getConnection();
+        try (Connection conn = getConnection("DatabaseConnection.getBookingById");
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setInt(1, bookingId);
@@ -1278,33 +1344,16 @@ public class DatabaseConnection {
      * @param userId The ID of the user
      * @return List of booking objects
      */
-    public static List<Map<String, Object>> getUserBookings(int userId) {
-        List<Map<String, Object>> bookings = new ArrayList<>();
-        String sql = "SELECT b.*, s.name as ship_name, s.type as ship_type " +
-                   "FROM bookings b " +
-                   "JOIN ships s ON b.ship_id = s.id " +
-                   "WHERE b.user_id = ? " +
-                   "ORDER BY b.created_at DESC";
+    public static List<Booking> getUserBookings(int userId) {
+        List<Booking> bookings = new ArrayList<>();
         
-        try (Connection conn = getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+        try (Connection conn = getConnection("DatabaseConnection.getUserBookings");
+             PreparedStatement pstmt = conn.prepareStatement(USER_BOOKINGS_SQL)) {
             
             pstmt.setInt(1, userId);
             ResultSet rs = pstmt.executeQuery();
             
-            while (rs.next()) {
-                Map<String, Object> booking = new HashMap<>();
-                booking.put("id", rs.getInt("id"));
-                booking.put("ship_id", rs.getInt("ship_id"));
-                booking.put("ship_name", rs.getString("ship_name"));
-                booking.put("ship_type", rs.getString("ship_type"));
-                booking.put("start_date", rs.getString("start_date"));
-                booking.put("end_date", rs.getString("end_date"));
-                booking.put("purpose", rs.getString("purpose"));
-                booking.put("status", rs.getString("status"));
-                booking.put("created_at", rs.getString("created_at"));
-                bookings.add(booking);
-            }
+            bookings = RowMappers.toList(rs, RowMappers::booking);
         } catch (SQLException e) {
             e.printStackTrace();
         }
@@ -1312,6 +1361,38 @@ public class DatabaseConnection {
         return bookings;
     }
     
+    /**
+     * Stream a user's bookings to a sink row by row
+     * @param userId The user ID
+     * @param sink Receives each booking once the reader connection is released
+     * @return The number of bookings streamed
+     */
+    public static int streamUserBookings(int userId, RowMappers.RowSink<Booking> sink) throws SQLException, IOException {
+        return stream("DatabaseConnection.streamUserBookings", USER_BOOKINGS_SQL, RowMappers::booking, sink, userId);
+    }
+    
+    // Runs a read query, maps the rows and only then hands them to the sink. The
+    // sink usually writes to a client, and a slow client must not keep one of the
+    // few reader connections checked out, so the connection goes back to the pool
+    // before the first row is handed over.
+    private static <T> int stream(String label, String sql, RowMapper.Compiler<T> compiler,
+                                  RowMappers.RowSink<T> sink, int... params) throws SQLException, IOException {
+        List<T> rows;
+        try (Connection conn = getConnection(label);
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            for (int i = 0; i < params.length; i++) {
+                pstmt.setInt(i + 1, params[i]);
+            }
+            try (ResultSet rs = pstmt.executeQuery()) {
+                rows = RowMappers.toList(rs, compiler);
+            }
+        }
+        for (T row : rows) {
+            sink.accept(row);
+        }
+        return rows.size();
+    }
+    
     /**
      * Add a new booking to the database
      * @param shipId The ID of the ship
@@ -1320,35 +1401,32 @@ public class DatabaseConnection {
      * @param endDate The end date of the booking
      * @param purpose The purpose of the booking
      * @return The ID of the newly created booking
+     * @throws BookingCalendar.ConflictException if the ship is already booked on any of these days
+     * @throws IllegalArgumentException if the dates are invalid or end before they start
      */
     public static int addBooking(int shipId, int userId, String startDate, String endDate, String purpose) {
         String sql = "INSERT INTO bookings (ship_id, user_id, start_date, end_date, purpose, status) VALUES (?, ?, ?, ?, ?, ?)";
-        int id = -1;
+        LocalDate start = BookingCalendar.parseDate(startDate);
+        LocalDate end = BookingCalendar.parseDate(endDate);
         
-        try (Connection conn = getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
-            
-            pstmt.setInt(1, shipId);
-            pstmt.setInt(2, userId);
-            pstmt.setString(3, startDate);
-            pstmt.setString(4, endDate);
-            pstmt.setString(5, purpose);
-            pstmt.setString(6, "Pending"); // Default status for new bookings
-            
-            int affectedRows = pstmt.executeUpdate();
-            
-            if (affectedRows > 0) {
-                try (ResultSet rs = pstmt.getGeneratedKeys()) {
-                    if (rs.next()) {
-                        id = rs.getInt(1);
-                    }
+        try {
+            // Checked, inserted and indexed under the ship's lock
+            return BookingIndex.calendar().reserve(shipId, start, end, () -> write("DatabaseConnection.addBooking", conn -> {
+                try (PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+                    pstmt.setInt(1, shipId);
+                    pstmt.setInt(2, userId);
+                    pstmt.setString(3, startDate);
+                    pstmt.setString(4, endDate);
+                    pstmt.setString(5, purpose);
+                    pstmt.setString(6, "Pending"); // Default status for new bookings
+                    
+                    return pstmt.executeUpdate() > 0 ? generatedKey(pstmt) : -1;
                 }
-            }
+            }));
         } catch (SQLException e) {
             e.printStackTrace();
+            return -1;
         }
-        
-        return id;
     }
     
     /**
@@ -1356,17 +1434,27 @@ public class DatabaseConnection {
      * @param bookingId The ID of the booking
      * @param status The new status of the booking
      * @return True if the update was successful, false otherwise
+     * @throws BookingCalendar.ConflictException if the new status would make the booking overlap another
      */
     public static boolean updateBookingStatus(int bookingId, String status) {
         String sql = "UPDATE bookings SET status = ? WHERE id = ?";
         
-        try (Connection conn = getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            
-            pstmt.setString(1, status);
-            pstmt.setInt(2, bookingId);
+        try {
+            Map<String, Object> booking = getBookingById(bookingId);
+            if (booking.isEmpty()) {
+                return false;
+            }
             
-            int affectedRows = pstmt.executeUpdate();
+            int affectedRows = BookingIndex.calendar().changeStatus(bookingId, (Integer) booking.get("ship_id"),
+                BookingCalendar.parseDate((String) booking.get("start_date")),
+                BookingCalendar.parseDate((String) booking.get("end_date")),
+                status, () -> write("DatabaseConnection.updateBookingStatus", conn -> {
+                    try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                        pstmt.setString(1, status);
+                        pstmt.setInt(2, bookingId);
+                        return pstmt.executeUpdate();
+                    }
+                }));
             return affectedRows > 0;
         } catch (SQLException e) {
             e.printStackTrace();
@@ -1382,12 +1470,13 @@ public class DatabaseConnection {
     public static boolean deleteBooking(int bookingId) {
         String sql = "DELETE FROM bookings WHERE id = ?";
         
-        try (Connection conn = getConnection();
+        try (Connection conn = getWriteConnection("DatabaseConnection.deleteBooking");
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setInt(1, bookingId);
             
             int affectedRows = pstmt.executeUpdate();
+            BookingIndex.removeBooking(bookingId);
             return affectedRows > 0;
         } catch (SQLException e) {
             e.printStackTrace();
@@ -1395,40 +1484,26 @@ public class DatabaseConnection {
         }
     }
 
-    private static List<Map<String, Object>> resultSetToList(ResultSet rs) throws SQLException {
-        List<Map<String, Object>> list = new ArrayList<>();
-        ResultSetMetaData metaData = rs.getMetaData();
-        int columnCount = metaData.getColumnCount();
-        
-        while (rs.next()) {
-            Map<String, Object> row = new HashMap<>();
-            for (int i = 1; i <= columnCount; i++) {
-                row.put(metaData.getColumnName(i), rs.getObject(i));
-            }
-            list.add(row);
+    private static int generatedKey(PreparedStatement pstmt) throws SQLException {
+        try (ResultSet rs = pstmt.getGeneratedKeys()) {
+            return rs.next() ? rs.getInt(1) : -1;
         }
-        
-        return list;
+    }
+
+    private static List<Map<String, Object>> resultSetToList(ResultSet rs) throws SQLException {
+        return RowMappers.toList(rs, RowMappers::map);
     }
 
     private static Map<String, Object> resultSetToMap(ResultSet rs) throws SQLException {
-        Map<String, Object> map = new HashMap<>();
-        ResultSetMetaData metaData = rs.getMetaData();
-        int columnCount = metaData.getColumnCount();
-        
-        for (int i = 1; i <= columnCount; i++) {
-            map.put(metaData.getColumnName(i), rs.getObject(i));
-        }
-        
-        return map;
+        return RowMappers.map(ColumnIndex.of(rs)).mapRow(rs);
     }
 
     /**
      * Get all tasks from the database
      * @return List of task objects
      */
-    public static List<Map<String, Object>> getAllTasks() {
-        List<Map<String, Object>> tasks = new ArrayList<>();
+    public static List<Task> getAllTasks() {
+        List<Task> tasks = new ArrayList<>();
         String sql = "SELECT t.*, " +
                     "s1.first_name || ' ' || s1.last_name as assigned_to_name, " +
                     "s2.first_name || ' ' || s2.last_name as assigned_by_name, " +
@@ -1439,27 +1514,11 @@ public class DatabaseConnection {
                     "LEFT JOIN ships sh ON t.ship_id = sh.id " +
                     "ORDER BY t.created_at DESC";
         
-        try (Connection conn = getConnection();
+        try (Connection conn = getConnection("DatabaseConnection.getAllTasks");
              Statement stmt = conn.createStatement();
              ResultSet rs = stmt.executeQuery(sql)) {
             
-            while (rs.next()) {
-                Map<String, Object> task = new HashMap<>();
-                task.put("id", rs.getInt("id"));
-                task.put("title", rs.getString("title"));
-                task.put("description", rs.getString("description"));
-                task.put("status", rs.getString("status"));
-                task.put("assigned_to", rs.getObject("assigned_to"));
-                task.put("assigned_to_name", rs.getString("assigned_to_name"));
-                task.put("assigned_by", rs.getInt("assigned_by"));
-                task.put("assigned_by_name", rs.getString("assigned_by_name"));
-                task.put("ship_id", rs.getObject("ship_id"));
-                task.put("ship_name", rs.getString("ship_name"));
-                task.put("due_date", rs.getString("due_date"));
-                task.put("created_at", rs.getString("created_at"));
-                task.put("updated_at", rs.getString("updated_at"));
-                tasks.add(task);
-            }
+            tasks = RowMappers.toList(rs, RowMappers::task);
         } catch (SQLException e) {
             e.printStackTrace();
         }
@@ -1484,7 +1543,7 @@ public class DatabaseConnection {
                     "LEFT JOIN ships sh ON t.ship_id = sh.id " +
                     "WHERE t.id = ?";
         
-        try (Connection conn = getConnection();
+        try (Connection conn = getConnection("DatabaseConnection.getTaskById");
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setInt(1, taskId);
@@ -1526,45 +1585,37 @@ public class DatabaseConnection {
      */
     public static int addTask(String title, String description, String status, Integer assignedTo, int assignedBy, Integer shipId, String dueDate) {
         String sql = "INSERT INTO tasks (title, description, status, assigned_to, assigned_by, ship_id, due_date) VALUES (?, ?, ?, ?, ?, ?, ?)";
-        int id = -1;
         
-        try (Connection conn = getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
-            
-            pstmt.setString(1, title);
-            pstmt.setString(2, description);
-            pstmt.setString(3, status);
-            
-            if (assignedTo != null) {
-                pstmt.setInt(4, assignedTo);
-            } else {
-                pstmt.setNull(4, java.sql.Types.INTEGER);
-            }
-            
-            pstmt.setInt(5, assignedBy);
-            
-            if (shipId != null) {
-                pstmt.setInt(6, shipId);
-            } else {
-                pstmt.setNull(6, java.sql.Types.INTEGER);
-            }
-            
-            pstmt.setString(7, dueDate);
-            
-            int affectedRows = pstmt.executeUpdate();
-            
-            if (affectedRows > 0) {
-                try (ResultSet rs = pstmt.getGeneratedKeys()) {
-                    if (rs.next()) {
-                        id = rs.getInt(1);
+        try {
+            return write("DatabaseConnection.addTask", conn -> {
+                try (PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+                    pstmt.setString(1, title);
+                    pstmt.setString(2, description);
+                    pstmt.setString(3, status);
+                    
+                    if (assignedTo != null) {
+                        pstmt.setInt(4, assignedTo);
+                    } else {
+                        pstmt.setNull(4, java.sql.Types.INTEGER);
+                    }
+                    
+                    pstmt.setInt(5, assignedBy);
+                    
+                    if (shipId != null) {
+                        pstmt.setInt(6, shipId);
+                    } else {
+                        pstmt.setNull(6, java.sql.Types.INTEGER);
                     }
+                    
+                    pstmt.setString(7, dueDate);
+                    
+                    return pstmt.executeUpdate() > 0 ? generatedKey(pstmt) : -1;
                 }
-            }
+            });
         } catch (SQLException e) {
             e.printStackTrace();
+            return -1;
         }
-        
-        return id;
     }
     
     /**
@@ -1581,7 +1632,7 @@ public class DatabaseConnection {
     public static boolean updateTask(int taskId, String title, String description, String status, Integer assignedTo, Integer shipId, String dueDate) {
         String sql = "UPDATE tasks SET title = ?, description = ?, status = ?, assigned_to = ?, ship_id = ?, due_date = ?, updated_at = CURRENT_TIMESTAMP WHERE id = ?";
         
-        try (Connection conn = getConnection();
+        try (Connection conn = getWriteConnection("DatabaseConnection.updateTask");
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setString(1, title);
@@ -1619,7 +1670,7 @@ public class DatabaseConnection {
     public static boolean completeTask(int taskId) {
         String sql = "UPDATE tasks SET status = 'Completed', updated_at = CURRENT_TIMESTAMP WHERE id = ?";
         
-        try (Connection conn = getConnection();
+        try (Connection conn = getWriteConnection("DatabaseConnection.completeTask");
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setInt(1, taskId);
@@ -1640,7 +1691,7 @@ public class DatabaseConnection {
     public static boolean deleteTask(int taskId) {
         String sql = "DELETE FROM tasks WHERE id = ?";
         
-        try (Connection conn = getConnection();
+        try (Connection conn = getWriteConnection("DatabaseConnection.deleteTask");
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setInt(1, taskId);
@@ -1654,15 +1705,16 @@ public class DatabaseConnection {
     }
     
     /**
-     * Count the number of tasks assigned to a staff member
+     * Count the number of tasks assigned to a staff member, from the
+     * trigger-maintained staff_task_counts table
      * @param staffId The ID of the staff member
      * @return The number of tasks assigned to the staff member
      */
     public static int countStaffTasks(int staffId) {
-        String sql = "SELECT COUNT(*) FROM tasks WHERE assigned_to = ?";
+        String sql = "SELECT TOTAL(count) FROM staff_task_counts WHERE staff_id = ?";
         int count = 0;
         
-        try (Connection conn = getConnection();
+        try (Connection conn = getConnection("DatabaseConnection.countStaffTasks");
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setInt(1, staffId);
@@ -1682,8 +1734,8 @@ public class DatabaseConnection {
      * Get all problem reports from the database
      * @return List of problem report objects
      */
-    public static List<Map<String, Object>> getAllProblems() {
-        List<Map<String, Object>> problems = new ArrayList<>();
+    public static List<ProblemReport> getAllProblems() {
+        List<ProblemReport> problems = new ArrayList<>();
         String sql = "SELECT p.*, " +
                     "s.first_name || ' ' || s.last_name as reported_by_name, " +
                     "sh.name as ship_name " +
@@ -1692,25 +1744,11 @@ public class DatabaseConnection {
                     "LEFT JOIN ships sh ON p.ship_id = sh.id " +
                     "ORDER BY p.created_at DESC";
         
-        try (Connection conn = getConnection();
+        try (Connection conn = getConnection("DatabaseConnection.getAllProblems");
              Statement stmt = conn.createStatement();
              ResultSet rs = stmt.executeQuery(sql)) {
             
-            while (rs.next()) {
-                Map<String, Object> problem = new HashMap<>();
-                problem.put("id", rs.getInt("id"));
-                problem.put("title", rs.getString("title"));
-                problem.put("description", rs.getString("description"));
-                problem.put("status", rs.getString("status"));
-                problem.put("priority", rs.getString("priority"));
-                problem.put("reported_by", rs.getInt("reported_by"));
-                problem.put("reported_by_name", rs.getString("reported_by_name"));
-                problem.put("ship_id", rs.getObject("ship_id"));
-                problem.put("ship_name", rs.getString("ship_name"));
-                problem.put("created_at", rs.getString("created_at"));
-                problem.put("updated_at", rs.getString("updated_at"));
-                problems.add(problem);
-            }
+            problems = RowMappers.toList(rs, RowMappers::problemReport);
         } catch (SQLException e) {
             e.printStackTrace();
         }
@@ -1723,8 +1761,8 @@ public class DatabaseConnection {
      * @param userId The ID of the user
      * @return List of problem report objects
      */
-    public static List<Map<String, Object>> getUserProblems(int userId) {
-        List<Map<String, Object>> problems = new ArrayList<>();
+    public static List<ProblemReport> getUserProblems(int userId) {
+        List<ProblemReport> problems = new ArrayList<>();
         String sql = "SELECT p.*, " +
                     "s.first_name || ' ' || s.last_name as reported_by_name, " +
                     "sh.name as ship_name " +
@@ -1734,27 +1772,13 @@ public class DatabaseConnection {
                     "WHERE p.reported_by = ? " +
                     "ORDER BY p.created_at DESC";
         
-        try (Connection conn = getConnection();
+        try (Connection conn = getConnection("DatabaseConnection.getUserProblems");
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setInt(1, userId);
             ResultSet rs = pstmt.executeQuery();
             
-            while (rs.next()) {
-                Map<String, Object> problem = new HashMap<>();
-                problem.put("id", rs.getInt("id"));
-                problem.put("title", rs.getString("title"));
-                problem.put("description", rs.getString("description"));
-                problem.put("status", rs.getString("status"));
-                problem.put("priority", rs.getString("priority"));
-                problem.put("reported_by", rs.getInt("reported_by"));
-                problem.put("reported_by_name", rs.getString("reported_by_name"));
-                problem.put("ship_id", rs.getObject("ship_id"));
-                problem.put("ship_name", rs.getString("ship_name"));
-                problem.put("created_at", rs.getString("created_at"));
-                problem.put("updated_at", rs.getString("updated_at"));
-                problems.add(problem);
-            }
+            problems = RowMappers.toList(rs, RowMappers::problemReport);
         } catch (SQLException e) {
             e.printStackTrace();
         }
@@ -1,5 +1,9 @@
 package com.shipmanagement;
 
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
@@ -8,21 +12,45 @@ import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-
-import org.mindrot.jbcrypt.BCrypt;
+import java.util.Set;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
 import com.google.gson.JsonSyntaxException;
+import com.shipmanagement.auth.LoginThrottle;
+import com.shipmanagement.auth.PasswordHasher;
+import com.shipmanagement.auth.SessionStore;
+import com.shipmanagement.auth.SignedTokenSessionStore;
+import com.shipmanagement.auth.SqliteSessionStore;
+import com.shipmanagement.booking.BookingCalendar;
+import com.shipmanagement.booking.BookingIndex;
 import com.shipmanagement.controller.ShipController;
 import com.shipmanagement.controller.StaffController;
+import com.shipmanagement.db.DashboardCounters;
+import com.shipmanagement.db.TableVersions;
+import com.shipmanagement.dao.SearchDAO;
 import com.shipmanagement.dao.StaffDAO;
+import com.shipmanagement.metrics.Metrics;
+import com.shipmanagement.model.Booking;
+import com.shipmanagement.model.ProblemReport;
+import com.shipmanagement.model.SearchResult;
 import com.shipmanagement.model.Staff;
+import com.shipmanagement.model.Task;
 import com.shipmanagement.model.User;
+import com.shipmanagement.telemetry.PositionGrid;
+import com.shipmanagement.telemetry.PositionIngester;
+import com.shipmanagement.telemetry.PositionReport;
+import com.shipmanagement.telemetry.ShipPositions;
+import com.shipmanagement.util.AdmissionController;
+import com.shipmanagement.util.ConditionalGet;
+import com.shipmanagement.util.JsonStream;
+import com.shipmanagement.util.StaticAssets;
 
 import static spark.Spark.before;
 import static spark.Spark.delete;
@@ -32,34 +60,78 @@ import static spark.Spark.options;
 import static spark.Spark.port;
 import static spark.Spark.post;
 import static spark.Spark.put;
-import static spark.Spark.staticFiles;
+import static spark.Spark.routes;
+import static spark.Spark.threadPool;
 
 public class Main {
     public static void main(String[] args) {
         try {
-            // Initialize database connection
-            DatabaseConnection.getConnection();
+            // Initialize database connection pool
+            DatabaseConnection.getConnection("Main.main").close();
+            
+            // Position telemetry is buffered and inserted in large batches
+            PositionIngester positionIngester = new PositionIngester(
+                Integer.getInteger("telemetry.buffer", 100_000),
+                Integer.getInteger("telemetry.batchSize", 2000),
+                Long.getLong("telemetry.lingerMs", 50L));
+            int telemetryMaxLines = Integer.getInteger("telemetry.maxLines", 10_000);
+            
+            // Store buffered positions before the write queue closes
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                positionIngester.close();
+                DatabaseConnection.shutdown();
+            }));
             
             // Add demo data for testing
             DatabaseConnection.addDemoData();
             
-            // Configure Spark
-            port(8080);
-            staticFiles.location("/public");
-            staticFiles.expireTime(600L); // 10 minutes cache for static files
+            // Load the booking overlap index now rather than on the first booking
+            BookingIndex.calendar();
+            
+            // Recount the dashboard figures; triggers keep them current from here on
+            DashboardCounters.rebuild();
+            
+            // Configure Spark (-Dserver.port, e.g. for the in-process load test)
+            port(Integer.getInteger("server.port", 8080));
+            
+            // Bounded Jetty worker pool (defaults match Spark's own)
+            threadPool(Integer.getInteger("server.threads.max", 200),
+                       Integer.getInteger("server.threads.min", 8),
+                       Integer.getInteger("server.threads.idleMs", 60_000));
+            
+            // Static files are served from memory, precompressed and fingerprinted
+            StaticAssets staticAssets = StaticAssets.load("/public");
+            System.out.println("Static assets: " + staticAssets.getStats());
+            
+            // Per-route latency; registered first so it covers the other filters too
+            Metrics.registerFilters("/metrics");
             
             // Enable CORS
             enableCORS();
             
-            // Configure session
-            sessionConfig();
+            // Shed API load with 503 once a route class is over its queue-wait budget
+            AdmissionController admissionController = new AdmissionController();
+            admissionController.registerFilters();
+            
+            // Login sessions live in a SessionStore, not in Jetty's in-memory HttpSession
+            SessionStore sessionStore = createSessionStore();
+            sessionConfig(sessionStore, staticAssets);
             
             // Initialize controllers
             new ShipController();
             new StaffController();
             
-            // JSON serialization
-            Gson gson = new GsonBuilder().setPrettyPrinting().create();
+            // JSON serialization (compact; list endpoints stream and accept ?pretty=true)
+            Gson gson = new GsonBuilder().create();
+            
+            // Password hashing runs on its own bounded pool; logins are throttled
+            // per username (failures) and per client address (all attempts)
+            PasswordHasher passwordHasher = PasswordHasher.getDefault();
+            long throttleWindowMs = Long.getLong("auth.throttle.windowMs", 60_000L);
+            LoginThrottle usernameThrottle = new LoginThrottle(
+                Integer.getInteger("auth.throttle.userFailures", 5), throttleWindowMs);
+            LoginThrottle ipThrottle = new LoginThrottle(
+                Integer.getInteger("auth.throttle.ipAttempts", 30), throttleWindowMs);
             
             // Routes
             before((req, res) -> {
@@ -85,6 +157,21 @@ public class Main {
                     String password = json.get("password").getAsString();
                     
                     System.out.println("Username: " + username);
+                    
+                    // Refuse throttled clients before touching the database or BCrypt
+                    String usernameKey = username.toLowerCase();
+                    long retryAfterMs = Math.max(ipThrottle.retryAfterMillis(req.ip()),
+                                                 usernameThrottle.retryAfterMillis(usernameKey));
+                    if (retryAfterMs > 0) {
+                        res.status(429);
+                        res.header("Retry-After", String.valueOf((retryAfterMs + 999) / 1000));
+                        return gson.toJson(Map.of(
+                            "status", "error",
+                            "message", "Too many login attempts, please try again later"
+                        ));
+                    }
+                    ipThrottle.record(req.ip());
+                    
                     System.out.println("Attempting to get user from database");
                     
                     // Get user from database
@@ -96,15 +183,14 @@ public class Main {
                         System.out.println("User role: " + user.getRole());
                         System.out.println("Verifying password");
                         
-                        boolean passwordMatch = BCrypt.checkpw(password, user.getPassword());
+                        boolean passwordMatch = passwordHasher.verify(password, user.getPassword());
                         System.out.println("Password match: " + passwordMatch);
                         
                         if (passwordMatch) {
-                            // Create session
-                            req.session(true);
-                            req.session().attribute("user", user);
+                            usernameThrottle.reset(usernameKey);
                             
-                            System.out.println("Session created with ID: " + req.session().id());
+                            // Create session
+                            setSessionCookie(res, sessionStore.create(user), sessionStore);
                             
                             // Return success response with user role
                             Map<String, Object> response = new java.util.HashMap<>();
@@ -122,11 +208,20 @@ public class Main {
                     
                     // If we get here, either user doesn't exist or password is wrong
                     System.out.println("Authentication failed");
+                    usernameThrottle.record(usernameKey);
                     res.status(401);
                     return gson.toJson(Map.of(
                         "status", "error",
                         "message", "Invalid username or password"
                     ));
+                } catch (PasswordHasher.SaturatedException e) {
+                    System.err.println("Login rejected: " + e.getMessage());
+                    res.status(503);
+                    res.header("Retry-After", "1");
+                    return gson.toJson(Map.of(
+                        "status", "error",
+                        "message", "Server is busy, please try again shortly"
+                    ));
                 } catch (JsonSyntaxException e) {
                     System.err.println("JSON parsing error: " + e.getMessage());
                     e.printStackTrace();
@@ -220,6 +315,14 @@ public class Main {
                             "message", "Failed to create user"
                         ));
                     }
+                } catch (PasswordHasher.SaturatedException e) {
+                    System.err.println("Signup rejected: " + e.getMessage());
+                    res.status(503);
+                    res.header("Retry-After", "1");
+                    return gson.toJson(Map.of(
+                        "status", "error",
+                        "message", "Server is busy, please try again shortly"
+                    ));
                 } catch (JsonSyntaxException e) {
                     System.err.println("JSON parsing error: " + e.getMessage());
                     e.printStackTrace();
@@ -243,7 +346,7 @@ public class Main {
             post("/api/change-password", (req, res) -> {
                 try {
                     // Check if user is authenticated
-                    User currentUser = req.session().attribute("user");
+                    User currentUser = req.attribute("user");
                     if (currentUser == null) {
                         res.status(401);
                         return gson.toJson(Map.of(
@@ -268,10 +371,6 @@ public class Main {
                     
                     // Update password
                     if (DatabaseConnection.updateUserPassword(currentUser.getUsername(), newPassword)) {
-                        // Update the user in session with new password
-                        currentUser = DatabaseConnection.getUserByUsername(currentUser.getUsername());
-                        req.session().attribute("user", currentUser);
-                        
                         return gson.toJson(Map.of(
                             "status", "success",
                             "message", "Password updated successfully"
@@ -283,6 +382,14 @@ public class Main {
                             "message", "Failed to update password"
                         ));
                     }
+                } catch (PasswordHasher.SaturatedException e) {
+                    System.err.println("Password change rejected: " + e.getMessage());
+                    res.status(503);
+                    res.header("Retry-After", "1");
+                    return gson.toJson(Map.of(
+                        "status", "error",
+                        "message", "Server is busy, please try again shortly"
+                    ));
                 } catch (JsonSyntaxException e) {
                     System.err.println("JSON parsing error: " + e.getMessage());
                     e.printStackTrace();
@@ -305,11 +412,11 @@ public class Main {
             // Authentication check endpoint
             get("/api/check-auth", (req, res) -> {
                 try {
-                    User user = req.session().attribute("user");
+                    User user = req.attribute("user");
                     
                     // Debug logging
                     System.out.println("Check-auth endpoint called");
-                    System.out.println("Session exists: " + (req.session(false) != null));
+                    System.out.println("Session cookie present: " + (req.cookie(SESSION_COOKIE) != null));
                     System.out.println("User in session: " + (user != null));
                     if (user != null) {
                         System.out.println("Username: " + user.getUsername());
@@ -355,7 +462,16 @@ public class Main {
             // Get all ships
             get("/api/ships", (req, res) -> {
                 try {
+                    // Versions are read before the data (see TableVersions)
+                    String etag = ConditionalGet.etag(req, TableVersions.current("ships"), ShipPositions.versionTag());
+                    if (ConditionalGet.notModified(req, res, etag)) {
+                        return "";
+                    }
+                    
                     List<Map<String, Object>> ships = DatabaseConnection.getAllShips();
+                    for (Map<String, Object> ship : ships) {
+                        ship.put("position", ShipPositions.latestAsMap((Integer) ship.get("id")));
+                    }
                     res.type("application/json");
                     return gson.toJson(ships);
                 } catch (Exception e) {
@@ -373,6 +489,9 @@ public class Main {
                     Map<String, Object> ship = DatabaseConnection.getShipById(shipId);
                     
                     if (ship != null) {
+                        // A copy, since the map may be shared with the ship cache
+                        ship = new HashMap<>(ship);
+                        ship.put("position", ShipPositions.latestAsMap(shipId));
                         res.type("application/json");
                         return gson.toJson(ship);
                     } else {
@@ -392,19 +511,156 @@ public class Main {
                 }
             });
             
+            // Bulk position ingestion: one JSON report per line (application/x-ndjson).
+            // 202 once buffered; 400 if every line was invalid (e.g. future-dated);
+            // 503 if the buffer is full, in which case nothing was taken.
+            post("/api/telemetry/positions", (req, res) -> {
+                if (!isAuthenticated(req)) {
+                    res.status(401);
+                    return gson.toJson(Map.of("error", "Unauthorized"));
+                }
+                
+                PositionIngester.Result result;
+                try (BufferedReader body = new BufferedReader(
+                        new InputStreamReader(req.raw().getInputStream(), StandardCharsets.UTF_8))) {
+                    result = positionIngester.ingest(body, telemetryMaxLines);
+                } catch (IllegalArgumentException e) {
+                    res.status(413);
+                    return gson.toJson(Map.of("error", e.getMessage()));
+                }
+                
+                Map<String, Object> response = new HashMap<>();
+                response.put("accepted", result.getAccepted());
+                response.put("rejected", result.getRejected());
+                response.put("errors", result.getErrors());
+                if (result.isOverloaded()) {
+                    res.status(503);
+                    res.header("Retry-After", "1");
+                    response.put("error", "Position buffer is full, retry later");
+                } else if (result.getAccepted() == 0 && result.getRejected() > 0) {
+                    res.status(400);
+                    response.put("error", "No valid position reports");
+                } else {
+                    res.status(202);
+                }
+                return gson.toJson(response);
+            });
+            
+            // Ships within radius_nm nautical miles of a point, nearest first
+            get("/api/positions/near", (req, res) -> {
+                if (!isAuthenticated(req)) {
+                    res.status(401);
+                    return gson.toJson(Map.of("error", "Unauthorized"));
+                }
+                
+                try {
+                    List<PositionGrid.Hit> hits = ShipPositions.near(
+                        doubleParam(req, "lat"), doubleParam(req, "lon"), doubleParam(req, "radius_nm"),
+                        limitParam(req));
+                    List<Map<String, Object>> ships = new ArrayList<>(hits.size());
+                    for (PositionGrid.Hit hit : hits) {
+                        Map<String, Object> ship = positionEntry(hit.getPosition());
+                        ship.put("distance_nm", hit.getDistanceNm());
+                        ships.add(ship);
+                    }
+                    return gson.toJson(ships);
+                } catch (IllegalArgumentException e) {
+                    res.status(400);
+                    return gson.toJson(Map.of("error", e.getMessage()));
+                }
+            });
+            
+            // Ships inside a bounding box; min_lon > max_lon crosses the antimeridian
+            get("/api/positions/box", (req, res) -> {
+                if (!isAuthenticated(req)) {
+                    res.status(401);
+                    return gson.toJson(Map.of("error", "Unauthorized"));
+                }
+                
+                try {
+                    List<PositionReport> found = ShipPositions.within(
+                        doubleParam(req, "min_lat"), doubleParam(req, "min_lon"),
+                        doubleParam(req, "max_lat"), doubleParam(req, "max_lon"), limitParam(req));
+                    List<Map<String, Object>> ships = new ArrayList<>(found.size());
+                    for (PositionReport position : found) {
+                        ships.add(positionEntry(position));
+                    }
+                    return gson.toJson(ships);
+                } catch (IllegalArgumentException e) {
+                    res.status(400);
+                    return gson.toJson(Map.of("error", e.getMessage()));
+                }
+            });
+            
+            // Ranked full-text search over staff, crew, tasks and problem reports.
+            // ?q= words are matched as prefixes; ?type= takes a comma-separated list.
+            // Non-admins only find the tasks and problem reports they are part of.
+            get("/api/search", (req, res) -> {
+                if (!isAuthenticated(req)) {
+                    res.status(401);
+                    return gson.toJson(Map.of("error", "Unauthorized"));
+                }
+                
+                try {
+                    String query = req.queryParams("q");
+                    if (SearchDAO.toMatchQuery(query) == null) {
+                        throw new IllegalArgumentException("Missing q");
+                    }
+                    Set<String> types = new HashSet<>();
+                    String typeParam = req.queryParams("type");
+                    if (typeParam != null && !typeParam.isEmpty()) {
+                        for (String type : typeParam.split(",")) {
+                            if (!SearchDAO.TYPES.contains(type.trim())) {
+                                throw new IllegalArgumentException("Invalid type: " + type.trim());
+                            }
+                            types.add(type.trim());
+                        }
+                    }
+                    int page = intParam(req, "page", 1, 1, 10000);
+                    int pageSize = intParam(req, "page_size", 20, 1, 100);
+                    
+                    // One extra row tells us whether there is another page
+                    SearchDAO searchDAO = new SearchDAO();
+                    User user = req.attribute("user");
+                    List<SearchResult> results =
+                        searchDAO.search(query, types, pageSize + 1, (page - 1) * pageSize, user);
+                    boolean hasMore = results.size() > pageSize;
+                    
+                    Map<String, Object> response = new LinkedHashMap<>();
+                    response.put("query", query);
+                    response.put("page", page);
+                    response.put("page_size", pageSize);
+                    response.put("has_more", hasMore);
+                    response.put("results", hasMore ? results.subList(0, pageSize) : results);
+                    return gson.toJson(response);
+                } catch (IllegalArgumentException e) {
+                    res.status(400);
+                    return gson.toJson(Map.of("error", e.getMessage()));
+                } catch (SQLException e) {
+                    e.printStackTrace();
+                    res.status(500);
+                    return gson.toJson(Map.of("error", "Search failed: " + e.getMessage()));
+                }
+            });
+            
             // Get user bookings
             get("/api/bookings", (req, res) -> {
                 try {
-                    User user = req.session().attribute("user");
+                    User user = req.attribute("user");
                     if (user == null) {
                         res.status(401);
                         res.type("application/json");
                         return gson.toJson(Map.of("error", "Not authenticated"));
                     }
                     
-                    List<Map<String, Object>> bookings = DatabaseConnection.getUserBookings(user.getId());
-                    res.type("application/json");
-                    return gson.toJson(bookings);
+                    String etag = ConditionalGet.etag(req, "user." + user.getId(),
+                                                      TableVersions.current("bookings", "ships"));
+                    if (ConditionalGet.notModified(req, res, etag)) {
+                        return "";
+                    }
+                    
+                    return JsonStream.writeArray(req, res, gson, Booking.class,
+                        sink -> DatabaseConnection.streamUserBookings(user.getId(), sink));
                 } catch (Exception e) {
                     e.printStackTrace();
                     res.status(500);
@@ -416,16 +672,21 @@ public class Main {
             // Get user tasks
             get("/api/tasks", (req, res) -> {
                 try {
-                    User user = req.session().attribute("user");
+                    User user = req.attribute("user");
                     if (user == null) {
                         res.status(401);
                         res.type("application/json");
                         return gson.toJson(Map.of("error", "Not authenticated"));
                     }
                     
-                    List<Map<String, Object>> tasks = DatabaseConnection.getUserTasks(user.getId());
-                    res.type("application/json");
-                    return gson.toJson(tasks);
+                    String etag = ConditionalGet.etag(req, "user." + user.getId(),
+                                                      TableVersions.current("tasks", "staff", "ships"));
+                    if (ConditionalGet.notModified(req, res, etag)) {
+                        return "";
+                    }
+                    
+                    return JsonStream.writeArray(req, res, gson, Task.class,
+                        sink -> DatabaseConnection.streamUserTasks(user.getId(), sink));
                 } catch (Exception e) {
                     e.printStackTrace();
                     res.status(500);
@@ -437,7 +698,7 @@ public class Main {
             // Get all reports (admin only)
             get("/api/reports", (req, res) -> {
                 try {
-                    User user = req.session().attribute("user");
+                    User user = req.attribute("user");
                     if (user == null) {
                         res.status(401);
                         res.type("application/json");
@@ -450,9 +711,7 @@ public class Main {
                         return gson.toJson(Map.of("error", "Access denied"));
                     }
                     
-                    List<Map<String, Object>> reports = DatabaseConnection.getAllReports();
-                    res.type("application/json");
-                    return gson.toJson(reports);
+                    return JsonStream.writeArray(req, res, gson, Map.class, DatabaseConnection::streamAllReports);
                 } catch (Exception e) {
                     e.printStackTrace();
                     res.status(500);
@@ -464,6 +723,11 @@ public class Main {
             // Get all docks
             get("/api/docks", (req, res) -> {
                 try {
+                    String etag = ConditionalGet.etag(req, TableVersions.current("docks"));
+                    if (ConditionalGet.notModified(req, res, etag)) {
+                        return "";
+                    }
+                    
                     List<Map<String, Object>> docks = DatabaseConnection.getAllDocks();
                     res.type("application/json");
                     return gson.toJson(docks);
@@ -629,7 +893,7 @@ public class Main {
             // Get all users (admin only)
             get("/api/users", (req, res) -> {
                 try {
-                    User user = req.session().attribute("user");
+                    User user = req.attribute("user");
                     if (user == null) {
                         res.status(401);
                         res.type("application/json");
@@ -653,15 +917,102 @@ public class Main {
                 }
             });
             
+            // Database connection pool metrics (admin only)
+            get("/api/admin/db-pool", (req, res) -> {
+                if (!isAuthenticated(req) || !isAdmin(req)) {
+                    res.status(401);
+                    return gson.toJson(Map.of("error", "Unauthorized"));
+                }
+                
+                return gson.toJson(DatabaseConnection.getPoolStats());
+            });
+            
+            // Ship cache metrics (admin only)
+            get("/api/admin/cache", (req, res) -> {
+                if (!isAuthenticated(req) || !isAdmin(req)) {
+                    res.status(401);
+                    return gson.toJson(Map.of("error", "Unauthorized"));
+                }
+                
+                return gson.toJson(DatabaseConnection.getCacheStats());
+            });
+            
+            // Admission control metrics: admitted and shed requests per route class (admin only)
+            get("/api/admin/admission", (req, res) -> {
+                if (!isAuthenticated(req) || !isAdmin(req)) {
+                    res.status(401);
+                    return gson.toJson(Map.of("error", "Unauthorized"));
+                }
+                
+                return gson.toJson(admissionController.getStats());
+            });
+            
+            // Position ingestion metrics (admin only)
+            get("/api/admin/telemetry", (req, res) -> {
+                if (!isAuthenticated(req) || !isAdmin(req)) {
+                    res.status(401);
+                    return gson.toJson(Map.of("error", "Unauthorized"));
+                }
+                
+                return gson.toJson(positionIngester.getStats());
+            });
+            
+            // Prometheus scrape endpoint; loopback only unless -Dmetrics.allowRemote=true
+            boolean metricsAllowRemote = Boolean.getBoolean("metrics.allowRemote");
+            get("/metrics", (req, res) -> {
+                if (!metricsAllowRemote && !isLoopback(req.ip())) {
+                    res.status(403);
+                    return "";
+                }
+                
+                res.type(Metrics.CONTENT_TYPE);
+                return Metrics.scrape();
+            });
+            
+            // Every admin dashboard count in one call, served from memory
+            get("/api/dashboard/summary", (req, res) -> {
+                if (!isAuthenticated(req) || !isAdmin(req)) {
+                    res.status(401);
+                    return gson.toJson(Map.of("error", "Unauthorized"));
+                }
+                
+                try {
+                    String etag = ConditionalGet.etag(req, TableVersions.current("dashboard_counts"));
+                    if (ConditionalGet.notModified(req, res, etag)) {
+                        return "";
+                    }
+                    return gson.toJson(DashboardCounters.summary());
+                } catch (SQLException e) {
+                    e.printStackTrace();
+                    res.status(500);
+                    return gson.toJson(Map.of("error", "Failed to load dashboard summary: " + e.getMessage()));
+                }
+            });
+            
+            // Password hashing pool and login throttle metrics (admin only)
+            get("/api/admin/auth", (req, res) -> {
+                if (!isAuthenticated(req) || !isAdmin(req)) {
+                    res.status(401);
+                    return gson.toJson(Map.of("error", "Unauthorized"));
+                }
+                
+                Map<String, Object> stats = new HashMap<>();
+                stats.put("passwordHasher", passwordHasher.getStats());
+                stats.put("usernameThrottle", usernameThrottle.getStats());
+                stats.put("ipThrottle", ipThrottle.getStats());
+                stats.put("sessions", sessionStore.getStats());
+                return gson.toJson(stats);
+            });
+            
             // Logout endpoint
             post("/logout", (req, res) -> {
-                req.session().removeAttribute("user");
+                endSession(req, res, sessionStore);
                 res.status(200);
                 return "{\"success\": true, \"message\": \"Logged out successfully\"}";
             });
             
             get("/logout", (req, res) -> {
-                req.session().removeAttribute("user");
+                endSession(req, res, sessionStore);
                 res.header("Cache-Control", "no-cache, no-store, must-revalidate");
                 res.header("Pragma", "no-cache");
                 res.header("Expires", "0");
@@ -672,7 +1023,7 @@ public class Main {
             
             // Check authentication endpoint
             get("/api/check-auth", (req, res) -> {
-                User user = req.session().attribute("user");
+                User user = req.attribute("user");
                 if (user == null) {
                     res.status(401);
                     return gson.toJson(Map.of("error", "Not authenticated"));
@@ -695,7 +1046,7 @@ public class Main {
                     return gson.toJson(Map.of("error", "Unauthorized"));
                 }
                 
-                List<Map<String, Object>> bookings = DatabaseConnection.getAllBookings();
+                List<Booking> bookings = DatabaseConnection.getAllBookings();
                 return gson.toJson(bookings);
             });
             
@@ -707,9 +1058,9 @@ public class Main {
                     return gson.toJson(Map.of("error", "Unauthorized"));
                 }
                 
-                int userId = req.session().attribute("user_id");
-                List<Map<String, Object>> bookings = DatabaseConnection.getUserBookings(userId);
-                return gson.toJson(bookings);
+                int userId = req.attribute("user_id");
+                return JsonStream.writeArray(req, res, gson, Booking.class,
+                    sink -> DatabaseConnection.streamUserBookings(userId, sink));
             });
             
             // Get booking by ID
@@ -729,8 +1080,8 @@ public class Main {
                 }
                 
                 // Check if the booking belongs to the current user or user is admin
-                int userId = req.session().attribute("user_id");
-                boolean isAdmin = req.session().attribute("is_admin");
+                int userId = req.attribute("user_id");
+                boolean isAdmin = req.attribute("is_admin");
                 
                 if (!isAdmin && (int)booking.get("user_id") != userId) {
                     res.status(403);
@@ -756,7 +1107,7 @@ public class Main {
                 String endDate = jsonObject.get("end_date").getAsString();
                 String purpose = jsonObject.has("purpose") ? jsonObject.get("purpose").getAsString() : "";
                 
-                int userId = req.session().attribute("user_id");
+                int userId = req.attribute("user_id");
                 
                 // Validate ship exists and is active
                 Map<String, Object> ship = DatabaseConnection.getShipById(shipId);
@@ -770,8 +1121,20 @@ public class Main {
                     return gson.toJson(Map.of("error", "Ship is not available for booking"));
                 }
                 
-                // Create booking
-                int bookingId = DatabaseConnection.addBooking(shipId, userId, startDate, endDate, purpose);
+                // Create booking, unless the ship is already booked on any of these days
+                int bookingId;
+                try {
+                    bookingId = DatabaseConnection.addBooking(shipId, userId, startDate, endDate, purpose);
+                } catch (BookingCalendar.ConflictException e) {
+                    res.status(409);
+                    return gson.toJson(Map.of(
+                        "error", "Ship is already booked for these dates",
+                        "conflicting_booking_id", e.getConflictingBookingId()
+                    ));
+                } catch (IllegalArgumentException e) {
+                    res.status(400);
+                    return gson.toJson(Map.of("error", "Invalid booking dates: " + e.getMessage()));
+                }
                 
                 if (bookingId == -1) {
                     res.status(500);
@@ -806,7 +1169,16 @@ public class Main {
                     return gson.toJson(Map.of("error", "Invalid status. Must be one of: " + String.join(", ", validStatuses)));
                 }
                 
-                boolean updated = DatabaseConnection.updateBookingStatus(bookingId, status);
+                boolean updated;
+                try {
+                    updated = DatabaseConnection.updateBookingStatus(bookingId, status);
+                } catch (BookingCalendar.ConflictException e) {
+                    res.status(409);
+                    return gson.toJson(Map.of(
+                        "error", "Ship is already booked for these dates",
+                        "conflicting_booking_id", e.getConflictingBookingId()
+                    ));
+                }
                 
                 if (!updated) {
                     res.status(404);
@@ -833,8 +1205,8 @@ public class Main {
                 }
                 
                 // Check if the booking belongs to the current user or user is admin
-                int userId = req.session().attribute("user_id");
-                boolean isAdmin = req.session().attribute("is_admin");
+                int userId = req.attribute("user_id");
+                boolean isAdmin = req.attribute("is_admin");
                 
                 if (!isAdmin && (int)booking.get("user_id") != userId) {
                     res.status(403);
@@ -881,7 +1253,7 @@ public class Main {
             // Get all staff members
             get("/api/staff", (req, res) -> {
                 try {
-                    User user = req.session().attribute("user");
+                    User user = req.attribute("user");
                     if (user == null) {
                         res.status(401);
                         res.type("application/json");
@@ -894,9 +1266,9 @@ public class Main {
                         return gson.toJson(Map.of("error", "Access denied"));
                     }
                     
-                    // Use the StaffDAO to get all staff members
+                    // One joined query for staff, ship names and open task counts
                     StaffDAO staffDAO = new StaffDAO();
-                    List<Staff> staffList = staffDAO.getAllStaff();
+                    List<Staff> staffList = staffDAO.getStaffDirectory();
                     
                     // Convert to format expected by frontend
                     List<Map<String, Object>> result = new ArrayList<>();
@@ -910,20 +1282,14 @@ public class Main {
                         staffMap.put("status", staff.getStatus());
                         staffMap.put("shipId", staff.getShipId());
                         
-                        // Get ship name if assigned
-                        if (staff.getShipId() != null) {
-                            Map<String, Object> ship = DatabaseConnection.getShipById(staff.getShipId());
-                            if (ship != null) {
-                                staffMap.put("shipName", ship.get("name"));
-                            }
+                        if (staff.getShipName() != null) {
+                            staffMap.put("shipName", staff.getShipName());
                         }
                         
                         staffMap.put("email", staff.getEmail());
                         staffMap.put("phone", staff.getPhone());
-                        
-                        // Count tasks assigned to this staff member
-                        int taskCount = DatabaseConnection.countStaffTasks(staff.getId());
-                        staffMap.put("taskCount", taskCount);
+                        staffMap.put("taskCount", staff.getTaskCount());
+                        staffMap.put("taskCounts", staff.getTaskCountsByStatus());
                         
                         result.add(staffMap);
                     }
@@ -941,7 +1307,7 @@ public class Main {
             // Get staff member by ID
             get("/api/staff/:id", (req, res) -> {
                 try {
-                    User user = req.session().attribute("user");
+                    User user = req.attribute("user");
                     if (user == null) {
                         res.status(401);
                         res.type("application/json");
@@ -1004,7 +1370,7 @@ public class Main {
             // Create new staff member
             post("/api/staff", (req, res) -> {
                 try {
-                    User user = req.session().attribute("user");
+                    User user = req.attribute("user");
                     if (user == null) {
                         res.status(401);
                         res.type("application/json");
@@ -1025,7 +1391,7 @@ public class Main {
                     staff.setFirstName((String) requestBody.get("firstName"));
                     staff.setLastName((String) requestBody.get("lastName"));
                     staff.setUsername((String) requestBody.get("username"));
-                    staff.setPassword(BCrypt.hashpw((String) requestBody.get("password"), BCrypt.gensalt()));
+                    staff.setPassword(passwordHasher.hash((String) requestBody.get("password")));
                     staff.setRole((String) requestBody.get("role"));
                     staff.setStatus((String) requestBody.get("status"));
                     
@@ -1053,6 +1419,11 @@ public class Main {
                         "id", staffId,
                         "message", "Staff member created successfully"
                     ));
+                } catch (PasswordHasher.SaturatedException e) {
+                    res.status(503);
+                    res.header("Retry-After", "1");
+                    res.type("application/json");
+                    return gson.toJson(Map.of("error", "Server is busy, please try again shortly"));
                 } catch (Exception e) {
                     e.printStackTrace();
                     res.status(500);
@@ -1064,7 +1435,7 @@ public class Main {
             // Update staff member
             put("/api/staff/:id", (req, res) -> {
                 try {
-                    User user = req.session().attribute("user");
+                    User user = req.attribute("user");
                     if (user == null) {
                         res.status(401);
                         res.type("application/json");
@@ -1137,7 +1508,7 @@ public class Main {
             // Delete staff member
             delete("/api/staff/:id", (req, res) -> {
                 try {
-                    User user = req.session().attribute("user");
+                    User user = req.attribute("user");
                     if (user == null) {
                         res.status(401);
                         res.type("application/json");
@@ -1189,14 +1560,14 @@ public class Main {
             // Get all tasks
             get("/api/tasks", (req, res) -> {
                 try {
-                    User user = req.session().attribute("user");
+                    User user = req.attribute("user");
                     if (user == null) {
                         res.status(401);
                         res.type("application/json");
                         return gson.toJson(Map.of("error", "Not authenticated"));
                     }
                     
-                    List<Map<String, Object>> tasks;
+                    List<Task> tasks;
                     if ("admin".equals(user.getRole())) {
                         tasks = DatabaseConnection.getAllTasks();
                     } else {
@@ -1216,7 +1587,7 @@ public class Main {
             // Get task by ID
             get("/api/tasks/:id", (req, res) -> {
                 try {
-                    User user = req.session().attribute("user");
+                    User user = req.attribute("user");
                     if (user == null) {
                         res.status(401);
                         res.type("application/json");
@@ -1258,7 +1629,7 @@ public class Main {
             // Create new task
             post("/api/tasks", (req, res) -> {
                 try {
-                    User user = req.session().attribute("user");
+                    User user = req.attribute("user");
                     if (user == null) {
                         res.status(401);
                         res.type("application/json");
@@ -1303,7 +1674,7 @@ public class Main {
             // Update task
             put("/api/tasks/:id", (req, res) -> {
                 try {
-                    User user = req.session().attribute("user");
+                    User user = req.attribute("user");
                     if (user == null) {
                         res.status(401);
                         res.type("application/json");
@@ -1367,7 +1738,7 @@ public class Main {
             // Mark task as complete
             put("/api/tasks/:id/complete", (req, res) -> {
                 try {
-                    User user = req.session().attribute("user");
+                    User user = req.attribute("user");
                     if (user == null) {
                         res.status(401);
                         res.type("application/json");
@@ -1419,7 +1790,7 @@ public class Main {
             // Delete task
             delete("/api/tasks/:id", (req, res) -> {
                 try {
-                    User user = req.session().attribute("user");
+                    User user = req.attribute("user");
                     if (user == null) {
                         res.status(401);
                         res.type("application/json");
@@ -1470,14 +1841,14 @@ public class Main {
             // API endpoints for problem reports
             get("/api/problems", (req, res) -> {
                 try {
-                    User user = req.session().attribute("user");
+                    User user = req.attribute("user");
                     if (user == null) {
                         res.status(401);
                         res.type("application/json");
                         return gson.toJson(Map.of("error", "Not authenticated"));
                     }
                     
-                    List<Map<String, Object>> problems;
+                    List<ProblemReport> problems;
                     if ("admin".equals(user.getRole())) {
                         problems = DatabaseConnection.getAllProblems();
                     } else {
@@ -1496,7 +1867,7 @@ public class Main {
 
             // User API endpoint
             get("/api/user", (req, res) -> {
-                User user = req.session().attribute("user");
+                User user = req.attribute("user");
                 if (user == null) {
                     res.status(401);
                     return "{\"error\": \"Not authenticated\"}";
@@ -1512,13 +1883,13 @@ public class Main {
             
             // Bookings API endpoints
             get("/api/user/bookings", (req, res) -> {
-                User user = req.session().attribute("user");
+                User user = req.attribute("user");
                 if (user == null) {
                     res.status(401);
                     return "{\"error\": \"Not authenticated\"}";
                 }
                 
-                try (Connection conn = DatabaseConnection.getConnection();
+                try (Connection conn = DatabaseConnection.getConnection("Main.userBookings");
                      PreparedStatement stmt = conn.prepareStatement(
                          "SELECT b.*, s.name as ship_name FROM bookings b " +
                          "LEFT JOIN ships s ON b.ship_id = s.id " +
@@ -1551,7 +1922,7 @@ public class Main {
             
             // Cancel booking endpoint
             put("/api/bookings/:id/cancel", (req, res) -> {
-                User user = req.session().attribute("user");
+                User user = req.attribute("user");
                 if (user == null) {
                     res.status(401);
                     return "{\"error\": \"Not authenticated\"}";
@@ -1559,7 +1930,7 @@ public class Main {
                 
                 int bookingId = Integer.parseInt(req.params(":id"));
                 
-                try (Connection conn = DatabaseConnection.getConnection();
+                try (Connection conn = DatabaseConnection.getWriteConnection("Main.cancelBooking");
                      PreparedStatement checkStmt = conn.prepareStatement(
                          "SELECT * FROM bookings WHERE id = ? AND user_id = ?");
                      PreparedStatement updateStmt = conn.prepareStatement(
@@ -1595,13 +1966,13 @@ public class Main {
             
             // Tasks API endpoints
             get("/api/tasks", (req, res) -> {
-                User user = req.session().attribute("user");
+                User user = req.attribute("user");
                 if (user == null) {
                     res.status(401);
                     return "{\"error\": \"Not authenticated\"}";
                 }
                 
-                try (Connection conn = DatabaseConnection.getConnection();
+                try (Connection conn = DatabaseConnection.getConnection("Main.tasks");
                      PreparedStatement stmt = conn.prepareStatement(
                          "SELECT t.*, s.name as ship_name FROM tasks t " +
                          "LEFT JOIN ships s ON t.ship_id = s.id " +
@@ -1636,7 +2007,7 @@ public class Main {
             
             // Complete task endpoint
             put("/api/tasks/:id/complete", (req, res) -> {
-                User user = req.session().attribute("user");
+                User user = req.attribute("user");
                 if (user == null) {
                     res.status(401);
                     return "{\"error\": \"Not authenticated\"}";
@@ -1644,7 +2015,7 @@ public class Main {
                 
                 int taskId = Integer.parseInt(req.params(":id"));
                 
-                try (Connection conn = DatabaseConnection.getConnection();
+                try (Connection conn = DatabaseConnection.getWriteConnection("Main.completeTask");
                      PreparedStatement checkStmt = conn.prepareStatement(
                          "SELECT * FROM tasks WHERE id = ? AND assigned_to = ?");
                      PreparedStatement updateStmt = conn.prepareStatement(
@@ -1680,13 +2051,13 @@ public class Main {
             
             // Reports API endpoints
             get("/api/reports", (req, res) -> {
-                User user = req.session().attribute("user");
+                User user = req.attribute("user");
                 if (user == null) {
                     res.status(401);
                     return "{\"error\": \"Not authenticated\"}";
                 }
                 
-                try (Connection conn = DatabaseConnection.getConnection();
+                try (Connection conn = DatabaseConnection.getConnection("Main.reports");
                      PreparedStatement stmt = conn.prepareStatement(
                          "SELECT r.*, s.name as ship_name FROM reports r " +
                          "LEFT JOIN ships s ON r.ship_id = s.id " +
@@ -1718,13 +2089,13 @@ public class Main {
             
             // Crew members API endpoints
             get("/api/crew", (req, res) -> {
-                User user = req.session().attribute("user");
+                User user = req.attribute("user");
                 if (user == null) {
                     res.status(401);
                     return "{\"error\": \"Not authenticated\"}";
                 }
                 
-                try (Connection conn = DatabaseConnection.getConnection();
+                try (Connection conn = DatabaseConnection.getConnection("Main.crew");
                      PreparedStatement stmt = conn.prepareStatement(
                          "SELECT c.*, s.name as ship_name FROM crew_members c " +
                          "LEFT JOIN ships s ON c.ship_id = s.id " +
@@ -1756,13 +2127,13 @@ public class Main {
 
             // Ships API endpoint
             get("/api/ships", (req, res) -> {
-                User user = req.session().attribute("user");
+                User user = req.attribute("user");
                 if (user == null) {
                     res.status(401);
                     return "{\"error\": \"Not authenticated\"}";
                 }
                 
-                try (Connection conn = DatabaseConnection.getConnection();
+                try (Connection conn = DatabaseConnection.getConnection("Main.ships");
                      PreparedStatement stmt = conn.prepareStatement(
                          "SELECT id, name, type, status FROM ships")) {
                     
@@ -1788,7 +2159,7 @@ public class Main {
             
             // Problem Reports API endpoint
             post("/api/problem-reports", (req, res) -> {
-                User user = req.session().attribute("user");
+                User user = req.attribute("user");
                 if (user == null) {
                     res.status(401);
                     return "{\"error\": \"Not authenticated\"}";
@@ -1814,7 +2185,7 @@ public class Main {
                         shipId = shipIdDouble.intValue();
                     }
                     
-                    try (Connection conn = DatabaseConnection.getConnection();
+                    try (Connection conn = DatabaseConnection.getWriteConnection("Main.submitProblemReport");
                          PreparedStatement stmt = conn.prepareStatement(
                              "INSERT INTO problem_reports (title, description, reported_by, ship_id, severity) " +
                              "VALUES (?, ?, ?, ?, ?)", Statement.RETURN_GENERATED_KEYS)) {
@@ -1851,32 +2222,102 @@ public class Main {
                 }
             });
             
+            // Static files; registered last so every API route takes precedence. Being a
+            // route, the dashboard auth filters in sessionConfig now apply to the pages.
+            for (String path : StaticAssets.ROUTES) {
+                get(path, staticAssets::handle);
+            }
+            
+            // Request metrics are labelled by route pattern, now that all are registered
+            Metrics.useRoutes(routes(), StaticAssets.ROUTES);
+            
         } catch (Exception e) {
             e.printStackTrace();
             System.err.println("Failed to start server: " + e.getMessage());
         }
     }
 
+    private static final String SESSION_COOKIE = "sm_session";
+    
+    private static final String ADMIN_DASHBOARD = "/admin-dashboard.html";
+    private static final String USER_DASHBOARD = "/user-dashboard.html";
+    private static final Set<String> DASHBOARD_PAGES = Set.of(ADMIN_DASHBOARD, USER_DASHBOARD);
+    
+    /**
+     * Session store from -Dsession.store: "sqlite" (default) keeps sessions in the
+     * database; "signed" issues stateless HMAC-signed tokens, keyed by
+     * -Dsession.secret or SESSION_SECRET, which every node must share.
+     */
+    private static SessionStore createSessionStore() {
+        long ttlMillis = Long.getLong("session.ttlMinutes", 30L) * 60_000L;
+        String store = System.getProperty("session.store", "sqlite");
+        switch (store) {
+            case "sqlite":
+                return new SqliteSessionStore(ttlMillis);
+            case "signed":
+                String secret = System.getProperty("session.secret", System.getenv("SESSION_SECRET"));
+                byte[] key;
+                if (secret == null || secret.isEmpty()) {
+                    System.err.println("No session.secret set; using a random key, so sessions end on restart " +
+                                       "and are not shared between nodes");
+                    key = new byte[32];
+                    new SecureRandom().nextBytes(key);
+                } else {
+                    key = secret.getBytes(StandardCharsets.UTF_8);
+                }
+                return new SignedTokenSessionStore(key, ttlMillis);
+            default:
+                throw new IllegalArgumentException("Unknown session.store: " + store);
+        }
+    }
+    
     /**
      * Configure session settings for the application
      */
-    private static void sessionConfig() {
-        // Set session timeout to 30 minutes
-        int maxAge = 30 * 60; // 30 minutes in seconds
-        
-        // Configure session settings
-        staticFiles.expireTime(maxAge);
-        
-        // Set up session handling
+    private static void sessionConfig(SessionStore sessionStore, StaticAssets staticAssets) {
+        // Resolve the session cookie once per request. Requests without one cost
+        // nothing and create no server-side state. Browsers send the cookie with
+        // static assets too; those skip the lookup, except the dashboard pages,
+        // which need the user for the redirects below.
         before((req, res) -> {
-            if (req.session(true).isNew()) {
-                req.session().maxInactiveInterval(maxAge);
+            if (staticAssets.find(req.pathInfo()) != null && !DASHBOARD_PAGES.contains(req.pathInfo())) {
+                return;
+            }
+            String token = req.cookie(SESSION_COOKIE);
+            if (token == null || token.isEmpty()) {
+                return;
             }
+            SessionStore.Session session;
+            try {
+                session = sessionStore.find(token);
+                if (session == null) {
+                    clearSessionCookie(res);
+                    return;
+                }
+                // Sliding expiry, without a write on every request
+                if (session.getExpiresAt() - System.currentTimeMillis() < sessionStore.getTtlMillis() / 2) {
+                    String renewed = sessionStore.renew(session);
+                    // Renewing reloads the user, so a changed role applies from this request on
+                    session = renewed == null ? null : sessionStore.find(renewed);
+                    if (session == null) {
+                        clearSessionCookie(res);
+                        return;
+                    }
+                    setSessionCookie(res, renewed, sessionStore);
+                }
+            } catch (SQLException e) {
+                System.err.println("Session lookup failed: " + e.getMessage());
+                return;
+            }
+            User user = session.getUser();
+            req.attribute("user", user);
+            req.attribute("user_id", user.getId());
+            req.attribute("is_admin", "admin".equals(user.getRole()));
         });
         
         // Add before filter to check authentication for protected routes
-        before("/admin-dashboard.html", (req, res) -> {
-            User user = req.session().attribute("user");
+        before(ADMIN_DASHBOARD, (req, res) -> {
+            User user = req.attribute("user");
             if (user == null) {
                 res.redirect("/login.html");
                 halt();
@@ -1886,8 +2327,8 @@ public class Main {
             }
         });
         
-        before("/user-dashboard.html", (req, res) -> {
-            User user = req.session().attribute("user");
+        before(USER_DASHBOARD, (req, res) -> {
+            User user = req.attribute("user");
             if (user == null) {
                 res.redirect("/login.html");
                 halt();
@@ -1941,12 +2382,81 @@ public class Main {
         ));
     }
     
+    private static double doubleParam(spark.Request req, String name) {
+        String value = req.queryParams(name);
+        if (value == null) {
+            throw new IllegalArgumentException("Missing " + name);
+        }
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid " + name + ": " + value);
+        }
+    }
+    
+    // ?limit= for spatial queries: 100 by default, at most 1000
+    private static int limitParam(spark.Request req) {
+        String value = req.queryParams("limit");
+        if (value == null) {
+            return 100;
+        }
+        try {
+            return Math.max(1, Math.min(1000, Integer.parseInt(value)));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid limit: " + value);
+        }
+    }
+    
+    private static int intParam(spark.Request req, String name, int defaultValue, int min, int max) {
+        String value = req.queryParams(name);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Math.max(min, Math.min(max, Integer.parseInt(value)));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid " + name + ": " + value);
+        }
+    }
+    
+    private static Map<String, Object> positionEntry(PositionReport position) {
+        Map<String, Object> entry = new LinkedHashMap<>();
+        entry.put("ship_id", position.getShipId());
+        entry.putAll(position.toMap());
+        return entry;
+    }
+    
+    private static void setSessionCookie(spark.Response res, String token, SessionStore sessionStore) {
+        res.cookie("/", SESSION_COOKIE, token, (int) (sessionStore.getTtlMillis() / 1000),
+                   Boolean.getBoolean("session.secureCookie"), true);
+    }
+    
+    private static void clearSessionCookie(spark.Response res) {
+        res.cookie("/", SESSION_COOKIE, "", 0, Boolean.getBoolean("session.secureCookie"), true);
+    }
+    
+    private static void endSession(spark.Request req, spark.Response res, SessionStore sessionStore) {
+        String token = req.cookie(SESSION_COOKIE);
+        if (token != null && !token.isEmpty()) {
+            try {
+                sessionStore.invalidate(token);
+            } catch (SQLException e) {
+                System.err.println("Failed to end session: " + e.getMessage());
+            }
+        }
+        clearSessionCookie(res);
+    }
+    
     private static boolean isAuthenticated(spark.Request req) {
-        return req.session().attribute("user") != null;
+        return req.attribute("user") != null;
     }
     
     private static boolean isAdmin(spark.Request req) {
-        User user = req.session().attribute("user");
+        User user = req.attribute("user");
         return user != null && "admin".equals(user.getRole());
     }
+    
+    private static boolean isLoopback(String ip) {
+        return "127.0.0.1".equals(ip) || "0:0:0:0:0:0:0:1".equals(ip) || "::1".equals(ip);
+    }
 }
\ No newline at end of file
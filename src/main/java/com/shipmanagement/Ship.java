@@ -5,6 +5,11 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 
+import com.shipmanagement.booking.BookingIndex;
+import com.shipmanagement.cache.ShipCache;
+import com.shipmanagement.dao.ShipDAO;
+import com.shipmanagement.telemetry.ShipPositions;
+
 public abstract class Ship implements ShipInterface {   
     protected int id; // Unique identifier for the ship
     protected String type;            
@@ -44,7 +49,7 @@ public abstract class Ship implements ShipInterface {
         if (id == 0) {
             // Insert new ship into the database
             String sql = "INSERT INTO ships (type, location, destination) OUTPUT INSERTED.id VALUES (?, ?, ?)";
-            try (Connection conn = DatabaseConnection.getConnection();
+            try (Connection conn = DatabaseConnection.getWriteConnection("Ship.save");
                  PreparedStatement pstmt = conn.prepareStatement(sql)) {
                 pstmt.setString(1, type);
                 pstmt.setString(2, location);
@@ -55,6 +60,8 @@ public abstract class Ship implements ShipInterface {
                         this.id = rs.getInt(1);
                     }
                 }
+                ShipDAO.invalidateShipCount();
+                ShipCache.invalidate(id);
             } catch (SQLException e) {
                 System.err.println("Error saving ship: " + e.getMessage());
                 e.printStackTrace();
@@ -62,12 +69,13 @@ public abstract class Ship implements ShipInterface {
         } else {
             // Update existing ship
             String sql = "UPDATE ships SET location = ?, destination = ? WHERE id = ?";
-            try (Connection conn = DatabaseConnection.getConnection();
+            try (Connection conn = DatabaseConnection.getWriteConnection("Ship.save");
                  PreparedStatement pstmt = conn.prepareStatement(sql)) {
                 pstmt.setString(1, location);
                 pstmt.setString(2, destination);
                 pstmt.setInt(3, id);
                 pstmt.executeUpdate();
+                ShipCache.invalidate(id);
             } catch (SQLException e) {
                 System.err.println("Error updating ship: " + e.getMessage());
                 e.printStackTrace();
@@ -77,7 +85,7 @@ public abstract class Ship implements ShipInterface {
 
     public static Ship findById(int id) {
         String sql = "SELECT * FROM ships WHERE id = ?";
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = DatabaseConnection.getConnection("Ship.findById");
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setInt(1, id);
             try (ResultSet rs = pstmt.executeQuery()) {
@@ -108,10 +116,15 @@ public abstract class Ship implements ShipInterface {
     public void delete() {
         if (id != 0) {
             String sql = "DELETE FROM ships WHERE id = ?";
-            try (Connection conn = DatabaseConnection.getConnection();
+            try (Connection conn = DatabaseConnection.getWriteConnection("Ship.delete");
                  PreparedStatement pstmt = conn.prepareStatement(sql)) {
                 pstmt.setInt(1, id);
                 pstmt.executeUpdate();
+                // Still holding the writer, so no count can be loaded from before the delete
+                ShipDAO.invalidateShipCount();
+                ShipCache.invalidate(id);
+                BookingIndex.removeShip(id);
+                ShipPositions.removeShip(id);
             } catch (SQLException e) {
                 System.err.println("Error deleting ship: " + e.getMessage());
                 e.printStackTrace();
@@ -0,0 +1,115 @@
+package com.shipmanagement.auth;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Fixed-window attempt counter keyed by username or client address.
+ *
+ * A key may record {@code maxAttempts} attempts per window; after that
+ * {@link #retryAfterMillis} reports how long until the window resets. Checking
+ * is cheap and happens before any database lookup or password hashing, so a
+ * throttled client costs almost nothing. Expired windows are swept once the map
+ * grows past {@code SWEEP_THRESHOLD} keys.
+ */
+public class LoginThrottle {
+
+    private static final int SWEEP_THRESHOLD = 10_000;
+
+    private static final class Window {
+        final long startedAt;
+        int attempts;
+
+        Window(long startedAt) {
+            this.startedAt = startedAt;
+        }
+    }
+
+    private final int maxAttempts;
+    private final long windowNanos;
+    private final LongSupplier clock;
+    private final ConcurrentHashMap<String, Window> windows = new ConcurrentHashMap<>();
+
+    // Metrics
+    private final LongAdder throttled = new LongAdder();
+
+    public LoginThrottle(int maxAttempts, long windowMillis) {
+        this(maxAttempts, windowMillis, System::nanoTime);
+    }
+
+    /**
+     * @param clock Nanosecond clock, replaceable in tests
+     */
+    public LoginThrottle(int maxAttempts, long windowMillis, LongSupplier clock) {
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("At least one attempt per window is required");
+        }
+        this.maxAttempts = maxAttempts;
+        this.windowNanos = TimeUnit.MILLISECONDS.toNanos(windowMillis);
+        this.clock = clock;
+    }
+
+    /**
+     * @return 0 if the key may make another attempt, otherwise milliseconds until it may
+     */
+    public long retryAfterMillis(String key) {
+        Window window = windows.get(key);
+        if (window == null) {
+            return 0;
+        }
+        synchronized (window) {
+            long remaining = window.startedAt + windowNanos - clock.getAsLong();
+            if (remaining <= 0 || window.attempts < maxAttempts) {
+                return 0;
+            }
+            throttled.increment();
+            return Math.max(1, TimeUnit.NANOSECONDS.toMillis(remaining));
+        }
+    }
+
+    /**
+     * Counts an attempt against the key.
+     */
+    public void record(String key) {
+        long now = clock.getAsLong();
+        windows.compute(key, (k, window) -> {
+            if (window == null || now - window.startedAt >= windowNanos) {
+                window = new Window(now);
+            }
+            synchronized (window) {
+                window.attempts++;
+            }
+            return window;
+        });
+        if (windows.size() > SWEEP_THRESHOLD) {
+            sweep(now);
+        }
+    }
+
+    /**
+     * Forgets the key's attempts, e.g. after a successful login.
+     */
+    public void reset(String key) {
+        windows.remove(key);
+    }
+
+    private void sweep(long now) {
+        windows.values().removeIf(window -> now - window.startedAt >= windowNanos);
+    }
+
+    /**
+     * Snapshot of the throttle metrics, suitable for JSON serialization.
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("maxAttempts", maxAttempts);
+        stats.put("windowMs", TimeUnit.NANOSECONDS.toMillis(windowNanos));
+        stats.put("trackedKeys", windows.size());
+        stats.put("throttled", throttled.sum());
+        return stats;
+    }
+}
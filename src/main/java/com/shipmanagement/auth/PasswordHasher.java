@@ -0,0 +1,160 @@
+package com.shipmanagement.auth;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.mindrot.jbcrypt.BCrypt;
+
+/**
+ * Runs BCrypt hashing and verification on a small dedicated thread pool.
+ *
+ * BCrypt is deliberately slow, so running it on request threads lets a burst of
+ * logins occupy every one of them. Here at most {@code threads} hashes run at a
+ * time and at most {@code queueCapacity} wait; anything beyond that, or anything
+ * that waits longer than the timeout, fails fast with {@link SaturatedException}
+ * so the caller can answer 503 instead of tying up a thread.
+ *
+ * The shared instance is sized with -Dauth.hash.threads (default half the
+ * cores), -Dauth.hash.queue (default 32) and -Dauth.hash.timeoutMs (default 5000).
+ */
+public class PasswordHasher implements AutoCloseable {
+
+    /**
+     * Thrown when the hashing pool cannot take or finish the work in time.
+     */
+    public static class SaturatedException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        public SaturatedException(String message) {
+            super(message);
+        }
+    }
+
+    private static PasswordHasher defaultHasher;
+
+    private final ThreadPoolExecutor executor;
+    private final long timeoutMillis;
+    private final int logRounds;
+
+    // Metrics
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder timedOut = new LongAdder();
+    private final LongAdder hashNanos = new LongAdder();
+
+    public PasswordHasher(int threads, int queueCapacity, long timeoutMillis, int logRounds) {
+        if (threads < 1 || queueCapacity < 1) {
+            throw new IllegalArgumentException("Hasher needs at least one thread and one queue slot");
+        }
+        this.timeoutMillis = timeoutMillis;
+        this.logRounds = logRounds;
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                Thread thread = new Thread(runnable, "password-hasher-" + threadNumber.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * The process-wide hasher, created on first use from system properties.
+     */
+    public static synchronized PasswordHasher getDefault() {
+        if (defaultHasher == null) {
+            int threads = Integer.getInteger("auth.hash.threads",
+                Math.max(1, Runtime.getRuntime().availableProcessors() / 2));
+            int queue = Integer.getInteger("auth.hash.queue", 32);
+            long timeout = Long.getLong("auth.hash.timeoutMs", 5000L);
+            defaultHasher = new PasswordHasher(threads, queue, timeout, 10);
+        }
+        return defaultHasher;
+    }
+
+    /**
+     * Hashes a password with a fresh salt.
+     * @throws SaturatedException if the pool is full or the hash did not finish in time
+     */
+    public String hash(String password) {
+        return run(() -> BCrypt.hashpw(password, BCrypt.gensalt(logRounds)));
+    }
+
+    /**
+     * Checks a password against a stored BCrypt hash.
+     * @throws SaturatedException if the pool is full or the check did not finish in time
+     */
+    public boolean verify(String password, String hashed) {
+        return run(() -> BCrypt.checkpw(password, hashed));
+    }
+
+    private <T> T run(Callable<T> work) {
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                long start = System.nanoTime();
+                try {
+                    return work.call();
+                } finally {
+                    hashNanos.add(System.nanoTime() - start);
+                    completed.increment();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new SaturatedException("Password hashing is at capacity");
+        }
+
+        try {
+            return future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            // Drops it from the queue if it has not started yet
+            future.cancel(false);
+            timedOut.increment();
+            throw new SaturatedException("Password hashing timed out");
+        } catch (InterruptedException e) {
+            future.cancel(false);
+            Thread.currentThread().interrupt();
+            throw new SaturatedException("Interrupted while waiting for password hashing");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException("Password hashing failed", cause);
+        }
+    }
+
+    /**
+     * Snapshot of the hasher metrics, suitable for JSON serialization.
+     */
+    public Map<String, Object> getStats() {
+        long done = completed.sum();
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("threads", executor.getMaximumPoolSize());
+        stats.put("active", executor.getActiveCount());
+        stats.put("queued", executor.getQueue().size());
+        stats.put("queueCapacity", executor.getQueue().size() + executor.getQueue().remainingCapacity());
+        stats.put("completed", done);
+        stats.put("rejected", rejected.sum());
+        stats.put("timedOut", timedOut.sum());
+        stats.put("avgHashMs", done == 0 ? 0.0 : hashNanos.sum() / 1e6 / done);
+        return stats;
+    }
+
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,72 @@
+package com.shipmanagement.auth;
+
+import java.sql.SQLException;
+import java.util.Map;
+
+import com.shipmanagement.model.User;
+
+/**
+ * Where login sessions live. The token handed to the client (in the session
+ * cookie) is all a request needs to carry; the store turns it back into the
+ * user it was issued for.
+ *
+ * Sessions hold the user's id, username and role, never the password hash.
+ * Renewing a session reloads the username and role from the users table. They
+ * expire {@code ttlMillis} after they were issued or last renewed; the
+ * request filter renews a session once half of that has passed, so active
+ * users stay logged in.
+ */
+public interface SessionStore {
+
+    /**
+     * A valid session. The user has no password set.
+     */
+    final class Session {
+        private final String token;
+        private final User user;
+        private final long expiresAt;
+
+        public Session(String token, User user, long expiresAt) {
+            this.token = token;
+            this.user = user;
+            this.expiresAt = expiresAt;
+        }
+
+        public String getToken() { return token; }
+
+        public User getUser() { return user; }
+
+        // Epoch milliseconds
+        public long getExpiresAt() { return expiresAt; }
+    }
+
+    /**
+     * Starts a session for the user.
+     * @return The token to give to the client
+     */
+    String create(User user) throws SQLException;
+
+    /**
+     * @return The session, or null if the token is unknown, expired or has been tampered with
+     */
+    Session find(String token) throws SQLException;
+
+    /**
+     * Pushes a session's expiry out by a full TTL, with the user's current username and role.
+     * @return The token the client should use from now on, which may differ from the old one,
+     *         or null if the user no longer exists
+     */
+    String renew(Session session) throws SQLException;
+
+    /**
+     * Ends a session, if the store can (see {@link SignedTokenSessionStore}).
+     */
+    void invalidate(String token) throws SQLException;
+
+    long getTtlMillis();
+
+    /**
+     * Snapshot of the store metrics, suitable for JSON serialization.
+     */
+    Map<String, Object> getStats();
+}
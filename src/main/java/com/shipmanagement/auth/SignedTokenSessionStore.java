@@ -0,0 +1,169 @@
+package com.shipmanagement.auth;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.sql.SQLException;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import com.shipmanagement.DatabaseConnection;
+import com.shipmanagement.model.User;
+
+/**
+ * Stateless sessions: the token itself carries the user id, role, username
+ * and expiry, signed with HMAC-SHA256. Checking a token needs no lookup at
+ * all, and any app node configured with the same key accepts it.
+ *
+ * Token format: base64url("v1|id|expiresAt|role|username") + "." + base64url(mac).
+ *
+ * The trade-off is revocation. A token stays valid until it expires, so logging
+ * out only clears the cookie. Renewing reloads the user, so a role change
+ * reaches the client with its next renewed token, but tokens issued before the
+ * change keep the old role until they expire. Keep the TTL short when using
+ * this store.
+ */
+public class SignedTokenSessionStore implements SessionStore {
+
+    private static final String VERSION = "v1";
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+
+    /**
+     * Looks up a user's current username and role when a token is renewed.
+     */
+    @FunctionalInterface
+    public interface UserLoader {
+        /**
+         * @return The user, or null if there is no user with this id
+         */
+        User load(int id) throws SQLException;
+    }
+
+    private final SecretKeySpec key;
+    private final long ttlMillis;
+    private final LongSupplier clock;
+    private final UserLoader users;
+    // Mac instances are not thread-safe
+    private final ThreadLocal<Mac> macs;
+
+    // Metrics
+    private final LongAdder issued = new LongAdder();
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder forged = new LongAdder();
+    private final LongAdder expired = new LongAdder();
+
+    public SignedTokenSessionStore(byte[] secret, long ttlMillis) {
+        this(secret, ttlMillis, System::currentTimeMillis, DatabaseConnection::getUserById);
+    }
+
+    /**
+     * @param secret Signing key, at least 32 bytes, shared by every node
+     * @param clock Millisecond wall clock, replaceable in tests
+     * @param users Source of the current username and role, replaceable in tests
+     */
+    public SignedTokenSessionStore(byte[] secret, long ttlMillis, LongSupplier clock, UserLoader users) {
+        if (secret == null || secret.length < 32) {
+            throw new IllegalArgumentException("Session signing key must be at least 32 bytes");
+        }
+        if (ttlMillis <= 0) {
+            throw new IllegalArgumentException("Session TTL must be positive");
+        }
+        this.key = new SecretKeySpec(secret.clone(), ALGORITHM);
+        this.ttlMillis = ttlMillis;
+        this.clock = clock;
+        this.users = users;
+        this.macs = ThreadLocal.withInitial(() -> {
+            try {
+                Mac mac = Mac.getInstance(ALGORITHM);
+                mac.init(key);
+                return mac;
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException(ALGORITHM + " is not available", e);
+            }
+        });
+    }
+
+    @Override
+    public String create(User user) {
+        String payload = String.join("|", VERSION, String.valueOf(user.getId()),
+            String.valueOf(clock.getAsLong() + ttlMillis), user.getRole(), user.getUsername());
+        byte[] bytes = payload.getBytes(StandardCharsets.UTF_8);
+        issued.increment();
+        return ENCODER.encodeToString(bytes) + "." + ENCODER.encodeToString(sign(bytes));
+    }
+
+    @Override
+    public Session find(String token) {
+        int dot = token.indexOf('.');
+        byte[] payload;
+        byte[] signature;
+        try {
+            payload = Base64.getUrlDecoder().decode(token.substring(0, Math.max(dot, 0)));
+            signature = Base64.getUrlDecoder().decode(token.substring(dot + 1));
+        } catch (IllegalArgumentException e) {
+            forged.increment();
+            return null;
+        }
+        if (dot < 0 || !MessageDigest.isEqual(sign(payload), signature)) {
+            forged.increment();
+            return null;
+        }
+
+        // Signed by us, so the format is ours
+        String[] fields = new String(payload, StandardCharsets.UTF_8).split("\\|", 5);
+        if (fields.length != 5 || !VERSION.equals(fields[0])) {
+            forged.increment();
+            return null;
+        }
+        long expiresAt = Long.parseLong(fields[2]);
+        if (expiresAt <= clock.getAsLong()) {
+            expired.increment();
+            return null;
+        }
+        User user = new User();
+        user.setId(Integer.parseInt(fields[1]));
+        user.setRole(fields[3]);
+        user.setUsername(fields[4]);
+        accepted.increment();
+        return new Session(token, user, expiresAt);
+    }
+
+    // A new token with a later expiry and the user as they are now; the old one
+    // stays valid until it expires
+    @Override
+    public String renew(Session session) throws SQLException {
+        User user = users.load(session.getUser().getId());
+        return user == null ? null : create(user);
+    }
+
+    // Nothing to forget; the caller clears the cookie
+    @Override
+    public void invalidate(String token) {
+    }
+
+    @Override
+    public long getTtlMillis() { return ttlMillis; }
+
+    @Override
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("store", "signed");
+        stats.put("ttlMillis", ttlMillis);
+        stats.put("issued", issued.sum());
+        stats.put("accepted", accepted.sum());
+        stats.put("forged", forged.sum());
+        stats.put("expired", expired.sum());
+        return stats;
+    }
+
+    private byte[] sign(byte[] payload) {
+        return macs.get().doFinal(payload);
+    }
+}
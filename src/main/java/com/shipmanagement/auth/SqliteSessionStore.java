@@ -0,0 +1,178 @@
+package com.shipmanagement.auth;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+import com.shipmanagement.DatabaseConnection;
+import com.shipmanagement.model.User;
+
+/**
+ * Sessions kept in the sessions table, so they survive restarts and every app
+ * node sharing the database sees the same sessions. Logging out deletes the
+ * row, so a token stops working immediately. The username and role are read
+ * from the users table on every lookup, so a role change applies from the
+ * user's next request.
+ *
+ * Tokens are 32 random bytes; only their SHA-256 is stored, so a copy of the
+ * database cannot be used to log in. Lookups are a primary key read; expired
+ * rows are deleted at most once a minute, when a new session is created.
+ */
+public class SqliteSessionStore implements SessionStore {
+
+    private static final long PURGE_INTERVAL_MS = 60_000;
+
+    private final SecureRandom random = new SecureRandom();
+    private final long ttlMillis;
+    private final LongSupplier clock;
+    private final AtomicLong lastPurge = new AtomicLong();
+
+    // Metrics
+    private final LongAdder created = new LongAdder();
+    private final LongAdder found = new LongAdder();
+    private final LongAdder missed = new LongAdder();
+    private final LongAdder renewed = new LongAdder();
+    private final LongAdder invalidated = new LongAdder();
+    private final LongAdder purged = new LongAdder();
+
+    public SqliteSessionStore(long ttlMillis) {
+        this(ttlMillis, System::currentTimeMillis);
+    }
+
+    /**
+     * @param clock Millisecond wall clock, replaceable in tests
+     */
+    public SqliteSessionStore(long ttlMillis, LongSupplier clock) {
+        if (ttlMillis <= 0) {
+            throw new IllegalArgumentException("Session TTL must be positive");
+        }
+        this.ttlMillis = ttlMillis;
+        this.clock = clock;
+    }
+
+    @Override
+    public String create(User user) throws SQLException {
+        byte[] bytes = new byte[32];
+        random.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        long now = clock.getAsLong();
+        long last = lastPurge.get();
+        boolean purge = now - last >= PURGE_INTERVAL_MS && lastPurge.compareAndSet(last, now);
+
+        DatabaseConnection.write("SqliteSessionStore.create", conn -> {
+            if (purge) {
+                try (PreparedStatement pstmt = conn.prepareStatement("DELETE FROM sessions WHERE expires_at <= ?")) {
+                    pstmt.setLong(1, now);
+                    purged.add(pstmt.executeUpdate());
+                }
+            }
+            String sql = "INSERT INTO sessions (token_hash, user_id, username, role, created_at, expires_at) " +
+                         "VALUES (?, ?, ?, ?, ?, ?)";
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                pstmt.setString(1, hash(token));
+                pstmt.setInt(2, user.getId());
+                pstmt.setString(3, user.getUsername());
+                pstmt.setString(4, user.getRole());
+                pstmt.setLong(5, now);
+                pstmt.setLong(6, now + ttlMillis);
+                return pstmt.executeUpdate();
+            }
+        });
+        created.increment();
+        return token;
+    }
+
+    @Override
+    public Session find(String token) throws SQLException {
+        // The session's own username and role columns only record them as they were at login
+        String sql = "SELECT s.user_id, u.username, u.role, s.expires_at FROM sessions s " +
+                     "JOIN users u ON u.id = s.user_id WHERE s.token_hash = ?";
+        try (Connection conn = DatabaseConnection.getConnection("SqliteSessionStore.find");
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, hash(token));
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (rs.next() && rs.getLong("expires_at") > clock.getAsLong()) {
+                    User user = new User();
+                    user.setId(rs.getInt("user_id"));
+                    user.setUsername(rs.getString("username"));
+                    user.setRole(rs.getString("role"));
+                    found.increment();
+                    return new Session(token, user, rs.getLong("expires_at"));
+                }
+            }
+        }
+        missed.increment();
+        return null;
+    }
+
+    @Override
+    public String renew(Session session) throws SQLException {
+        long expiresAt = clock.getAsLong() + ttlMillis;
+        int updated = DatabaseConnection.write("SqliteSessionStore.renew", conn -> {
+            try (PreparedStatement pstmt = conn.prepareStatement(
+                     "UPDATE sessions SET expires_at = ? WHERE token_hash = ?")) {
+                pstmt.setLong(1, expiresAt);
+                pstmt.setString(2, hash(session.getToken()));
+                return pstmt.executeUpdate();
+            }
+        });
+        // Deleting the user deletes their sessions
+        if (updated == 0) {
+            return null;
+        }
+        renewed.increment();
+        return session.getToken();
+    }
+
+    @Override
+    public void invalidate(String token) throws SQLException {
+        DatabaseConnection.write("SqliteSessionStore.invalidate", conn -> {
+            try (PreparedStatement pstmt = conn.prepareStatement("DELETE FROM sessions WHERE token_hash = ?")) {
+                pstmt.setString(1, hash(token));
+                return pstmt.executeUpdate();
+            }
+        });
+        invalidated.increment();
+    }
+
+    @Override
+    public long getTtlMillis() { return ttlMillis; }
+
+    @Override
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("store", "sqlite");
+        stats.put("ttlMillis", ttlMillis);
+        stats.put("created", created.sum());
+        stats.put("found", found.sum());
+        stats.put("missed", missed.sum());
+        stats.put("renewed", renewed.sum());
+        stats.put("invalidated", invalidated.sum());
+        stats.put("purged", purged.sum());
+        return stats;
+    }
+
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                hex.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,224 @@
+package com.shipmanagement.booking;
+
+import java.sql.SQLException;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-ship interval index of the bookings that hold a ship: pending, confirmed
+ * and approved ones. Booking dates are inclusive days, so a booking ending on
+ * the 4th conflicts with one starting on the 4th.
+ *
+ * Every change for a ship runs under that ship's lock: the overlap check, the
+ * database write passed in by the caller, and the index update. Two
+ * overlapping requests for one ship therefore cannot both pass the check.
+ * Different ships do not contend.
+ */
+public class BookingCalendar {
+
+    /**
+     * A database write run under the ship's lock once the booking is known not
+     * to conflict. Returns the new booking id for inserts, or the number of
+     * rows changed for updates.
+     */
+    public interface Write {
+        int run() throws SQLException;
+    }
+
+    /**
+     * The requested dates overlap a booking that already holds the ship.
+     */
+    public static class ConflictException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+        private final int conflictingBookingId;
+
+        public ConflictException(int shipId, int conflictingBookingId) {
+            super("Ship " + shipId + " is already booked for these dates (booking " + conflictingBookingId + ")");
+            this.conflictingBookingId = conflictingBookingId;
+        }
+
+        public int getConflictingBookingId() { return conflictingBookingId; }
+    }
+
+    private static final class Booked {
+        final int shipId;
+        final long start;
+
+        Booked(int shipId, long start) {
+            this.shipId = shipId;
+            this.start = start;
+        }
+    }
+
+    private final ConcurrentHashMap<Integer, IntervalTree> ships = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Integer, Booked> bookings = new ConcurrentHashMap<>();
+
+    // Metrics
+    private final LongAdder checks = new LongAdder();
+    private final LongAdder conflicts = new LongAdder();
+
+    /**
+     * Whether a booking in this status holds the ship.
+     */
+    public static boolean holdsShip(String status) {
+        return status != null && (status.equalsIgnoreCase("pending")
+                                  || status.equalsIgnoreCase("confirmed")
+                                  || status.equalsIgnoreCase("approved"));
+    }
+
+    /**
+     * Parses a booking date; anything after the date itself (e.g. a time) is ignored.
+     * @throws IllegalArgumentException if it is not an ISO date
+     */
+    public static LocalDate parseDate(String date) {
+        if (date == null || date.length() < 10) {
+            throw new IllegalArgumentException("Invalid date: " + date);
+        }
+        try {
+            return LocalDate.parse(date.substring(0, 10));
+        } catch (DateTimeException e) {
+            throw new IllegalArgumentException("Invalid date: " + date, e);
+        }
+    }
+
+    /**
+     * Indexes an existing booking without checking it, e.g. when loading from the database.
+     */
+    public void add(int bookingId, int shipId, LocalDate start, LocalDate end) {
+        IntervalTree tree = ships.computeIfAbsent(shipId, id -> new IntervalTree());
+        synchronized (tree) {
+            if (bookings.putIfAbsent(bookingId, new Booked(shipId, start.toEpochDay())) == null) {
+                tree.insert(bookingId, start.toEpochDay(), end.toEpochDay());
+            }
+        }
+    }
+
+    /**
+     * Runs the insert if the dates are free and indexes the new booking.
+     * @return The id returned by the insert, or -1 if it failed
+     * @throws ConflictException if the dates overlap a booking that holds the ship
+     */
+    public int reserve(int shipId, LocalDate start, LocalDate end, Write insert) throws SQLException {
+        checkRange(start, end);
+        IntervalTree tree = ships.computeIfAbsent(shipId, id -> new IntervalTree());
+        synchronized (tree) {
+            checkFree(tree, shipId, start, end);
+            int bookingId = insert.run();
+            if (bookingId > 0) {
+                bookings.put(bookingId, new Booked(shipId, start.toEpochDay()));
+                tree.insert(bookingId, start.toEpochDay(), end.toEpochDay());
+            }
+            return bookingId;
+        }
+    }
+
+    /**
+     * Runs a status update, checking for conflicts first if the booking is
+     * about to start holding the ship again (e.g. a rejected booking approved).
+     * @return The number of rows the update changed
+     * @throws ConflictException if the booking would overlap another that holds the ship
+     */
+    public int changeStatus(int bookingId, int shipId, LocalDate start, LocalDate end, String status, Write update)
+            throws SQLException {
+        IntervalTree tree = ships.computeIfAbsent(shipId, id -> new IntervalTree());
+        synchronized (tree) {
+            boolean held = bookings.containsKey(bookingId);
+            boolean holds = holdsShip(status);
+            if (holds && !held) {
+                checkRange(start, end);
+                checkFree(tree, shipId, start, end);
+            }
+            int changed = update.run();
+            if (changed > 0) {
+                if (holds && !held) {
+                    bookings.put(bookingId, new Booked(shipId, start.toEpochDay()));
+                    tree.insert(bookingId, start.toEpochDay(), end.toEpochDay());
+                } else if (!holds && held) {
+                    tree.remove(bookingId, bookings.remove(bookingId).start);
+                }
+            }
+            return changed;
+        }
+    }
+
+    /**
+     * Forgets a booking, e.g. once it has been deleted.
+     */
+    public void remove(int bookingId) {
+        Booked booked = bookings.get(bookingId);
+        if (booked == null) {
+            return;
+        }
+        IntervalTree tree = ships.get(booked.shipId);
+        if (tree == null) {
+            return;
+        }
+        synchronized (tree) {
+            if (bookings.remove(bookingId, booked)) {
+                tree.remove(bookingId, booked.start);
+            }
+        }
+    }
+
+    /**
+     * Forgets every booking of a ship, e.g. once the ship has been deleted.
+     */
+    public void removeShip(int shipId) {
+        IntervalTree tree = ships.remove(shipId);
+        if (tree != null) {
+            synchronized (tree) {
+                bookings.values().removeIf(booked -> booked.shipId == shipId);
+            }
+        }
+    }
+
+    public void clear() {
+        ships.clear();
+        bookings.clear();
+    }
+
+    /**
+     * The id of a booking holding the ship on any of these days, or -1 if it is free.
+     */
+    public int findConflict(int shipId, LocalDate start, LocalDate end) {
+        IntervalTree tree = ships.get(shipId);
+        if (tree == null) {
+            return -1;
+        }
+        synchronized (tree) {
+            return tree.findOverlap(start.toEpochDay(), end.toEpochDay());
+        }
+    }
+
+    private static void checkRange(LocalDate start, LocalDate end) {
+        if (end.isBefore(start)) {
+            throw new IllegalArgumentException("End date " + end + " is before start date " + start);
+        }
+    }
+
+    // Caller holds the tree's lock
+    private void checkFree(IntervalTree tree, int shipId, LocalDate start, LocalDate end) {
+        checks.increment();
+        int conflict = tree.findOverlap(start.toEpochDay(), end.toEpochDay());
+        if (conflict >= 0) {
+            conflicts.increment();
+            throw new ConflictException(shipId, conflict);
+        }
+    }
+
+    /**
+     * Index size and conflict counts, suitable for JSON serialization.
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("ships", ships.size());
+        stats.put("bookings", bookings.size());
+        stats.put("checks", checks.sum());
+        stats.put("conflicts", conflicts.sum());
+        return stats;
+    }
+}
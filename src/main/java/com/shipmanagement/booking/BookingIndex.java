@@ -0,0 +1,78 @@
+package com.shipmanagement.booking;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import com.shipmanagement.DatabaseConnection;
+
+/**
+ * The process-wide {@link BookingCalendar}, loaded from the bookings table on
+ * first use and kept current by DatabaseConnection's booking writes.
+ */
+public final class BookingIndex {
+
+    private static final String LOAD_SQL =
+        "SELECT id, ship_id, start_date, end_date FROM bookings " +
+        "WHERE LOWER(status) IN ('pending', 'confirmed', 'approved')";
+
+    private static final BookingCalendar calendar = new BookingCalendar();
+    private static volatile boolean loaded;
+
+    private BookingIndex() {
+    }
+
+    /**
+     * The calendar, loading it first if needed.
+     */
+    public static BookingCalendar calendar() throws SQLException {
+        if (!loaded) {
+            load();
+        }
+        return calendar;
+    }
+
+    // Call after the delete has committed; nothing to do if the index is not loaded yet
+    public static void removeBooking(int bookingId) {
+        calendar.remove(bookingId);
+    }
+
+    // Call after the ship (and, by cascade, its bookings) has been deleted
+    public static void removeShip(int shipId) {
+        calendar.removeShip(shipId);
+    }
+
+    /**
+     * Drops the index so the next use reloads it, e.g. after bulk inserts that bypassed it.
+     */
+    public static synchronized void invalidate() {
+        loaded = false;
+        calendar.clear();
+    }
+
+    private static synchronized void load() throws SQLException {
+        if (loaded) {
+            return;
+        }
+        calendar.clear();
+        int skipped = 0;
+        try (Connection conn = DatabaseConnection.getConnection("BookingIndex.load");
+             PreparedStatement pstmt = conn.prepareStatement(LOAD_SQL);
+             ResultSet rs = pstmt.executeQuery()) {
+            while (rs.next()) {
+                try {
+                    calendar.add(rs.getInt("id"), rs.getInt("ship_id"),
+                                 BookingCalendar.parseDate(rs.getString("start_date")),
+                                 BookingCalendar.parseDate(rs.getString("end_date")));
+                } catch (IllegalArgumentException e) {
+                    skipped++;
+                }
+            }
+        }
+        if (skipped > 0) {
+            System.err.println("Booking index: skipped " + skipped + " bookings with unreadable dates");
+        }
+        loaded = true;
+    }
+}
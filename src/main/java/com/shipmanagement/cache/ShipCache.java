@@ -0,0 +1,98 @@
+package com.shipmanagement.cache;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.shipmanagement.model.Ship;
+
+/**
+ * Process-wide cache of ship rows, keyed by ship id.
+ *
+ * Holds the two shapes ships are read in: the {@link Ship} entity used by
+ * ShipDAO and the detail map (ship plus crew) returned by
+ * DatabaseConnection.getShipById. Both are dropped together whenever a ship or
+ * its crew is written. Callers always get a copy, so mutating a returned ship
+ * never leaks into the cache.
+ *
+ * Sized with -Dcache.ships.size (default 1000, 0 disables) and
+ * -Dcache.ships.ttlMs (default 60000).
+ */
+public final class ShipCache {
+
+    private static final int MAX_SIZE = Integer.getInteger("cache.ships.size", 1000);
+    private static final long TTL_MILLIS = Long.getLong("cache.ships.ttlMs", 60_000L);
+
+    private static final TtlCache<Integer, Ship> entities = new TtlCache<>(MAX_SIZE, TTL_MILLIS);
+    private static final TtlCache<Integer, Map<String, Object>> details = new TtlCache<>(MAX_SIZE, TTL_MILLIS);
+
+    private ShipCache() {
+    }
+
+    public static Ship getShip(int id, TtlCache.Loader<Integer, Ship> loader) throws SQLException {
+        return copy(entities.get(id, loader));
+    }
+
+    public static Map<String, Object> getShipDetails(int id, TtlCache.Loader<Integer, Map<String, Object>> loader)
+            throws SQLException {
+        return copy(details.get(id, loader));
+    }
+
+    // Call after the write has committed
+    public static void invalidate(int id) {
+        entities.invalidate(id);
+        details.invalidate(id);
+    }
+
+    public static void invalidateAll() {
+        entities.invalidateAll();
+        details.invalidateAll();
+    }
+
+    /**
+     * Hit ratio, eviction and size metrics for both views.
+     */
+    public static Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("ships", entities.getStats());
+        stats.put("shipDetails", details.getStats());
+        return stats;
+    }
+
+    private static Ship copy(Ship ship) {
+        if (ship == null) {
+            return null;
+        }
+        Ship copy = new Ship();
+        copy.setId(ship.getId());
+        copy.setName(ship.getName());
+        copy.setImoNumber(ship.getImoNumber());
+        copy.setType(ship.getType());
+        copy.setStatus(ship.getStatus());
+        copy.setCapacity(ship.getCapacity());
+        copy.setCurrentLocation(ship.getCurrentLocation());
+        copy.setLastMaintenanceDate(ship.getLastMaintenanceDate());
+        copy.setCreatedAt(ship.getCreatedAt());
+        return copy;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> copy(Map<String, Object> ship) {
+        if (ship == null) {
+            return null;
+        }
+        Map<String, Object> copy = new HashMap<>(ship);
+        Object crew = ship.get("crew");
+        if (crew instanceof List) {
+            List<Map<String, Object>> crewCopy = new ArrayList<>();
+            for (Map<String, Object> member : (List<Map<String, Object>>) crew) {
+                crewCopy.add(new HashMap<>(member));
+            }
+            copy.put("crew", crewCopy);
+        }
+        return copy;
+    }
+}
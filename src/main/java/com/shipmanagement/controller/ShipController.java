@@ -1,13 +1,22 @@
 package com.shipmanagement.controller;
 
+import static spark.Spark.get;
+
+import java.io.IOException;
+import java.time.LocalDate;
 import java.util.HashMap;
 import java.util.Map;
 
 import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
 import com.shipmanagement.model.Ship;
 import com.shipmanagement.service.ShipService;
 import com.shipmanagement.util.AuthUtil;
 
+import spark.HaltException;
 import spark.Request;
 import spark.Response;
 
@@ -17,7 +26,30 @@ public class ShipController {
     
     public ShipController() {
         this.shipService = new ShipService();
-        this.gson = new Gson();
+        // Gson cannot reflect into java.time on JDK 17+, so dates go through an ISO-8601 adapter
+        this.gson = new GsonBuilder()
+            .registerTypeAdapter(LocalDate.class, new LocalDateAdapter().nullSafe())
+            .create();
+        
+        setupRoutes();
+    }
+    
+    private static final class LocalDateAdapter extends TypeAdapter<LocalDate> {
+        @Override
+        public void write(JsonWriter out, LocalDate value) throws IOException {
+            out.value(value.toString());
+        }
+        
+        @Override
+        public LocalDate read(JsonReader in) throws IOException {
+            return LocalDate.parse(in.nextString());
+        }
+    }
+    
+    private void setupRoutes() {
+        // Cursor-paged listing; registered before Main's /api/ships/:id so it is not
+        // taken for a ship id
+        get("/api/ships/cursor", this::getShipsPage);
     }
     
     // Get all ships
@@ -46,6 +78,36 @@ public class ShipController {
         }
     }
 
+    // Get ships with keyset pagination: ?after=<last id seen>&pageSize=n
+    public String getShipsPage(Request req, Response res) {
+        try {
+            AuthUtil.requireAuth(req, res);
+            
+            Integer after = null;
+            int pageSize = 6; // Default page size
+            
+            try {
+                if (req.queryParams("after") != null) {
+                    after = Integer.parseInt(req.queryParams("after"));
+                }
+                if (req.queryParams("pageSize") != null) {
+                    pageSize = Math.max(1, Math.min(100, Integer.parseInt(req.queryParams("pageSize"))));
+                }
+            } catch (NumberFormatException e) {
+                res.status(400);
+                return errorResponse("Invalid cursor or page size");
+            }
+            
+            res.type("application/json");
+            return gson.toJson(shipService.getShipsAfter(after, pageSize));
+        } catch (HaltException e) {
+            throw e; // Let auth failures keep their 401
+        } catch (Exception e) {
+            res.status(500);
+            return errorResponse("Failed to retrieve ships: " + e.getMessage());
+        }
+    }
+
     // Get ship by ID
     public String getShipById(Request req, Response res) {
         try {
@@ -0,0 +1,146 @@
+package com.shipmanagement.dao;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import com.shipmanagement.DatabaseConnection;
+import com.shipmanagement.model.SearchResult;
+import com.shipmanagement.model.User;
+
+/**
+ * Queries the search_index FTS5 table, which triggers keep in sync with staff,
+ * crew_members, tasks and problem_reports (see Migrations).
+ *
+ * User input is never passed to MATCH as is: it is split into words, and each
+ * word becomes a quoted prefix term, so "eng smi" finds "Engineer John Smith".
+ * All words must match. Results are ranked by BM25 with title matches weighted
+ * above body matches. Admins can find every row; other users only find the
+ * tasks and problem reports they are part of.
+ */
+public class SearchDAO {
+
+    public static final Set<String> TYPES = Set.of("staff", "crew", "task", "problem_report");
+
+    private static final int MAX_TERMS = 10;
+
+    // bm25 takes one weight per column: kind, ref_id, title, body
+    private static final String SEARCH_SQL =
+        "SELECT kind, ref_id, title, snippet(search_index, 3, '[', ']', '...', 12) AS snippet, " +
+        "bm25(search_index, 0.0, 0.0, 10.0, 1.0) AS rank " +
+        "FROM search_index WHERE search_index MATCH ?";
+
+    // Non-admins only see the tasks and problem reports they are part of
+    private static final String VISIBLE_TO_USER =
+        " AND (kind NOT IN ('task', 'problem_report') " +
+        "OR (kind = 'task' AND ref_id IN (SELECT id FROM tasks WHERE assigned_to = ? OR assigned_by = ?)) " +
+        "OR (kind = 'problem_report' AND ref_id IN (SELECT id FROM problem_reports WHERE reported_by = ?)))";
+
+    /**
+     * Turns free text into an FTS5 query of quoted prefix terms.
+     * @return The query, or null if the text has no words in it
+     */
+    public static String toMatchQuery(String text) {
+        if (text == null) {
+            return null;
+        }
+        StringBuilder query = new StringBuilder();
+        int terms = 0;
+        int i = 0;
+        while (i < text.length() && terms < MAX_TERMS) {
+            while (i < text.length() && !Character.isLetterOrDigit(text.charAt(i))) {
+                i++;
+            }
+            int start = i;
+            while (i < text.length() && Character.isLetterOrDigit(text.charAt(i))) {
+                i++;
+            }
+            if (i > start) {
+                // Only letters and digits, so the quotes need no escaping
+                query.append(terms++ > 0 ? " " : "").append('"').append(text, start, i).append("\"*");
+            }
+        }
+        return terms == 0 ? null : query.toString();
+    }
+
+    /**
+     * Ranked search across the indexed tables.
+     * @param types Result types to include, or null/empty for all
+     * @param viewer The user searching; decides which tasks and problem reports are visible
+     * @return Up to limit results, best first
+     */
+    public List<SearchResult> search(String text, Collection<String> types, int limit, int offset, User viewer)
+            throws SQLException {
+        List<SearchResult> results = new ArrayList<>();
+        String match = toMatchQuery(text);
+        if (match == null) {
+            return results;
+        }
+
+        List<String> kinds = types == null ? List.of() : new ArrayList<>(types);
+        StringBuilder sql = new StringBuilder(SEARCH_SQL);
+        if (!kinds.isEmpty()) {
+            sql.append(" AND kind IN (").append("?, ".repeat(kinds.size() - 1)).append("?)");
+        }
+        boolean restricted = !"admin".equals(viewer.getRole());
+        if (restricted) {
+            sql.append(VISIBLE_TO_USER);
+        }
+        sql.append(" ORDER BY rank LIMIT ? OFFSET ?");
+
+        try (Connection conn = DatabaseConnection.getConnection("SearchDAO.search");
+             PreparedStatement pstmt = conn.prepareStatement(sql.toString())) {
+            int index = 1;
+            pstmt.setString(index++, match);
+            for (String kind : kinds) {
+                pstmt.setString(index++, kind);
+            }
+            if (restricted) {
+                pstmt.setInt(index++, viewer.getId());
+                pstmt.setInt(index++, viewer.getId());
+                pstmt.setInt(index++, viewer.getId());
+            }
+            pstmt.setInt(index++, limit);
+            pstmt.setInt(index, offset);
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    // bm25 is lower for better matches
+                    results.add(new SearchResult(rs.getString("kind"), rs.getInt("ref_id"), rs.getString("title"),
+                                                 rs.getString("snippet"), -rs.getDouble("rank")));
+                }
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Ids of every row of one type matching the text, in no particular order.
+     */
+    public Set<Integer> findIds(String type, String text) throws SQLException {
+        Set<Integer> ids = new HashSet<>();
+        String match = toMatchQuery(text);
+        if (match == null) {
+            return ids;
+        }
+
+        String sql = "SELECT ref_id FROM search_index WHERE search_index MATCH ? AND kind = ?";
+        try (Connection conn = DatabaseConnection.getConnection("SearchDAO.findIds");
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, match);
+            pstmt.setString(2, type);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    ids.add(rs.getInt(1));
+                }
+            }
+        }
+        return ids;
+    }
+}
@@ -8,19 +8,26 @@ import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import com.shipmanagement.DatabaseConnection;
+import com.shipmanagement.booking.BookingIndex;
+import com.shipmanagement.cache.ShipCache;
 import com.shipmanagement.model.Ship;
+import com.shipmanagement.telemetry.ShipPositions;
 
 public class ShipDAO {
     
+    // Cached row count: loaded once, then kept current by addShip/deleteShip (-1 = not loaded)
+    private static final AtomicInteger cachedShipCount = new AtomicInteger(-1);
+    
     // Get all ships with pagination
     public List<Ship> getAllShips(int page, int pageSize) throws SQLException {
         List<Ship> ships = new ArrayList<>();
         String sql = "SELECT * FROM ships ORDER BY id DESC LIMIT ? OFFSET ?";
         int offset = (page - 1) * pageSize;
         
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = DatabaseConnection.getConnection("ShipDAO.getAllShips");
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setInt(1, pageSize);
@@ -35,7 +42,7 @@ public class ShipDAO {
         
         // Set pagination info if we have results
         if (!ships.isEmpty()) {
-            int totalRecords = getTotalShipCount();
+            int totalRecords = getShipCount();
             ships.get(0).setTotalRecords(totalRecords);
             ships.get(0).setCurrentPage(page);
             ships.get(0).setPageSize(pageSize);
@@ -44,11 +51,41 @@ public class ShipDAO {
         return ships;
     }
     
-    // Get ship by ID
+    // Get ships older than the cursor (newest first). Uses the primary key, so a
+    // deep page costs the same as the first one, unlike LIMIT/OFFSET.
+    public List<Ship> getShipsAfter(Integer afterId, int limit) throws SQLException {
+        List<Ship> ships = new ArrayList<>();
+        String sql = afterId == null
+            ? "SELECT * FROM ships ORDER BY id DESC LIMIT ?"
+            : "SELECT * FROM ships WHERE id < ? ORDER BY id DESC LIMIT ?";
+        
+        try (Connection conn = DatabaseConnection.getConnection("ShipDAO.getShipsAfter");
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            
+            int index = 1;
+            if (afterId != null) {
+                pstmt.setInt(index++, afterId);
+            }
+            pstmt.setInt(index, limit);
+            
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    ships.add(extractShipFromResultSet(rs));
+                }
+            }
+        }
+        return ships;
+    }
+    
+    // Get ship by ID, served from the ship cache when possible
     public Ship getShipById(int id) throws SQLException {
+        return ShipCache.getShip(id, this::loadShipById);
+    }
+    
+    private Ship loadShipById(int id) throws SQLException {
         String sql = "SELECT * FROM ships WHERE id = ?";
         
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = DatabaseConnection.getConnection("ShipDAO.loadShipById");
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setInt(1, id);
@@ -66,7 +103,7 @@ public class ShipDAO {
         String sql = "INSERT INTO ships (name, imo_number, type, status, capacity, current_location, last_maintenance_date) " +
                     "VALUES (?, ?, ?, ?, ?, ?, ?)";
         
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = DatabaseConnection.getWriteConnection("ShipDAO.addShip");
              PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
             
             pstmt.setString(1, ship.getName());
@@ -80,9 +117,12 @@ public class ShipDAO {
             int affectedRows = pstmt.executeUpdate();
             
             if (affectedRows > 0) {
+                // Still holding the writer, so no concurrent load can miss or double count this
+                adjustShipCount(1);
                 try (ResultSet generatedKeys = pstmt.getGeneratedKeys()) {
                     if (generatedKeys.next()) {
                         ship.setId(generatedKeys.getInt(1));
+                        ShipCache.invalidate(ship.getId());
                         return true;
                     }
                 }
@@ -96,7 +136,7 @@ public class ShipDAO {
         String sql = "UPDATE ships SET name = ?, imo_number = ?, type = ?, status = ?, " +
                     "capacity = ?, current_location = ?, last_maintenance_date = ? WHERE id = ?";
         
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = DatabaseConnection.getWriteConnection("ShipDAO.updateShip");
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setString(1, ship.getName());
@@ -108,7 +148,9 @@ public class ShipDAO {
             pstmt.setString(7, ship.getLastMaintenanceDate() != null ? ship.getLastMaintenanceDate().toString() : null);
             pstmt.setInt(8, ship.getId());
             
-            return pstmt.executeUpdate() > 0;
+            boolean updated = pstmt.executeUpdate() > 0;
+            ShipCache.invalidate(ship.getId());
+            return updated;
         }
     }
     
@@ -116,24 +158,47 @@ public class ShipDAO {
     public boolean deleteShip(int id) throws SQLException {
         String sql = "DELETE FROM ships WHERE id = ?";
         
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = DatabaseConnection.getWriteConnection("ShipDAO.deleteShip");
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setInt(1, id);
-            return pstmt.executeUpdate() > 0;
+            int affectedRows = pstmt.executeUpdate();
+            adjustShipCount(-affectedRows);
+            ShipCache.invalidate(id);
+            BookingIndex.removeShip(id);
+            ShipPositions.removeShip(id);
+            return affectedRows > 0;
         }
     }
     
-    // Get total ship count
-    private int getTotalShipCount() throws SQLException {
+    // Get total ship count, counting the table only the first time
+    public int getShipCount() throws SQLException {
+        int count = cachedShipCount.get();
+        if (count >= 0) {
+            return count;
+        }
+        
+        // Count on the writer so no insert or delete can slip in between the
+        // COUNT and publishing it
         String sql = "SELECT COUNT(*) as count FROM ships";
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = DatabaseConnection.getWriteConnection("ShipDAO.getShipCount");
              Statement stmt = conn.createStatement();
              ResultSet rs = stmt.executeQuery(sql)) {
-            return rs.next() ? rs.getInt("count") : 0;
+            count = rs.next() ? rs.getInt("count") : 0;
+            cachedShipCount.compareAndSet(-1, count);
+            return cachedShipCount.get();
         }
     }
     
+    // Forget the cached count; for code paths that write ships without going through this DAO
+    public static void invalidateShipCount() {
+        cachedShipCount.set(-1);
+    }
+    
+    private static void adjustShipCount(int delta) {
+        cachedShipCount.updateAndGet(count -> count < 0 ? count : count + delta);
+    }
+    
     // Helper method to extract Ship object from ResultSet
     private Ship extractShipFromResultSet(ResultSet rs) throws SQLException {
         Ship ship = new Ship();
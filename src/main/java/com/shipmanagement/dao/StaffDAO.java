@@ -6,18 +6,38 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
 
 import com.shipmanagement.DatabaseConnection;
 import com.shipmanagement.model.Staff;
 
 public class StaffDAO {
     
+    private static final int MAX_IDS_PER_QUERY = 500;
+    
+    // Staff with ship name and task counts in one pass. The counts come from
+    // staff_task_counts (a few rows per staff member, kept current by triggers
+    // on tasks), so listings never touch the tasks table
+    private static final String DIRECTORY_SQL =
+        "SELECT s.*, sh.name AS ship_name, " +
+        "TOTAL(CASE WHEN c.status NOT IN ('completed', 'cancelled', 'rejected') THEN c.count END) AS open_task_count, " +
+        "TOTAL(CASE WHEN c.status = 'pending' THEN c.count END) AS pending_task_count, " +
+        "TOTAL(CASE WHEN c.status = 'in_progress' THEN c.count END) AS in_progress_task_count, " +
+        "TOTAL(CASE WHEN c.status = 'completed' THEN c.count END) AS completed_task_count " +
+        "FROM staff s " +
+        "LEFT JOIN ships sh ON sh.id = s.ship_id " +
+        "LEFT JOIN staff_task_counts c ON c.staff_id = s.id ";
+    
     public List<Staff> getAllStaff() {
         List<Staff> staffList = new ArrayList<>();
         String sql = "SELECT * FROM staff";
         
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = DatabaseConnection.getConnection("StaffDAO.getAllStaff");
              Statement stmt = conn.createStatement();
              ResultSet rs = stmt.executeQuery(sql)) {
             
@@ -32,10 +52,87 @@ public class StaffDAO {
         return staffList;
     }
     
+    /**
+     * Staff directory: every staff member with ship name, open task count and
+     * task counts by status, from a single joined and grouped query.
+     */
+    public List<Staff> getStaffDirectory() {
+        List<Staff> staffList = new ArrayList<>();
+        String sql = DIRECTORY_SQL + "GROUP BY s.id ORDER BY s.id";
+        
+        try (Connection conn = DatabaseConnection.getConnection("StaffDAO.getStaffDirectory");
+             PreparedStatement pstmt = conn.prepareStatement(sql);
+             ResultSet rs = pstmt.executeQuery()) {
+            
+            while (rs.next()) {
+                staffList.add(mapDirectoryRow(rs));
+            }
+        } catch (SQLException e) {
+            System.err.println("Error retrieving staff directory: " + e.getMessage());
+        }
+        
+        return staffList;
+    }
+    
+    /**
+     * Directory entries for the given staff ids (e.g. search matches), ordered by
+     * id. Ids with no staff row are skipped.
+     */
+    public List<Staff> getStaffDirectoryEntries(Collection<Integer> ids) {
+        List<Staff> staffList = new ArrayList<>();
+        List<Integer> sorted = new ArrayList<>(new TreeSet<>(ids));
+        
+        // Chunked to stay well under SQLite's bound parameter limit
+        for (int from = 0; from < sorted.size(); from += MAX_IDS_PER_QUERY) {
+            List<Integer> chunk = sorted.subList(from, Math.min(from + MAX_IDS_PER_QUERY, sorted.size()));
+            String placeholders = String.join(", ", Collections.nCopies(chunk.size(), "?"));
+            String sql = DIRECTORY_SQL + "WHERE s.id IN (" + placeholders + ") GROUP BY s.id ORDER BY s.id";
+            
+            try (Connection conn = DatabaseConnection.getConnection("StaffDAO.getStaffDirectoryEntries");
+                 PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                
+                for (int i = 0; i < chunk.size(); i++) {
+                    pstmt.setInt(i + 1, chunk.get(i));
+                }
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        staffList.add(mapDirectoryRow(rs));
+                    }
+                }
+            } catch (SQLException e) {
+                System.err.println("Error retrieving staff directory entries: " + e.getMessage());
+            }
+        }
+        
+        return staffList;
+    }
+    
+    /**
+     * Single staff member with ship name and task counts, or null if not found.
+     */
+    public Staff getStaffDirectoryEntry(int id) {
+        String sql = DIRECTORY_SQL + "WHERE s.id = ? GROUP BY s.id";
+        
+        try (Connection conn = DatabaseConnection.getConnection("StaffDAO.getStaffDirectoryEntry");
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            
+            pstmt.setInt(1, id);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (rs.next()) {
+                    return mapDirectoryRow(rs);
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("Error retrieving staff directory entry: " + e.getMessage());
+        }
+        
+        return null;
+    }
+    
     public Staff getStaffById(int id) {
         String sql = "SELECT * FROM staff WHERE id = ?";
         
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = DatabaseConnection.getConnection("StaffDAO.getStaffById");
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setInt(1, id);
@@ -55,7 +152,7 @@ public class StaffDAO {
         String sql = "INSERT INTO staff (first_name, last_name, username, password, role, status, ship_id, email, phone) " +
                      "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
         
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = DatabaseConnection.getWriteConnection("StaffDAO.createStaff");
              PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
             
             pstmt.setString(1, staff.getFirstName());
@@ -92,7 +189,7 @@ public class StaffDAO {
         String sql = "UPDATE staff SET first_name = ?, last_name = ?, username = ?, role = ?, status = ?, " +
                      "ship_id = ?, email = ?, phone = ? WHERE id = ?";
         
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = DatabaseConnection.getWriteConnection("StaffDAO.updateStaff");
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setString(1, staff.getFirstName());
@@ -120,7 +217,7 @@ public class StaffDAO {
     public boolean deleteStaff(int id) {
         String sql = "DELETE FROM staff WHERE id = ?";
         
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = DatabaseConnection.getWriteConnection("StaffDAO.deleteStaff");
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setInt(1, id);
@@ -152,4 +249,16 @@ public class StaffDAO {
         
         return staff;
     }
+    
+    private Staff mapDirectoryRow(ResultSet rs) throws SQLException {
+        Staff staff = mapResultSetToStaff(rs);
+        staff.setShipName(rs.getString("ship_name"));
+        staff.setTaskCount(rs.getInt("open_task_count"));
+        Map<String, Integer> byStatus = new LinkedHashMap<>();
+        byStatus.put("pending", rs.getInt("pending_task_count"));
+        byStatus.put("in_progress", rs.getInt("in_progress_task_count"));
+        byStatus.put("completed", rs.getInt("completed_task_count"));
+        staff.setTaskCountsByStatus(byStatus);
+        return staff;
+    }
 }
@@ -0,0 +1,74 @@
+package com.shipmanagement.db;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Column label to position lookup for one result set, resolved once from its
+ * metadata. Columns the query does not return resolve to 0, and the getters
+ * below return null for them, so a mapper can tolerate optional columns.
+ */
+public final class ColumnIndex {
+
+    private final String[] labels;
+    private final Map<String, Integer> positions;
+
+    private ColumnIndex(String[] labels) {
+        this.labels = labels;
+        this.positions = new HashMap<>(labels.length * 2);
+        for (int i = labels.length; i >= 1; i--) {
+            // First occurrence wins, matching ResultSet.findColumn
+            positions.put(labels[i - 1].toLowerCase(), i);
+        }
+    }
+
+    public static ColumnIndex of(ResultSet rs) throws SQLException {
+        ResultSetMetaData metaData = rs.getMetaData();
+        String[] labels = new String[metaData.getColumnCount()];
+        for (int i = 0; i < labels.length; i++) {
+            labels[i] = metaData.getColumnLabel(i + 1);
+        }
+        return new ColumnIndex(labels);
+    }
+
+    /**
+     * @return The 1-based position of the column, or 0 if it is not in the result
+     */
+    public int of(String label) {
+        Integer position = positions.get(label.toLowerCase());
+        return position == null ? 0 : position;
+    }
+
+    public int size() {
+        return labels.length;
+    }
+
+    /**
+     * @return The label of the column at the 1-based position
+     */
+    public String label(int position) {
+        return labels[position - 1];
+    }
+
+    public static String getString(ResultSet rs, int position) throws SQLException {
+        return position == 0 ? null : rs.getString(position);
+    }
+
+    public static int getInt(ResultSet rs, int position) throws SQLException {
+        return position == 0 ? 0 : rs.getInt(position);
+    }
+
+    /**
+     * Like {@link #getInt} but keeps SQL NULL as null.
+     */
+    public static Integer getInteger(ResultSet rs, int position) throws SQLException {
+        if (position == 0) {
+            return null;
+        }
+        int value = rs.getInt(position);
+        return rs.wasNull() ? null : value;
+    }
+}
@@ -0,0 +1,412 @@
+package com.shipmanagement.db;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.sql.DataSource;
+
+/**
+ * Bounded pool of long-lived SQLite connections.
+ *
+ * SQLite in WAL mode allows many concurrent readers but only one writer, so the
+ * pool keeps a single dedicated writer connection plus a fixed set of reader
+ * connections. Connections handed out are proxies: calling close() returns the
+ * physical connection to the pool instead of closing it. Each physical
+ * connection also carries a {@link StatementCache}, so prepareStatement(sql)
+ * re-uses an already compiled statement when the same SQL was seen before.
+ */
+public class ConnectionPool implements AutoCloseable {
+
+    /**
+     * Told about every labelled borrow when the connection is returned, with the
+     * time from asking for it (acquisition wait included) to giving it back.
+     */
+    @FunctionalInterface
+    public interface UsageListener {
+        void released(String label, boolean isWriter, long heldNanos);
+    }
+
+    private final DataSource dataSource;
+    private final int readerCount;
+    private final long acquireTimeoutMillis;
+    private final int statementCacheSize;
+
+    private final BlockingQueue<Connection> idleReaders;
+    private final List<Connection> allReaders = new ArrayList<>();
+
+    private final Semaphore writerPermit = new Semaphore(1, true);
+    private Connection writer;
+    private volatile Thread writerOwner;
+    private int writerDepth;
+
+    private final Map<Connection, StatementCache> statementCaches = new ConcurrentHashMap<>();
+
+    private volatile boolean closed;
+    private volatile UsageListener usageListener;
+
+    // Metrics
+    private final LongAdder readerAcquisitions = new LongAdder();
+    private final LongAdder writerAcquisitions = new LongAdder();
+    private final LongAdder totalWaitNanos = new LongAdder();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    private final LongAdder timeouts = new LongAdder();
+    private final AtomicInteger readersInUse = new AtomicInteger();
+    private final AtomicInteger writerInUse = new AtomicInteger();
+    private final LongAdder statementHits = new LongAdder();
+    private final LongAdder statementMisses = new LongAdder();
+    private final LongAdder statementEvictions = new LongAdder();
+
+    public ConnectionPool(DataSource dataSource, int readerCount, long acquireTimeoutMillis) throws SQLException {
+        this(dataSource, readerCount, acquireTimeoutMillis, 64);
+    }
+
+    public ConnectionPool(DataSource dataSource, int readerCount, long acquireTimeoutMillis,
+                          int statementCacheSize) throws SQLException {
+        if (readerCount < 1) {
+            throw new IllegalArgumentException("Reader count must be at least 1");
+        }
+        this.dataSource = dataSource;
+        this.readerCount = readerCount;
+        this.acquireTimeoutMillis = acquireTimeoutMillis;
+        this.statementCacheSize = statementCacheSize;
+        this.idleReaders = new ArrayBlockingQueue<>(readerCount);
+
+        this.writer = dataSource.getConnection();
+        for (int i = 0; i < readerCount; i++) {
+            Connection reader = dataSource.getConnection();
+            allReaders.add(reader);
+            idleReaders.add(reader);
+        }
+    }
+
+    /**
+     * Borrows a reader connection. Readers are still able to write, so legacy call
+     * sites that mutate through getConnection() keep working, but hot write paths
+     * should use {@link #getWriteConnection()}.
+     */
+    public Connection getConnection() throws SQLException {
+        return getConnection(null);
+    }
+
+    /**
+     * Borrows a reader connection on behalf of {@code label}, which is reported to
+     * the {@link UsageListener} on release. A null label is not reported.
+     */
+    public Connection getConnection(String label) throws SQLException {
+        ensureOpen();
+        long start = System.nanoTime();
+        Connection physical;
+        try {
+            physical = idleReaders.poll(acquireTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a database connection", e);
+        }
+        if (physical == null) {
+            timeouts.increment();
+            throw new SQLException("Timed out after " + acquireTimeoutMillis + " ms waiting for a database connection");
+        }
+        recordWait(System.nanoTime() - start);
+        readerAcquisitions.increment();
+        readersInUse.incrementAndGet();
+
+        if (physical.isClosed()) {
+            physical = replaceReader(physical);
+        }
+        return wrap(physical, false, label, start);
+    }
+
+    /**
+     * Borrows the dedicated writer connection. The writer is reentrant for the
+     * thread that already holds it, so a write path may call into another write
+     * path without deadlocking on itself.
+     */
+    public Connection getWriteConnection() throws SQLException {
+        return getWriteConnection(null);
+    }
+
+    /**
+     * Borrows the writer connection on behalf of {@code label}, which is reported
+     * to the {@link UsageListener} on release. A null label is not reported.
+     */
+    public Connection getWriteConnection(String label) throws SQLException {
+        ensureOpen();
+        long start = System.nanoTime();
+        if (writerOwner == Thread.currentThread()) {
+            writerDepth++;
+            return wrap(writer, true, label, start);
+        }
+
+        boolean acquired;
+        try {
+            acquired = writerPermit.tryAcquire(acquireTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for the writer connection", e);
+        }
+        if (!acquired) {
+            timeouts.increment();
+            throw new SQLException("Timed out after " + acquireTimeoutMillis + " ms waiting for the writer connection");
+        }
+        recordWait(System.nanoTime() - start);
+        writerAcquisitions.increment();
+        writerInUse.set(1);
+
+        try {
+            if (writer.isClosed()) {
+                discardStatementCache(writer);
+                writer = dataSource.getConnection();
+            }
+        } catch (SQLException e) {
+            writerInUse.set(0);
+            writerPermit.release();
+            throw e;
+        }
+        writerOwner = Thread.currentThread();
+        writerDepth = 1;
+        return wrap(writer, true, label, start);
+    }
+
+    /**
+     * Whether the calling thread currently holds the writer connection.
+     */
+    public boolean isWriterHeldByCurrentThread() {
+        return writerOwner == Thread.currentThread();
+    }
+
+    /**
+     * Snapshot of the pool metrics, suitable for JSON serialization.
+     */
+    public Map<String, Object> getStats() {
+        long acquisitions = readerAcquisitions.sum() + writerAcquisitions.sum();
+        int inUse = readersInUse.get() + writerInUse.get();
+        int size = readerCount + 1;
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("readers", readerCount);
+        stats.put("readersInUse", readersInUse.get());
+        stats.put("writerInUse", writerInUse.get() == 1);
+        stats.put("utilization", (double) inUse / size);
+        stats.put("readerAcquisitions", readerAcquisitions.sum());
+        stats.put("writerAcquisitions", writerAcquisitions.sum());
+        stats.put("avgWaitMillis", acquisitions == 0 ? 0.0 : totalWaitNanos.sum() / 1_000_000.0 / acquisitions);
+        stats.put("maxWaitMillis", maxWaitNanos.get() / 1_000_000.0);
+        stats.put("timeouts", timeouts.sum());
+
+        long hits = statementHits.sum();
+        long lookups = hits + statementMisses.sum();
+        stats.put("statementCacheHits", hits);
+        stats.put("statementCacheMisses", statementMisses.sum());
+        stats.put("statementCacheEvictions", statementEvictions.sum());
+        stats.put("statementCacheHitRatio", lookups == 0 ? 0.0 : (double) hits / lookups);
+        stats.put("cachedStatements", statementCaches.values().stream().mapToInt(StatementCache::size).sum());
+        return stats;
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        for (StatementCache cache : statementCaches.values()) {
+            cache.close();
+        }
+        statementCaches.clear();
+        for (Connection reader : allReaders) {
+            closeQuietly(reader);
+        }
+        closeQuietly(writer);
+    }
+
+    private void release(Connection physical, boolean isWriter) {
+        if (isWriter) {
+            if (--writerDepth > 0) {
+                return;
+            }
+            resetStatements(physical);
+            resetState(physical);
+            writerOwner = null;
+            writerInUse.set(0);
+            writerPermit.release();
+        } else {
+            resetStatements(physical);
+            resetState(physical);
+            readersInUse.decrementAndGet();
+            if (closed) {
+                closeQuietly(physical);
+            } else {
+                idleReaders.offer(physical);
+            }
+        }
+    }
+
+    // Undo anything a borrower left behind so the next borrower starts clean
+    private void resetState(Connection physical) {
+        try {
+            if (!physical.isClosed() && !physical.getAutoCommit()) {
+                physical.rollback();
+                physical.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            System.err.println("Error resetting pooled connection: " + e.getMessage());
+            closeQuietly(physical);
+        }
+    }
+
+    private void resetStatements(Connection physical) {
+        StatementCache cache = statementCaches.get(physical);
+        if (cache != null) {
+            cache.releaseAll();
+        }
+    }
+
+    private StatementCache statementCacheFor(Connection physical) {
+        return statementCaches.computeIfAbsent(physical, c ->
+            new StatementCache(c, statementCacheSize, statementHits, statementMisses, statementEvictions));
+    }
+
+    private void discardStatementCache(Connection physical) {
+        StatementCache cache = statementCaches.remove(physical);
+        if (cache != null) {
+            cache.close();
+        }
+    }
+
+    private synchronized Connection replaceReader(Connection stale) throws SQLException {
+        Connection fresh;
+        try {
+            fresh = dataSource.getConnection();
+        } catch (SQLException e) {
+            // Put the slot back so the pool does not shrink permanently
+            readersInUse.decrementAndGet();
+            idleReaders.offer(stale);
+            throw e;
+        }
+        discardStatementCache(stale);
+        allReaders.remove(stale);
+        allReaders.add(fresh);
+        return fresh;
+    }
+
+    private void recordWait(long waitNanos) {
+        totalWaitNanos.add(waitNanos);
+        maxWaitNanos.accumulateAndGet(waitNanos, Math::max);
+    }
+
+    private void ensureOpen() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool has been shut down");
+        }
+    }
+
+    /**
+     * Sets the listener told about labelled borrows, or null for none.
+     */
+    public void setUsageListener(UsageListener usageListener) {
+        this.usageListener = usageListener;
+    }
+
+    private Connection wrap(Connection physical, boolean isWriter, String label, long borrowedAt) {
+        return (Connection) Proxy.newProxyInstance(
+            ConnectionPool.class.getClassLoader(),
+            new Class<?>[] { Connection.class },
+            new PooledConnectionHandler(physical, isWriter, label, borrowedAt));
+    }
+
+    // Only prepareStatement(String) and prepareStatement(String, int autoGeneratedKeys)
+    private static boolean isCacheablePrepare(Method method, Object[] args) {
+        if (!"prepareStatement".equals(method.getName())) {
+            return false;
+        }
+        Class<?>[] params = method.getParameterTypes();
+        return params.length == 1 || (params.length == 2 && params[1] == int.class);
+    }
+
+    private static void closeQuietly(Connection connection) {
+        if (connection == null) {
+            return;
+        }
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            System.err.println("Error closing pooled connection: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Delegates to the physical connection and turns close() into a release.
+     */
+    private class PooledConnectionHandler implements InvocationHandler {
+        private final Connection physical;
+        private final boolean isWriter;
+        private final String label;
+        private final long borrowedAt;
+        private boolean released;
+
+        PooledConnectionHandler(Connection physical, boolean isWriter, String label, long borrowedAt) {
+            this.physical = physical;
+            this.isWriter = isWriter;
+            this.label = label;
+            this.borrowedAt = borrowedAt;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!released) {
+                        released = true;
+                        release(physical, isWriter);
+                        UsageListener listener = usageListener;
+                        if (listener != null && label != null) {
+                            listener.released(label, isWriter, System.nanoTime() - borrowedAt);
+                        }
+                    }
+                    return null;
+                case "isClosed":
+                    return released || physical.isClosed();
+                case "unwrap":
+                    if (((Class<?>) args[0]).isInstance(proxy)) {
+                        return proxy;
+                    }
+                    break;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "Pooled" + (isWriter ? "Writer" : "Reader") + "[" + physical + "]";
+                default:
+                    break;
+            }
+
+            if (released) {
+                throw new SQLException("Connection has already been returned to the pool");
+            }
+            if (statementCacheSize > 0 && isCacheablePrepare(method, args)) {
+                int autoGeneratedKeys = args.length > 1 ? (Integer) args[1] : Statement.NO_GENERATED_KEYS;
+                return statementCacheFor(physical).prepare((String) args[0], autoGeneratedKeys);
+            }
+            try {
+                return method.invoke(physical, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
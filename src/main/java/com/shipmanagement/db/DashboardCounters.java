@@ -0,0 +1,199 @@
+package com.shipmanagement.db;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import com.shipmanagement.DatabaseConnection;
+
+/**
+ * Counts behind the admin dashboard: ships, docks, bookings, tasks, problems
+ * and staff by status, open problems by severity and users by role.
+ *
+ * The counts live in the dashboard_counts table and are adjusted by triggers
+ * (see Migrations) on every insert, delete and relevant update, whichever code
+ * path makes the write, in the same transaction. {@link #rebuild} recounts
+ * everything from the source tables and runs at startup. {@link #summary}
+ * serves a copy held in memory, reloaded only when the table's version
+ * (see TableVersions) shows that a count has moved. A dashboard refresh costs
+ * one primary key lookup, however large the tables are.
+ */
+public final class DashboardCounters {
+
+    /**
+     * One counted grouping: rows of a table matching a condition, grouped by a
+     * normalized column, so "At Sea", "at sea" and "at_sea" share one count.
+     */
+    public static final class Metric {
+        private final String name;
+        private final String table;
+        private final String column;
+        private final String condition;  // "{r}" stands for the row
+        private final String columns;    // whose updates can move a row between keys
+
+        Metric(String name, String table, String column, String condition, String columns) {
+            this.name = name;
+            this.table = table;
+            this.column = column;
+            this.condition = condition;
+            this.columns = columns;
+        }
+
+        public String getName() { return name; }
+
+        public String getTable() { return table; }
+
+        public String getColumns() { return columns; }
+
+        /**
+         * The key expression for a row alias (new, old or the table name).
+         */
+        public String key(String row) {
+            return "replace(lower(trim(coalesce(" + row + "." + column + ", 'none'))), ' ', '_')";
+        }
+
+        public String condition(String row) {
+            return condition.replace("{r}", row);
+        }
+    }
+
+    // Normalized like the keys, so "In Progress" counts as open too
+    private static final String OPEN_PROBLEM = "replace(lower(trim({r}.status)), ' ', '_') IN ('open', 'in_progress')";
+
+    public static final List<Metric> METRICS = List.of(
+        new Metric("ships_by_status", "ships", "status", "1", "status"),
+        new Metric("docks_by_status", "docks", "status", "1", "status"),
+        new Metric("bookings_by_status", "bookings", "status", "1", "status"),
+        new Metric("tasks_by_status", "tasks", "status", "1", "status"),
+        new Metric("problems_by_status", "problem_reports", "status", "1", "status"),
+        new Metric("open_problems_by_severity", "problem_reports", "severity", OPEN_PROBLEM, "status, severity"),
+        new Metric("staff_by_status", "staff", "status", "1", "status"),
+        new Metric("users_by_role", "users", "role", "1", "role"));
+
+    private static final class Snapshot {
+        final String version;
+        final Map<String, Object> summary;
+
+        Snapshot(String version, Map<String, Object> summary) {
+            this.version = version;
+            this.summary = summary;
+        }
+    }
+
+    private static volatile Snapshot snapshot;
+
+    private DashboardCounters() {
+    }
+
+    /**
+     * Recounts every metric from its source table, replacing the stored counts.
+     */
+    public static void rebuild() throws SQLException {
+        DatabaseConnection.write("DashboardCounters.rebuild", conn -> {
+            rebuild(conn);
+            return null;
+        });
+        snapshot = null;
+    }
+
+    // The recount itself, on a connection the caller commits (also used by Migrations)
+    static void rebuild(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("DELETE FROM dashboard_counts");
+            for (Metric metric : METRICS) {
+                String table = metric.getTable();
+                stmt.executeUpdate("INSERT INTO dashboard_counts (metric, key, count) SELECT '" +
+                    metric.getName() + "', " + metric.key(table) + ", COUNT(*) FROM " + table +
+                    " WHERE " + metric.condition(table) + " GROUP BY 2");
+            }
+        }
+    }
+
+    /**
+     * The dashboard summary, suitable for JSON serialization. Do not modify it.
+     */
+    public static Map<String, Object> summary() throws SQLException {
+        // Version first, so a concurrent write can only make the next call reload
+        String version = TableVersions.current("dashboard_counts");
+        Snapshot current = snapshot;
+        if (current == null || !current.version.equals(version)) {
+            current = new Snapshot(version, buildSummary(readCounts()));
+            snapshot = current;
+        }
+        return current.summary;
+    }
+
+    private static Map<String, Map<String, Long>> readCounts() throws SQLException {
+        Map<String, Map<String, Long>> counts = new HashMap<>();
+        for (Metric metric : METRICS) {
+            counts.put(metric.getName(), new TreeMap<>());
+        }
+        try (Connection conn = DatabaseConnection.getConnection("DashboardCounters.readCounts");
+             PreparedStatement pstmt = conn.prepareStatement(
+                 "SELECT metric, key, count FROM dashboard_counts WHERE count <> 0");
+             ResultSet rs = pstmt.executeQuery()) {
+            while (rs.next()) {
+                Map<String, Long> byKey = counts.get(rs.getString("metric"));
+                if (byKey != null) {
+                    byKey.put(rs.getString("key"), rs.getLong("count"));
+                }
+            }
+        }
+        return counts;
+    }
+
+    private static Map<String, Object> buildSummary(Map<String, Map<String, Long>> counts) {
+        Map<String, Object> summary = new LinkedHashMap<>();
+
+        Map<String, Object> ships = group(counts.get("ships_by_status"), "by_status");
+        summary.put("ships", ships);
+
+        Map<String, Long> docksByStatus = counts.get("docks_by_status");
+        Map<String, Object> docks = group(docksByStatus, "by_status");
+        docks.put("available", docksByStatus.getOrDefault("available", 0L));
+        summary.put("docks", docks);
+
+        Map<String, Long> bookingsByStatus = counts.get("bookings_by_status");
+        Map<String, Object> bookings = group(bookingsByStatus, "by_status");
+        bookings.put("pending", bookingsByStatus.getOrDefault("pending", 0L));
+        summary.put("bookings", bookings);
+
+        Map<String, Long> tasksByStatus = counts.get("tasks_by_status");
+        Map<String, Object> tasks = group(tasksByStatus, "by_status");
+        tasks.put("pending", tasksByStatus.getOrDefault("pending", 0L));
+        summary.put("tasks", tasks);
+
+        Map<String, Long> openBySeverity = counts.get("open_problems_by_severity");
+        Map<String, Object> problems = group(counts.get("problems_by_status"), "by_status");
+        problems.put("open", total(openBySeverity));
+        problems.put("open_by_severity", Collections.unmodifiableMap(openBySeverity));
+        summary.put("problems", problems);
+
+        summary.put("staff", group(counts.get("staff_by_status"), "by_status"));
+        summary.put("users", group(counts.get("users_by_role"), "by_role"));
+        return Collections.unmodifiableMap(summary);
+    }
+
+    private static Map<String, Object> group(Map<String, Long> byKey, String label) {
+        Map<String, Object> group = new LinkedHashMap<>();
+        group.put("total", total(byKey));
+        group.put(label, Collections.unmodifiableMap(byKey));
+        return group;
+    }
+
+    private static long total(Map<String, Long> byKey) {
+        long total = 0;
+        for (long count : byKey.values()) {
+            total += count;
+        }
+        return total;
+    }
+}
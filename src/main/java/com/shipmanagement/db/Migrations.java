@@ -0,0 +1,412 @@
+package com.shipmanagement.db;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+/**
+ * The ordered list of schema migrations for the ship management database.
+ * Append new migrations at the end with the next version number; never edit
+ * one that has already shipped.
+ */
+public final class Migrations {
+
+    private Migrations() {
+    }
+
+    public static List<SchemaMigrator.Migration> all() {
+        return List.of(
+            new SchemaMigrator.Migration(1, "Baseline tables", Migrations::baseline),
+            new SchemaMigrator.Migration(2, "Add columns missing from older databases", Migrations::reconcileColumns),
+            new SchemaMigrator.Migration(3, "Indexes for foreign key lookups", Migrations::foreignKeyIndexes),
+            new SchemaMigrator.Migration(4, "Cargo manifest items", Migrations::cargoItems),
+            new SchemaMigrator.Migration(5, "Full-text search index", Migrations::searchIndex),
+            new SchemaMigrator.Migration(6, "Login sessions", Migrations::sessions),
+            new SchemaMigrator.Migration(7, "Table version counters", Migrations::tableVersions),
+            new SchemaMigrator.Migration(8, "Dashboard counters", Migrations::dashboardCounts),
+            new SchemaMigrator.Migration(9, "Per-staff task counters", Migrations::staffTaskCounts),
+            new SchemaMigrator.Migration(10, "Normalized dashboard counter keys", Migrations::normalizeDashboardKeys),
+            new SchemaMigrator.Migration(11, "Normalized open problem condition", Migrations::normalizeOpenProblems)
+        );
+    }
+
+    // Tables as originally created by DatabaseConnection.initializeDatabase
+    private static void baseline(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            // Create users table
+            stmt.execute("CREATE TABLE IF NOT EXISTS users (" +
+                "id INTEGER PRIMARY KEY AUTOINCREMENT, " +
+                "username TEXT UNIQUE NOT NULL, " +
+                "password TEXT NOT NULL, " +
+                "role TEXT NOT NULL DEFAULT 'user', " +
+                "created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP)");
+
+            // Create ships table
+            stmt.execute("CREATE TABLE IF NOT EXISTS ships (" +
+                "id INTEGER PRIMARY KEY AUTOINCREMENT, " +
+                "name TEXT NOT NULL, " +
+                "type TEXT, " +
+                "capacity INTEGER, " +
+                "status TEXT, " +
+                "created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP)");
+            
+            // Create crew_members table
+            stmt.execute("CREATE TABLE IF NOT EXISTS crew_members (" +
+                "id INTEGER PRIMARY KEY AUTOINCREMENT, " +
+                "first_name TEXT NOT NULL, " +
+                "last_name TEXT NOT NULL, " +
+                "position TEXT, " +
+                "rank TEXT, " +
+                "nationality TEXT, " +
+                "date_of_birth TEXT, " +
+                "license_number TEXT UNIQUE, " +
+                "ship_id INTEGER, " +
+                "created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP, " +
+                "FOREIGN KEY (ship_id) REFERENCES ships(id) ON DELETE SET NULL)");
+            
+            // Create reports table
+            stmt.execute("CREATE TABLE IF NOT EXISTS reports (" +
+                "id INTEGER PRIMARY KEY AUTOINCREMENT, " +
+                "title TEXT NOT NULL, " +
+                "report_type TEXT NOT NULL, " +
+                "content TEXT NOT NULL, " +
+                "generated_by INTEGER, " +
+                "ship_id INTEGER, " +
+                "created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP, " +
+                "FOREIGN KEY (generated_by) REFERENCES users(id) ON DELETE SET NULL, " +
+                "FOREIGN KEY (ship_id) REFERENCES ships(id) ON DELETE SET NULL)");
+            
+            // Create docks table
+            stmt.execute("CREATE TABLE IF NOT EXISTS docks (" +
+                "id INTEGER PRIMARY KEY AUTOINCREMENT, " +
+                "name TEXT NOT NULL, " +
+                "location TEXT NOT NULL, " +
+                "capacity INTEGER, " +
+                "status TEXT DEFAULT 'available', " + // available, occupied, maintenance
+                "ship_id INTEGER, " +
+                "created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP, " +
+                "FOREIGN KEY (ship_id) REFERENCES ships(id) ON DELETE SET NULL)");
+            
+            // Create cargo table
+            stmt.execute("CREATE TABLE IF NOT EXISTS cargo (" +
+                "cargo_id TEXT PRIMARY KEY, " +
+                "owner_name TEXT, " +
+                "capacity REAL, " +
+                "used_capacity REAL DEFAULT 0)");
+            
+            // Create ship_locations table
+            stmt.execute("CREATE TABLE IF NOT EXISTS ship_locations (" +
+                "id INTEGER PRIMARY KEY AUTOINCREMENT, " +
+                "ship_id INTEGER NOT NULL, " +
+                "latitude REAL, " +
+                "longitude REAL, " +
+                "current_port TEXT, " +
+                "status TEXT, " + // at sea, docked, in transit
+                "last_updated TIMESTAMP DEFAULT CURRENT_TIMESTAMP, " +
+                "FOREIGN KEY (ship_id) REFERENCES ships(id) ON DELETE CASCADE)");
+            
+            // Create tasks table
+            stmt.execute("CREATE TABLE IF NOT EXISTS tasks (" +
+                "id INTEGER PRIMARY KEY AUTOINCREMENT, " +
+                "title TEXT NOT NULL, " +
+                "description TEXT, " +
+                "assigned_by INTEGER, " + // admin user id
+                "assigned_to INTEGER, " + // staff user id
+                "ship_id INTEGER, " +
+                "priority TEXT DEFAULT 'medium', " + // low, medium, high, urgent
+                "status TEXT DEFAULT 'pending', " + // pending, accepted, in_progress, completed, rejected
+                "due_date TEXT, " +
+                "created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP, " +
+                "updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP, " +
+                "FOREIGN KEY (assigned_by) REFERENCES users(id) ON DELETE SET NULL, " +
+                "FOREIGN KEY (assigned_to) REFERENCES users(id) ON DELETE SET NULL, " +
+                "FOREIGN KEY (ship_id) REFERENCES ships(id) ON DELETE SET NULL)");
+            
+            // Create problem_reports table
+            stmt.execute("CREATE TABLE IF NOT EXISTS problem_reports (" +
+                "id INTEGER PRIMARY KEY AUTOINCREMENT, " +
+                "title TEXT NOT NULL, " +
+                "description TEXT NOT NULL, " +
+                "reported_by INTEGER NOT NULL, " + // staff user id
+                "ship_id INTEGER, " +
+                "severity TEXT DEFAULT 'medium', " + // low, medium, high, critical
+                "status TEXT DEFAULT 'open', " + // open, in_progress, resolved, closed
+                "resolution_notes TEXT, " +
+                "created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP, " +
+                "resolved_at TIMESTAMP, " +
+                "FOREIGN KEY (reported_by) REFERENCES users(id) ON DELETE SET NULL, " +
+                "FOREIGN KEY (ship_id) REFERENCES ships(id) ON DELETE SET NULL)");
+            
+            // Create staff table
+            stmt.execute("CREATE TABLE IF NOT EXISTS staff (" +
+                "id INTEGER PRIMARY KEY AUTOINCREMENT, " +
+                "first_name TEXT NOT NULL, " +
+                "last_name TEXT NOT NULL, " +
+                "username TEXT UNIQUE NOT NULL, " +
+                "password TEXT NOT NULL, " +
+                "role TEXT NOT NULL, " +
+                "status TEXT NOT NULL DEFAULT 'active', " +
+                "ship_id INTEGER, " +
+                "email TEXT, " +
+                "phone TEXT, " +
+                "created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP, " +
+                "FOREIGN KEY (ship_id) REFERENCES ships(id) ON DELETE SET NULL)");
+            
+            // Create bookings table
+            stmt.execute("CREATE TABLE IF NOT EXISTS bookings (" +
+                "id INTEGER PRIMARY KEY AUTOINCREMENT, " +
+                "ship_id INTEGER NOT NULL, " +
+                "user_id INTEGER NOT NULL, " +
+                "start_date TEXT NOT NULL, " +
+                "end_date TEXT NOT NULL, " +
+                "purpose TEXT, " +
+                "status TEXT NOT NULL DEFAULT 'pending', " +
+                "created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP, " +
+                "FOREIGN KEY (ship_id) REFERENCES ships(id) ON DELETE CASCADE, " +
+                "FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE)");
+        }
+    }
+
+    // Databases created by earlier builds lack columns the DAOs now read and write
+    private static void reconcileColumns(Connection conn) throws SQLException {
+        SchemaMigrator.addColumnIfMissing(conn, "ships", "imo_number", "TEXT");
+        SchemaMigrator.addColumnIfMissing(conn, "ships", "year_built", "INTEGER");
+        SchemaMigrator.addColumnIfMissing(conn, "ships", "current_location", "TEXT");
+        SchemaMigrator.addColumnIfMissing(conn, "ships", "last_maintenance_date", "TEXT");
+        SchemaMigrator.addColumnIfMissing(conn, "ships", "updated_at", "TIMESTAMP");
+
+        SchemaMigrator.addColumnIfMissing(conn, "tasks", "assigned_by", "INTEGER");
+        SchemaMigrator.addColumnIfMissing(conn, "tasks", "priority", "TEXT DEFAULT 'medium'");
+        SchemaMigrator.addColumnIfMissing(conn, "tasks", "updated_at", "TIMESTAMP");
+
+        SchemaMigrator.addColumnIfMissing(conn, "bookings", "purpose", "TEXT");
+    }
+
+    private static void foreignKeyIndexes(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            // countStaffTasks, getUserTasks (OR over both columns), staff task listings
+            stmt.execute("CREATE INDEX IF NOT EXISTS idx_tasks_assigned_to ON tasks(assigned_to)");
+            stmt.execute("CREATE INDEX IF NOT EXISTS idx_tasks_assigned_by ON tasks(assigned_by)");
+
+            // getUserBookings and per-ship booking lookups
+            stmt.execute("CREATE INDEX IF NOT EXISTS idx_bookings_user_id ON bookings(user_id)");
+            stmt.execute("CREATE INDEX IF NOT EXISTS idx_bookings_ship_id ON bookings(ship_id, start_date)");
+
+            // getUserProblems
+            stmt.execute("CREATE INDEX IF NOT EXISTS idx_problem_reports_reported_by ON problem_reports(reported_by)");
+
+            // getShipById crew listing
+            stmt.execute("CREATE INDEX IF NOT EXISTS idx_crew_members_ship_id ON crew_members(ship_id)");
+
+            // Latest position per ship
+            stmt.execute("CREATE INDEX IF NOT EXISTS idx_ship_locations_ship_id ON ship_locations(ship_id, last_updated)");
+        }
+    }
+
+    // One row per item on a hold's manifest; replacing or deleting the hold drops its items
+    private static void cargoItems(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("CREATE TABLE IF NOT EXISTS cargo_items (" +
+                "id INTEGER PRIMARY KEY AUTOINCREMENT, " +
+                "cargo_id TEXT NOT NULL, " +
+                "name TEXT NOT NULL, " +
+                "amount INTEGER NOT NULL, " +
+                "UNIQUE (cargo_id, name), " +
+                "FOREIGN KEY (cargo_id) REFERENCES cargo(cargo_id) ON DELETE CASCADE)");
+        }
+    }
+
+    // What search_index holds for each source table: table, kind, kind code (see
+    // searchIndex), title and body. "{r}" stands for the row (new, old or the table).
+    private static final String[][] SEARCH_SOURCES = {
+        {"staff", "staff", "0",
+         "{r}.first_name || ' ' || {r}.last_name",
+         "coalesce({r}.username, '') || ' ' || coalesce({r}.role, '') || ' ' || coalesce({r}.email, '')"},
+        {"crew_members", "crew", "1",
+         "{r}.first_name || ' ' || {r}.last_name",
+         "coalesce({r}.position, '') || ' ' || coalesce({r}.rank, '') || ' ' || " +
+         "coalesce({r}.nationality, '') || ' ' || coalesce({r}.license_number, '')"},
+        {"tasks", "task", "2",
+         "{r}.title",
+         "coalesce({r}.description, '')"},
+        {"problem_reports", "problem_report", "3",
+         "{r}.title",
+         "coalesce({r}.description, '')"},
+    };
+
+    // One FTS5 table over staff, crew, tasks and problem reports, kept in sync by
+    // triggers so every write path updates it. The rowid is id * 4 + kind code, so
+    // triggers find a source row's entry by rowid instead of scanning the index.
+    private static void searchIndex(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("CREATE VIRTUAL TABLE IF NOT EXISTS search_index USING fts5(" +
+                "kind UNINDEXED, ref_id UNINDEXED, title, body, " +
+                "tokenize = 'unicode61 remove_diacritics 2', prefix = '2 3')");
+
+            for (String[] source : SEARCH_SOURCES) {
+                String table = source[0];
+                String rowid = "{r}.id * 4 + " + source[2];
+                String values = "(" + rowid + ", '" + source[1] + "', {r}.id, " + source[3] + ", " + source[4] + ")";
+                String insert = "INSERT OR REPLACE INTO search_index (rowid, kind, ref_id, title, body) VALUES ";
+                String delete = "DELETE FROM search_index WHERE rowid = " + rowid + "; ";
+
+                stmt.execute("CREATE TRIGGER IF NOT EXISTS search_" + table + "_insert AFTER INSERT ON " + table +
+                    " BEGIN " + insert + values.replace("{r}", "new") + "; END");
+                stmt.execute("CREATE TRIGGER IF NOT EXISTS search_" + table + "_update AFTER UPDATE ON " + table +
+                    " BEGIN " + delete.replace("{r}", "old") + insert + values.replace("{r}", "new") + "; END");
+                stmt.execute("CREATE TRIGGER IF NOT EXISTS search_" + table + "_delete AFTER DELETE ON " + table +
+                    " BEGIN " + delete.replace("{r}", "old") + "END");
+
+                // Index what is already there
+                stmt.execute("INSERT OR REPLACE INTO search_index (rowid, kind, ref_id, title, body) SELECT " +
+                    values.substring(1, values.length() - 1).replace("{r}", table) + " FROM " + table);
+            }
+        }
+    }
+
+    // Sessions for SqliteSessionStore. Only a SHA-256 of each token is stored;
+    // times are epoch milliseconds.
+    private static void sessions(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("CREATE TABLE IF NOT EXISTS sessions (" +
+                "token_hash TEXT PRIMARY KEY, " +
+                "user_id INTEGER NOT NULL, " +
+                "username TEXT NOT NULL, " +
+                "role TEXT NOT NULL, " +
+                "created_at INTEGER NOT NULL, " +
+                "expires_at INTEGER NOT NULL, " +
+                "FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE)");
+            stmt.execute("CREATE INDEX IF NOT EXISTS idx_sessions_expires_at ON sessions(expires_at)");
+        }
+    }
+
+    // A counter per table, bumped by triggers on every insert, update and delete
+    // (see TableVersions). ship_locations is left out: it takes bulk telemetry and
+    // the latest positions are versioned in memory by ShipPositions.
+    private static void tableVersions(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("CREATE TABLE IF NOT EXISTS table_versions (" +
+                "table_name TEXT PRIMARY KEY, " +
+                "version INTEGER NOT NULL DEFAULT 0)");
+
+            for (String table : TableVersions.TABLES) {
+                addVersionTriggers(stmt, table);
+            }
+        }
+    }
+
+    private static void addVersionTriggers(Statement stmt, String table) throws SQLException {
+        stmt.execute("INSERT OR IGNORE INTO table_versions (table_name) VALUES ('" + table + "')");
+        String bump = " ON " + table + " BEGIN UPDATE table_versions SET version = version + 1 " +
+                      "WHERE table_name = '" + table + "'; END";
+        for (String event : new String[] {"insert", "update", "delete"}) {
+            stmt.execute("CREATE TRIGGER IF NOT EXISTS version_" + table + "_" + event +
+                " AFTER " + event.toUpperCase() + bump);
+        }
+    }
+
+    // Row counts per metric and key (e.g. ships_by_status / docked), adjusted by
+    // triggers on every write so the dashboard never counts whole tables. The
+    // table is versioned itself, so readers can tell when any count moved.
+    // DashboardCounters.rebuild recounts from scratch, which also backfills.
+    private static void dashboardCounts(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("CREATE TABLE IF NOT EXISTS dashboard_counts (" +
+                "metric TEXT NOT NULL, " +
+                "key TEXT NOT NULL, " +
+                "count INTEGER NOT NULL DEFAULT 0, " +
+                "PRIMARY KEY (metric, key))");
+            addVersionTriggers(stmt, "dashboard_counts");
+
+            for (DashboardCounters.Metric metric : DashboardCounters.METRICS) {
+                addCountTriggers(stmt, metric);
+            }
+        }
+    }
+
+    private static void addCountTriggers(Statement stmt, DashboardCounters.Metric metric) throws SQLException {
+        String table = metric.getTable();
+        String increment = "INSERT INTO dashboard_counts (metric, key, count) SELECT '" + metric.getName() +
+            "', " + metric.key("new") + ", 1 WHERE " + metric.condition("new") +
+            " ON CONFLICT (metric, key) DO UPDATE SET count = count + 1; ";
+        String decrement = "UPDATE dashboard_counts SET count = count - 1 WHERE metric = '" +
+            metric.getName() + "' AND key = " + metric.key("old") + " AND " + metric.condition("old") + "; ";
+        String prefix = "CREATE TRIGGER IF NOT EXISTS count_" + metric.getName() + "_";
+
+        stmt.execute(prefix + "insert AFTER INSERT ON " + table + " BEGIN " + increment + "END");
+        stmt.execute(prefix + "delete AFTER DELETE ON " + table + " BEGIN " + decrement + "END");
+        stmt.execute(prefix + "update AFTER UPDATE OF " + metric.getColumns() + " ON " + table +
+            " WHEN " + metric.key("old") + " IS NOT " + metric.key("new") +
+            " OR (" + metric.condition("old") + ") IS NOT (" + metric.condition("new") + ")" +
+            " BEGIN " + decrement + increment + "END");
+    }
+
+    // Tasks per assignee and status, so staff listings read a few counter rows
+    // instead of counting tasks. Triggers keep it current whichever code path
+    // writes (add, update incl. reassignment, complete, delete). Status keys are
+    // normalized, so 'In Progress' and 'in_progress' count together.
+    private static void staffTaskCounts(Connection conn) throws SQLException {
+        String key = "replace(lower(trim(coalesce(%1$s.status, 'none'))), ' ', '_')";
+        String increment = "INSERT INTO staff_task_counts (staff_id, status, count) " +
+            "SELECT new.assigned_to, " + String.format(key, "new") + ", 1 WHERE new.assigned_to IS NOT NULL " +
+            "ON CONFLICT (staff_id, status) DO UPDATE SET count = count + 1; ";
+        String decrement = "UPDATE staff_task_counts SET count = count - 1 " +
+            "WHERE staff_id = old.assigned_to AND status = " + String.format(key, "old") + "; ";
+
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("CREATE TABLE IF NOT EXISTS staff_task_counts (" +
+                "staff_id INTEGER NOT NULL, " +
+                "status TEXT NOT NULL, " +
+                "count INTEGER NOT NULL DEFAULT 0, " +
+                "PRIMARY KEY (staff_id, status)) WITHOUT ROWID");
+
+            stmt.execute("CREATE TRIGGER IF NOT EXISTS staff_task_counts_insert AFTER INSERT ON tasks " +
+                "BEGIN " + increment + "END");
+            stmt.execute("CREATE TRIGGER IF NOT EXISTS staff_task_counts_delete AFTER DELETE ON tasks " +
+                "BEGIN " + decrement + "END");
+            stmt.execute("CREATE TRIGGER IF NOT EXISTS staff_task_counts_update AFTER UPDATE OF status, assigned_to ON tasks " +
+                "WHEN old.assigned_to IS NOT new.assigned_to OR " +
+                String.format(key, "old") + " IS NOT " + String.format(key, "new") + " " +
+                "BEGIN " + decrement + increment + "END");
+
+            stmt.execute("DELETE FROM staff_task_counts");
+            stmt.execute("INSERT INTO staff_task_counts (staff_id, status, count) " +
+                "SELECT assigned_to, " + String.format(key, "tasks") + ", COUNT(*) FROM tasks " +
+                "WHERE assigned_to IS NOT NULL GROUP BY 1, 2");
+        }
+    }
+
+    // Dashboard keys were only lower-cased, so "at sea" and "at_sea" were
+    // counted apart. The triggers are recreated with the key expression V9 uses
+    // and everything is recounted under the new keys.
+    private static void normalizeDashboardKeys(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            for (DashboardCounters.Metric metric : DashboardCounters.METRICS) {
+                for (String event : new String[] {"insert", "delete", "update"}) {
+                    stmt.execute("DROP TRIGGER IF EXISTS count_" + metric.getName() + "_" + event);
+                }
+                addCountTriggers(stmt, metric);
+            }
+        }
+        DashboardCounters.rebuild(conn);
+    }
+
+    // The open problem condition only lower-cased the status, so "In Progress"
+    // was not counted as open. Its triggers are recreated with the normalized
+    // condition and everything is recounted.
+    private static void normalizeOpenProblems(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            for (DashboardCounters.Metric metric : DashboardCounters.METRICS) {
+                if (!metric.getName().equals("open_problems_by_severity")) {
+                    continue;
+                }
+                for (String event : new String[] {"insert", "delete", "update"}) {
+                    stmt.execute("DROP TRIGGER IF EXISTS count_" + metric.getName() + "_" + event);
+                }
+                addCountTriggers(stmt, metric);
+            }
+        }
+        DashboardCounters.rebuild(conn);
+    }
+}
@@ -0,0 +1,23 @@
+package com.shipmanagement.db;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Maps the current row of a result set to an object. Mappers are built by a
+ * {@link RowMapper.Compiler} once per statement, after column positions have
+ * been resolved, so mapping a row never looks a column up by name.
+ */
+@FunctionalInterface
+public interface RowMapper<T> {
+
+    T mapRow(ResultSet rs) throws SQLException;
+
+    /**
+     * Builds a row mapper for one result set shape.
+     */
+    @FunctionalInterface
+    interface Compiler<T> {
+        RowMapper<T> compile(ColumnIndex columns);
+    }
+}
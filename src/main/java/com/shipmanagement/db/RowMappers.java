@@ -0,0 +1,204 @@
+package com.shipmanagement.db;
+
+import java.io.IOException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.shipmanagement.model.Booking;
+import com.shipmanagement.model.ProblemReport;
+import com.shipmanagement.model.Task;
+
+/**
+ * Row mapper compilers for the list queries, plus helpers that run them.
+ *
+ * Each compiler resolves the column positions it needs once from the result
+ * set metadata; the returned mapper then reads every row by position. Columns
+ * missing from a particular query (or from an older schema) map to null.
+ */
+public final class RowMappers {
+
+    /**
+     * Receives mapped rows one at a time, e.g. to write them straight to a response.
+     */
+    @FunctionalInterface
+    public interface RowSink<T> {
+        void accept(T row) throws IOException;
+    }
+
+    private RowMappers() {
+    }
+
+    /**
+     * Maps every remaining row with a mapper compiled once for this result set.
+     */
+    public static <T> List<T> toList(ResultSet rs, RowMapper.Compiler<T> compiler) throws SQLException {
+        RowMapper<T> mapper = compiler.compile(ColumnIndex.of(rs));
+        List<T> list = new ArrayList<>();
+        while (rs.next()) {
+            list.add(mapper.mapRow(rs));
+        }
+        return list;
+    }
+
+    /**
+     * Maps the remaining rows one by one into a sink without collecting them.
+     * @return The number of rows handed to the sink
+     */
+    public static <T> int forEach(ResultSet rs, RowMapper.Compiler<T> compiler, RowSink<T> sink)
+            throws SQLException, IOException {
+        RowMapper<T> mapper = compiler.compile(ColumnIndex.of(rs));
+        int count = 0;
+        while (rs.next()) {
+            sink.accept(mapper.mapRow(rs));
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Generic fallback for ad-hoc queries: one map per row, but column labels are
+     * read from the metadata once rather than per row.
+     */
+    public static RowMapper<Map<String, Object>> map(ColumnIndex columns) {
+        int count = columns.size();
+        String[] labels = new String[count];
+        for (int i = 0; i < count; i++) {
+            labels[i] = columns.label(i + 1);
+        }
+        return rs -> {
+            Map<String, Object> row = new HashMap<>(count * 4 / 3 + 1);
+            for (int i = 0; i < count; i++) {
+                row.put(labels[i], rs.getObject(i + 1));
+            }
+            return row;
+        };
+    }
+
+    public static RowMapper<Booking> booking(ColumnIndex columns) {
+        int id = columns.of("id");
+        int shipId = columns.of("ship_id");
+        int shipName = columns.of("ship_name");
+        int shipType = columns.of("ship_type");
+        int userId = columns.of("user_id");
+        int userUsername = columns.of("user_username");
+        int startDate = columns.of("start_date");
+        int endDate = columns.of("end_date");
+        int purpose = columns.of("purpose");
+        int status = columns.of("status");
+        int createdAt = columns.of("created_at");
+
+        return rs -> {
+            Booking booking = new Booking();
+            booking.setId(ColumnIndex.getInt(rs, id));
+            booking.setShipId(ColumnIndex.getInt(rs, shipId));
+            booking.setShipName(ColumnIndex.getString(rs, shipName));
+            booking.setShipType(ColumnIndex.getString(rs, shipType));
+            booking.setUserId(ColumnIndex.getInt(rs, userId));
+            booking.setUserUsername(ColumnIndex.getString(rs, userUsername));
+            booking.setStartDate(ColumnIndex.getString(rs, startDate));
+            booking.setEndDate(ColumnIndex.getString(rs, endDate));
+            booking.setPurpose(ColumnIndex.getString(rs, purpose));
+            booking.setStatus(ColumnIndex.getString(rs, status));
+            booking.setCreatedAt(ColumnIndex.getString(rs, createdAt));
+            return booking;
+        };
+    }
+
+    public static RowMapper<Task> task(ColumnIndex columns) {
+        int id = columns.of("id");
+        int title = columns.of("title");
+        int description = columns.of("description");
+        int status = columns.of("status");
+        int priority = columns.of("priority");
+        int assignedTo = columns.of("assigned_to");
+        int assignedToName = columns.of("assigned_to_name");
+        int assignedBy = columns.of("assigned_by");
+        int assignedByName = columns.of("assigned_by_name");
+        int shipId = columns.of("ship_id");
+        int shipName = columns.of("ship_name");
+        int dueDate = columns.of("due_date");
+        int createdAt = columns.of("created_at");
+        int updatedAt = columns.of("updated_at");
+
+        return rs -> {
+            Task task = new Task();
+            task.setId(ColumnIndex.getInt(rs, id));
+            task.setTitle(ColumnIndex.getString(rs, title));
+            task.setDescription(ColumnIndex.getString(rs, description));
+            task.setStatus(ColumnIndex.getString(rs, status));
+            task.setPriority(ColumnIndex.getString(rs, priority));
+            task.setAssignedTo(ColumnIndex.getInteger(rs, assignedTo));
+            task.setAssignedToName(ColumnIndex.getString(rs, assignedToName));
+            task.setAssignedBy(ColumnIndex.getInt(rs, assignedBy));
+            task.setAssignedByName(ColumnIndex.getString(rs, assignedByName));
+            task.setShipId(ColumnIndex.getInteger(rs, shipId));
+            task.setShipName(ColumnIndex.getString(rs, shipName));
+            task.setDueDate(ColumnIndex.getString(rs, dueDate));
+            task.setCreatedAt(ColumnIndex.getString(rs, createdAt));
+            task.setUpdatedAt(ColumnIndex.getString(rs, updatedAt));
+            return task;
+        };
+    }
+
+    public static RowMapper<ProblemReport> problemReport(ColumnIndex columns) {
+        int id = columns.of("id");
+        int title = columns.of("title");
+        int description = columns.of("description");
+        int status = columns.of("status");
+        int severity = columns.of("severity");
+        int priority = columns.of("priority");
+        int reportedBy = columns.of("reported_by");
+        int reportedByName = columns.of("reported_by_name");
+        int shipId = columns.of("ship_id");
+        int shipName = columns.of("ship_name");
+        int createdAt = columns.of("created_at");
+        int updatedAt = columns.of("updated_at");
+
+        return rs -> {
+            ProblemReport problem = new ProblemReport();
+            problem.setId(ColumnIndex.getInt(rs, id));
+            problem.setTitle(ColumnIndex.getString(rs, title));
+            problem.setDescription(ColumnIndex.getString(rs, description));
+            problem.setStatus(ColumnIndex.getString(rs, status));
+            problem.setSeverity(ColumnIndex.getString(rs, severity));
+            problem.setPriority(ColumnIndex.getString(rs, priority));
+            problem.setReportedBy(ColumnIndex.getInt(rs, reportedBy));
+            problem.setReportedByName(ColumnIndex.getString(rs, reportedByName));
+            problem.setShipId(ColumnIndex.getInteger(rs, shipId));
+            problem.setShipName(ColumnIndex.getString(rs, shipName));
+            problem.setCreatedAt(ColumnIndex.getString(rs, createdAt));
+            problem.setUpdatedAt(ColumnIndex.getString(rs, updatedAt));
+            return problem;
+        };
+    }
+
+    public static RowMapper<Map<String, Object>> report(ColumnIndex columns) {
+        int id = columns.of("id");
+        int title = columns.of("title");
+        int reportType = columns.of("report_type");
+        int content = columns.of("content");
+        int generatedBy = columns.of("generated_by");
+        int generatedByUsername = columns.of("generated_by_username");
+        int shipId = columns.of("ship_id");
+        int shipName = columns.of("ship_name");
+        int createdAt = columns.of("created_at");
+
+        return rs -> {
+            Map<String, Object> report = new HashMap<>();
+            report.put("id", ColumnIndex.getInt(rs, id));
+            report.put("title", ColumnIndex.getString(rs, title));
+            report.put("report_type", ColumnIndex.getString(rs, reportType));
+            report.put("content", ColumnIndex.getString(rs, content));
+            report.put("generated_by", ColumnIndex.getInt(rs, generatedBy));
+            report.put("generated_by_username", ColumnIndex.getString(rs, generatedByUsername));
+            report.put("ship_id", ColumnIndex.getInt(rs, shipId));
+            report.put("ship_name", ColumnIndex.getString(rs, shipName));
+            report.put("created_at", ColumnIndex.getString(rs, createdAt));
+            return report;
+        };
+    }
+}
@@ -0,0 +1,156 @@
+package com.shipmanagement.db;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Applies ordered, versioned schema migrations.
+ *
+ * The applied version is kept in a schema_version table. On startup only the
+ * migrations newer than that version run, each in its own transaction together
+ * with its schema_version row. When the schema is already current nothing but a
+ * single version lookup is executed.
+ */
+public class SchemaMigrator {
+
+    /**
+     * The body of a migration. Runs inside a transaction; do not commit.
+     */
+    @FunctionalInterface
+    public interface Step {
+        void apply(Connection conn) throws SQLException;
+    }
+
+    public static final class Migration {
+        private final int version;
+        private final String description;
+        private final Step step;
+
+        public Migration(int version, String description, Step step) {
+            this.version = version;
+            this.description = description;
+            this.step = step;
+        }
+
+        public int getVersion() {
+            return version;
+        }
+
+        public String getDescription() {
+            return description;
+        }
+    }
+
+    private final List<Migration> migrations;
+
+    public SchemaMigrator(List<Migration> migrations) {
+        this.migrations = new ArrayList<>(migrations);
+        this.migrations.sort(Comparator.comparingInt(Migration::getVersion));
+
+        Set<Integer> seen = new HashSet<>();
+        for (Migration migration : this.migrations) {
+            if (!seen.add(migration.version)) {
+                throw new IllegalArgumentException("Duplicate migration version " + migration.version);
+            }
+        }
+    }
+
+    /**
+     * Latest version this migrator knows about.
+     */
+    public int getLatestVersion() {
+        return migrations.isEmpty() ? 0 : migrations.get(migrations.size() - 1).version;
+    }
+
+    /**
+     * Version recorded in the database, or 0 if it has never been migrated.
+     */
+    public int getCurrentVersion(Connection conn) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(
+                "SELECT COUNT(*) FROM sqlite_master WHERE type = 'table' AND name = 'schema_version'");
+             ResultSet rs = pstmt.executeQuery()) {
+            if (!rs.next() || rs.getInt(1) == 0) {
+                return 0;
+            }
+        }
+        try (PreparedStatement pstmt = conn.prepareStatement("SELECT MAX(version) FROM schema_version");
+             ResultSet rs = pstmt.executeQuery()) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
+    /**
+     * Brings the database up to the latest version.
+     * @param conn A writer connection in auto-commit mode
+     * @return The number of migrations applied
+     */
+    public int migrate(Connection conn) throws SQLException {
+        int current = getCurrentVersion(conn);
+        if (current >= getLatestVersion()) {
+            return 0;
+        }
+
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("CREATE TABLE IF NOT EXISTS schema_version (" +
+                "version INTEGER PRIMARY KEY, " +
+                "description TEXT NOT NULL, " +
+                "applied_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP)");
+        }
+
+        int applied = 0;
+        for (Migration migration : migrations) {
+            if (migration.version <= current) {
+                continue;
+            }
+            apply(conn, migration);
+            applied++;
+        }
+        return applied;
+    }
+
+    private void apply(Connection conn, Migration migration) throws SQLException {
+        conn.setAutoCommit(false);
+        try {
+            migration.step.apply(conn);
+            try (PreparedStatement pstmt = conn.prepareStatement(
+                    "INSERT INTO schema_version (version, description) VALUES (?, ?)")) {
+                pstmt.setInt(1, migration.version);
+                pstmt.setString(2, migration.description);
+                pstmt.executeUpdate();
+            }
+            conn.commit();
+            System.out.println("Applied schema migration V" + migration.version + ": " + migration.description);
+        } catch (SQLException | RuntimeException e) {
+            conn.rollback();
+            throw new SQLException("Schema migration V" + migration.version + " failed: " + e.getMessage(), e);
+        } finally {
+            conn.setAutoCommit(true);
+        }
+    }
+
+    /**
+     * Adds a column unless the table already has it. SQLite has no
+     * ADD COLUMN IF NOT EXISTS, and older databases drifted from the baseline.
+     */
+    public static void addColumnIfMissing(Connection conn, String table, String column, String definition)
+            throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            try (ResultSet rs = stmt.executeQuery("PRAGMA table_info(" + table + ")")) {
+                while (rs.next()) {
+                    if (column.equalsIgnoreCase(rs.getString("name"))) {
+                        return;
+                    }
+                }
+            }
+            stmt.execute("ALTER TABLE " + table + " ADD COLUMN " + column + " " + definition);
+        }
+    }
+}
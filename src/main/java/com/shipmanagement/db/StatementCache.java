@@ -0,0 +1,215 @@
+package com.shipmanagement.db;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * LRU cache of prepared statements for one physical connection, keyed by SQL text.
+ *
+ * A pooled connection is only ever used by one thread at a time, so the cache
+ * itself is not synchronized. Callers get a proxy whose close() resets the
+ * statement (closes its result set, clears parameters) and hands it back to the
+ * cache rather than finalizing it, so existing try-with-resources code keeps
+ * working unchanged.
+ */
+class StatementCache {
+
+    private final Connection physical;
+    private final int capacity;
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    private final LongAdder hits;
+    private final LongAdder misses;
+    private final LongAdder evictions;
+
+    StatementCache(Connection physical, int capacity, LongAdder hits, LongAdder misses, LongAdder evictions) {
+        this.physical = physical;
+        this.capacity = capacity;
+        this.hits = hits;
+        this.misses = misses;
+        this.evictions = evictions;
+    }
+
+    /**
+     * Returns a cached statement for the SQL, preparing it on a miss. If the cached
+     * statement is already checked out (the same query nested inside itself) an
+     * uncached statement is returned instead.
+     */
+    PreparedStatement prepare(String sql, int autoGeneratedKeys) throws SQLException {
+        Key key = new Key(sql, autoGeneratedKeys);
+        Entry entry = entries.get(key);
+
+        if (entry != null) {
+            if (entry.inUse) {
+                return physical.prepareStatement(sql, autoGeneratedKeys);
+            }
+            hits.increment();
+        } else {
+            misses.increment();
+            entry = new Entry(physical.prepareStatement(sql, autoGeneratedKeys));
+            entries.put(key, entry);
+            evictIfNeeded();
+        }
+
+        entry.inUse = true;
+        return (PreparedStatement) Proxy.newProxyInstance(
+            StatementCache.class.getClassLoader(),
+            new Class<?>[] { PreparedStatement.class },
+            new CachedStatementHandler(entry));
+    }
+
+    /**
+     * Called when the connection goes back to the pool: anything the borrower
+     * forgot to close is reset so no result set keeps a read snapshot open.
+     */
+    void releaseAll() {
+        for (Entry entry : entries.values()) {
+            if (entry.inUse) {
+                entry.reset();
+            }
+        }
+    }
+
+    void close() {
+        for (Entry entry : entries.values()) {
+            entry.closeQuietly();
+        }
+        entries.clear();
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    private void evictIfNeeded() {
+        Iterator<Entry> it = entries.values().iterator();
+        while (entries.size() > capacity && it.hasNext()) {
+            Entry eldest = it.next();
+            if (!eldest.inUse) {
+                it.remove();
+                eldest.closeQuietly();
+                evictions.increment();
+            }
+        }
+    }
+
+    private static final class Key {
+        private final String sql;
+        private final int autoGeneratedKeys;
+
+        Key(String sql, int autoGeneratedKeys) {
+            this.sql = sql;
+            this.autoGeneratedKeys = autoGeneratedKeys;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return autoGeneratedKeys == other.autoGeneratedKeys && sql.equals(other.sql);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(sql, autoGeneratedKeys);
+        }
+    }
+
+    private static final class Entry {
+        private final PreparedStatement statement;
+        private ResultSet openResultSet;
+        private boolean inUse;
+
+        Entry(PreparedStatement statement) {
+            this.statement = statement;
+        }
+
+        void reset() {
+            try {
+                if (openResultSet != null) {
+                    openResultSet.close();
+                }
+                statement.clearParameters();
+                statement.clearBatch();
+            } catch (SQLException e) {
+                System.err.println("Error resetting cached statement: " + e.getMessage());
+            }
+            openResultSet = null;
+            inUse = false;
+        }
+
+        void closeQuietly() {
+            try {
+                statement.close();
+            } catch (SQLException e) {
+                System.err.println("Error closing cached statement: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Delegates to the cached statement and turns close() into a reset.
+     */
+    private static class CachedStatementHandler implements InvocationHandler {
+        private final Entry entry;
+        private boolean closed;
+
+        CachedStatementHandler(Entry entry) {
+            this.entry = entry;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!closed) {
+                        closed = true;
+                        entry.reset();
+                    }
+                    return null;
+                case "isClosed":
+                    return closed || entry.statement.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "Cached[" + entry.statement + "]";
+                default:
+                    break;
+            }
+
+            if (closed) {
+                throw new SQLException("Statement has already been closed");
+            }
+
+            Object result;
+            try {
+                result = method.invoke(entry.statement, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+
+            // Remember the latest result set so it is closed when the statement is reset
+            if (result instanceof ResultSet) {
+                entry.openResultSet = (ResultSet) result;
+            }
+            if (result == entry.statement) {
+                return proxy;
+            }
+            return result;
+        }
+    }
+}
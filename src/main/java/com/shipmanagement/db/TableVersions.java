@@ -0,0 +1,67 @@
+package com.shipmanagement.db;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.shipmanagement.DatabaseConnection;
+
+/**
+ * Per-table change counters kept in the table_versions table. Triggers bump a
+ * table's counter on every insert, update and delete, whichever DAO or
+ * connection made the write, and the bump commits with the write itself. So
+ * every node sharing the database sees the same versions.
+ *
+ * Reading the counters is a single primary key lookup, far cheaper than the
+ * queries they stand for. Read them before the data they describe: then a write
+ * landing in between can only make the next check see a newer version, never
+ * let changed data keep an old one.
+ */
+public final class TableVersions {
+
+    /** Tables with version triggers (see Migrations) */
+    public static final List<String> TABLES = List.of(
+        "ships", "docks", "bookings", "tasks", "staff", "crew_members", "problem_reports", "reports");
+
+    private TableVersions() {
+    }
+
+    /**
+     * The current versions of the given tables, as "table.version" pairs in the
+     * order given, e.g. "ships.41.docks.3".
+     */
+    public static String current(String... tables) throws SQLException {
+        StringBuilder sql = new StringBuilder("SELECT table_name, version FROM table_versions WHERE table_name IN (");
+        for (int i = 0; i < tables.length; i++) {
+            sql.append(i == 0 ? "?" : ", ?");
+        }
+        sql.append(")");
+
+        Map<String, Long> versions = new HashMap<>();
+        try (Connection conn = DatabaseConnection.getConnection("TableVersions.current");
+             PreparedStatement pstmt = conn.prepareStatement(sql.toString())) {
+            for (int i = 0; i < tables.length; i++) {
+                pstmt.setString(i + 1, tables[i]);
+            }
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    versions.put(rs.getString(1), rs.getLong(2));
+                }
+            }
+        }
+
+        StringBuilder result = new StringBuilder();
+        for (String table : tables) {
+            Long version = versions.get(table);
+            if (version == null) {
+                throw new IllegalArgumentException("Table is not versioned: " + table);
+            }
+            result.append(result.length() == 0 ? "" : ".").append(table).append('.').append(version);
+        }
+        return result.toString();
+    }
+}
@@ -0,0 +1,295 @@
+package com.shipmanagement.db;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Single-writer pipeline that group-commits concurrent mutations.
+ *
+ * Callers submit a {@link WriteOperation}; one background thread takes whatever
+ * has queued up (at most {@code maxBatchSize} operations, waiting at most
+ * {@code lingerMillis} for more to arrive) and runs them inside one transaction
+ * on the pool's writer connection. Each operation runs under its own savepoint,
+ * so a failing operation is rolled back alone and the rest of the batch still
+ * commits. Every caller gets its own result back (generated key, row count, ...).
+ */
+public class WriteQueue implements AutoCloseable {
+
+    /**
+     * A unit of work run on the writer connection. Do not commit, roll back or
+     * change auto-commit inside an operation; the queue owns the transaction.
+     */
+    @FunctionalInterface
+    public interface WriteOperation<T> {
+        T execute(Connection conn) throws SQLException;
+    }
+
+    private static final class Pending<T> {
+        final WriteOperation<T> operation;
+        final CompletableFuture<T> result = new CompletableFuture<>();
+
+        Pending(WriteOperation<T> operation) {
+            this.operation = operation;
+        }
+    }
+
+    private final ConnectionPool pool;
+    private final int maxBatchSize;
+    private final long lingerMillis;
+    private final BlockingQueue<Pending<?>> queue = new LinkedBlockingQueue<>();
+    private final Thread writerThread;
+
+    private volatile boolean closed;
+
+    // Metrics
+    private final LongAdder operations = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder failedOperations = new LongAdder();
+    private final LongAdder failedCommits = new LongAdder();
+    private final AtomicLong largestBatch = new AtomicLong();
+
+    public WriteQueue(ConnectionPool pool, int maxBatchSize, long lingerMillis) {
+        if (maxBatchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be at least 1");
+        }
+        this.pool = pool;
+        this.maxBatchSize = maxBatchSize;
+        this.lingerMillis = lingerMillis;
+
+        this.writerThread = new Thread(this::run, "sqlite-write-queue");
+        this.writerThread.setDaemon(true);
+        this.writerThread.start();
+    }
+
+    /**
+     * Queues an operation and returns a future for its result.
+     */
+    public <T> CompletableFuture<T> submit(WriteOperation<T> operation) {
+        Pending<T> pending = new Pending<>(operation);
+        if (closed) {
+            pending.result.completeExceptionally(new SQLException("Write queue has been shut down"));
+            return pending.result;
+        }
+        queue.add(pending);
+        return pending.result;
+    }
+
+    /**
+     * Runs an operation through the queue and waits for it to commit. Calls made
+     * from the writer thread itself (an operation that calls back into a queued
+     * write) or from a thread already holding the writer connection run inline,
+     * since waiting on the queue there would deadlock.
+     */
+    public <T> T execute(WriteOperation<T> operation) throws SQLException {
+        if (Thread.currentThread() == writerThread || pool.isWriterHeldByCurrentThread()) {
+            try (Connection conn = pool.getWriteConnection()) {
+                return operation.execute(conn);
+            }
+        }
+
+        try {
+            return submit(operation).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a queued write", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof SQLException) {
+                throw (SQLException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new SQLException("Queued write failed", cause);
+        }
+    }
+
+    /**
+     * Snapshot of the queue metrics, suitable for JSON serialization.
+     */
+    public Map<String, Object> getStats() {
+        long ops = operations.sum();
+        long batchCount = batches.sum();
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("queued", queue.size());
+        stats.put("operations", ops);
+        stats.put("batches", batchCount);
+        stats.put("avgBatchSize", batchCount == 0 ? 0.0 : (double) ops / batchCount);
+        stats.put("largestBatch", largestBatch.get());
+        stats.put("failedOperations", failedOperations.sum());
+        stats.put("failedCommits", failedCommits.sum());
+        return stats;
+    }
+
+    /**
+     * Stops accepting work, flushes what is already queued and stops the writer thread.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        try {
+            writerThread.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        // Anything that slipped in after the writer stopped will never run
+        List<Pending<?>> leftover = new ArrayList<>();
+        queue.drainTo(leftover);
+        failAll(leftover, new SQLException("Write queue has been shut down"));
+    }
+
+    private void run() {
+        List<Pending<?>> batch = new ArrayList<>(maxBatchSize);
+        // The writer is never interrupted: an interrupt would make the pool refuse
+        // the writer connection mid-flush. close() just flips the flag and we drain.
+        while (!closed || !queue.isEmpty()) {
+            try {
+                Pending<?> first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                collect(batch);
+            } catch (InterruptedException e) {
+                queue.drainTo(batch, maxBatchSize - batch.size());
+            }
+
+            if (!batch.isEmpty()) {
+                try {
+                    flush(batch);
+                } catch (Throwable t) {
+                    // Last resort: callers wait without a timeout, so never leave them hanging
+                    System.err.println("Write batch failed unexpectedly: " + t);
+                    failAll(batch, t);
+                } finally {
+                    batch.clear();
+                }
+            }
+        }
+    }
+
+    // Top up the batch with anything already queued, lingering briefly for stragglers
+    private void collect(List<Pending<?>> batch) throws InterruptedException {
+        queue.drainTo(batch, maxBatchSize - batch.size());
+        if (lingerMillis <= 0 || closed) {
+            return;
+        }
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(lingerMillis);
+        while (batch.size() < maxBatchSize) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                return;
+            }
+            Pending<?> next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+            queue.drainTo(batch, maxBatchSize - batch.size());
+        }
+    }
+
+    private void flush(List<Pending<?>> batch) {
+        batches.increment();
+        operations.add(batch.size());
+        largestBatch.accumulateAndGet(batch.size(), Math::max);
+
+        List<Object> results = new ArrayList<>(batch.size());
+        try (Connection conn = pool.getWriteConnection()) {
+            // Auto-commit is restored by the pool when the connection is released
+            conn.setAutoCommit(false);
+            try {
+                for (Pending<?> pending : batch) {
+                    results.add(runOne(conn, pending, batch.size() > 1));
+                }
+                conn.commit();
+            } catch (Throwable t) {
+                // Including Errors from an operation, which fail the whole batch
+                failedCommits.increment();
+                rollbackQuietly(conn);
+                failAll(batch, t);
+                return;
+            }
+        } catch (SQLException e) {
+            failedCommits.increment();
+            failAll(batch, e);
+            return;
+        }
+
+        // Only hand results back once the whole batch is durable
+        for (int i = 0; i < batch.size(); i++) {
+            complete(batch.get(i), results.get(i));
+        }
+    }
+
+    // Runs one operation, undoing only its own changes if it fails. A lone
+    // operation needs no savepoint: rolling back the transaction is enough.
+    private Object runOne(Connection conn, Pending<?> pending, boolean isolate) throws SQLException {
+        Savepoint savepoint = isolate ? conn.setSavepoint() : null;
+        try {
+            Object result = pending.operation.execute(conn);
+            if (savepoint != null) {
+                conn.releaseSavepoint(savepoint);
+            }
+            return result;
+        } catch (SQLException | RuntimeException e) {
+            failedOperations.increment();
+            if (savepoint != null) {
+                conn.rollback(savepoint);
+                conn.releaseSavepoint(savepoint);
+            } else {
+                conn.rollback();
+            }
+            return new Failure(e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> void complete(Pending<T> pending, Object result) {
+        if (result instanceof Failure) {
+            pending.result.completeExceptionally(((Failure) result).cause);
+        } else {
+            pending.result.complete((T) result);
+        }
+    }
+
+    // Completing an already completed future is a no-op, so this is safe to repeat
+    private static void failAll(List<Pending<?>> batch, Throwable cause) {
+        for (Pending<?> pending : batch) {
+            pending.result.completeExceptionally(cause);
+        }
+    }
+
+    private static void rollbackQuietly(Connection conn) {
+        try {
+            conn.rollback();
+        } catch (SQLException e) {
+            System.err.println("Error rolling back write batch: " + e.getMessage());
+        }
+    }
+
+    private static final class Failure {
+        final Exception cause;
+
+        Failure(Exception cause) {
+            this.cause = cause;
+        }
+    }
+}
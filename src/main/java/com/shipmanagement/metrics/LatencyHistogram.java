@@ -0,0 +1,126 @@
+package com.shipmanagement.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Fixed-bucket latency histogram with lock-free recording.
+ *
+ * Bucket upper bounds follow a 1-2-5 series from 100 microseconds to 50
+ * seconds, plus an overflow bucket. Recording is a short binary search and an
+ * atomic increment, so it is cheap enough to wrap every request and query.
+ * Percentiles are interpolated linearly inside the bucket they fall in and are
+ * capped at the largest value recorded.
+ */
+public class LatencyHistogram {
+
+    private static final long[] BOUNDS_NANOS = bounds();
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BOUNDS_NANOS.length + 1);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sumNanos = new LongAdder();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    private static long[] bounds() {
+        long[] steps = {1, 2, 5};
+        long[] bounds = new long[18];
+        long decade = TimeUnit.MICROSECONDS.toNanos(100);
+        for (int i = 0; i < bounds.length; i++) {
+            bounds[i] = decade * steps[i % 3];
+            if (i % 3 == 2) {
+                decade *= 10;
+            }
+        }
+        return bounds;
+    }
+
+    public void record(long nanos) {
+        if (nanos < 0) {
+            nanos = 0;
+        }
+        buckets.incrementAndGet(bucketIndex(nanos));
+        count.increment();
+        sumNanos.add(nanos);
+        long max = maxNanos.get();
+        while (nanos > max && !maxNanos.compareAndSet(max, nanos)) {
+            max = maxNanos.get();
+        }
+    }
+
+    private static int bucketIndex(long nanos) {
+        int low = 0;
+        int high = BOUNDS_NANOS.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (BOUNDS_NANOS[mid] < nanos) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Upper bounds of the finite buckets, in nanoseconds.
+     */
+    public static long[] getBoundsNanos() {
+        return BOUNDS_NANOS.clone();
+    }
+
+    /**
+     * Copy of the per-bucket (non-cumulative) counts; the last entry is the overflow bucket.
+     */
+    public long[] getBucketCounts() {
+        long[] counts = new long[buckets.length()];
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = buckets.get(i);
+        }
+        return counts;
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public long getSumNanos() {
+        return sumNanos.sum();
+    }
+
+    public long getMaxNanos() {
+        return maxNanos.get();
+    }
+
+    /**
+     * Estimated latency at the given percentile (0-100), in nanoseconds.
+     */
+    public long percentileNanos(double percentile) {
+        long[] counts = getBucketCounts();
+        long total = 0;
+        for (long c : counts) {
+            total += c;
+        }
+        if (total == 0) {
+            return 0;
+        }
+
+        long max = maxNanos.get();
+        double rank = Math.max(1, Math.ceil(percentile / 100.0 * total));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] == 0) {
+                continue;
+            }
+            if (seen + counts[i] >= rank) {
+                long lower = i == 0 ? 0 : BOUNDS_NANOS[i - 1];
+                long upper = i < BOUNDS_NANOS.length ? BOUNDS_NANOS[i] : max;
+                double fraction = (rank - seen) / counts[i];
+                return Math.min(max, lower + (long) ((upper - lower) * fraction));
+            }
+            seen += counts[i];
+        }
+        return max;
+    }
+}
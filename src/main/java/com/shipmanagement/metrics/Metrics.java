@@ -0,0 +1,125 @@
+package com.shipmanagement.metrics;
+
+import static spark.Spark.afterAfter;
+import static spark.Spark.before;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.LongSupplier;
+
+import spark.routematch.RouteMatch;
+
+/**
+ * Process-wide request and database timings, exported in the Prometheus text
+ * format by {@link #scrape()}.
+ *
+ * HTTP requests are labelled by method and the pattern of the route that served
+ * them, so /api/ships/12 and /api/ships/13 share the "/api/ships/:id" series.
+ * Unmatched and 404 requests share "unmatched" and static assets share
+ * "static" (see {@link #useRoutes}), so clients cannot add series.
+ * Database calls are labelled by the DAO or DatabaseConnection method that made
+ * them (passed by the caller, see DatabaseConnection.getConnection(String)) and
+ * by the connection kind (reader, writer, queue).
+ *
+ * Components that already keep their own totals can export them as plain
+ * counters with {@link #registerCounter}.
+ */
+public final class Metrics {
+
+    public static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    private static final String START_ATTRIBUTE = Metrics.class.getName() + ".start";
+
+    private static final TimerFamily httpRequests =
+        new TimerFamily("http_request", "HTTP request", "method", "route");
+    private static final TimerFamily dbCalls =
+        new TimerFamily("db_call", "Database call", "method", "connection");
+
+    private static final class Counter {
+        final String help;
+        final LongSupplier value;
+
+        Counter(String help, LongSupplier value) {
+            this.help = help;
+            this.value = value;
+        }
+    }
+
+    // Sorted by name so consecutive scrapes list counters in the same order
+    private static final Map<String, Counter> counters = new ConcurrentSkipListMap<>();
+
+    // Empty until useRoutes, so early requests are "unmatched"
+    private static volatile RouteTable routeTable =
+        new RouteTable(Collections.emptyList(), Collections.emptyList());
+
+    private Metrics() {
+    }
+
+    public static void recordRequest(String method, String route, long nanos, boolean error) {
+        httpRequests.record(nanos, error, method, route);
+    }
+
+    public static void recordDbCall(String method, String connection, long nanos, boolean error) {
+        dbCalls.record(nanos, error, method, connection);
+    }
+
+    /**
+     * Exports a monotonically increasing total, read on every scrape.
+     * Registering the same name again replaces the earlier counter.
+     * @param name Metric name, e.g. "cargo_writes_coalesced_total"
+     */
+    public static void registerCounter(String name, String help, LongSupplier value) {
+        counters.put(name, new Counter(help, value));
+    }
+
+    /**
+     * Registers the filters that time every routed request. Register these first
+     * so the timing also covers the other filters, including shed requests.
+     * Requests for the metrics endpoint itself are not recorded.
+     */
+    public static void registerFilters(String metricsPath) {
+        before((req, res) -> req.attribute(START_ATTRIBUTE, System.nanoTime()));
+
+        afterAfter((req, res) -> {
+            Long start = req.attribute(START_ATTRIBUTE);
+            if (start == null || metricsPath.equals(req.pathInfo())) {
+                return;
+            }
+            long elapsed = System.nanoTime() - start;
+            String route = routeTable.label(req.requestMethod(), req.pathInfo(), res.status());
+            recordRequest(RouteTable.method(req.requestMethod()), route, elapsed, res.status() >= 500);
+        });
+    }
+
+    /**
+     * Sets the routes requests are labelled with. Call once every route is
+     * registered, with {@code Spark.routes()}; filters in the list are ignored.
+     * @param staticPatterns Patterns of the routes serving static assets, all labelled "static"
+     */
+    public static void useRoutes(List<RouteMatch> routes, List<String> staticPatterns) {
+        List<String[]> table = new ArrayList<>();
+        for (RouteMatch route : routes) {
+            table.add(new String[] {route.getHttpMethod().name(), route.getMatchUri()});
+        }
+        routeTable = new RouteTable(table, staticPatterns);
+    }
+
+    /**
+     * All metrics in the Prometheus text exposition format.
+     */
+    public static String scrape() {
+        StringBuilder out = new StringBuilder(64 * 1024);
+        httpRequests.writeTo(out);
+        dbCalls.writeTo(out);
+        for (Map.Entry<String, Counter> counter : counters.entrySet()) {
+            String name = counter.getKey();
+            out.append("# HELP ").append(name).append(' ').append(counter.getValue().help).append('\n');
+            out.append("# TYPE ").append(name).append(" counter\n");
+            out.append(name).append(' ').append(counter.getValue().value.getAsLong()).append('\n');
+        }
+        return out.toString();
+    }
+}
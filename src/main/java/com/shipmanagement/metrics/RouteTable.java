@@ -0,0 +1,112 @@
+package com.shipmanagement.metrics;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * The registered route patterns, used to label a request with the route that
+ * served it ("/api/ships/:id") rather than its path. Matching follows Spark:
+ * routes are tried in registration order and the first match wins, ":name"
+ * matches one segment and a trailing "*" matches the rest of the path.
+ *
+ * The label set is fixed by the routes, so no request can add series. Anything
+ * no route matched, or that ended in a 404, is labelled {@link #UNMATCHED};
+ * everything served by the static asset routes is labelled {@link #STATIC}.
+ */
+final class RouteTable {
+
+    static final String UNMATCHED = "unmatched";
+    static final String STATIC = "static";
+
+    private static final Set<String> METHODS =
+        Set.of("GET", "HEAD", "POST", "PUT", "DELETE", "PATCH", "OPTIONS", "TRACE", "CONNECT");
+
+    private static final class Entry {
+        final String method;
+        final String pattern;
+        final String[] segments;
+        final boolean staticRoute;
+
+        Entry(String method, String pattern, boolean staticRoute) {
+            this.method = method;
+            this.pattern = pattern;
+            this.segments = split(pattern);
+            this.staticRoute = staticRoute;
+        }
+
+        boolean matches(String path, String[] parts) {
+            boolean wildcard = pattern.endsWith("*");
+            if (!wildcard && path.endsWith("/") != pattern.endsWith("/")) {
+                return false;
+            }
+            if (parts.length == segments.length) {
+                return prefixMatches(parts, segments.length);
+            }
+            if (!wildcard) {
+                return false;
+            }
+            // "/api/*" also matches "/api/"
+            if (parts.length == segments.length - 1) {
+                return path.endsWith("/") && prefixMatches(parts, parts.length);
+            }
+            return parts.length > segments.length && prefixMatches(parts, segments.length - 1);
+        }
+
+        private boolean prefixMatches(String[] parts, int count) {
+            for (int i = 0; i < count; i++) {
+                String segment = segments[i];
+                if (!segment.startsWith(":") && !segment.equals("*") && !segment.equals(parts[i])) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    private final List<Entry> entries = new ArrayList<>();
+
+    /**
+     * @param staticPatterns Patterns of the routes that serve static assets
+     */
+    RouteTable(Collection<String[]> routes, Collection<String> staticPatterns) {
+        for (String[] route : routes) {
+            String method = route[0].toUpperCase(Locale.ROOT);
+            entries.add(new Entry(method, route[1], staticPatterns.contains(route[1])));
+        }
+    }
+
+    String label(String method, String path, int status) {
+        if (status == 404 || path == null) {
+            return UNMATCHED;
+        }
+        // Spark answers HEAD with the GET route
+        String routeMethod = "HEAD".equals(method) ? "GET" : method;
+        String[] parts = split(path);
+        for (Entry entry : entries) {
+            if (entry.method.equals(routeMethod) && entry.matches(path, parts)) {
+                return entry.staticRoute ? STATIC : entry.pattern;
+            }
+        }
+        return UNMATCHED;
+    }
+
+    /**
+     * The method label: one of the standard methods, or "OTHER".
+     */
+    static String method(String method) {
+        return METHODS.contains(method) ? method : "OTHER";
+    }
+
+    private static String[] split(String path) {
+        List<String> parts = new ArrayList<>();
+        for (String part : path.split("/")) {
+            if (!part.isEmpty()) {
+                parts.add(part);
+            }
+        }
+        return parts.toArray(new String[0]);
+    }
+}
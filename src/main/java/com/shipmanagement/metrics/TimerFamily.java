@@ -0,0 +1,180 @@
+package com.shipmanagement.metrics;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A set of timers sharing a metric name, one per combination of label values
+ * (e.g. method and route). Each timer counts calls and errors and keeps a
+ * {@link LatencyHistogram}.
+ *
+ * The number of distinct label combinations is capped; anything beyond the cap
+ * is recorded under "other" so an unexpected label value cannot grow the map
+ * without bound.
+ */
+public class TimerFamily {
+
+    private static final int MAX_SERIES = 500;
+    private static final double[] QUANTILES = {0.5, 0.95, 0.99};
+
+    /**
+     * Calls, errors and latency for one label combination.
+     */
+    public static final class Timer {
+        private final String[] labelValues;
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+        private final LatencyHistogram latency = new LatencyHistogram();
+
+        Timer(String[] labelValues) {
+            this.labelValues = labelValues;
+        }
+
+        public void record(long nanos, boolean error) {
+            calls.increment();
+            if (error) {
+                errors.increment();
+            }
+            latency.record(nanos);
+        }
+
+        public long getCalls() { return calls.sum(); }
+
+        public long getErrors() { return errors.sum(); }
+
+        public LatencyHistogram getLatency() { return latency; }
+    }
+
+    private final String name;
+    private final String help;
+    private final String[] labelNames;
+    private final ConcurrentHashMap<String, Timer> timers = new ConcurrentHashMap<>();
+    private final Timer overflow;
+
+    /**
+     * @param name Metric name prefix, e.g. "http_request"
+     * @param help What one call represents, for the HELP lines
+     */
+    public TimerFamily(String name, String help, String... labelNames) {
+        this.name = name;
+        this.help = help;
+        this.labelNames = labelNames.clone();
+
+        String[] other = new String[labelNames.length];
+        Arrays.fill(other, "other");
+        this.overflow = new Timer(other);
+    }
+
+    /**
+     * The timer for these label values, created on first use.
+     */
+    public Timer timer(String... labelValues) {
+        if (labelValues.length != labelNames.length) {
+            throw new IllegalArgumentException("Expected " + labelNames.length + " label values");
+        }
+        String key = String.join("\u0000", labelValues);
+        Timer timer = timers.get(key);
+        if (timer != null) {
+            return timer;
+        }
+        if (timers.size() >= MAX_SERIES) {
+            return overflow;
+        }
+        return timers.computeIfAbsent(key, k -> new Timer(labelValues.clone()));
+    }
+
+    public void record(long nanos, boolean error, String... labelValues) {
+        timer(labelValues).record(nanos, error);
+    }
+
+    /**
+     * Appends the family in the Prometheus text exposition format: call and
+     * error counters, a latency histogram, and p50/p95/p99/max gauges.
+     */
+    public void writeTo(StringBuilder out) {
+        // Sorted so consecutive scrapes list series in the same order
+        Map<String, Timer> sorted = new TreeMap<>(timers);
+        if (overflow.getCalls() > 0) {
+            sorted.put("\uffff", overflow);
+        }
+        long[] bounds = LatencyHistogram.getBoundsNanos();
+
+        header(out, name + "s_total", "counter", help + " count");
+        for (Timer timer : sorted.values()) {
+            sample(out, name + "s_total", timer, null, timer.getCalls());
+        }
+
+        header(out, name + "_errors_total", "counter", help + " failures");
+        for (Timer timer : sorted.values()) {
+            sample(out, name + "_errors_total", timer, null, timer.getErrors());
+        }
+
+        String duration = name + "_duration_seconds";
+        header(out, duration, "histogram", help + " latency");
+        for (Timer timer : sorted.values()) {
+            long[] counts = timer.latency.getBucketCounts();
+            long cumulative = 0;
+            for (int i = 0; i < bounds.length; i++) {
+                cumulative += counts[i];
+                sample(out, duration + "_bucket", timer, "le=\"" + seconds(bounds[i]) + "\"", cumulative);
+            }
+            cumulative += counts[bounds.length];
+            sample(out, duration + "_bucket", timer, "le=\"+Inf\"", cumulative);
+            sampleSeconds(out, duration + "_sum", timer, null, timer.latency.getSumNanos());
+            sample(out, duration + "_count", timer, null, cumulative);
+        }
+
+        String quantiles = name + "_duration_quantile_seconds";
+        header(out, quantiles, "gauge", help + " latency percentiles since start");
+        for (Timer timer : sorted.values()) {
+            for (double q : QUANTILES) {
+                sampleSeconds(out, quantiles, timer, "quantile=\"" + q + "\"",
+                    timer.latency.percentileNanos(q * 100));
+            }
+        }
+
+        String max = name + "_duration_max_seconds";
+        header(out, max, "gauge", help + " slowest latency since start");
+        for (Timer timer : sorted.values()) {
+            sampleSeconds(out, max, timer, null, timer.latency.getMaxNanos());
+        }
+    }
+
+    private static void header(StringBuilder out, String metric, String type, String help) {
+        out.append("# HELP ").append(metric).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(metric).append(' ').append(type).append('\n');
+    }
+
+    private void sample(StringBuilder out, String metric, Timer timer, String extraLabel, long value) {
+        labels(out.append(metric), timer, extraLabel).append(' ').append(value).append('\n');
+    }
+
+    private void sampleSeconds(StringBuilder out, String metric, Timer timer, String extraLabel, long nanos) {
+        labels(out.append(metric), timer, extraLabel).append(' ').append(seconds(nanos)).append('\n');
+    }
+
+    private StringBuilder labels(StringBuilder out, Timer timer, String extraLabel) {
+        out.append('{');
+        for (int i = 0; i < labelNames.length; i++) {
+            if (i > 0) {
+                out.append(',');
+            }
+            out.append(labelNames[i]).append("=\"").append(escape(timer.labelValues[i])).append('"');
+        }
+        if (extraLabel != null) {
+            out.append(',').append(extraLabel);
+        }
+        return out.append('}');
+    }
+
+    private static String seconds(long nanos) {
+        return Double.toString(nanos / 1e9);
+    }
+
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+}
@@ -0,0 +1,55 @@
+package com.shipmanagement.model;
+
+import com.google.gson.annotations.SerializedName;
+
+/**
+ * A ship booking row, with the ship and user details joined in by the list
+ * queries. Field names serialize in the same snake_case the API has always used.
+ */
+public class Booking {
+    private int id;
+    @SerializedName("ship_id") private int shipId;
+    @SerializedName("ship_name") private String shipName;
+    @SerializedName("ship_type") private String shipType;
+    @SerializedName("user_id") private int userId;
+    @SerializedName("user_username") private String userUsername;
+    @SerializedName("start_date") private String startDate;
+    @SerializedName("end_date") private String endDate;
+    private String purpose;
+    private String status;
+    @SerializedName("created_at") private String createdAt;
+
+    // Getters and Setters
+    public int getId() { return id; }
+    public void setId(int id) { this.id = id; }
+
+    public int getShipId() { return shipId; }
+    public void setShipId(int shipId) { this.shipId = shipId; }
+
+    public String getShipName() { return shipName; }
+    public void setShipName(String shipName) { this.shipName = shipName; }
+
+    public String getShipType() { return shipType; }
+    public void setShipType(String shipType) { this.shipType = shipType; }
+
+    public int getUserId() { return userId; }
+    public void setUserId(int userId) { this.userId = userId; }
+
+    public String getUserUsername() { return userUsername; }
+    public void setUserUsername(String userUsername) { this.userUsername = userUsername; }
+
+    public String getStartDate() { return startDate; }
+    public void setStartDate(String startDate) { this.startDate = startDate; }
+
+    public String getEndDate() { return endDate; }
+    public void setEndDate(String endDate) { this.endDate = endDate; }
+
+    public String getPurpose() { return purpose; }
+    public void setPurpose(String purpose) { this.purpose = purpose; }
+
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+
+    public String getCreatedAt() { return createdAt; }
+    public void setCreatedAt(String createdAt) { this.createdAt = createdAt; }
+}
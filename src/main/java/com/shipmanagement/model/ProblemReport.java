@@ -0,0 +1,59 @@
+package com.shipmanagement.model;
+
+import com.google.gson.annotations.SerializedName;
+
+/**
+ * A problem report row, with the reporter and ship names joined in by the
+ * list queries. Field names serialize in the same snake_case the API has always used.
+ */
+public class ProblemReport {
+    private int id;
+    private String title;
+    private String description;
+    private String status;
+    private String severity;
+    private String priority;
+    @SerializedName("reported_by") private int reportedBy;
+    @SerializedName("reported_by_name") private String reportedByName;
+    @SerializedName("ship_id") private Integer shipId;
+    @SerializedName("ship_name") private String shipName;
+    @SerializedName("created_at") private String createdAt;
+    @SerializedName("updated_at") private String updatedAt;
+
+    // Getters and Setters
+    public int getId() { return id; }
+    public void setId(int id) { this.id = id; }
+
+    public String getTitle() { return title; }
+    public void setTitle(String title) { this.title = title; }
+
+    public String getDescription() { return description; }
+    public void setDescription(String description) { this.description = description; }
+
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+
+    public String getSeverity() { return severity; }
+    public void setSeverity(String severity) { this.severity = severity; }
+
+    public String getPriority() { return priority; }
+    public void setPriority(String priority) { this.priority = priority; }
+
+    public int getReportedBy() { return reportedBy; }
+    public void setReportedBy(int reportedBy) { this.reportedBy = reportedBy; }
+
+    public String getReportedByName() { return reportedByName; }
+    public void setReportedByName(String reportedByName) { this.reportedByName = reportedByName; }
+
+    public Integer getShipId() { return shipId; }
+    public void setShipId(Integer shipId) { this.shipId = shipId; }
+
+    public String getShipName() { return shipName; }
+    public void setShipName(String shipName) { this.shipName = shipName; }
+
+    public String getCreatedAt() { return createdAt; }
+    public void setCreatedAt(String createdAt) { this.createdAt = createdAt; }
+
+    public String getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(String updatedAt) { this.updatedAt = updatedAt; }
+}
@@ -0,0 +1,33 @@
+package com.shipmanagement.model;
+
+/**
+ * One hit from the full-text search index. type is "staff", "crew", "task" or
+ * "problem_report" and id is the row id in that table. Matched terms in the
+ * snippet are wrapped in [ and ].
+ */
+public class SearchResult {
+    private String type;
+    private int id;
+    private String title;
+    private String snippet;
+    private double score;  // higher is more relevant
+
+    public SearchResult(String type, int id, String title, String snippet, double score) {
+        this.type = type;
+        this.id = id;
+        this.title = title;
+        this.snippet = snippet;
+        this.score = score;
+    }
+
+    // Getters
+    public String getType() { return type; }
+
+    public int getId() { return id; }
+
+    public String getTitle() { return title; }
+
+    public String getSnippet() { return snippet; }
+
+    public double getScore() { return score; }
+}
@@ -1,5 +1,7 @@
 package com.shipmanagement.model;
 
+import java.util.Map;
+
 public class Staff {
     private int id;
     private String firstName;
@@ -11,6 +13,7 @@ public class Staff {
     private Integer shipId;
     private String shipName;
     private int taskCount;
+    private Map<String, Integer> taskCountsByStatus;
     private String email;
     private String phone;
     
@@ -111,6 +114,15 @@ public class Staff {
         this.taskCount = taskCount;
     }
     
+    // Pending, in_progress and completed task counts
+    public Map<String, Integer> getTaskCountsByStatus() {
+        return taskCountsByStatus;
+    }
+    
+    public void setTaskCountsByStatus(Map<String, Integer> taskCountsByStatus) {
+        this.taskCountsByStatus = taskCountsByStatus;
+    }
+    
     public String getEmail() {
         return email;
     }
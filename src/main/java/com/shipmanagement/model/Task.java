@@ -0,0 +1,67 @@
+package com.shipmanagement.model;
+
+import com.google.gson.annotations.SerializedName;
+
+/**
+ * A task row, with the assignee, assigner and ship names joined in by the
+ * list queries. Field names serialize in the same snake_case the API has always used.
+ */
+public class Task {
+    private int id;
+    private String title;
+    private String description;
+    private String status;
+    private String priority;
+    @SerializedName("assigned_to") private Integer assignedTo;
+    @SerializedName("assigned_to_name") private String assignedToName;
+    @SerializedName("assigned_by") private int assignedBy;
+    @SerializedName("assigned_by_name") private String assignedByName;
+    @SerializedName("ship_id") private Integer shipId;
+    @SerializedName("ship_name") private String shipName;
+    @SerializedName("due_date") private String dueDate;
+    @SerializedName("created_at") private String createdAt;
+    @SerializedName("updated_at") private String updatedAt;
+
+    // Getters and Setters
+    public int getId() { return id; }
+    public void setId(int id) { this.id = id; }
+
+    public String getTitle() { return title; }
+    public void setTitle(String title) { this.title = title; }
+
+    public String getDescription() { return description; }
+    public void setDescription(String description) { this.description = description; }
+
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+
+    public String getPriority() { return priority; }
+    public void setPriority(String priority) { this.priority = priority; }
+
+    public Integer getAssignedTo() { return assignedTo; }
+    public void setAssignedTo(Integer assignedTo) { this.assignedTo = assignedTo; }
+
+    public String getAssignedToName() { return assignedToName; }
+    public void setAssignedToName(String assignedToName) { this.assignedToName = assignedToName; }
+
+    public int getAssignedBy() { return assignedBy; }
+    public void setAssignedBy(int assignedBy) { this.assignedBy = assignedBy; }
+
+    public String getAssignedByName() { return assignedByName; }
+    public void setAssignedByName(String assignedByName) { this.assignedByName = assignedByName; }
+
+    public Integer getShipId() { return shipId; }
+    public void setShipId(Integer shipId) { this.shipId = shipId; }
+
+    public String getShipName() { return shipName; }
+    public void setShipName(String shipName) { this.shipName = shipName; }
+
+    public String getDueDate() { return dueDate; }
+    public void setDueDate(String dueDate) { this.dueDate = dueDate; }
+
+    public String getCreatedAt() { return createdAt; }
+    public void setCreatedAt(String createdAt) { this.createdAt = createdAt; }
+
+    public String getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(String updatedAt) { this.updatedAt = updatedAt; }
+}
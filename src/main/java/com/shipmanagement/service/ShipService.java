@@ -39,6 +39,30 @@ public class ShipService {
         }
     }
 
+    // Get one page of ships older than the cursor (null for the first page)
+    public Map<String, Object> getShipsAfter(Integer afterId, int pageSize) {
+        try {
+            // Fetch one extra row to learn whether another page exists
+            List<Ship> ships = shipDAO.getShipsAfter(afterId, pageSize + 1);
+            boolean hasMore = ships.size() > pageSize;
+            if (hasMore) {
+                ships = ships.subList(0, pageSize);
+            }
+            
+            Map<String, Object> response = new HashMap<>();
+            response.put("data", ships);
+            response.put("pageSize", pageSize);
+            response.put("hasMore", hasMore);
+            response.put("nextCursor", hasMore ? ships.get(ships.size() - 1).getId() : null);
+            response.put("totalRecords", shipDAO.getShipCount());
+            
+            return response;
+        } catch (SQLException e) {
+            e.printStackTrace();
+            throw new RuntimeException("Failed to retrieve ships", e);
+        }
+    }
+
     // Get ship by ID
     public Ship getShipById(int id) {
         try {
@@ -3,49 +3,40 @@ package com.shipmanagement.service;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
-import com.shipmanagement.dao.ShipDAO;
+import com.shipmanagement.dao.SearchDAO;
 import com.shipmanagement.dao.StaffDAO;
-import com.shipmanagement.model.Ship;
 import com.shipmanagement.model.Staff;
 
 public class StaffService {
     
     private final StaffDAO staffDAO;
-    private final ShipDAO shipDAO;
+    private final SearchDAO searchDAO;
     
     public StaffService() {
         this.staffDAO = new StaffDAO();
-        this.shipDAO = new ShipDAO();
+        this.searchDAO = new SearchDAO();
     }
     
     public List<Staff> getAllStaff() {
-        List<Staff> staffList = staffDAO.getAllStaff();
-        return enrichStaffData(staffList);
+        return enrichStaffData(staffDAO.getStaffDirectory());
     }
     
     public Staff getStaffById(int id) {
-        Staff staff = staffDAO.getStaffById(id);
-        if (staff != null && staff.getShipId() != null) {
-            try {
-                Ship ship = shipDAO.getShipById(staff.getShipId());
-                if (ship != null) {
-                    staff.setShipName(ship.getName());
-                }
-            } catch (SQLException e) {
-                System.err.println("Error retrieving ship for staff: " + e.getMessage());
-            }
-        }
-        return staff;
+        return staffDAO.getStaffDirectoryEntry(id);
     }
     
     public List<Staff> getFilteredStaff(String status, String role, Integer shipId, boolean unassigned, String searchQuery) {
-        List<Staff> allStaff = staffDAO.getAllStaff();
+        // With index matches, only the matching rows are loaded
+        Set<Integer> matchingIds = findMatchingStaff(searchQuery);
+        List<Staff> candidates = matchingIds != null
+            ? staffDAO.getStaffDirectoryEntries(matchingIds)
+            : staffDAO.getStaffDirectory();
         
         // Apply filters
-        List<Staff> filteredStaff = allStaff.stream()
+        List<Staff> filteredStaff = candidates.stream()
             .filter(staff -> status == null || staff.getStatus().equals(status))
             .filter(staff -> role == null || staff.getRole().equals(role))
             .filter(staff -> {
@@ -57,7 +48,7 @@ public class StaffService {
                 return true;
             })
             .filter(staff -> {
-                if (searchQuery == null || searchQuery.isEmpty()) {
+                if (searchQuery == null || searchQuery.isEmpty() || matchingIds != null) {
                     return true;
                 }
                 String query = searchQuery.toLowerCase();
@@ -70,6 +61,19 @@ public class StaffService {
         return enrichStaffData(filteredStaff);
     }
     
+    // Word-prefix matches from the search index, or null to fall back to substring matching
+    private Set<Integer> findMatchingStaff(String searchQuery) {
+        if (searchQuery == null || searchQuery.isEmpty()) {
+            return null;
+        }
+        try {
+            return searchDAO.findIds("staff", searchQuery);
+        } catch (SQLException e) {
+            System.err.println("Staff search index unavailable: " + e.getMessage());
+            return null;
+        }
+    }
+    
     public Staff createStaff(Staff staff) {
         int id = staffDAO.createStaff(staff);
         return getStaffById(id);
@@ -87,30 +91,17 @@ public class StaffService {
         return staffDAO.deleteStaff(id);
     }
     
+    // Ship name and task count already come from the directory aggregate; this only
+    // fills in the placeholder for staff whose ship row no longer exists
     private List<Staff> enrichStaffData(List<Staff> staffList) {
         if (staffList == null || staffList.isEmpty()) {
             return new ArrayList<>();
         }
         
-        // Get all ships to avoid multiple database calls
-        List<Ship> ships = new ArrayList<>();
-        try {
-            ships = shipDAO.getAllShips(1, 1000); // Get all ships with pagination
-        } catch (SQLException e) {
-            System.err.println("Error retrieving ships for staff enrichment: " + e.getMessage());
-        }
-        
-        Map<Integer, String> shipMap = ships.stream()
-            .collect(Collectors.toMap(Ship::getId, Ship::getName));
-        
-        // Enrich staff with ship names
         for (Staff staff : staffList) {
-            if (staff.getShipId() != null) {
-                staff.setShipName(shipMap.getOrDefault(staff.getShipId(), "Unknown Ship"));
+            if (staff.getShipId() != null && staff.getShipName() == null) {
+                staff.setShipName("Unknown Ship");
             }
-            
-            // TODO: Add task count from TaskDAO when implemented
-            staff.setTaskCount(0);
         }
         
         return staffList;
@@ -0,0 +1,269 @@
+package com.shipmanagement.telemetry;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The latest position per ship, bucketed into a fixed grid of latitude and
+ * longitude cells so radius and bounding-box queries only look at the cells
+ * the query area touches instead of every ship.
+ *
+ * A query first collects the candidates from the covered cells and then checks
+ * each one exactly (great-circle distance for radius queries). If the area
+ * covers more cells than are occupied, e.g. a radius of thousands of miles, it
+ * falls back to checking every ship. Longitudes wrap at the antimeridian.
+ *
+ * Reads are lock-free. Writes must not run concurrently for the same ship;
+ * {@link ShipPositions} serializes them.
+ */
+public class PositionGrid {
+
+    public static final double EARTH_RADIUS_NM = 3440.065;
+
+    /**
+     * A ship found by a radius query and its distance from the query point.
+     */
+    public static final class Hit {
+        private final PositionReport position;
+        private final double distanceNm;
+
+        Hit(PositionReport position, double distanceNm) {
+            this.position = position;
+            this.distanceNm = distanceNm;
+        }
+
+        public PositionReport getPosition() { return position; }
+
+        public double getDistanceNm() { return distanceNm; }
+    }
+
+    private final double cellDegrees;
+    private final int rows;
+    private final int columns;
+    private final ConcurrentHashMap<Integer, PositionReport> positions = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, Set<Integer>> cells = new ConcurrentHashMap<>();
+
+    /**
+     * @param cellDegrees Cell size in degrees of latitude and longitude
+     */
+    public PositionGrid(double cellDegrees) {
+        if (!(cellDegrees > 0 && cellDegrees <= 90)) {
+            throw new IllegalArgumentException("Cell size must be between 0 and 90 degrees");
+        }
+        this.cellDegrees = cellDegrees;
+        this.rows = (int) Math.ceil(180 / cellDegrees);
+        this.columns = (int) Math.ceil(360 / cellDegrees);
+    }
+
+    public PositionReport get(int shipId) {
+        return positions.get(shipId);
+    }
+
+    public int size() {
+        return positions.size();
+    }
+
+    public Collection<PositionReport> all() {
+        return positions.values();
+    }
+
+    /**
+     * Records a ship's position unless a newer one is already known. A known
+     * position dated in the future (e.g. stored before such reports were
+     * rejected) does not count as newer.
+     * @return true if the position was recorded
+     */
+    public boolean put(PositionReport report) {
+        PositionReport current = positions.get(report.getShipId());
+        if (current != null && current.getTimestampMillis() > report.getTimestampMillis()
+                && !current.isFutureDated(System.currentTimeMillis())) {
+            return false;
+        }
+        positions.put(report.getShipId(), report);
+
+        long cell = cell(report.getLatitude(), report.getLongitude());
+        if (current != null) {
+            long previous = cell(current.getLatitude(), current.getLongitude());
+            if (previous == cell) {
+                return true;
+            }
+            removeFromCell(previous, report.getShipId());
+        }
+        cells.computeIfAbsent(cell, c -> ConcurrentHashMap.newKeySet()).add(report.getShipId());
+        return true;
+    }
+
+    public void remove(int shipId) {
+        PositionReport current = positions.remove(shipId);
+        if (current != null) {
+            removeFromCell(cell(current.getLatitude(), current.getLongitude()), shipId);
+        }
+    }
+
+    public void clear() {
+        positions.clear();
+        cells.clear();
+    }
+
+    private void removeFromCell(long cell, int shipId) {
+        cells.computeIfPresent(cell, (c, ships) -> {
+            ships.remove(shipId);
+            return ships.isEmpty() ? null : ships;
+        });
+    }
+
+    /**
+     * Ships within the radius of a point, nearest first.
+     * @param limit Most ships returned
+     */
+    public List<Hit> near(double latitude, double longitude, double radiusNm, int limit) {
+        checkPoint(latitude, longitude);
+        if (!(radiusNm >= 0)) {
+            throw new IllegalArgumentException("Radius must not be negative");
+        }
+
+        double angle = radiusNm / EARTH_RADIUS_NM;
+        double dLat = Math.toDegrees(angle);
+        double minLat = latitude - dLat;
+        double maxLat = latitude + dLat;
+
+        // Widest longitude span of the circle; all of them if it reaches a pole
+        double minLon = -180;
+        double maxLon = 180;
+        double cosLat = Math.cos(Math.toRadians(latitude));
+        if (minLat > -90 && maxLat < 90 && Math.sin(angle) < cosLat) {
+            double dLon = Math.toDegrees(Math.asin(Math.sin(angle) / cosLat));
+            if (dLon < 180) {
+                minLon = wrap(longitude - dLon);
+                maxLon = wrap(longitude + dLon);
+            }
+        }
+
+        List<Hit> hits = new ArrayList<>();
+        for (PositionReport report : candidates(minLat, maxLat, minLon, maxLon)) {
+            double distance = distanceNm(latitude, longitude, report.getLatitude(), report.getLongitude());
+            if (distance <= radiusNm) {
+                hits.add(new Hit(report, distance));
+            }
+        }
+        hits.sort(Comparator.comparingDouble(Hit::getDistanceNm));
+        return hits.size() > limit ? new ArrayList<>(hits.subList(0, limit)) : hits;
+    }
+
+    /**
+     * Ships inside a latitude/longitude box. If minLongitude is greater than
+     * maxLongitude the box crosses the antimeridian.
+     * @param limit Most ships returned
+     */
+    public List<PositionReport> within(double minLatitude, double minLongitude,
+                                       double maxLatitude, double maxLongitude, int limit) {
+        checkPoint(minLatitude, minLongitude);
+        checkPoint(maxLatitude, maxLongitude);
+        if (minLatitude > maxLatitude) {
+            throw new IllegalArgumentException("min_lat is greater than max_lat");
+        }
+
+        List<PositionReport> found = new ArrayList<>();
+        for (PositionReport report : candidates(minLatitude, maxLatitude, minLongitude, maxLongitude)) {
+            if (found.size() >= limit) {
+                break;
+            }
+            if (report.getLatitude() >= minLatitude && report.getLatitude() <= maxLatitude
+                    && inLongitudeRange(report.getLongitude(), minLongitude, maxLongitude)) {
+                found.add(report);
+            }
+        }
+        return found;
+    }
+
+    // Ships in the cells overlapping the area; may include some outside it
+    private Collection<PositionReport> candidates(double minLat, double maxLat, double minLon, double maxLon) {
+        int firstRow = row(Math.max(-90, minLat));
+        int lastRow = row(Math.min(90, maxLat));
+        int firstColumn = column(minLon);
+        int lastColumn = column(maxLon);
+        // Wraps past the antimeridian when the range does
+        int columnSpan = minLon <= maxLon
+            ? lastColumn - firstColumn + 1
+            : Math.min(columns, columns - firstColumn + lastColumn + 1);
+
+        long covered = (long) (lastRow - firstRow + 1) * columnSpan;
+        if (covered > cells.size()) {
+            return positions.values();
+        }
+
+        List<PositionReport> candidates = new ArrayList<>();
+        for (int row = firstRow; row <= lastRow; row++) {
+            for (int i = 0; i < columnSpan; i++) {
+                Set<Integer> ships = cells.get(key(row, (firstColumn + i) % columns));
+                if (ships == null) {
+                    continue;
+                }
+                for (Integer shipId : ships) {
+                    PositionReport report = positions.get(shipId);
+                    if (report != null) {
+                        candidates.add(report);
+                    }
+                }
+            }
+        }
+        return candidates;
+    }
+
+    private long cell(double latitude, double longitude) {
+        return key(row(latitude), column(longitude));
+    }
+
+    private static long key(int row, int column) {
+        return ((long) row << 32) | (column & 0xffffffffL);
+    }
+
+    private int row(double latitude) {
+        return Math.min(rows - 1, (int) Math.floor((latitude + 90) / cellDegrees));
+    }
+
+    private int column(double longitude) {
+        return Math.min(columns - 1, (int) Math.floor((longitude + 180) / cellDegrees));
+    }
+
+    private static double wrap(double longitude) {
+        if (longitude >= 180) {
+            return longitude - 360;
+        }
+        if (longitude < -180) {
+            return longitude + 360;
+        }
+        return longitude;
+    }
+
+    private static boolean inLongitudeRange(double longitude, double min, double max) {
+        return min <= max
+            ? longitude >= min && longitude <= max
+            : longitude >= min || longitude <= max;
+    }
+
+    private static void checkPoint(double latitude, double longitude) {
+        if (!(latitude >= -90 && latitude <= 90)) {
+            throw new IllegalArgumentException("Latitude out of range: " + latitude);
+        }
+        if (!(longitude >= -180 && longitude <= 180)) {
+            throw new IllegalArgumentException("Longitude out of range: " + longitude);
+        }
+    }
+
+    /**
+     * Great-circle (haversine) distance between two points, in nautical miles.
+     */
+    public static double distanceNm(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+            + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+            * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * EARTH_RADIUS_NM * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+}
@@ -0,0 +1,313 @@
+package com.shipmanagement.telemetry;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.shipmanagement.DatabaseConnection;
+import com.shipmanagement.metrics.Metrics;
+
+/**
+ * Buffered bulk ingestion of position reports into ship_locations.
+ *
+ * Requests hand over whole batches of validated reports, which are accepted
+ * all or nothing into a bounded buffer; a full buffer rejects the batch so the
+ * sender can back off instead of the server queueing without bound. One
+ * background thread takes up to {@code batchSize} buffered reports at a time
+ * and inserts them with one batched prepared statement in a single queued
+ * write, i.e. one transaction, then records them in {@link ShipPositions}.
+ *
+ * Reports for ships that do not exist are skipped by the insert itself rather
+ * than failing the whole transaction on the foreign key.
+ */
+public class PositionIngester implements AutoCloseable {
+
+    private static final String INSERT_SQL =
+        "INSERT INTO ship_locations (ship_id, latitude, longitude, status, current_port, last_updated) " +
+        "SELECT ?, ?, ?, ?, ?, ? WHERE EXISTS (SELECT 1 FROM ships WHERE id = ?)";
+
+    private static final int MAX_ERRORS_REPORTED = 20;
+
+    /**
+     * What happened to one NDJSON request body.
+     */
+    public static final class Result {
+        private final int accepted;
+        private final int rejected;
+        private final boolean overloaded;
+        private final List<Map<String, Object>> errors;
+
+        Result(int accepted, int rejected, boolean overloaded, List<Map<String, Object>> errors) {
+            this.accepted = accepted;
+            this.rejected = rejected;
+            this.overloaded = overloaded;
+            this.errors = errors;
+        }
+
+        public int getAccepted() { return accepted; }
+
+        public int getRejected() { return rejected; }
+
+        /**
+         * True if the buffer had no room, in which case nothing was accepted.
+         */
+        public boolean isOverloaded() { return overloaded; }
+
+        /**
+         * The first invalid lines, as {line, error} maps.
+         */
+        public List<Map<String, Object>> getErrors() { return errors; }
+    }
+
+    private final int batchSize;
+    private final long lingerMillis;
+    private final int capacity;
+    private final BlockingQueue<PositionReport> buffer = new LinkedBlockingQueue<>();
+    private final Semaphore room;
+    private final Thread writerThread;
+
+    private volatile boolean closed;
+
+    // Metrics
+    private final LongAdder received = new LongAdder();
+    private final LongAdder invalid = new LongAdder();
+    private final LongAdder overloaded = new LongAdder();
+    private final LongAdder inserted = new LongAdder();
+    private final LongAdder unknownShip = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final AtomicLong largestBatch = new AtomicLong();
+
+    /**
+     * @param capacity Most reports buffered at once
+     * @param batchSize Most reports inserted per transaction
+     * @param lingerMillis How long to wait for a batch to fill up once the first report is in
+     */
+    public PositionIngester(int capacity, int batchSize, long lingerMillis) {
+        if (capacity < 1 || batchSize < 1) {
+            throw new IllegalArgumentException("Capacity and batch size must be at least 1");
+        }
+        this.capacity = capacity;
+        this.batchSize = batchSize;
+        this.lingerMillis = lingerMillis;
+        this.room = new Semaphore(capacity);
+
+        Metrics.registerCounter("telemetry_positions_received_total",
+            "Position reports received", received::sum);
+        Metrics.registerCounter("telemetry_positions_invalid_total",
+            "Position reports rejected by validation", invalid::sum);
+        Metrics.registerCounter("telemetry_positions_overloaded_total",
+            "Position reports rejected because the buffer was full", overloaded::sum);
+        Metrics.registerCounter("telemetry_positions_inserted_total",
+            "Position reports stored in ship_locations", inserted::sum);
+        Metrics.registerCounter("telemetry_positions_unknown_ship_total",
+            "Position reports skipped because the ship does not exist", unknownShip::sum);
+        Metrics.registerCounter("telemetry_positions_failed_total",
+            "Position reports lost to failed inserts", failed::sum);
+
+        this.writerThread = new Thread(this::run, "position-ingester");
+        this.writerThread.setDaemon(true);
+        this.writerThread.start();
+    }
+
+    /**
+     * Parses an NDJSON body, one report per line (blank lines are ignored), and
+     * buffers the valid reports. Invalid lines are counted and reported back
+     * but do not stop the rest of the body from being accepted.
+     * @param maxLines Most lines read; anything beyond is an error
+     * @throws IllegalArgumentException if the body has more than maxLines lines
+     */
+    public Result ingest(BufferedReader ndjson, int maxLines) throws IOException {
+        long now = System.currentTimeMillis();
+        List<PositionReport> reports = new ArrayList<>();
+        List<Map<String, Object>> errors = new ArrayList<>();
+        int rejected = 0;
+        int lineNumber = 0;
+        String line;
+        while ((line = ndjson.readLine()) != null) {
+            lineNumber++;
+            if (lineNumber > maxLines) {
+                throw new IllegalArgumentException("More than " + maxLines + " lines in one request");
+            }
+            if (line.trim().isEmpty()) {
+                continue;
+            }
+            try {
+                reports.add(PositionReport.parse(line, now));
+            } catch (IllegalArgumentException e) {
+                rejected++;
+                if (errors.size() < MAX_ERRORS_REPORTED) {
+                    Map<String, Object> error = new LinkedHashMap<>();
+                    error.put("line", lineNumber);
+                    error.put("error", e.getMessage());
+                    errors.add(error);
+                }
+            }
+        }
+
+        received.add(reports.size() + rejected);
+        invalid.add(rejected);
+        if (!offer(reports)) {
+            return new Result(0, rejected, true, errors);
+        }
+        return new Result(reports.size(), rejected, false, errors);
+    }
+
+    /**
+     * Buffers a batch of reports if there is room for all of them.
+     * @return false if the buffer is full or the ingester has been closed
+     */
+    public boolean offer(List<PositionReport> reports) {
+        if (reports.isEmpty()) {
+            return true;
+        }
+        if (closed || reports.size() > capacity || !room.tryAcquire(reports.size())) {
+            overloaded.add(reports.size());
+            return false;
+        }
+        buffer.addAll(reports);
+        return true;
+    }
+
+    /**
+     * Waits until everything buffered so far has been stored (or has failed).
+     * @return false if that took longer than the timeout
+     */
+    public boolean awaitDrained(long timeoutMillis) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        while (room.availablePermits() < capacity) {
+            if (System.nanoTime() > deadline) {
+                return false;
+            }
+            Thread.sleep(5);
+        }
+        return true;
+    }
+
+    /**
+     * Buffer and ingestion metrics, suitable for JSON serialization.
+     */
+    public Map<String, Object> getStats() {
+        long batchCount = batches.sum();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("buffered", capacity - room.availablePermits());
+        stats.put("capacity", capacity);
+        stats.put("received", received.sum());
+        stats.put("invalid", invalid.sum());
+        stats.put("overloaded", overloaded.sum());
+        stats.put("inserted", inserted.sum());
+        stats.put("unknownShip", unknownShip.sum());
+        stats.put("failed", failed.sum());
+        stats.put("batches", batchCount);
+        stats.put("avgBatchSize", batchCount == 0 ? 0.0 : (double) inserted.sum() / batchCount);
+        stats.put("largestBatch", largestBatch.get());
+        stats.put("shipsTracked", ShipPositions.size());
+        return stats;
+    }
+
+    /**
+     * Stops accepting reports, stores what is already buffered and stops the writer thread.
+     * Close this before the database's write queue.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        try {
+            writerThread.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run() {
+        List<PositionReport> batch = new ArrayList<>(batchSize);
+        while (!closed || !buffer.isEmpty()) {
+            try {
+                PositionReport first = buffer.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                collect(batch);
+            } catch (InterruptedException e) {
+                buffer.drainTo(batch, batchSize - batch.size());
+            }
+
+            if (!batch.isEmpty()) {
+                store(batch);
+                room.release(batch.size());
+                batch.clear();
+            }
+        }
+    }
+
+    // Top up the batch with anything already buffered, lingering briefly for stragglers
+    private void collect(List<PositionReport> batch) throws InterruptedException {
+        buffer.drainTo(batch, batchSize - batch.size());
+        if (lingerMillis <= 0 || closed) {
+            return;
+        }
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(lingerMillis);
+        while (batch.size() < batchSize) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                return;
+            }
+            PositionReport next = buffer.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+            buffer.drainTo(batch, batchSize - batch.size());
+        }
+    }
+
+    private void store(List<PositionReport> batch) {
+        int[] counts;
+        try {
+            counts = DatabaseConnection.write("PositionIngester.store", conn -> {
+                try (PreparedStatement pstmt = conn.prepareStatement(INSERT_SQL)) {
+                    for (PositionReport report : batch) {
+                        pstmt.setInt(1, report.getShipId());
+                        pstmt.setDouble(2, report.getLatitude());
+                        pstmt.setDouble(3, report.getLongitude());
+                        pstmt.setString(4, report.getStatus());
+                        pstmt.setString(5, report.getCurrentPort());
+                        pstmt.setString(6, report.getStoredTimestamp());
+                        pstmt.setInt(7, report.getShipId());
+                        pstmt.addBatch();
+                    }
+                    return pstmt.executeBatch();
+                }
+            });
+        } catch (SQLException | RuntimeException e) {
+            failed.add(batch.size());
+            System.err.println("Error storing " + batch.size() + " position reports: " + e.getMessage());
+            e.printStackTrace();
+            return;
+        }
+
+        batches.increment();
+        largestBatch.accumulateAndGet(batch.size(), Math::max);
+        int stored = 0;
+        for (int i = 0; i < batch.size(); i++) {
+            if (i < counts.length && counts[i] > 0) {
+                ShipPositions.update(batch.get(i));
+                stored++;
+            }
+        }
+        inserted.add(stored);
+        unknownShip.add(batch.size() - stored);
+    }
+}
@@ -0,0 +1,191 @@
+package com.shipmanagement.telemetry;
+
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+
+/**
+ * One AIS-style position report: where a ship was at a given moment.
+ *
+ * Reports arrive as one JSON object per line, e.g.
+ * <pre>
+ * {"ship_id": 3, "latitude": 51.95, "longitude": 4.05, "status": "at sea", "timestamp": "2024-05-01T12:00:00Z"}
+ * </pre>
+ * status, current_port and timestamp are optional; the timestamp may also be
+ * epoch milliseconds and defaults to the time the report was received.
+ *
+ * The newest report for a ship wins, so a timestamp more than
+ * {@link #MAX_CLOCK_SKEW_MILLIS} past the time of receipt is rejected: one
+ * future-dated report (or microseconds sent as milliseconds) would otherwise
+ * freeze the ship's position until the clock caught up.
+ */
+public final class PositionReport {
+
+    // Same layout as SQLite's CURRENT_TIMESTAMP, plus milliseconds, so stored values sort as text
+    private static final DateTimeFormatter STORED_FORMAT =
+        DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS").withZone(ZoneOffset.UTC);
+
+    private static final int MAX_TEXT_LENGTH = 100;
+
+    /**
+     * How far past the server's clock a report's timestamp may be (-Dtelemetry.maxClockSkewMs).
+     */
+    public static final long MAX_CLOCK_SKEW_MILLIS = Long.getLong("telemetry.maxClockSkewMs", 5 * 60_000L);
+
+    private final int shipId;
+    private final double latitude;
+    private final double longitude;
+    private final String status;
+    private final String currentPort;
+    private final long timestampMillis;
+
+    public PositionReport(int shipId, double latitude, double longitude, String status, String currentPort,
+                          long timestampMillis) {
+        if (shipId <= 0) {
+            throw new IllegalArgumentException("Invalid ship_id: " + shipId);
+        }
+        if (!(latitude >= -90 && latitude <= 90)) {
+            throw new IllegalArgumentException("Latitude out of range: " + latitude);
+        }
+        if (!(longitude >= -180 && longitude <= 180)) {
+            throw new IllegalArgumentException("Longitude out of range: " + longitude);
+        }
+        this.shipId = shipId;
+        this.latitude = latitude;
+        this.longitude = longitude;
+        this.status = checkText("status", status);
+        this.currentPort = checkText("current_port", currentPort);
+        this.timestampMillis = timestampMillis;
+    }
+
+    private static String checkText(String field, String value) {
+        if (value != null && value.length() > MAX_TEXT_LENGTH) {
+            throw new IllegalArgumentException(field + " is longer than " + MAX_TEXT_LENGTH + " characters");
+        }
+        return value;
+    }
+
+    /**
+     * Parses and validates one NDJSON line.
+     * @param receivedMillis Timestamp to use if the report has none
+     * @throws IllegalArgumentException if the line is not a valid report
+     */
+    public static PositionReport parse(String line, long receivedMillis) {
+        JsonObject json;
+        try {
+            JsonElement element = JsonParser.parseString(line);
+            if (!element.isJsonObject()) {
+                throw new IllegalArgumentException("Expected a JSON object");
+            }
+            json = element.getAsJsonObject();
+        } catch (JsonParseException e) {
+            throw new IllegalArgumentException("Malformed JSON", e);
+        }
+
+        try {
+            Number shipId = requiredNumber(json, "ship_id");
+            if (shipId.doubleValue() != shipId.intValue()) {
+                throw new IllegalArgumentException("Invalid ship_id: " + shipId);
+            }
+            return new PositionReport(
+                shipId.intValue(),
+                requiredNumber(json, "latitude").doubleValue(),
+                requiredNumber(json, "longitude").doubleValue(),
+                optionalString(json, "status"),
+                optionalString(json, "current_port"),
+                checkNotFuture(timestamp(json.get("timestamp"), receivedMillis), receivedMillis));
+        } catch (IllegalStateException | NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid field type", e);
+        }
+    }
+
+    private static Number requiredNumber(JsonObject json, String field) {
+        JsonElement value = json.get(field);
+        if (value == null || value.isJsonNull()) {
+            throw new IllegalArgumentException("Missing " + field);
+        }
+        if (!value.isJsonPrimitive() || !value.getAsJsonPrimitive().isNumber()) {
+            throw new IllegalArgumentException(field + " must be a number");
+        }
+        return value.getAsNumber();
+    }
+
+    private static String optionalString(JsonObject json, String field) {
+        JsonElement value = json.get(field);
+        if (value == null || value.isJsonNull()) {
+            return null;
+        }
+        if (!value.isJsonPrimitive() || !value.getAsJsonPrimitive().isString()) {
+            throw new IllegalArgumentException(field + " must be a string");
+        }
+        return value.getAsString();
+    }
+
+    private static long timestamp(JsonElement value, long receivedMillis) {
+        if (value == null || value.isJsonNull()) {
+            return receivedMillis;
+        }
+        if (value.isJsonPrimitive() && value.getAsJsonPrimitive().isNumber()) {
+            return value.getAsLong();
+        }
+        try {
+            return Instant.parse(value.getAsString()).toEpochMilli();
+        } catch (DateTimeException e) {
+            throw new IllegalArgumentException("Invalid timestamp: " + value.getAsString(), e);
+        }
+    }
+
+    private static long checkNotFuture(long timestampMillis, long receivedMillis) {
+        if (timestampMillis > receivedMillis + MAX_CLOCK_SKEW_MILLIS) {
+            throw new IllegalArgumentException("Timestamp is in the future: " + Instant.ofEpochMilli(timestampMillis));
+        }
+        return timestampMillis;
+    }
+
+    /**
+     * Whether the timestamp is further ahead of {@code nowMillis} than the allowed clock skew.
+     */
+    public boolean isFutureDated(long nowMillis) {
+        return timestampMillis > nowMillis + MAX_CLOCK_SKEW_MILLIS;
+    }
+
+    public int getShipId() { return shipId; }
+
+    public double getLatitude() { return latitude; }
+
+    public double getLongitude() { return longitude; }
+
+    public String getStatus() { return status; }
+
+    public String getCurrentPort() { return currentPort; }
+
+    public long getTimestampMillis() { return timestampMillis; }
+
+    /**
+     * The timestamp as stored in ship_locations.last_updated (UTC).
+     */
+    public String getStoredTimestamp() {
+        return STORED_FORMAT.format(Instant.ofEpochMilli(timestampMillis));
+    }
+
+    /**
+     * The report as a map, suitable for JSON serialization.
+     */
+    public Map<String, Object> toMap() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("latitude", latitude);
+        map.put("longitude", longitude);
+        map.put("status", status);
+        map.put("current_port", currentPort);
+        map.put("last_updated", Instant.ofEpochMilli(timestampMillis).toString());
+        return map;
+    }
+}
@@ -0,0 +1,153 @@
+package com.shipmanagement.telemetry;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.shipmanagement.DatabaseConnection;
+
+/**
+ * The latest known position of every ship, loaded from ship_locations on first
+ * use and kept current by {@link PositionIngester}, so listing ships with their
+ * position never has to query the position history. The positions are held
+ * in a {@link PositionGrid} (cell size -Dtelemetry.gridCellDeg, default 1
+ * degree), which also answers radius and bounding-box queries.
+ *
+ * Reports can arrive out of order; an older report never replaces a newer one.
+ */
+public final class ShipPositions {
+
+    // SQLite returns the other columns from the row holding the MAX()
+    private static final String LOAD_SQL =
+        "SELECT ship_id, latitude, longitude, status, current_port, MAX(last_updated) AS last_updated " +
+        "FROM ship_locations GROUP BY ship_id";
+
+    private static final PositionGrid latest =
+        new PositionGrid(Double.parseDouble(System.getProperty("telemetry.gridCellDeg", "1.0")));
+    private static volatile boolean loaded;
+    // Bumped on every change; the epoch keeps versions from repeating across restarts
+    private static final AtomicLong version = new AtomicLong();
+    private static final long epoch = ThreadLocalRandom.current().nextLong();
+
+    private ShipPositions() {
+    }
+
+    /**
+     * The latest position of a ship, or null if none has been reported.
+     */
+    public static PositionReport latest(int shipId) throws SQLException {
+        if (!loaded) {
+            load();
+        }
+        return latest.get(shipId);
+    }
+
+    /**
+     * The latest position of a ship as a map for JSON, or null if none has been reported.
+     */
+    public static Map<String, Object> latestAsMap(int shipId) throws SQLException {
+        PositionReport report = latest(shipId);
+        return report == null ? null : report.toMap();
+    }
+
+    /**
+     * Ships within the radius of a point, nearest first.
+     */
+    public static List<PositionGrid.Hit> near(double latitude, double longitude, double radiusNm, int limit)
+            throws SQLException {
+        if (!loaded) {
+            load();
+        }
+        return latest.near(latitude, longitude, radiusNm, limit);
+    }
+
+    /**
+     * Ships inside a latitude/longitude box; see {@link PositionGrid#within}.
+     */
+    public static List<PositionReport> within(double minLatitude, double minLongitude,
+                                              double maxLatitude, double maxLongitude, int limit)
+            throws SQLException {
+        if (!loaded) {
+            load();
+        }
+        return latest.within(minLatitude, minLongitude, maxLatitude, maxLongitude, limit);
+    }
+
+    /**
+     * Records a report that has been stored, unless a newer one is already known.
+     */
+    public static synchronized void update(PositionReport report) {
+        latest.put(report);
+        version.incrementAndGet();
+    }
+
+    // Call after the ship (and, by cascade, its positions) has been deleted
+    public static synchronized void removeShip(int shipId) {
+        latest.remove(shipId);
+        version.incrementAndGet();
+    }
+
+    public static int size() {
+        return latest.size();
+    }
+
+    /**
+     * Drops the map so the next use reloads it.
+     */
+    public static synchronized void invalidate() {
+        loaded = false;
+        latest.clear();
+        version.incrementAndGet();
+    }
+
+    /**
+     * Changes whenever any latest position may have changed, for ETags.
+     */
+    public static String versionTag() {
+        return "positions." + Long.toHexString(epoch) + "." + version.get();
+    }
+
+    private static synchronized void load() throws SQLException {
+        if (loaded) {
+            return;
+        }
+        int skipped = 0;
+        try (Connection conn = DatabaseConnection.getConnection("ShipPositions.load");
+             PreparedStatement pstmt = conn.prepareStatement(LOAD_SQL);
+             ResultSet rs = pstmt.executeQuery()) {
+            while (rs.next()) {
+                try {
+                    // Merged, so reports stored while loading are not overwritten
+                    update(new PositionReport(rs.getInt("ship_id"), rs.getDouble("latitude"),
+                                              rs.getDouble("longitude"), rs.getString("status"),
+                                              rs.getString("current_port"), parseStored(rs.getString("last_updated"))));
+                } catch (IllegalArgumentException e) {
+                    skipped++;
+                }
+            }
+        }
+        if (skipped > 0) {
+            System.err.println("Ship positions: skipped " + skipped + " unreadable positions");
+        }
+        loaded = true;
+    }
+
+    // "yyyy-MM-dd HH:mm:ss[.SSS]" in UTC, as written by CURRENT_TIMESTAMP or PositionReport
+    private static long parseStored(String value) {
+        if (value == null) {
+            return 0;
+        }
+        try {
+            return Instant.parse(value.replace(' ', 'T') + "Z").toEpochMilli();
+        } catch (DateTimeException e) {
+            return 0;
+        }
+    }
+}
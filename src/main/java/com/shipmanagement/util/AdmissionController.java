@@ -0,0 +1,209 @@
+package com.shipmanagement.util;
+
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import spark.Request;
+import static spark.Spark.afterAfter;
+import static spark.Spark.before;
+import static spark.Spark.halt;
+
+/**
+ * Admission control for API requests, with separate budgets for reads, writes
+ * and authentication.
+ *
+ * Each route class has a concurrency limit and a queue-wait budget. A request
+ * that has already waited in Jetty's queue longer than its budget is shed right
+ * away. Otherwise it waits for a slot for whatever is left of the budget, and is
+ * shed if none frees up. Shed requests get 503 with Retry-After. They cost
+ * almost nothing, so the server keeps answering the requests it admits quickly
+ * and does not time everything out.
+ *
+ * Budgets come from -Dadmission.&lt;read|write|auth&gt;.concurrency and
+ * -Dadmission.&lt;read|write|auth&gt;.maxWaitMs. Static files and CORS preflights
+ * are not subject to admission.
+ */
+public class AdmissionController {
+
+    public enum RouteClass {
+        READ(64, 500),
+        WRITE(16, 1000),
+        // BCrypt-bound; the password hasher has its own, smaller pool behind this
+        AUTH(16, 250);
+
+        private final int defaultConcurrency;
+        private final long defaultMaxWaitMillis;
+
+        RouteClass(int defaultConcurrency, long defaultMaxWaitMillis) {
+            this.defaultConcurrency = defaultConcurrency;
+            this.defaultMaxWaitMillis = defaultMaxWaitMillis;
+        }
+
+        String key() {
+            return name().toLowerCase();
+        }
+    }
+
+    private static final String ADMITTED_ATTRIBUTE = AdmissionController.class.getName() + ".admitted";
+    private static final String SHED_BODY = "{\"error\":\"Server is busy, please retry shortly\"}";
+
+    private static final class Budget {
+        final int concurrency;
+        final long maxWaitNanos;
+        final Semaphore permits;
+
+        // Metrics
+        final LongAdder admitted = new LongAdder();
+        final LongAdder shedOnArrival = new LongAdder();
+        final LongAdder shedWaiting = new LongAdder();
+        final LongAdder waitNanos = new LongAdder();
+        final AtomicLong maxWaitSeenNanos = new AtomicLong();
+
+        Budget(int concurrency, long maxWaitMillis) {
+            this.concurrency = concurrency;
+            this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxWaitMillis);
+            this.permits = new Semaphore(concurrency, true);
+        }
+    }
+
+    private final Map<RouteClass, Budget> budgets = new EnumMap<>(RouteClass.class);
+
+    /**
+     * Budgets from system properties, falling back to the per-class defaults.
+     */
+    public AdmissionController() {
+        for (RouteClass routeClass : RouteClass.values()) {
+            String prefix = "admission." + routeClass.key();
+            budgets.put(routeClass, new Budget(
+                Integer.getInteger(prefix + ".concurrency", routeClass.defaultConcurrency),
+                Long.getLong(prefix + ".maxWaitMs", routeClass.defaultMaxWaitMillis)));
+        }
+    }
+
+    /**
+     * The same budget for every route class, for tests.
+     */
+    AdmissionController(int concurrency, long maxWaitMillis) {
+        for (RouteClass routeClass : RouteClass.values()) {
+            budgets.put(routeClass, new Budget(concurrency, maxWaitMillis));
+        }
+    }
+
+    /**
+     * Which budget a request counts against, or null if it is not admission controlled.
+     */
+    public static RouteClass classify(String method, String path) {
+        if (path == null || !path.startsWith("/api/") || "OPTIONS".equalsIgnoreCase(method)) {
+            return null;
+        }
+        if (path.equals("/api/login") || path.equals("/api/signup") || path.equals("/api/change-password")) {
+            return RouteClass.AUTH;
+        }
+        if ("GET".equalsIgnoreCase(method) || "HEAD".equalsIgnoreCase(method)) {
+            return RouteClass.READ;
+        }
+        return RouteClass.WRITE;
+    }
+
+    /**
+     * Tries to take a slot in the class's budget.
+     * @param queuedNanos How long the request has already waited before reaching us
+     * @return true if admitted; the caller must then {@link #release} the slot
+     */
+    public boolean tryAdmit(RouteClass routeClass, long queuedNanos) throws InterruptedException {
+        Budget budget = budgets.get(routeClass);
+        long remaining = budget.maxWaitNanos - queuedNanos;
+        if (remaining <= 0) {
+            budget.shedOnArrival.increment();
+            return false;
+        }
+
+        long start = System.nanoTime();
+        boolean acquired = budget.permits.tryAcquire(remaining, TimeUnit.NANOSECONDS);
+        long waited = queuedNanos + System.nanoTime() - start;
+        budget.waitNanos.add(waited);
+        budget.maxWaitSeenNanos.accumulateAndGet(waited, Math::max);
+
+        if (!acquired) {
+            budget.shedWaiting.increment();
+            return false;
+        }
+        budget.admitted.increment();
+        return true;
+    }
+
+    public void release(RouteClass routeClass) {
+        budgets.get(routeClass).permits.release();
+    }
+
+    /**
+     * Registers the admission filter and the filter that frees the slot once the
+     * response is done. Register before other filters so a shed request does no work.
+     */
+    public void registerFilters() {
+        before((req, res) -> {
+            RouteClass routeClass = classify(req.requestMethod(), req.pathInfo());
+            if (routeClass == null) {
+                return;
+            }
+            if (!tryAdmit(routeClass, queuedNanos(req))) {
+                res.header("Retry-After", "1");
+                res.type("application/json");
+                halt(503, SHED_BODY);
+            }
+            req.attribute(ADMITTED_ATTRIBUTE, routeClass);
+        });
+
+        // afterAfter runs even when the route throws or halts
+        afterAfter((req, res) -> {
+            RouteClass routeClass = req.attribute(ADMITTED_ATTRIBUTE);
+            if (routeClass != null) {
+                req.raw().removeAttribute(ADMITTED_ATTRIBUTE);
+                release(routeClass);
+            }
+        });
+    }
+
+    // Time since Jetty stamped the request, i.e. roughly how long it waited for a worker thread
+    private static long queuedNanos(Request req) {
+        org.eclipse.jetty.server.Request base = org.eclipse.jetty.server.Request.getBaseRequest(req.raw());
+        if (base == null || base.getTimeStamp() == 0) {
+            return 0;
+        }
+        long queuedMillis = System.currentTimeMillis() - base.getTimeStamp();
+        return TimeUnit.MILLISECONDS.toNanos(Math.max(0, queuedMillis));
+    }
+
+    /**
+     * Snapshot of admitted and shed counts per route class, suitable for JSON serialization.
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        for (Map.Entry<RouteClass, Budget> entry : budgets.entrySet()) {
+            Budget budget = entry.getValue();
+            long admitted = budget.admitted.sum();
+            long shedOnArrival = budget.shedOnArrival.sum();
+            long shedWaiting = budget.shedWaiting.sum();
+            long waited = admitted + shedWaiting;
+
+            Map<String, Object> classStats = new LinkedHashMap<>();
+            classStats.put("concurrency", budget.concurrency);
+            classStats.put("maxWaitMs", TimeUnit.NANOSECONDS.toMillis(budget.maxWaitNanos));
+            classStats.put("inFlight", budget.concurrency - budget.permits.availablePermits());
+            classStats.put("waiting", budget.permits.getQueueLength());
+            classStats.put("admitted", admitted);
+            classStats.put("shed", shedOnArrival + shedWaiting);
+            classStats.put("shedOnArrival", shedOnArrival);
+            classStats.put("shedWaiting", shedWaiting);
+            classStats.put("avgWaitMs", waited == 0 ? 0.0 : budget.waitNanos.sum() / 1e6 / waited);
+            classStats.put("maxWaitSeenMs", budget.maxWaitSeenNanos.get() / 1e6);
+            stats.put(entry.getKey().key(), classStats);
+        }
+        return stats;
+    }
+}
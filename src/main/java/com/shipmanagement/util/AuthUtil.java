@@ -18,7 +18,7 @@ public class AuthUtil {
      * @return true if the user is authenticated, false otherwise
      */
     public static boolean isAuthenticated(Request req) {
-        return req.session().attribute("user") != null;
+        return req.attribute("user") != null;
     }
     
     /**
@@ -27,7 +27,7 @@ public class AuthUtil {
      * @return true if the user is an admin, false otherwise
      */
     public static boolean isAdmin(Request req) {
-        User user = req.session().attribute("user");
+        User user = req.attribute("user");
         return user != null && "admin".equals(user.getRole());
     }
     
@@ -0,0 +1,101 @@
+package com.shipmanagement.util;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.shipmanagement.metrics.Metrics;
+
+import spark.Request;
+import spark.Response;
+
+/**
+ * ETag / If-None-Match handling for JSON GET handlers.
+ *
+ * The handler builds an ETag from whatever its response depends on (usually
+ * {@link com.shipmanagement.db.TableVersions#current}, plus the user id for
+ * per-user lists) before running its query. If the client already holds that
+ * version, the answer is a bodyless 304 and the query and serialization are
+ * skipped entirely.
+ */
+public final class ConditionalGet {
+
+    private static final LongAdder notModified = new LongAdder();
+    private static final LongAdder modified = new LongAdder();
+
+    static {
+        Metrics.registerCounter("http_conditional_not_modified_total",
+            "Conditional GETs answered with 304", notModified::sum);
+        Metrics.registerCounter("http_conditional_modified_total",
+            "Conditional GETs answered with a full response", modified::sum);
+    }
+
+    private ConditionalGet() {
+    }
+
+    /**
+     * A weak ETag over the request path and query (which covers ?pretty=true)
+     * and the given parts.
+     */
+    public static String etag(Request req, String... parts) {
+        StringBuilder key = new StringBuilder(req.pathInfo());
+        if (req.queryString() != null) {
+            key.append('?').append(req.queryString());
+        }
+        for (String part : parts) {
+            key.append('\n').append(part);
+        }
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(key.toString().getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder("W/\"");
+            for (int i = 0; i < 12; i++) {
+                hex.append(Character.forDigit((digest[i] >> 4) & 0xf, 16)).append(Character.forDigit(digest[i] & 0xf, 16));
+            }
+            return hex.append('"').toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * Sets the ETag and revalidation headers, and answers 304 if the client's
+     * If-None-Match already names this ETag.
+     * @return true if the handler should return an empty body right away
+     */
+    public static boolean notModified(Request req, Response res, String etag) {
+        res.header("ETag", etag);
+        // Per-user responses behind a cookie: browsers may keep them but must revalidate
+        res.header("Cache-Control", "private, no-cache");
+        res.header("Vary", "Cookie");
+        if (matches(req.headers("If-None-Match"), etag)) {
+            notModified.increment();
+            res.status(304);
+            return true;
+        }
+        modified.increment();
+        return false;
+    }
+
+    /**
+     * Weak comparison against an If-None-Match header: "*" or a comma-separated
+     * list of ETags, with or without the W/ prefix.
+     */
+    static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        String opaque = stripWeak(etag);
+        for (String candidate : ifNoneMatch.split(",")) {
+            candidate = candidate.trim();
+            if (candidate.equals("*") || stripWeak(candidate).equals(opaque)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String stripWeak(String tag) {
+        return tag.startsWith("W/") ? tag.substring(2) : tag;
+    }
+}
@@ -0,0 +1,95 @@
+package com.shipmanagement.util;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+
+import com.google.gson.Gson;
+import com.google.gson.stream.JsonWriter;
+import com.shipmanagement.db.RowMappers;
+
+import spark.Request;
+import spark.Response;
+
+/**
+ * Writes a JSON array straight to the servlet output stream, one row at a time.
+ *
+ * Rows are serialized one at a time as the source hands them over, so a large
+ * list is never built up as one big String. The DatabaseConnection sources read
+ * and map all rows before handing over the first, so no reader connection is
+ * held while a slow client drains the response. Output is compact; add
+ * {@code ?pretty=true} to the request for indented JSON.
+ *
+ * Nothing is written until the query has produced its result set, so a failing
+ * query can still be answered with a normal error response.
+ */
+public final class JsonStream {
+
+    private static final int BUFFER_SIZE = 8192;
+
+    /**
+     * Produces rows into a sink, typically a DatabaseConnection stream method.
+     */
+    @FunctionalInterface
+    public interface Source<T> {
+        int stream(RowMappers.RowSink<T> sink) throws SQLException, IOException;
+    }
+
+    private JsonStream() {
+    }
+
+    /**
+     * Streams the rows from the source as a JSON array response.
+     * @return An empty body for Spark; the response has already been written
+     */
+    public static <T> String writeArray(Request req, Response res, Gson gson, Class<? super T> elementType,
+                                        Source<T> source) throws SQLException, IOException {
+        ArrayWriter<T> writer = new ArrayWriter<>(req, res, gson, elementType);
+        source.stream(writer);
+        writer.finish();
+        return "";
+    }
+
+    // Opens the response on the first row (or at the end, for an empty array)
+    private static final class ArrayWriter<T> implements RowMappers.RowSink<T> {
+        private final Request req;
+        private final Response res;
+        private final Gson gson;
+        private final Class<? super T> elementType;
+        private JsonWriter json;
+
+        ArrayWriter(Request req, Response res, Gson gson, Class<? super T> elementType) {
+            this.req = req;
+            this.res = res;
+            this.gson = gson;
+            this.elementType = elementType;
+        }
+
+        @Override
+        public void accept(T row) throws IOException {
+            open();
+            gson.toJson(row, elementType, json);
+        }
+
+        void finish() throws IOException {
+            open();
+            json.endArray();
+            json.flush();
+        }
+
+        private void open() throws IOException {
+            if (json != null) {
+                return;
+            }
+            res.type("application/json");
+            json = gson.newJsonWriter(new BufferedWriter(
+                new OutputStreamWriter(res.raw().getOutputStream(), StandardCharsets.UTF_8), BUFFER_SIZE));
+            if ("true".equalsIgnoreCase(req.queryParams("pretty"))) {
+                json.setIndent("  ");
+            }
+            json.beginArray();
+        }
+    }
+}
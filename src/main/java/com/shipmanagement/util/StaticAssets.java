@@ -0,0 +1,386 @@
+package com.shipmanagement.util;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystemAlreadyExistsException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+import com.shipmanagement.metrics.Metrics;
+
+import spark.Request;
+import spark.Response;
+
+/**
+ * Serves the files under a classpath directory (normally /public) from memory.
+ *
+ * Everything is read once at startup. Text assets are gzipped at the highest
+ * level then, so no request pays for compression. A prebuilt Brotli file
+ * next to an asset (e.g. js/app.js.br) is served to clients that accept br.
+ * The JDK has no Brotli encoder, so those have to come from the build.
+ *
+ * Every asset other than an HTML page also gets a fingerprinted URL with a
+ * content hash in it (js/app.js is also served as js/app.3f9c01d2ab.js). HTML
+ * pages are rewritten to reference those URLs. A fingerprinted URL never
+ * changes content, so it is cached immutably for a year. Pages and plain URLs
+ * are served with no-cache plus a strong ETag, so a reload costs a 304.
+ */
+public final class StaticAssets {
+
+    /**
+     * The route patterns {@link #handle} is registered under.
+     */
+    public static final List<String> ROUTES = List.of("/", "/*");
+
+    private static final long IMMUTABLE_MAX_AGE = 365L * 24 * 60 * 60;
+    private static final int MIN_COMPRESS_SIZE = 256;
+    private static final int HASH_LENGTH = 10;
+
+    private static final Map<String, String> CONTENT_TYPES = Map.of(
+        "html", "text/html; charset=utf-8",
+        "js", "application/javascript; charset=utf-8",
+        "css", "text/css; charset=utf-8",
+        "json", "application/json; charset=utf-8",
+        "svg", "image/svg+xml",
+        "txt", "text/plain; charset=utf-8",
+        "jpg", "image/jpeg",
+        "png", "image/png",
+        "ico", "image/x-icon");
+
+    // Local references in HTML: src="..."/href="..." attributes and CSS url(...)
+    private static final Pattern REFERENCE = Pattern.compile(
+        "((?:src|href)\\s*=\\s*\")([^\"]+)(\")|(url\\(\\s*['\"]?)([^'\")]+)(['\"]?\\s*\\))");
+
+    /**
+     * One file, with its precompressed variants.
+     */
+    public static final class Asset {
+        private final String path;
+        private final String contentType;
+        private final byte[] identity;
+        private final byte[] gzip;
+        private final byte[] brotli;
+        private final String hash;
+
+        Asset(String path, byte[] identity, byte[] brotli) {
+            this.path = path;
+            this.contentType = contentType(path);
+            this.identity = identity;
+            this.gzip = compressible(contentType) && identity.length >= MIN_COMPRESS_SIZE ? gzip(identity) : null;
+            this.brotli = brotli;
+            this.hash = hash(identity);
+        }
+
+        public String getPath() { return path; }
+
+        public String getContentType() { return contentType; }
+
+        public byte[] getIdentity() { return identity; }
+
+        // Null when not worth compressing
+        public byte[] getGzip() { return gzip; }
+
+        public byte[] getBrotli() { return brotli; }
+
+        public String getHash() { return hash; }
+
+        /**
+         * The URL with the content hash before the extension.
+         */
+        public String getFingerprintedPath() {
+            int slash = path.lastIndexOf('/');
+            int dot = path.lastIndexOf('.');
+            return dot > slash
+                ? path.substring(0, dot) + "." + hash + path.substring(dot)
+                : path + "." + hash;
+        }
+    }
+
+    private static final class Entry {
+        final Asset asset;
+        final boolean immutable;
+
+        Entry(Asset asset, boolean immutable) {
+            this.asset = asset;
+            this.immutable = immutable;
+        }
+    }
+
+    private final Map<String, Entry> entries;
+    private final Map<String, Asset> assets;
+
+    // Metrics
+    private final LongAdder served = new LongAdder();
+    private final LongAdder notModified = new LongAdder();
+    private final LongAdder bytesSent = new LongAdder();
+
+    StaticAssets(Map<String, byte[]> files) {
+        // Fingerprint everything but the pages first, so the pages can point at them
+        Map<String, Asset> loaded = new LinkedHashMap<>();
+        for (Map.Entry<String, byte[]> file : files.entrySet()) {
+            String path = file.getKey();
+            if (!path.endsWith(".br") && !path.endsWith(".html")) {
+                loaded.put(path, new Asset(path, file.getValue(), files.get(path + ".br")));
+            }
+        }
+        for (Map.Entry<String, byte[]> file : files.entrySet()) {
+            String path = file.getKey();
+            if (path.endsWith(".html")) {
+                byte[] page = rewrite(path, new String(file.getValue(), StandardCharsets.UTF_8), loaded)
+                    .getBytes(StandardCharsets.UTF_8);
+                // A prebuilt .br of the page would not match the rewritten page
+                loaded.put(path, new Asset(path, page, null));
+            }
+        }
+
+        this.assets = loaded;
+        this.entries = new HashMap<>();
+        for (Asset asset : loaded.values()) {
+            entries.put(asset.getPath(), new Entry(asset, false));
+            if (!asset.getPath().endsWith(".html")) {
+                entries.put(asset.getFingerprintedPath(), new Entry(asset, true));
+            }
+        }
+        Asset index = loaded.get("/index.html");
+        if (index != null) {
+            entries.put("/", new Entry(index, false));
+        }
+
+        Metrics.registerCounter("static_asset_responses_total", "Static asset responses with a body", served::sum);
+        Metrics.registerCounter("static_asset_not_modified_total", "Static asset requests answered with 304",
+            notModified::sum);
+    }
+
+    /**
+     * Reads every file under a classpath directory, from a directory or a jar.
+     */
+    public static StaticAssets load(String root) throws IOException {
+        URL url = StaticAssets.class.getResource(root);
+        if (url == null) {
+            throw new IOException("Static asset directory not found on the classpath: " + root);
+        }
+        try {
+            URI uri = url.toURI();
+            if ("jar".equals(uri.getScheme())) {
+                FileSystem jar;
+                try {
+                    jar = FileSystems.newFileSystem(uri, Map.of());
+                } catch (FileSystemAlreadyExistsException e) {
+                    jar = FileSystems.getFileSystem(uri);
+                }
+                return new StaticAssets(readAll(jar.getPath(root)));
+            }
+            return new StaticAssets(readAll(Paths.get(uri)));
+        } catch (URISyntaxException e) {
+            throw new IOException("Bad static asset location: " + url, e);
+        }
+    }
+
+    private static Map<String, byte[]> readAll(Path dir) throws IOException {
+        Map<String, byte[]> files = new LinkedHashMap<>();
+        List<Path> paths;
+        try (Stream<Path> walk = Files.walk(dir)) {
+            paths = walk.filter(Files::isRegularFile).sorted().collect(Collectors.toList());
+        }
+        for (Path file : paths) {
+            String relative = dir.relativize(file).toString().replace(file.getFileSystem().getSeparator(), "/");
+            files.put("/" + relative, Files.readAllBytes(file));
+        }
+        return files;
+    }
+
+    /**
+     * The asset served at a request path, or null.
+     */
+    public Asset find(String path) {
+        Entry entry = entries.get(path);
+        return entry == null ? null : entry.asset;
+    }
+
+    /**
+     * Spark route for GET {@link #ROUTES}. Register it after every other route.
+     * @return An empty body once the response is written, or null if there is no such asset
+     */
+    public String handle(Request req, Response res) throws IOException {
+        Entry entry = entries.get(req.pathInfo());
+        if (entry == null) {
+            return null;
+        }
+        Asset asset = entry.asset;
+
+        String encoding = chooseEncoding(req.headers("Accept-Encoding"),
+                                         asset.getBrotli() != null, asset.getGzip() != null);
+        byte[] body = "br".equals(encoding) ? asset.getBrotli()
+                    : "gzip".equals(encoding) ? asset.getGzip()
+                    : asset.getIdentity();
+        String etag = "\"" + asset.getHash() + (encoding == null ? "" : "-" + encoding) + "\"";
+
+        res.type(asset.getContentType());
+        res.header("ETag", etag);
+        res.header("Cache-Control", entry.immutable
+            ? "public, max-age=" + IMMUTABLE_MAX_AGE + ", immutable"
+            : "no-cache");
+        if (asset.getGzip() != null || asset.getBrotli() != null) {
+            res.header("Vary", "Accept-Encoding");
+        }
+
+        if (ConditionalGet.matches(req.headers("If-None-Match"), etag)) {
+            notModified.increment();
+            res.status(304);
+            return "";
+        }
+
+        if (encoding != null) {
+            res.header("Content-Encoding", encoding);
+        }
+        res.raw().setContentLength(body.length);
+        OutputStream out = res.raw().getOutputStream();
+        out.write(body);
+        out.flush();
+        served.increment();
+        bytesSent.add(body.length);
+        return "";
+    }
+
+    /**
+     * Picks br, gzip or null (identity) from an Accept-Encoding header,
+     * honouring q=0. Brotli wins over gzip when both are acceptable.
+     */
+    static String chooseEncoding(String acceptEncoding, boolean hasBrotli, boolean hasGzip) {
+        if (acceptEncoding == null) {
+            return null;
+        }
+        Map<String, Double> weights = new HashMap<>();
+        for (String part : acceptEncoding.split(",")) {
+            String[] fields = part.trim().split(";");
+            double q = 1.0;
+            for (int i = 1; i < fields.length; i++) {
+                String param = fields[i].trim();
+                if (param.startsWith("q=")) {
+                    try {
+                        q = Double.parseDouble(param.substring(2));
+                    } catch (NumberFormatException e) {
+                        q = 0;
+                    }
+                }
+            }
+            weights.put(fields[0].trim().toLowerCase(Locale.ROOT), q);
+        }
+        double any = weights.getOrDefault("*", 0.0);
+        if (hasBrotli && weights.getOrDefault("br", any) > 0) {
+            return "br";
+        }
+        if (hasGzip && weights.getOrDefault("gzip", any) > 0) {
+            return "gzip";
+        }
+        return null;
+    }
+
+    /**
+     * Snapshot of the asset cache, suitable for JSON serialization.
+     */
+    public Map<String, Object> getStats() {
+        long identityBytes = 0;
+        long gzipBytes = 0;
+        for (Asset asset : assets.values()) {
+            identityBytes += asset.getIdentity().length;
+            gzipBytes += asset.getGzip() != null ? asset.getGzip().length : asset.getIdentity().length;
+        }
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("assets", assets.size());
+        stats.put("identityBytes", identityBytes);
+        stats.put("gzipBytes", gzipBytes);
+        stats.put("served", served.sum());
+        stats.put("notModified", notModified.sum());
+        stats.put("bytesSent", bytesSent.sum());
+        return stats;
+    }
+
+    // Points local references at fingerprinted URLs; others are left alone
+    private static String rewrite(String pagePath, String page, Map<String, Asset> assets) {
+        URI base = URI.create(pagePath);
+        Matcher matcher = REFERENCE.matcher(page);
+        StringBuilder out = new StringBuilder(page.length());
+        while (matcher.find()) {
+            boolean attribute = matcher.group(1) != null;
+            String reference = matcher.group(attribute ? 2 : 5);
+            Asset asset = null;
+            try {
+                URI target = base.resolve(reference);
+                if (target.getScheme() == null && target.getAuthority() == null && target.getQuery() == null
+                        && target.getFragment() == null) {
+                    asset = assets.get(target.getPath());
+                }
+            } catch (IllegalArgumentException e) {
+                // Template expressions and the like; not ours
+            }
+            String replacement = asset == null
+                ? matcher.group()
+                : matcher.group(attribute ? 1 : 4) + asset.getFingerprintedPath() + matcher.group(attribute ? 3 : 6);
+            matcher.appendReplacement(out, Matcher.quoteReplacement(replacement));
+        }
+        matcher.appendTail(out);
+        return out.toString();
+    }
+
+    private static String contentType(String path) {
+        int dot = path.lastIndexOf('.');
+        String extension = dot < 0 ? "" : path.substring(dot + 1).toLowerCase(Locale.ROOT);
+        return CONTENT_TYPES.getOrDefault(extension, "application/octet-stream");
+    }
+
+    private static boolean compressible(String contentType) {
+        return contentType.startsWith("text/") || contentType.startsWith("application/javascript")
+            || contentType.startsWith("application/json") || contentType.startsWith("image/svg");
+    }
+
+    private static byte[] gzip(byte[] data) {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(data.length / 4);
+        try (GZIPOutputStream out = new GZIPOutputStream(buffer) {
+            {
+                def.setLevel(Deflater.BEST_COMPRESSION);
+            }
+        }) {
+            out.write(data);
+        } catch (IOException e) {
+            throw new IllegalStateException("Compressing in memory failed", e);
+        }
+        byte[] compressed = buffer.toByteArray();
+        return compressed.length < data.length ? compressed : null;
+    }
+
+    private static String hash(byte[] data) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(data);
+            StringBuilder hex = new StringBuilder(HASH_LENGTH);
+            for (int i = 0; hex.length() < HASH_LENGTH; i++) {
+                hex.append(Character.forDigit((digest[i] >> 4) & 0xf, 16)).append(Character.forDigit(digest[i] & 0xf, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
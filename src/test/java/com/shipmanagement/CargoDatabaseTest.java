@@ -13,6 +13,7 @@ import org.junit.jupiter.api.Test;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -77,7 +78,12 @@ public class CargoDatabaseTest {
                 testDbConnection.getLastPreparedSql());
         verify(mockPreparedStatement).setDouble(1, 50.0); // 10 items * 5.0 weight = 50.0
         verify(mockPreparedStatement).setString(2, "TEST-002");
-        verify(mockPreparedStatement).executeUpdate();
+        
+        // The item's row in cargo_items is written in the same transaction
+        verify(mockPreparedStatement).setString(1, "TEST-002");
+        verify(mockPreparedStatement).setString(2, "Test Item");
+        verify(mockPreparedStatement).setInt(3, 10);
+        verify(mockPreparedStatement, times(2)).executeUpdate();
     }
     
     @Test
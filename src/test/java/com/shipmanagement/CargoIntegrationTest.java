@@ -5,10 +5,12 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.List;
 
 import org.junit.jupiter.api.AfterEach;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -187,6 +189,43 @@ public class CargoIntegrationTest {
         }
     }
     
+    @Test
+    @DisplayName("Test the manifest survives a reload")
+    void testManifestReload() throws SQLException {
+        Cargo cargo = new Cargo(TEST_CARGO_ID, "Integration Test", 2000.0);
+        cargo.addItem("Crates", 10, 10.0);
+        cargo.addItem("Barrels", 4, 25.0);
+        cargo.addItem("Pallets", 2, 5.0);
+        cargo.removeItem("Barrels", 4, 25.0);
+        cargo.addItem("Crates", 5, 10.0);
+        
+        Cargo loaded = Cargo.load(TEST_CARGO_ID);
+        
+        assertEquals("Integration Test", loaded.getOwnerName());
+        assertEquals(160.0, loaded.getUsedCapacity()); // 15*10 + 2*5 = 160
+        List<CargoItem> items = loaded.getItems();
+        assertEquals(2, items.size());
+        assertEquals("Crates", items.get(0).getName());
+        assertEquals(15, items.get(0).getAmount());
+        assertEquals("Pallets", items.get(1).getName());
+        assertEquals(2, items.get(1).getAmount());
+        assertNull(loaded.getItem("Barrels"));
+    }
+    
+    @Test
+    @DisplayName("Test recreating a cargo clears its stored manifest")
+    void testRecreateClearsManifest() throws SQLException {
+        Cargo cargo = new Cargo(TEST_CARGO_ID, "Integration Test", 2000.0);
+        cargo.addItem("Crates", 10, 10.0);
+        
+        new Cargo(TEST_CARGO_ID, "New Owner", 500.0);
+        
+        Cargo loaded = Cargo.load(TEST_CARGO_ID);
+        assertEquals("New Owner", loaded.getOwnerName());
+        assertTrue(loaded.getItems().isEmpty());
+        assertNull(Cargo.load("TEST-INT-MISSING"));
+    }
+    
     @Test
     @DisplayName("Test multiple cargo objects in database")
     void testMultipleCargoObjects() throws SQLException {
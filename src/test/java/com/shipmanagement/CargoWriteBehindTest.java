@@ -0,0 +1,214 @@
+package com.shipmanagement;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import org.junit.jupiter.api.AfterEach;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for buffering and coalescing cargo changes, against the real database
+ */
+public class CargoWriteBehindTest {
+
+    private static final String CARGO_ID = "TEST-WB-001";
+    private static final String OTHER_CARGO_ID = "TEST-WB-002";
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        cleanupTestData();
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        Cargo.disableWriteBehind();
+        cleanupTestData();
+    }
+
+    private void cleanupTestData() throws SQLException {
+        DatabaseConnection.write(conn -> {
+            try (PreparedStatement pstmt = conn.prepareStatement("DELETE FROM cargo WHERE cargo_id LIKE 'TEST-WB-%'")) {
+                return pstmt.executeUpdate();
+            }
+        });
+    }
+
+    private double storedUsedCapacity(String cargoId) throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement("SELECT used_capacity FROM cargo WHERE cargo_id = ?")) {
+            pstmt.setString(1, cargoId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                assertTrue(rs.next(), "Cargo " + cargoId + " should exist");
+                return rs.getDouble(1);
+            }
+        }
+    }
+
+    private int storedItemRows(String cargoId) throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement("SELECT COUNT(*) FROM cargo_items WHERE cargo_id = ?")) {
+            pstmt.setString(1, cargoId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                rs.next();
+                return rs.getInt(1);
+            }
+        }
+    }
+
+    private static long stat(String name) {
+        return (Long) Cargo.getWriteBehind().getStats().get(name);
+    }
+
+    @Test
+    @DisplayName("Changes are buffered until flushed and then written once")
+    void testCoalescing() throws SQLException {
+        Cargo.enableWriteBehind(60_000, 1000);
+        Cargo cargo = new Cargo(CARGO_ID, "Write Behind", 5000.0);
+        long coalescedBefore = stat("coalesced");
+
+        for (int i = 0; i < 100; i++) {
+            cargo.addItem("Pallets", 1, 10.0);
+        }
+
+        assertEquals(1000.0, cargo.getUsedCapacity());
+        assertEquals(0.0, storedUsedCapacity(CARGO_ID));
+        assertEquals(0, storedItemRows(CARGO_ID));
+        assertTrue(Cargo.getWriteBehind().isDirty(CARGO_ID));
+
+        assertEquals(1, Cargo.flush());
+
+        assertEquals(1000.0, storedUsedCapacity(CARGO_ID));
+        assertEquals(1, storedItemRows(CARGO_ID));
+        assertEquals(99, stat("coalesced") - coalescedBefore);
+        assertFalse(Cargo.getWriteBehind().isDirty(CARGO_ID));
+        assertEquals(0, Cargo.flush());
+    }
+
+    @Test
+    @DisplayName("An item removed before the flush has its row deleted")
+    void testRemovedItem() throws SQLException {
+        Cargo.enableWriteBehind(60_000, 1000);
+        Cargo cargo = new Cargo(CARGO_ID, "Write Behind", 5000.0);
+        cargo.addItem("Crates", 5, 10.0);
+        cargo.addItem("Barrels", 2, 20.0);
+        Cargo.flush();
+        assertEquals(2, storedItemRows(CARGO_ID));
+
+        cargo.removeItem("Crates", 5, 10.0);
+        Cargo.flush();
+
+        Cargo loaded = Cargo.load(CARGO_ID);
+        assertEquals(40.0, loaded.getUsedCapacity());
+        assertEquals(1, loaded.getItems().size());
+        assertEquals("Barrels", loaded.getItems().get(0).getName());
+    }
+
+    @Test
+    @DisplayName("Loading a dirty hold flushes it first")
+    void testLoadFlushes() throws SQLException {
+        Cargo.enableWriteBehind(60_000, 1000);
+        Cargo cargo = new Cargo(CARGO_ID, "Write Behind", 5000.0);
+        cargo.addItem("Crates", 3, 10.0);
+
+        Cargo loaded = Cargo.load(CARGO_ID);
+
+        assertEquals(30.0, loaded.getUsedCapacity());
+        assertEquals(3, loaded.getItem("Crates").getAmount());
+    }
+
+    @Test
+    @DisplayName("Reaching the dirty hold threshold flushes without waiting for the timer")
+    void testThresholdFlush() throws Exception {
+        Cargo.enableWriteBehind(60_000, 2);
+        Cargo first = new Cargo(CARGO_ID, "Write Behind", 5000.0);
+        Cargo second = new Cargo(OTHER_CARGO_ID, "Write Behind", 5000.0);
+
+        first.addItem("Crates", 1, 10.0);
+        second.addItem("Crates", 2, 10.0);
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (Cargo.getWriteBehind().isDirty(OTHER_CARGO_ID) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(10.0, storedUsedCapacity(CARGO_ID));
+        assertEquals(20.0, storedUsedCapacity(OTHER_CARGO_ID));
+    }
+
+    @Test
+    @DisplayName("Disabling write-behind flushes what is still buffered")
+    void testDisableFlushes() throws SQLException {
+        Cargo.enableWriteBehind(60_000, 1000);
+        Cargo cargo = new Cargo(CARGO_ID, "Write Behind", 5000.0);
+        cargo.addItem("Crates", 4, 10.0);
+
+        Cargo.disableWriteBehind();
+
+        assertEquals(40.0, storedUsedCapacity(CARGO_ID));
+        assertEquals(1, storedItemRows(CARGO_ID));
+
+        // Back to writing each change
+        cargo.addItem("Crates", 1, 10.0);
+        assertEquals(50.0, storedUsedCapacity(CARGO_ID));
+    }
+
+    @Test
+    @DisplayName("Recreating a hold drops its buffered changes")
+    void testRecreateDiscards() throws SQLException {
+        Cargo.enableWriteBehind(60_000, 1000);
+        Cargo cargo = new Cargo(CARGO_ID, "Write Behind", 5000.0);
+        cargo.addItem("Crates", 4, 10.0);
+
+        new Cargo(CARGO_ID, "New Owner", 5000.0);
+        Cargo.flush();
+
+        assertEquals(0.0, storedUsedCapacity(CARGO_ID));
+        assertEquals(0, storedItemRows(CARGO_ID));
+    }
+
+    @Test
+    @DisplayName("Recreating a hold waits for a flush in progress, so no stale items land in the new hold")
+    void testDiscardWaitsForFlush() throws Exception {
+        Cargo.enableWriteBehind(60_000, 1000);
+        Cargo cargo = new Cargo(CARGO_ID, "Write Behind", 5000.0);
+        cargo.addItem("Crates", 4, 10.0);
+        CargoWriteBehind buffer = Cargo.getWriteBehind();
+
+        Thread flusher = new Thread(() -> {
+            try {
+                buffer.flush();
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        Thread discarder = new Thread(() -> buffer.discard(CARGO_ID));
+        // Holding the writer keeps the flush in flight, between its snapshot and its commit
+        try (Connection writer = DatabaseConnection.getWriteConnection()) {
+            flusher.start();
+            long deadline = System.currentTimeMillis() + 5000;
+            while (flusher.getState() != Thread.State.WAITING && flusher.getState() != Thread.State.TIMED_WAITING
+                   && System.currentTimeMillis() < deadline) {
+                Thread.sleep(5);
+            }
+            discarder.start();
+            discarder.join(300);
+            assertTrue(discarder.isAlive(), "discard should wait for the flush in progress");
+        }
+        flusher.join(5000);
+        discarder.join(5000);
+        assertFalse(discarder.isAlive());
+        assertEquals(40.0, storedUsedCapacity(CARGO_ID));
+
+        // The replacement is saved after the old hold's flush, so it starts empty
+        new Cargo(CARGO_ID, "New Owner", 5000.0);
+        Cargo.flush();
+        assertEquals(0.0, storedUsedCapacity(CARGO_ID));
+        assertEquals(0, storedItemRows(CARGO_ID));
+    }
+}
@@ -0,0 +1,60 @@
+package com.shipmanagement.auth;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for the fixed-window login attempt throttle
+ */
+public class LoginThrottleTest {
+
+    private final AtomicLong now = new AtomicLong();
+    private final LoginThrottle throttle = new LoginThrottle(3, 60_000, now::get);
+
+    private void advanceMillis(long millis) {
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(millis));
+    }
+
+    @Test
+    @DisplayName("A key is throttled once it uses up its attempts")
+    void testThrottlesAfterLimit() {
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, throttle.retryAfterMillis("alice"));
+            throttle.record("alice");
+        }
+
+        advanceMillis(10_000);
+        assertEquals(50_000, throttle.retryAfterMillis("alice"));
+        assertEquals(0, throttle.retryAfterMillis("bob"));
+        assertEquals(1L, throttle.getStats().get("throttled"));
+    }
+
+    @Test
+    @DisplayName("Attempts are allowed again once the window has passed")
+    void testWindowResets() {
+        for (int i = 0; i < 3; i++) {
+            throttle.record("alice");
+        }
+
+        advanceMillis(60_000);
+        assertEquals(0, throttle.retryAfterMillis("alice"));
+        throttle.record("alice");
+        assertEquals(0, throttle.retryAfterMillis("alice"));
+    }
+
+    @Test
+    @DisplayName("Reset clears a key's attempts")
+    void testReset() {
+        for (int i = 0; i < 3; i++) {
+            throttle.record("alice");
+        }
+        throttle.reset("alice");
+
+        assertEquals(0, throttle.retryAfterMillis("alice"));
+        assertEquals(0, throttle.getStats().get("trackedKeys"));
+    }
+}
@@ -0,0 +1,86 @@
+package com.shipmanagement.auth;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.AfterEach;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mindrot.jbcrypt.BCrypt;
+
+/**
+ * Tests for the bounded password hashing pool
+ */
+public class PasswordHasherTest {
+
+    private PasswordHasher hasher;
+
+    @AfterEach
+    void tearDown() {
+        if (hasher != null) {
+            hasher.close();
+        }
+    }
+
+    @Test
+    @DisplayName("Hashes verify against the original password only")
+    void testHashAndVerify() {
+        // Minimum cost keeps the test fast
+        hasher = new PasswordHasher(1, 4, 5000, 4);
+        String hashed = hasher.hash("secret");
+
+        assertTrue(hasher.verify("secret", hashed));
+        assertFalse(hasher.verify("wrong", hashed));
+        assertEquals(3L, hasher.getStats().get("completed"));
+    }
+
+    @Test
+    @DisplayName("Work beyond the queue capacity is rejected immediately")
+    void testRejectsWhenSaturated() throws Exception {
+        hasher = new PasswordHasher(1, 1, 10_000, 12);
+        String hashed = BCrypt.hashpw("secret", BCrypt.gensalt(4));
+
+        // One check running and one queued fill the pool
+        ExecutorService callers = Executors.newFixedThreadPool(2);
+        CountDownLatch submitted = new CountDownLatch(2);
+        try {
+            Future<?> running = callers.submit(() -> {
+                submitted.countDown();
+                return hasher.hash("slow");
+            });
+            Future<?> queued = callers.submit(() -> {
+                submitted.countDown();
+                return hasher.hash("slow");
+            });
+            submitted.await();
+            while ((int) hasher.getStats().get("queued") < 1) {
+                Thread.sleep(5);
+            }
+
+            long start = System.nanoTime();
+            assertThrows(PasswordHasher.SaturatedException.class, () -> hasher.verify("secret", hashed));
+            assertTrue(System.nanoTime() - start < 100_000_000L, "Rejection should not wait for the pool");
+            assertEquals(1L, hasher.getStats().get("rejected"));
+
+            running.get();
+            queued.get();
+        } finally {
+            callers.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("Callers give up after the timeout")
+    void testTimeout() {
+        hasher = new PasswordHasher(1, 1, 1, 12);
+
+        assertThrows(PasswordHasher.SaturatedException.class, () -> hasher.hash("slow"));
+        assertEquals(1L, hasher.getStats().get("timedOut"));
+    }
+}
@@ -0,0 +1,111 @@
+package com.shipmanagement.auth;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.shipmanagement.model.User;
+
+/**
+ * Tests for stateless HMAC-signed session tokens
+ */
+public class SignedTokenSessionStoreTest {
+
+    private static final byte[] KEY = "0123456789abcdef0123456789abcdef".getBytes(StandardCharsets.UTF_8);
+
+    private final AtomicLong now = new AtomicLong(1_000_000);
+    // Stands in for the users table
+    private final Map<Integer, User> users = new HashMap<>();
+    private final SignedTokenSessionStore store = new SignedTokenSessionStore(KEY, 60_000, now::get, users::get);
+
+    private static User user(int id, String username, String role) {
+        User user = new User();
+        user.setId(id);
+        user.setUsername(username);
+        user.setRole(role);
+        return user;
+    }
+
+    @Test
+    @DisplayName("A token carries the user and is accepted by any store with the same key")
+    void testRoundTrip() {
+        String token = store.create(user(7, "ana|admin", "admin"));
+
+        SessionStore.Session session = new SignedTokenSessionStore(KEY.clone(), 60_000, now::get, users::get).find(token);
+        assertNotNull(session);
+        assertEquals(7, session.getUser().getId());
+        assertEquals("ana|admin", session.getUser().getUsername());
+        assertEquals("admin", session.getUser().getRole());
+        assertNull(session.getUser().getPassword());
+        assertEquals(1_060_000, session.getExpiresAt());
+    }
+
+    @Test
+    @DisplayName("Tampered, foreign and malformed tokens are rejected")
+    void testRejectsForgeries() {
+        String token = store.create(user(7, "ana", "user"));
+        String payload = token.substring(0, token.indexOf('.'));
+        String signature = token.substring(token.indexOf('.') + 1);
+
+        String promoted = Base64.getUrlEncoder().withoutPadding().encodeToString(
+            new String(Base64.getUrlDecoder().decode(payload), StandardCharsets.UTF_8)
+                .replace("|user|", "|admin|").getBytes(StandardCharsets.UTF_8));
+        assertNull(store.find(promoted + "." + signature));
+
+        byte[] otherKey = Arrays.copyOf(KEY, KEY.length);
+        otherKey[0] ^= 1;
+        assertNull(new SignedTokenSessionStore(otherKey, 60_000, now::get, users::get).find(token));
+
+        assertNull(store.find(payload));
+        assertNull(store.find("not base64!.x"));
+        assertNull(store.find(""));
+        assertEquals(4L, store.getStats().get("forged"));
+    }
+
+    @Test
+    @DisplayName("Tokens expire, and renewing issues a later one")
+    void testExpiryAndRenewal() throws SQLException {
+        users.put(7, user(7, "ana", "user"));
+        String token = store.create(users.get(7));
+
+        now.addAndGet(40_000);
+        String renewed = store.renew(store.find(token));
+        assertNotEquals(token, renewed);
+
+        now.addAndGet(30_000);
+        assertNull(store.find(token));
+        assertNotNull(store.find(renewed));
+        assertEquals(1L, store.getStats().get("expired"));
+    }
+
+    @Test
+    @DisplayName("Renewing picks up a changed role and fails for a deleted user")
+    void testRenewalReloadsUser() throws SQLException {
+        String token = store.create(user(7, "ana", "admin"));
+        users.put(7, user(7, "ana", "user"));
+
+        SessionStore.Session renewed = store.find(store.renew(store.find(token)));
+        assertEquals("user", renewed.getUser().getRole());
+
+        users.remove(7);
+        assertNull(store.renew(renewed));
+    }
+
+    @Test
+    @DisplayName("Short keys are refused")
+    void testKeyLength() {
+        assertThrows(IllegalArgumentException.class, () -> new SignedTokenSessionStore(new byte[16], 60_000));
+    }
+}
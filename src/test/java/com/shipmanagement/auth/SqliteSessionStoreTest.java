@@ -0,0 +1,97 @@
+package com.shipmanagement.auth;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.AfterEach;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.shipmanagement.DatabaseConnection;
+import com.shipmanagement.model.User;
+
+/**
+ * Integration tests for sessions stored in the sessions table
+ */
+public class SqliteSessionStoreTest {
+
+    private final AtomicLong now = new AtomicLong(System.currentTimeMillis());
+    private final SqliteSessionStore store = new SqliteSessionStore(60_000, now::get);
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        String username = "session_test_" + System.nanoTime();
+        assertTrue(DatabaseConnection.createUser(username, "secret123", "user"));
+        user = DatabaseConnection.getUserByUsername(username);
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        try (Connection conn = DatabaseConnection.getWriteConnection();
+             PreparedStatement pstmt = conn.prepareStatement("DELETE FROM users WHERE id = ?")) {
+            pstmt.setInt(1, user.getId());
+            pstmt.executeUpdate();
+        }
+    }
+
+    @Test
+    @DisplayName("A session is found by its token from another store instance, without the password")
+    void testCreateAndFind() throws SQLException {
+        String token = store.create(user);
+
+        SessionStore.Session session = new SqliteSessionStore(60_000, now::get).find(token);
+        assertNotNull(session);
+        assertEquals(user.getId(), session.getUser().getId());
+        assertEquals(user.getUsername(), session.getUser().getUsername());
+        assertEquals("user", session.getUser().getRole());
+        assertNull(session.getUser().getPassword());
+        assertNull(store.find(token + "x"));
+    }
+
+    @Test
+    @DisplayName("Sessions expire unless renewed, and logging out ends them at once")
+    void testExpiryRenewalAndInvalidate() throws SQLException {
+        String kept = store.create(user);
+        String lapsed = store.create(user);
+
+        now.addAndGet(40_000);
+        assertEquals(kept, store.renew(store.find(kept)));
+        now.addAndGet(30_000);
+        assertNull(store.find(lapsed));
+        assertNotNull(store.find(kept));
+
+        store.invalidate(kept);
+        assertNull(store.find(kept));
+    }
+
+    @Test
+    @DisplayName("Deleting a user deletes their sessions")
+    void testCascade() throws SQLException {
+        String token = store.create(user);
+        SessionStore.Session session = store.find(token);
+        tearDown();
+        assertNull(store.find(token));
+        assertNull(store.renew(session));
+    }
+
+    @Test
+    @DisplayName("A role change applies to existing sessions")
+    void testRoleChange() throws SQLException {
+        String token = store.create(user);
+        try (Connection conn = DatabaseConnection.getWriteConnection();
+             PreparedStatement pstmt = conn.prepareStatement("UPDATE users SET role = 'staff' WHERE id = ?")) {
+            pstmt.setInt(1, user.getId());
+            pstmt.executeUpdate();
+        }
+
+        assertEquals("staff", store.find(token).getUser().getRole());
+    }
+}
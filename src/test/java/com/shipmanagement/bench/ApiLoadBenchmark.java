@@ -0,0 +1,431 @@
+package com.shipmanagement.bench;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.net.CookieManager;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.google.gson.GsonBuilder;
+import com.shipmanagement.DatabaseConnection;
+import com.shipmanagement.Main;
+import com.shipmanagement.metrics.LatencyHistogram;
+
+import spark.Spark;
+
+/**
+ * Load test for the whole API: boots Main in-process against a temporary
+ * database and drives a weighted mix of logins, ship paging, booking creation,
+ * task updates and staff listing from many concurrent sessions.
+ *
+ * Each session is a closed loop with its own cookie jar: it picks an operation
+ * by weight, waits for the response, optionally thinks, and repeats. Requests
+ * made during the warm-up are not counted. At the end it prints throughput and
+ * latency percentiles per operation and checks them against the SLOs; any
+ * breach makes the process exit with status 1, so the run can gate a build.
+ *
+ * Settings (system properties):
+ *   load.sessions     concurrent sessions (32)
+ *   load.durationSec  measured duration (30)
+ *   load.warmupSec    unmeasured warm-up (5)
+ *   load.thinkMs      pause between a session's requests (0)
+ *   load.mix          operation weights, e.g. "login=5,ships=35,bookings=15,tasks=15,staff=30"
+ *   load.slo          limits, e.g. "ships.p99=250,login.p95=1500,errors=0.01";
+ *                     latencies in milliseconds, errors as a fraction of requests
+ *   load.report       optional path for a JSON copy of the results
+ *
+ * Not a unit test; run it by hand:
+ *   mvn -q test-compile exec:java -Dexec.classpathScope=test \
+ *       -Dexec.mainClass=com.shipmanagement.bench.ApiLoadBenchmark
+ */
+public class ApiLoadBenchmark {
+
+    private static final int SESSIONS = Integer.getInteger("load.sessions", 32);
+    private static final int DURATION_SEC = Integer.getInteger("load.durationSec", 30);
+    private static final int WARMUP_SEC = Integer.getInteger("load.warmupSec", 5);
+    private static final long THINK_MS = Long.getLong("load.thinkMs", 0L);
+    private static final String MIX = System.getProperty("load.mix", "login=5,ships=35,bookings=15,tasks=15,staff=30");
+    private static final String SLO = System.getProperty("load.slo",
+        "login.p99=3000,ships.p99=250,bookings.p99=500,tasks.p99=500,staff.p99=500,errors=0.01");
+    private static final String REPORT = System.getProperty("load.report");
+
+    private static final String PASSWORD = "loadtest123";
+    private static final int SEED_SHIPS = 200;
+    private static final int SEED_TASKS = 500;
+
+    private enum Operation { LOGIN, SHIPS, BOOKINGS, TASKS, STAFF }
+
+    private static final class Stats {
+        final LatencyHistogram latency = new LatencyHistogram();
+        final LongAdder errors = new LongAdder();
+    }
+
+    private static final Map<Operation, Stats> stats = new EnumMap<>(Operation.class);
+    private static final AtomicBoolean measuring = new AtomicBoolean();
+    private static final AtomicBoolean running = new AtomicBoolean(true);
+    // Each booking gets its own day range, so bookings never overlap
+    private static final AtomicInteger nextBookingDay = new AtomicInteger();
+
+    private static String baseUrl;
+    private static List<Integer> shipIds;
+    private static int maxTaskId;
+
+    public static void main(String[] args) throws Exception {
+        Map<Operation, Integer> weights = parseMix(MIX);
+        Map<String, Double> slos = parseSlo(SLO);
+        for (Operation op : Operation.values()) {
+            stats.put(op, new Stats());
+        }
+
+        File dbFile = File.createTempFile("load-test", ".db");
+        int exitStatus = 0;
+        try {
+            start(dbFile);
+
+            List<Session> sessions = new ArrayList<>();
+            for (int i = 0; i < SESSIONS; i++) {
+                sessions.add(new Session(i, weights));
+            }
+            for (Session session : sessions) {
+                session.signUp();
+            }
+
+            List<Thread> threads = new ArrayList<>();
+            for (Session session : sessions) {
+                Thread t = new Thread(session::run, "load-session-" + session.index);
+                threads.add(t);
+                t.start();
+            }
+
+            TimeUnit.SECONDS.sleep(WARMUP_SEC);
+            measuring.set(true);
+            long begin = System.nanoTime();
+            TimeUnit.SECONDS.sleep(DURATION_SEC);
+            measuring.set(false);
+            double seconds = (System.nanoTime() - begin) / 1e9;
+            running.set(false);
+            for (Thread t : threads) {
+                t.join();
+            }
+
+            List<String> breaches = report(seconds, slos);
+            if (!breaches.isEmpty()) {
+                System.out.println();
+                System.out.println("SLO breaches:");
+                breaches.forEach(b -> System.out.println("  " + b));
+                exitStatus = 1;
+            } else {
+                System.out.println();
+                System.out.println("All SLOs met");
+            }
+        } finally {
+            Spark.stop();
+            Spark.awaitStop();
+            dbFile.delete();
+            new File(dbFile.getPath() + "-wal").delete();
+            new File(dbFile.getPath() + "-shm").delete();
+        }
+        // Non-zero when an SLO was breached; also stops Main's non-daemon threads
+        System.exit(exitStatus);
+    }
+
+    /**
+     * Points the app at the temporary database, seeds it and boots Main on a free port.
+     */
+    private static void start(File dbFile) throws Exception {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        baseUrl = "http://localhost:" + port;
+        System.setProperty("db.url", "jdbc:sqlite:" + dbFile.getAbsolutePath());
+        System.setProperty("server.port", String.valueOf(port));
+        // Every session logs in from loopback, which the per-IP throttle would otherwise cut off
+        System.setProperty("auth.throttle.ipAttempts", String.valueOf(Integer.MAX_VALUE));
+
+        seed();
+        Main.main(new String[0]);
+        Spark.awaitInitialization();
+
+        shipIds = new ArrayList<>();
+        for (Map<String, Object> ship : DatabaseConnection.getAllShips()) {
+            if ("Active".equals(ship.get("status"))) {
+                shipIds.add(((Number) ship.get("id")).intValue());
+            }
+        }
+        if (shipIds.isEmpty()) {
+            throw new IllegalStateException("No active ships to book");
+        }
+    }
+
+    private static void seed() throws SQLException {
+        try (Connection conn = DatabaseConnection.getWriteConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement pstmt = conn.prepareStatement(
+                    "INSERT INTO ships (name, type, capacity, status) VALUES (?, 'Cargo', ?, 'Active')")) {
+                for (int i = 0; i < SEED_SHIPS; i++) {
+                    pstmt.setString(1, "Load Vessel " + i);
+                    pstmt.setInt(2, 100 + i);
+                    pstmt.executeUpdate();
+                }
+            }
+            try (PreparedStatement pstmt = conn.prepareStatement(
+                    "INSERT INTO tasks (title, description, priority, status) VALUES (?, 'Seeded for the load test', 'medium', 'pending')")) {
+                for (int i = 0; i < SEED_TASKS; i++) {
+                    pstmt.setString(1, "Load task " + i);
+                    pstmt.executeUpdate();
+                }
+            }
+            conn.commit();
+            conn.setAutoCommit(true);
+        }
+        maxTaskId = SEED_TASKS;
+    }
+
+    private static final class Session {
+        final int index;
+        final String username;
+        final HttpClient client;
+        final Operation[] deck;
+        Integer cursor;
+
+        Session(int index, Map<Operation, Integer> weights) {
+            this.index = index;
+            this.username = "load" + index + "_" + System.nanoTime();
+            this.client = HttpClient.newBuilder()
+                .cookieHandler(new CookieManager())
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+
+            List<Operation> cards = new ArrayList<>();
+            weights.forEach((op, weight) -> {
+                for (int i = 0; i < weight; i++) {
+                    cards.add(op);
+                }
+            });
+            this.deck = cards.toArray(new Operation[0]);
+        }
+
+        // Admins, so task updates and the staff directory are permitted
+        void signUp() throws IOException, InterruptedException {
+            HttpResponse<String> res = send("POST", "/api/signup",
+                "{\"username\":\"" + username + "\",\"password\":\"" + PASSWORD + "\",\"role\":\"admin\"}");
+            if (res.statusCode() >= 300) {
+                throw new IllegalStateException("Signup failed: " + res.statusCode() + " " + res.body());
+            }
+            login();
+        }
+
+        void run() {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            while (running.get()) {
+                Operation op = deck[random.nextInt(deck.length)];
+                long start = System.nanoTime();
+                boolean ok;
+                try {
+                    ok = execute(op, random);
+                } catch (IOException e) {
+                    ok = false;
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                long elapsed = System.nanoTime() - start;
+                if (measuring.get()) {
+                    Stats s = stats.get(op);
+                    s.latency.record(elapsed);
+                    if (!ok) {
+                        s.errors.increment();
+                    }
+                }
+                if (THINK_MS > 0) {
+                    try {
+                        Thread.sleep(THINK_MS);
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+            }
+        }
+
+        boolean execute(Operation op, ThreadLocalRandom random) throws IOException, InterruptedException {
+            switch (op) {
+                case LOGIN:
+                    return login();
+                case SHIPS: {
+                    // Walk the keyset pages, starting over at the end
+                    String query = "/api/ships/cursor?pageSize=20" + (cursor == null ? "" : "&after=" + cursor);
+                    HttpResponse<String> res = send("GET", query, null);
+                    cursor = nextCursor(res.body());
+                    return res.statusCode() == 200;
+                }
+                case BOOKINGS: {
+                    int day = nextBookingDay.getAndAdd(2);
+                    LocalDate startDate = LocalDate.of(2030, 1, 1).plusDays(day);
+                    int shipId = shipIds.get(random.nextInt(shipIds.size()));
+                    String body = "{\"ship_id\":" + shipId + ",\"start_date\":\"" + startDate +
+                                  "\",\"end_date\":\"" + startDate.plusDays(1) + "\",\"purpose\":\"Load test\"}";
+                    return send("POST", "/api/bookings", body).statusCode() == 201;
+                }
+                case TASKS: {
+                    int taskId = 1 + random.nextInt(maxTaskId);
+                    String status = random.nextBoolean() ? "in_progress" : "pending";
+                    String body = "{\"title\":\"Load task " + taskId + "\",\"status\":\"" + status + "\"}";
+                    int code = send("PUT", "/api/tasks/" + taskId, body).statusCode();
+                    // Tasks seeded by the app itself may have been removed; a 404 is still a served request
+                    return code == 200 || code == 404;
+                }
+                case STAFF:
+                    return send("GET", "/api/staff", null).statusCode() == 200;
+                default:
+                    throw new IllegalStateException(op.name());
+            }
+        }
+
+        boolean login() throws IOException, InterruptedException {
+            return send("POST", "/api/login",
+                "{\"username\":\"" + username + "\",\"password\":\"" + PASSWORD + "\"}").statusCode() == 200;
+        }
+
+        HttpResponse<String> send(String method, String path, String body) throws IOException, InterruptedException {
+            HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(30))
+                .header("Content-Type", "application/json");
+            builder.method(method, body == null
+                ? HttpRequest.BodyPublishers.noBody()
+                : HttpRequest.BodyPublishers.ofString(body));
+            return client.send(builder.build(), HttpResponse.BodyHandlers.ofString());
+        }
+    }
+
+    // The id of the last ship on the page, or null to start over
+    private static Integer nextCursor(String body) {
+        if (body == null || !body.contains("\"hasMore\":true")) {
+            return null;
+        }
+        int key = body.lastIndexOf("\"nextCursor\":");
+        if (key < 0) {
+            return null;
+        }
+        int start = key + "\"nextCursor\":".length();
+        int end = start;
+        while (end < body.length() && Character.isDigit(body.charAt(end))) {
+            end++;
+        }
+        return end > start ? Integer.valueOf(body.substring(start, end)) : null;
+    }
+
+    private static List<String> report(double seconds, Map<String, Double> slos) throws IOException {
+        System.out.printf("%n%d sessions, %.0fs measured%n", SESSIONS, seconds);
+        System.out.printf("%-10s %9s %9s %8s %9s %9s %9s %9s%n",
+            "operation", "requests", "req/sec", "errors", "p50 ms", "p95 ms", "p99 ms", "max ms");
+
+        Map<String, Object> json = new LinkedHashMap<>();
+        List<String> breaches = new ArrayList<>();
+        long totalRequests = 0;
+        long totalErrors = 0;
+        for (Operation op : Operation.values()) {
+            Stats s = stats.get(op);
+            long count = s.latency.getCount();
+            long errors = s.errors.sum();
+            totalRequests += count;
+            totalErrors += errors;
+            String name = op.name().toLowerCase();
+            double p50 = s.latency.percentileNanos(50) / 1e6;
+            double p95 = s.latency.percentileNanos(95) / 1e6;
+            double p99 = s.latency.percentileNanos(99) / 1e6;
+            double max = s.latency.getMaxNanos() / 1e6;
+            System.out.printf("%-10s %9d %9.1f %8d %9.1f %9.1f %9.1f %9.1f%n",
+                name, count, count / seconds, errors, p50, p95, p99, max);
+
+            Map<String, Object> opJson = new LinkedHashMap<>();
+            opJson.put("requests", count);
+            opJson.put("throughput", count / seconds);
+            opJson.put("errors", errors);
+            opJson.put("p50Ms", p50);
+            opJson.put("p95Ms", p95);
+            opJson.put("p99Ms", p99);
+            opJson.put("maxMs", max);
+            json.put(name, opJson);
+
+            checkLatency(breaches, slos, name, "p50", p50);
+            checkLatency(breaches, slos, name, "p95", p95);
+            checkLatency(breaches, slos, name, "p99", p99);
+        }
+
+        double errorRate = totalRequests == 0 ? 1.0 : (double) totalErrors / totalRequests;
+        System.out.printf("%-10s %9d %9.1f %8d  (error rate %.2f%%)%n",
+            "total", totalRequests, totalRequests / seconds, totalErrors, errorRate * 100);
+        Double maxErrorRate = slos.get("errors");
+        if (maxErrorRate != null && errorRate > maxErrorRate) {
+            breaches.add(String.format("error rate %.2f%% > %.2f%%", errorRate * 100, maxErrorRate * 100));
+        }
+        if (totalRequests == 0) {
+            breaches.add("no requests completed");
+        }
+
+        if (REPORT != null) {
+            json.put("errorRate", errorRate);
+            json.put("breaches", breaches);
+            try (Writer out = new FileWriter(REPORT)) {
+                new GsonBuilder().setPrettyPrinting().create().toJson(json, out);
+            }
+        }
+        return breaches;
+    }
+
+    private static void checkLatency(List<String> breaches, Map<String, Double> slos,
+                                     String op, String percentile, double actualMs) {
+        Double limit = slos.get(op + "." + percentile);
+        if (limit != null && actualMs > limit) {
+            breaches.add(String.format("%s %s %.1fms > %.0fms", op, percentile, actualMs, limit));
+        }
+    }
+
+    private static Map<Operation, Integer> parseMix(String mix) {
+        Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.trim().split("=");
+            int weight = Integer.parseInt(parts[1].trim());
+            if (weight > 0) {
+                weights.put(Operation.valueOf(parts[0].trim().toUpperCase()), weight);
+            }
+        }
+        if (weights.isEmpty()) {
+            throw new IllegalArgumentException("load.mix has no operations: " + mix);
+        }
+        return weights;
+    }
+
+    private static Map<String, Double> parseSlo(String slo) {
+        Map<String, Double> limits = new LinkedHashMap<>();
+        if (slo.isBlank()) {
+            return limits;
+        }
+        for (String entry : slo.split(",")) {
+            String[] parts = entry.trim().split("=");
+            limits.put(parts[0].trim().toLowerCase(), Double.parseDouble(parts[1].trim()));
+        }
+        return limits;
+    }
+}
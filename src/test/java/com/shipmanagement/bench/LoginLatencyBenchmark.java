@@ -0,0 +1,226 @@
+package com.shipmanagement.bench;
+
+import java.io.File;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.mindrot.jbcrypt.BCrypt;
+import org.sqlite.SQLiteConfig;
+import org.sqlite.SQLiteDataSource;
+
+import com.shipmanagement.auth.PasswordHasher;
+import com.shipmanagement.db.ConnectionPool;
+
+/**
+ * Measures login latency and concurrent ship-list read latency during a burst of
+ * logins, with BCrypt run on the request threads versus on the bounded
+ * {@link PasswordHasher} pool.
+ *
+ * A fixed pool of "request threads" stands in for Jetty's; login and reader
+ * clients each submit one request at a time and wait for it, so queueing behind
+ * busy request threads shows up in the measured latency. Rejected logins (503)
+ * are counted separately and excluded from the login percentiles.
+ *
+ * Not a unit test; run it by hand:
+ *   mvn -q test-compile exec:java -Dexec.classpathScope=test \
+ *       -Dexec.mainClass=com.shipmanagement.bench.LoginLatencyBenchmark
+ */
+public class LoginLatencyBenchmark {
+
+    private static final int REQUEST_THREADS = Integer.getInteger("bench.requestThreads", 16);
+    private static final int LOGIN_CLIENTS = Integer.getInteger("bench.loginClients", 64);
+    private static final int LOGINS_PER_CLIENT = Integer.getInteger("bench.loginsPerClient", 4);
+    private static final int READ_CLIENTS = Integer.getInteger("bench.readClients", 8);
+
+    private static final String SHIPS_SQL = "SELECT * FROM ships ORDER BY id DESC LIMIT 20";
+    private static final String USER_SQL = "SELECT password FROM users WHERE username = ?";
+
+    private interface Verifier {
+        boolean verify(String password, String hashed);
+    }
+
+    public static void main(String[] args) throws Exception {
+        File dbFile = File.createTempFile("login-bench", ".db");
+        try (ConnectionPool pool = newPool(dbFile)) {
+            createSchema(pool);
+
+            System.out.printf("%-8s %10s %10s %10s %10s %12s%n",
+                "hashing", "login p50", "login p99", "rejected", "read p99", "reads/sec");
+            run(pool, "inline", BCrypt::checkpw, null);
+
+            int threads = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+            try (PasswordHasher hasher = new PasswordHasher(threads, 16, 5000, 10)) {
+                run(pool, "bounded", hasher::verify, hasher);
+            }
+        } finally {
+            dbFile.delete();
+            new File(dbFile.getPath() + "-wal").delete();
+            new File(dbFile.getPath() + "-shm").delete();
+        }
+    }
+
+    private static ConnectionPool newPool(File dbFile) throws SQLException {
+        // Same settings as DatabaseConnection
+        SQLiteConfig config = new SQLiteConfig();
+        config.setJournalMode(SQLiteConfig.JournalMode.WAL);
+        config.setSynchronous(SQLiteConfig.SynchronousMode.NORMAL);
+        config.setBusyTimeout(5000);
+        SQLiteDataSource dataSource = new SQLiteDataSource(config);
+        dataSource.setUrl("jdbc:sqlite:" + dbFile.getAbsolutePath());
+        return new ConnectionPool(dataSource, 4, 60_000);
+    }
+
+    private static void createSchema(ConnectionPool pool) throws SQLException {
+        try (Connection conn = pool.getWriteConnection();
+             Statement stmt = conn.createStatement()) {
+            stmt.execute("CREATE TABLE ships (id INTEGER PRIMARY KEY AUTOINCREMENT, name TEXT, type TEXT, status TEXT)");
+            stmt.execute("CREATE TABLE users (id INTEGER PRIMARY KEY AUTOINCREMENT, username TEXT UNIQUE, password TEXT)");
+            conn.setAutoCommit(false);
+            try (PreparedStatement pstmt = conn.prepareStatement(
+                    "INSERT INTO ships (name, type, status) VALUES (?, 'Cargo', 'Active')")) {
+                for (int i = 0; i < 1000; i++) {
+                    pstmt.setString(1, "Ship " + i);
+                    pstmt.executeUpdate();
+                }
+            }
+            try (PreparedStatement pstmt = conn.prepareStatement(
+                    "INSERT INTO users (username, password) VALUES ('crew', ?)")) {
+                pstmt.setString(1, BCrypt.hashpw("password", BCrypt.gensalt(10)));
+                pstmt.executeUpdate();
+            }
+            conn.commit();
+        }
+    }
+
+    private static void run(ConnectionPool pool, String label, Verifier verifier, PasswordHasher hasher)
+            throws InterruptedException {
+        ExecutorService requestThreads = Executors.newFixedThreadPool(REQUEST_THREADS);
+        List<Long> loginNanos = Collections.synchronizedList(new ArrayList<>());
+        List<Long> readNanos = Collections.synchronizedList(new ArrayList<>());
+        AtomicInteger rejected = new AtomicInteger();
+        AtomicBoolean loginsDone = new AtomicBoolean();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> clients = new ArrayList<>();
+
+        for (int i = 0; i < READ_CLIENTS; i++) {
+            clients.add(client(start, () -> {
+                while (!loginsDone.get()) {
+                    readNanos.add(timed(requestThreads, () -> readShips(pool)));
+                }
+            }));
+        }
+        List<Thread> loginClients = new ArrayList<>();
+        for (int i = 0; i < LOGIN_CLIENTS; i++) {
+            loginClients.add(client(start, () -> {
+                for (int n = 0; n < LOGINS_PER_CLIENT; n++) {
+                    try {
+                        loginNanos.add(timed(requestThreads, () -> login(pool, verifier)));
+                    } catch (PasswordHasher.SaturatedException e) {
+                        rejected.incrementAndGet();
+                    }
+                }
+            }));
+        }
+        clients.addAll(loginClients);
+
+        long begin = System.nanoTime();
+        start.countDown();
+        for (Thread t : loginClients) {
+            t.join();
+        }
+        loginsDone.set(true);
+        for (Thread t : clients) {
+            t.join();
+        }
+        double seconds = (System.nanoTime() - begin) / 1e9;
+        requestThreads.shutdown();
+        requestThreads.awaitTermination(10, TimeUnit.SECONDS);
+
+        System.out.printf("%-8s %8.1fms %8.1fms %10d %8.1fms %12.0f%n", label,
+            percentile(loginNanos, 50), percentile(loginNanos, 99), rejected.get(),
+            percentile(readNanos, 99), readNanos.size() / seconds);
+        if (hasher != null) {
+            System.out.println("  hasher: " + hasher.getStats());
+        }
+    }
+
+    private interface Body {
+        void run() throws Exception;
+    }
+
+    private static Thread client(CountDownLatch start, Body body) {
+        Thread t = new Thread(() -> {
+            try {
+                start.await();
+                body.run();
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+        });
+        t.start();
+        return t;
+    }
+
+    // Runs a request on the request pool and returns its latency, queueing included
+    private static long timed(ExecutorService requestThreads, Callable<?> request) throws Exception {
+        long begin = System.nanoTime();
+        try {
+            requestThreads.submit(request).get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+        return System.nanoTime() - begin;
+    }
+
+    private static int readShips(ConnectionPool pool) throws SQLException {
+        int rows = 0;
+        try (Connection conn = pool.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(SHIPS_SQL);
+             ResultSet rs = pstmt.executeQuery()) {
+            while (rs.next()) {
+                rs.getString("name");
+                rows++;
+            }
+        }
+        return rows;
+    }
+
+    private static boolean login(ConnectionPool pool, Verifier verifier) throws SQLException {
+        String hashed;
+        try (Connection conn = pool.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(USER_SQL)) {
+            pstmt.setString(1, "crew");
+            try (ResultSet rs = pstmt.executeQuery()) {
+                hashed = rs.next() ? rs.getString(1) : null;
+            }
+        }
+        return verifier.verify("password", hashed);
+    }
+
+    private static double percentile(List<Long> nanos, int percentile) {
+        if (nanos.isEmpty()) {
+            return 0;
+        }
+        List<Long> sorted = new ArrayList<>(nanos);
+        Collections.sort(sorted);
+        int index = (int) Math.ceil(percentile / 100.0 * sorted.size()) - 1;
+        return sorted.get(Math.max(0, index)) / 1e6;
+    }
+}
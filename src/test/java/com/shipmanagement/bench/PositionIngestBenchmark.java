@@ -0,0 +1,120 @@
+package com.shipmanagement.bench;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.StringReader;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.concurrent.ThreadLocalRandom;
+
+import com.shipmanagement.DatabaseConnection;
+import com.shipmanagement.telemetry.PositionIngester;
+
+/**
+ * Measures end-to-end position ingestion throughput (NDJSON parsing,
+ * buffering and batched inserts into ship_locations) for a few insert batch
+ * sizes, against a fresh temporary database. A batch size of 1 is the
+ * one-transaction-per-report baseline.
+ *
+ * Not a unit test; run it by hand:
+ *   mvn -q test-compile exec:java -Dexec.classpathScope=test \
+ *       -Dexec.mainClass=com.shipmanagement.bench.PositionIngestBenchmark
+ */
+public class PositionIngestBenchmark {
+
+    private static final int SHIPS = 200;
+    private static final int REPORTS = Integer.getInteger("bench.reports", 50_000);
+    private static final int LINES_PER_REQUEST = 1000;
+    private static final int[] BATCH_SIZES = {1, 500, 2000};
+
+    public static void main(String[] args) throws Exception {
+        File dbFile = File.createTempFile("ingest-bench", ".db");
+        System.setProperty("db.url", "jdbc:sqlite:" + dbFile.getAbsolutePath());
+        try {
+            seedShips();
+            String[] requests = buildRequests();
+
+            System.out.printf("%-10s %12s %12s%n", "batch", "reports/sec", "stored");
+            for (int batchSize : BATCH_SIZES) {
+                clearPositions();
+                // The one-report-per-transaction baseline is slow, so it gets a tenth of the reports
+                int requestCount = batchSize == 1 ? Math.max(1, requests.length / 10) : requests.length;
+
+                PositionIngester ingester = new PositionIngester(REPORTS, batchSize, 10);
+                long start = System.nanoTime();
+                for (int i = 0; i < requestCount; i++) {
+                    PositionIngester.Result result =
+                        ingester.ingest(new BufferedReader(new StringReader(requests[i])), LINES_PER_REQUEST);
+                    if (result.isOverloaded()) {
+                        throw new IllegalStateException("Buffer full; raise its capacity");
+                    }
+                }
+                ingester.awaitDrained(600_000);
+                double seconds = (System.nanoTime() - start) / 1e9;
+                ingester.close();
+
+                long stored = (Long) ingester.getStats().get("inserted");
+                System.out.printf("%-10d %12.0f %12d%n", batchSize, stored / seconds, stored);
+            }
+        } finally {
+            DatabaseConnection.shutdown();
+            dbFile.delete();
+            new File(dbFile.getPath() + "-wal").delete();
+            new File(dbFile.getPath() + "-shm").delete();
+        }
+    }
+
+    private static void seedShips() throws SQLException {
+        DatabaseConnection.write(conn -> {
+            try (PreparedStatement pstmt = conn.prepareStatement(
+                    "INSERT INTO ships (name, type, capacity, status) VALUES (?, 'Cargo', 1000, 'Active')")) {
+                for (int i = 0; i < SHIPS; i++) {
+                    pstmt.setString(1, "Bench Ship " + i);
+                    pstmt.addBatch();
+                }
+                return pstmt.executeBatch().length;
+            }
+        });
+    }
+
+    private static void clearPositions() throws SQLException {
+        try (Connection conn = DatabaseConnection.getWriteConnection();
+             PreparedStatement pstmt = conn.prepareStatement("DELETE FROM ship_locations")) {
+            pstmt.executeUpdate();
+        }
+    }
+
+    // NDJSON bodies of LINES_PER_REQUEST reports each, spread over every ship
+    private static String[] buildRequests() throws SQLException {
+        int[] shipIds = new int[SHIPS];
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement("SELECT id FROM ships ORDER BY id DESC LIMIT ?")) {
+            pstmt.setInt(1, SHIPS);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                for (int i = 0; rs.next(); i++) {
+                    shipIds[i] = rs.getInt(1);
+                }
+            }
+        }
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long time = Instant.parse("2024-05-01T00:00:00Z").toEpochMilli();
+        String[] requests = new String[(REPORTS + LINES_PER_REQUEST - 1) / LINES_PER_REQUEST];
+        int report = 0;
+        for (int r = 0; r < requests.length; r++) {
+            StringBuilder body = new StringBuilder(LINES_PER_REQUEST * 110);
+            for (int line = 0; line < LINES_PER_REQUEST && report < REPORTS; line++, report++) {
+                body.append("{\"ship_id\": ").append(shipIds[report % SHIPS])
+                    .append(", \"latitude\": ").append(random.nextDouble(-80, 80))
+                    .append(", \"longitude\": ").append(random.nextDouble(-179, 179))
+                    .append(", \"status\": \"at sea\", \"timestamp\": ").append(time + report * 100L)
+                    .append("}\n");
+            }
+            requests[r] = body.toString();
+        }
+        return requests;
+    }
+}
@@ -0,0 +1,131 @@
+package com.shipmanagement.bench;
+
+import java.lang.management.ManagementFactory;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.shipmanagement.db.RowMappers;
+
+/**
+ * Compares bytes allocated and time taken to materialize a task list through
+ * the old Map-per-row paths against the index-resolved typed mapper.
+ *
+ * Not a unit test; run it by hand:
+ *   mvn -q test-compile exec:java -Dexec.classpathScope=test \
+ *       -Dexec.mainClass=com.shipmanagement.bench.RowMappingBenchmark
+ */
+public class RowMappingBenchmark {
+
+    private static final int ROWS = Integer.getInteger("bench.rows", 5000);
+    private static final int ITERATIONS = Integer.getInteger("bench.iterations", 50);
+    private static final String SQL = "SELECT * FROM tasks ORDER BY id";
+
+    private interface Loader {
+        List<?> load(ResultSet rs) throws SQLException;
+    }
+
+    public static void main(String[] args) throws Exception {
+        com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+        try (Connection conn = DriverManager.getConnection("jdbc:sqlite::memory:")) {
+            populate(conn);
+
+            System.out.printf("%-22s %14s %12s%n", "path", "bytes/row", "us/row");
+            Loader[] loaders = {RowMappingBenchmark::mapByMetadata, RowMappingBenchmark::mapByName,
+                                rs -> RowMappers.toList(rs, RowMappers::task)};
+            String[] names = {"map (metadata per row)", "map (lookup by name)", "typed (resolved once)"};
+
+            for (int i = 0; i < loaders.length; i++) {
+                // Warm up so JIT compilation does not count against the first path
+                run(conn, loaders[i], ITERATIONS);
+
+                long threadId = Thread.currentThread().getId();
+                long bytesBefore = threads.getThreadAllocatedBytes(threadId);
+                long start = System.nanoTime();
+                run(conn, loaders[i], ITERATIONS);
+                long elapsed = System.nanoTime() - start;
+                long bytes = threads.getThreadAllocatedBytes(threadId) - bytesBefore;
+
+                long rows = (long) ROWS * ITERATIONS;
+                System.out.printf("%-22s %14.1f %12.3f%n", names[i], (double) bytes / rows, elapsed / 1000.0 / rows);
+            }
+        }
+    }
+
+    private static void run(Connection conn, Loader loader, int iterations) throws SQLException {
+        for (int i = 0; i < iterations; i++) {
+            try (PreparedStatement pstmt = conn.prepareStatement(SQL);
+                 ResultSet rs = pstmt.executeQuery()) {
+                if (loader.load(rs).size() != ROWS) {
+                    throw new IllegalStateException("Unexpected row count");
+                }
+            }
+        }
+    }
+
+    private static void populate(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("CREATE TABLE tasks (id INTEGER PRIMARY KEY, title TEXT, description TEXT, status TEXT, " +
+                         "priority TEXT, assigned_to INTEGER, assigned_by INTEGER, ship_id INTEGER, due_date TEXT, " +
+                         "created_at TEXT, updated_at TEXT)");
+        }
+        try (PreparedStatement pstmt = conn.prepareStatement(
+                "INSERT INTO tasks VALUES (?, ?, ?, 'pending', 'medium', ?, 1, ?, '2025-07-15', " +
+                "'2025-01-01 10:00:00', '2025-01-02 10:00:00')")) {
+            for (int i = 1; i <= ROWS; i++) {
+                pstmt.setInt(1, i);
+                pstmt.setString(2, "Task " + i);
+                pstmt.setString(3, "Description for task " + i);
+                pstmt.setInt(4, i % 20);
+                pstmt.setInt(5, i % 5);
+                pstmt.addBatch();
+            }
+            pstmt.executeBatch();
+        }
+    }
+
+    // What resultSetToList used to do
+    private static List<Map<String, Object>> mapByMetadata(ResultSet rs) throws SQLException {
+        List<Map<String, Object>> list = new ArrayList<>();
+        ResultSetMetaData metaData = rs.getMetaData();
+        int columnCount = metaData.getColumnCount();
+        while (rs.next()) {
+            Map<String, Object> row = new HashMap<>();
+            for (int i = 1; i <= columnCount; i++) {
+                row.put(metaData.getColumnName(i), rs.getObject(i));
+            }
+            list.add(row);
+        }
+        return list;
+    }
+
+    // What getAllTasks used to do
+    private static List<Map<String, Object>> mapByName(ResultSet rs) throws SQLException {
+        List<Map<String, Object>> tasks = new ArrayList<>();
+        while (rs.next()) {
+            Map<String, Object> task = new HashMap<>();
+            task.put("id", rs.getInt("id"));
+            task.put("title", rs.getString("title"));
+            task.put("description", rs.getString("description"));
+            task.put("status", rs.getString("status"));
+            task.put("assigned_to", rs.getObject("assigned_to"));
+            task.put("assigned_by", rs.getInt("assigned_by"));
+            task.put("ship_id", rs.getObject("ship_id"));
+            task.put("due_date", rs.getString("due_date"));
+            task.put("created_at", rs.getString("created_at"));
+            task.put("updated_at", rs.getString("updated_at"));
+            tasks.add(task);
+        }
+        return tasks;
+    }
+}
@@ -0,0 +1,126 @@
+package com.shipmanagement.bench;
+
+import java.io.File;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.sqlite.SQLiteConfig;
+import org.sqlite.SQLiteDataSource;
+
+import com.shipmanagement.db.ConnectionPool;
+import com.shipmanagement.db.WriteQueue;
+
+/**
+ * Compares booking-insert throughput of one autocommit transaction per write
+ * against the group-commit write queue, at 1, 8 and 64 concurrent writers.
+ *
+ * Not a unit test; run it by hand:
+ *   mvn -q test-compile exec:java -Dexec.classpathScope=test \
+ *       -Dexec.mainClass=com.shipmanagement.bench.WriteThroughputBenchmark
+ */
+public class WriteThroughputBenchmark {
+
+    private static final String INSERT_SQL =
+        "INSERT INTO bookings (ship_id, user_id, start_date, end_date, purpose, status) VALUES (?, ?, ?, ?, ?, ?)";
+    private static final int WRITES_PER_RUN = Integer.getInteger("bench.writes", 5000);
+    private static final int[] WRITER_COUNTS = {1, 8, 64};
+
+    private interface Writer {
+        void write(int n) throws SQLException;
+    }
+
+    public static void main(String[] args) throws Exception {
+        System.out.printf("%-8s %-14s %12s%n", "writers", "path", "writes/sec");
+        for (int writers : WRITER_COUNTS) {
+            for (boolean grouped : new boolean[] {false, true}) {
+                File dbFile = File.createTempFile("write-bench", ".db");
+                try (ConnectionPool pool = newPool(dbFile);
+                     WriteQueue queue = new WriteQueue(pool, 64, 0)) {
+                    createSchema(pool);
+
+                    Writer writer = grouped
+                        ? n -> queue.execute(conn -> insert(conn, n))
+                        : n -> {
+                            try (Connection conn = pool.getWriteConnection()) {
+                                insert(conn, n);
+                            }
+                        };
+
+                    double perSecond = run(writers, writer);
+                    System.out.printf("%-8d %-14s %12.0f%n", writers, grouped ? "group-commit" : "autocommit", perSecond);
+                } finally {
+                    dbFile.delete();
+                    new File(dbFile.getPath() + "-wal").delete();
+                    new File(dbFile.getPath() + "-shm").delete();
+                }
+            }
+        }
+    }
+
+    private static ConnectionPool newPool(File dbFile) throws SQLException {
+        // Same settings as DatabaseConnection
+        SQLiteConfig config = new SQLiteConfig();
+        config.setJournalMode(SQLiteConfig.JournalMode.WAL);
+        config.setSynchronous(SQLiteConfig.SynchronousMode.NORMAL);
+        config.setBusyTimeout(5000);
+        SQLiteDataSource dataSource = new SQLiteDataSource(config);
+        dataSource.setUrl("jdbc:sqlite:" + dbFile.getAbsolutePath());
+        return new ConnectionPool(dataSource, 4, 60_000);
+    }
+
+    private static void createSchema(ConnectionPool pool) throws SQLException {
+        try (Connection conn = pool.getWriteConnection();
+             Statement stmt = conn.createStatement()) {
+            stmt.execute("CREATE TABLE bookings (id INTEGER PRIMARY KEY AUTOINCREMENT, ship_id INTEGER, " +
+                         "user_id INTEGER, start_date TEXT, end_date TEXT, purpose TEXT, status TEXT)");
+        }
+    }
+
+    private static int insert(Connection conn, int n) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(INSERT_SQL)) {
+            pstmt.setInt(1, n % 10);
+            pstmt.setInt(2, n % 7);
+            pstmt.setString(3, "2025-01-01");
+            pstmt.setString(4, "2025-01-02");
+            pstmt.setString(5, "benchmark");
+            pstmt.setString(6, "Pending");
+            return pstmt.executeUpdate();
+        }
+    }
+
+    private static double run(int writers, Writer writer) throws InterruptedException {
+        AtomicInteger next = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+
+        for (int i = 0; i < writers; i++) {
+            Thread t = new Thread(() -> {
+                try {
+                    start.await();
+                    int n;
+                    while ((n = next.getAndIncrement()) < WRITES_PER_RUN) {
+                        writer.write(n);
+                    }
+                } catch (Exception e) {
+                    e.printStackTrace();
+                }
+            });
+            t.start();
+            threads.add(t);
+        }
+
+        long begin = System.nanoTime();
+        start.countDown();
+        for (Thread t : threads) {
+            t.join();
+        }
+        double seconds = (System.nanoTime() - begin) / 1e9;
+        return WRITES_PER_RUN / seconds;
+    }
+}
@@ -0,0 +1,113 @@
+package com.shipmanagement.bench.jmh;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import com.shipmanagement.DatabaseConnection;
+
+/**
+ * Generates the SQLite database the JMH benchmarks run against.
+ *
+ * DatabaseConnection reads -Ddb.url once, when the class is first used, so
+ * {@link #create} must run before anything else touches it. JMH runs each
+ * parameter combination in a fresh fork, so every trial gets its own file.
+ */
+final class BenchmarkDatabase {
+
+    private static final String[] SHIP_TYPES = {"Cargo", "Tanker", "Container", "Passenger", "Ferry"};
+    private static final String[] SHIP_STATUSES = {"Active", "Maintenance", "Docked", "Inactive"};
+    private static final String[] ROLES = {"captain", "engineer", "deckhand", "officer", "cook"};
+    private static final String[] TASK_STATUSES = {"pending", "accepted", "in_progress", "completed"};
+
+    private static File file;
+
+    private BenchmarkDatabase() {
+    }
+
+    /**
+     * Points DatabaseConnection at a new temporary database and fills it with
+     * the given number of ships and staff, plus two tasks per staff member.
+     */
+    static synchronized void create(int ships, int staff) throws SQLException {
+        if (file != null) {
+            throw new IllegalStateException("Benchmark database already created: " + file);
+        }
+        try {
+            file = File.createTempFile("jmh-ships", ".db");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        file.deleteOnExit();
+        new File(file.getPath() + "-wal").deleteOnExit();
+        new File(file.getPath() + "-shm").deleteOnExit();
+        System.setProperty("db.url", "jdbc:sqlite:" + file.getAbsolutePath());
+
+        try (Connection conn = DatabaseConnection.getWriteConnection();
+             Statement stmt = conn.createStatement()) {
+            // tasks.assigned_to holds staff ids but references users; not under test here
+            stmt.execute("PRAGMA foreign_keys = OFF");
+            conn.setAutoCommit(false);
+            try {
+                insertShips(conn, ships);
+                insertStaff(conn, staff, ships);
+                conn.commit();
+            } finally {
+                conn.setAutoCommit(true);
+                stmt.execute("PRAGMA foreign_keys = ON");
+            }
+        }
+    }
+
+    private static void insertShips(Connection conn, int count) throws SQLException {
+        String sql = "INSERT INTO ships (name, type, capacity, status) VALUES (?, ?, ?, ?)";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            for (int i = 0; i < count; i++) {
+                pstmt.setString(1, "Vessel " + i);
+                pstmt.setString(2, SHIP_TYPES[i % SHIP_TYPES.length]);
+                pstmt.setInt(3, 100 + (i * 37) % 5000);
+                pstmt.setString(4, SHIP_STATUSES[i % SHIP_STATUSES.length]);
+                pstmt.executeUpdate();
+            }
+        }
+    }
+
+    private static void insertStaff(Connection conn, int count, int ships) throws SQLException {
+        String staffSql = "INSERT INTO staff (first_name, last_name, username, password, role, status, ship_id, email) " +
+                          "VALUES (?, ?, ?, 'x', ?, ?, ?, ?)";
+        String taskSql = "INSERT INTO tasks (title, assigned_to, ship_id, status) VALUES (?, ?, ?, ?)";
+        try (PreparedStatement staffStmt = conn.prepareStatement(staffSql, Statement.RETURN_GENERATED_KEYS);
+             PreparedStatement taskStmt = conn.prepareStatement(taskSql)) {
+            for (int i = 0; i < count; i++) {
+                // Every fifth staff member is unassigned
+                Integer shipId = ships == 0 || i % 5 == 0 ? null : 1 + i % ships;
+                staffStmt.setString(1, "First" + i);
+                staffStmt.setString(2, "Last" + i);
+                staffStmt.setString(3, "crew" + i);
+                staffStmt.setString(4, ROLES[i % ROLES.length]);
+                staffStmt.setString(5, i % 10 == 0 ? "inactive" : "active");
+                staffStmt.setObject(6, shipId);
+                staffStmt.setString(7, "crew" + i + "@example.com");
+                staffStmt.executeUpdate();
+
+                int staffId;
+                try (ResultSet keys = staffStmt.getGeneratedKeys()) {
+                    keys.next();
+                    staffId = keys.getInt(1);
+                }
+                for (int t = 0; t < 2; t++) {
+                    taskStmt.setString(1, "Task " + i + "-" + t);
+                    taskStmt.setInt(2, staffId);
+                    taskStmt.setObject(3, shipId);
+                    taskStmt.setString(4, TASK_STATUSES[(i + t) % TASK_STATUSES.length]);
+                    taskStmt.executeUpdate();
+                }
+            }
+        }
+    }
+}
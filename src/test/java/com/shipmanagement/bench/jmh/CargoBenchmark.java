@@ -0,0 +1,61 @@
+package com.shipmanagement.bench.jmh;
+
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.shipmanagement.Cargo;
+
+/**
+ * Cargo.addItem followed by Cargo.removeItem of the same amount, against a
+ * manifest already holding the given number of distinct items, and loading
+ * that manifest back with Cargo.load. Both item calls include their writes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CargoBenchmark {
+
+    @Param({"10", "1000", "10000"})
+    public int items;
+
+    private Cargo cargo;
+    private String lastItem;
+
+    @Setup
+    public void setUp() throws SQLException {
+        BenchmarkDatabase.create(0, 0);
+        cargo = new Cargo("BENCH-1", "Benchmark", Double.MAX_VALUE);
+        for (int i = 0; i < items; i++) {
+            cargo.addItem("item-" + i, 10, 1.0);
+        }
+        // The last item added; the worst case for a scan by name
+        lastItem = "item-" + (items - 1);
+    }
+
+    @Benchmark
+    public Cargo load() throws SQLException {
+        return Cargo.load("BENCH-1");
+    }
+
+    @Benchmark
+    public double addThenRemove() {
+        cargo.addItem(lastItem, 1, 1.0);
+        cargo.removeItem(lastItem, 1, 1.0);
+        return cargo.getUsedCapacity();
+    }
+}
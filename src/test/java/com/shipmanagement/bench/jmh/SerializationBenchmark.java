@@ -0,0 +1,81 @@
+package com.shipmanagement.bench.jmh;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.shipmanagement.model.Staff;
+
+/**
+ * Gson serialization of Staff and Ship lists, as the list endpoints produce
+ * them. No database involved.
+ *
+ * Ships are serialized as the column maps the /api/ships routes in Main return.
+ * model.Ship cannot go through the reflective adapter on JDK 17+, because its
+ * LocalDate field needs access to java.time internals.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializationBenchmark {
+
+    @Param({"1000"})
+    public int size;
+
+    // Same configuration as Main
+    private final Gson gson = new GsonBuilder().create();
+    private List<Staff> staff;
+    private List<Map<String, Object>> ships;
+
+    @Setup
+    public void setUp() {
+        staff = new ArrayList<>(size);
+        ships = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Staff member = new Staff(i + 1, "First" + i, "Last" + i, "crew" + i, null,
+                                     "engineer", "active", i % 5 == 0 ? null : i % 100 + 1,
+                                     "crew" + i + "@example.com", "+1555000" + i);
+            member.setShipName("Vessel " + i % 100);
+            member.setTaskCount(i % 7);
+            staff.add(member);
+
+            Map<String, Object> ship = new LinkedHashMap<>();
+            ship.put("id", i + 1);
+            ship.put("name", "Vessel " + i);
+            ship.put("type", "Cargo");
+            ship.put("capacity", 100 + i);
+            ship.put("status", "Active");
+            ship.put("created_at", "2024-01-01 00:00:00");
+            ships.add(ship);
+        }
+    }
+
+    @Benchmark
+    public String staffList() {
+        return gson.toJson(staff);
+    }
+
+    @Benchmark
+    public String shipList() {
+        return gson.toJson(ships);
+    }
+}
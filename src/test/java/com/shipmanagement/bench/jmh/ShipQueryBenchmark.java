@@ -0,0 +1,73 @@
+package com.shipmanagement.bench.jmh;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.shipmanagement.DatabaseConnection;
+import com.shipmanagement.dao.ShipDAO;
+import com.shipmanagement.db.RowMappers;
+import com.shipmanagement.model.Ship;
+
+/**
+ * Ship list reads: a page through ShipDAO, and the whole table materialized as
+ * maps the way DatabaseConnection.resultSetToList does it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ShipQueryBenchmark {
+
+    @Param({"1000"})
+    public int ships;
+
+    @Param({"50"})
+    public int pageSize;
+
+    private ShipDAO shipDAO;
+
+    @Setup
+    public void setUp() throws SQLException {
+        BenchmarkDatabase.create(ships, 0);
+        shipDAO = new ShipDAO();
+    }
+
+    @Benchmark
+    public List<Ship> getAllShipsFirstPage() throws SQLException {
+        return shipDAO.getAllShips(1, pageSize);
+    }
+
+    @Benchmark
+    public List<Ship> getAllShipsLastPage() throws SQLException {
+        return shipDAO.getAllShips(Math.max(1, ships / pageSize), pageSize);
+    }
+
+    // RowMappers.map is what DatabaseConnection.resultSetToList delegates to
+    @Benchmark
+    public List<Map<String, Object>> resultSetToList() throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement("SELECT * FROM ships");
+             ResultSet rs = pstmt.executeQuery()) {
+            return RowMappers.toList(rs, RowMappers::map);
+        }
+    }
+}
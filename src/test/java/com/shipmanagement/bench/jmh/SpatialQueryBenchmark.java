@@ -0,0 +1,127 @@
+package com.shipmanagement.bench.jmh;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.shipmanagement.telemetry.PositionGrid;
+import com.shipmanagement.telemetry.PositionReport;
+
+/**
+ * Radius ("ships within 50 nm of this port") and bounding-box queries over the
+ * latest positions, through the grid index and as a full scan with haversine.
+ * No database involved.
+ *
+ * Most ships are clustered around 50 ports and the rest spread over the globe,
+ * which is closer to real traffic than a uniform spread. Each call queries
+ * around the next port in turn.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SpatialQueryBenchmark {
+
+    private static final int PORTS = 50;
+    private static final double RADIUS_NM = 50;
+
+    @Param({"10000", "100000"})
+    public int positions;
+
+    @Param({"1.0"})
+    public double cellDegrees;
+
+    private PositionGrid grid;
+    private List<PositionReport> all;
+    private double[][] ports;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        ports = new double[PORTS][];
+        for (int i = 0; i < PORTS; i++) {
+            ports[i] = new double[] {random.nextDouble() * 120 - 60, random.nextDouble() * 360 - 180};
+        }
+
+        grid = new PositionGrid(cellDegrees);
+        all = new ArrayList<>(positions);
+        for (int id = 1; id <= positions; id++) {
+            double latitude;
+            double longitude;
+            if (id % 5 == 0) {
+                latitude = random.nextDouble() * 160 - 80;
+                longitude = random.nextDouble() * 360 - 180;
+            } else {
+                double[] port = ports[id % PORTS];
+                latitude = Math.max(-90, Math.min(90, port[0] + random.nextGaussian() * 2));
+                longitude = Math.max(-180, Math.min(180, port[1] + random.nextGaussian() * 2));
+            }
+            PositionReport report = new PositionReport(id, latitude, longitude, "at sea", null, 0);
+            grid.put(report);
+            all.add(report);
+        }
+    }
+
+    private double[] nextPort() {
+        next = (next + 1) % PORTS;
+        return ports[next];
+    }
+
+    @Benchmark
+    public int gridNear() {
+        double[] port = nextPort();
+        return grid.near(port[0], port[1], RADIUS_NM, Integer.MAX_VALUE).size();
+    }
+
+    @Benchmark
+    public int scanNear() {
+        double[] port = nextPort();
+        List<PositionReport> found = new ArrayList<>();
+        for (PositionReport report : all) {
+            if (PositionGrid.distanceNm(port[0], port[1], report.getLatitude(), report.getLongitude()) <= RADIUS_NM) {
+                found.add(report);
+            }
+        }
+        return found.size();
+    }
+
+    @Benchmark
+    public int gridBox() {
+        double[] port = nextPort();
+        return grid.within(Math.max(-90, port[0] - 1), Math.max(-180, port[1] - 1.5),
+                           Math.min(90, port[0] + 1), Math.min(180, port[1] + 1.5), Integer.MAX_VALUE).size();
+    }
+
+    @Benchmark
+    public int scanBox() {
+        double[] port = nextPort();
+        double minLat = port[0] - 1;
+        double maxLat = port[0] + 1;
+        double minLon = port[1] - 1.5;
+        double maxLon = port[1] + 1.5;
+        List<PositionReport> found = new ArrayList<>();
+        for (PositionReport report : all) {
+            if (report.getLatitude() >= minLat && report.getLatitude() <= maxLat
+                    && report.getLongitude() >= minLon && report.getLongitude() <= maxLon) {
+                found.add(report);
+            }
+        }
+        return found.size();
+    }
+}
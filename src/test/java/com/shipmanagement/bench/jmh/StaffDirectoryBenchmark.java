@@ -0,0 +1,62 @@
+package com.shipmanagement.bench.jmh;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.shipmanagement.model.Staff;
+import com.shipmanagement.service.StaffService;
+
+/**
+ * StaffService.getFilteredStaff with no filters, a role/status filter and a
+ * name search. Each call loads the full directory before filtering.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StaffDirectoryBenchmark {
+
+    @Param({"1000"})
+    public int staff;
+
+    @Param({"100"})
+    public int ships;
+
+    private StaffService staffService;
+
+    @Setup
+    public void setUp() throws SQLException {
+        BenchmarkDatabase.create(ships, staff);
+        staffService = new StaffService();
+    }
+
+    @Benchmark
+    public List<Staff> unfiltered() {
+        return staffService.getFilteredStaff(null, null, null, false, null);
+    }
+
+    @Benchmark
+    public List<Staff> byRoleAndStatus() {
+        return staffService.getFilteredStaff("active", "engineer", null, false, null);
+    }
+
+    @Benchmark
+    public List<Staff> search() {
+        return staffService.getFilteredStaff(null, null, null, false, "last12");
+    }
+}
@@ -0,0 +1,124 @@
+package com.shipmanagement.booking;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for booking conflict detection; the database writes are stubbed
+ */
+public class BookingCalendarTest {
+
+    private static final int SHIP = 7;
+
+    private final BookingCalendar calendar = new BookingCalendar();
+    private final AtomicInteger nextId = new AtomicInteger(100);
+
+    private int book(int shipId, String start, String end) throws SQLException {
+        return calendar.reserve(shipId, LocalDate.parse(start), LocalDate.parse(end), nextId::incrementAndGet);
+    }
+
+    @Test
+    @DisplayName("Overlapping bookings for the same ship are rejected")
+    void testOverlapRejected() throws SQLException {
+        int first = book(SHIP, "2025-07-01", "2025-07-10");
+
+        BookingCalendar.ConflictException e = assertThrows(BookingCalendar.ConflictException.class,
+            () -> book(SHIP, "2025-07-10", "2025-07-12"));
+        assertEquals(first, e.getConflictingBookingId());
+    }
+
+    @Test
+    @DisplayName("Back-to-back bookings and other ships are accepted")
+    void testNonOverlapping() throws SQLException {
+        book(SHIP, "2025-07-01", "2025-07-10");
+
+        book(SHIP, "2025-07-11", "2025-07-20");
+        book(SHIP + 1, "2025-07-05", "2025-07-06");
+        assertEquals(3, calendar.getStats().get("bookings"));
+    }
+
+    @Test
+    @DisplayName("A failed insert leaves nothing in the index")
+    void testFailedInsert() throws SQLException {
+        calendar.reserve(SHIP, LocalDate.parse("2025-07-01"), LocalDate.parse("2025-07-10"), () -> -1);
+
+        book(SHIP, "2025-07-01", "2025-07-10");
+    }
+
+    @Test
+    @DisplayName("Cancelling frees the dates and re-approving checks them again")
+    void testStatusChanges() throws SQLException {
+        LocalDate start = LocalDate.parse("2025-07-01");
+        LocalDate end = LocalDate.parse("2025-07-10");
+        int first = book(SHIP, "2025-07-01", "2025-07-10");
+
+        calendar.changeStatus(first, SHIP, start, end, "Cancelled", () -> 1);
+        int second = book(SHIP, "2025-07-05", "2025-07-08");
+
+        BookingCalendar.ConflictException e = assertThrows(BookingCalendar.ConflictException.class,
+            () -> calendar.changeStatus(first, SHIP, start, end, "Approved", () -> 1));
+        assertEquals(second, e.getConflictingBookingId());
+
+        calendar.remove(second);
+        assertEquals(1, calendar.changeStatus(first, SHIP, start, end, "Approved", () -> 1));
+        assertEquals(first, calendar.findConflict(SHIP, start, start));
+    }
+
+    @Test
+    @DisplayName("Dates ending before they start are refused")
+    void testInvalidRange() {
+        assertThrows(IllegalArgumentException.class, () -> book(SHIP, "2025-07-10", "2025-07-01"));
+        assertThrows(IllegalArgumentException.class, () -> BookingCalendar.parseDate("next tuesday"));
+    }
+
+    @Test
+    @DisplayName("Only one of many concurrent overlapping requests succeeds")
+    void testConcurrentReservations() throws Exception {
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger booked = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        try {
+            Future<?>[] futures = new Future<?>[threads];
+            for (int i = 0; i < threads; i++) {
+                String startDate = "2025-08-0" + (1 + i % 3);
+                futures[i] = executor.submit(() -> {
+                    start.await();
+                    try {
+                        calendar.reserve(SHIP, LocalDate.parse(startDate), LocalDate.parse("2025-08-05"), () -> {
+                            // Widen the window between check and index update
+                            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(5));
+                            return nextId.incrementAndGet();
+                        });
+                        booked.incrementAndGet();
+                    } catch (BookingCalendar.ConflictException e) {
+                        rejected.incrementAndGet();
+                    }
+                    return null;
+                });
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(1, booked.get());
+        assertEquals(threads - 1, rejected.get());
+    }
+}
@@ -0,0 +1,87 @@
+package com.shipmanagement.booking;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for the augmented interval tree behind the booking calendar
+ */
+public class IntervalTreeTest {
+
+    @Test
+    @DisplayName("Closed intervals overlap when they share an endpoint")
+    void testEndpoints() {
+        IntervalTree tree = new IntervalTree();
+        tree.insert(1, 10, 20);
+
+        assertEquals(1, tree.findOverlap(20, 25));
+        assertEquals(1, tree.findOverlap(5, 10));
+        assertEquals(1, tree.findOverlap(12, 13));
+        assertEquals(-1, tree.findOverlap(21, 30));
+        assertEquals(-1, tree.findOverlap(0, 9));
+    }
+
+    @Test
+    @DisplayName("A long interval on the left is found past shorter ones")
+    void testLongIntervalOnTheLeft() {
+        IntervalTree tree = new IntervalTree();
+        tree.insert(1, 0, 1000);
+        for (int i = 0; i < 50; i++) {
+            tree.insert(100 + i, 2000 + i * 10, 2005 + i * 10);
+        }
+
+        assertEquals(1, tree.findOverlap(500, 600));
+    }
+
+    @Test
+    @DisplayName("Removing an interval frees its range")
+    void testRemove() {
+        IntervalTree tree = new IntervalTree();
+        tree.insert(1, 10, 20);
+        tree.insert(2, 30, 40);
+
+        assertTrue(tree.remove(1, 10));
+        assertFalse(tree.remove(1, 10));
+        assertEquals(-1, tree.findOverlap(15, 15));
+        assertEquals(2, tree.findOverlap(35, 50));
+        assertEquals(1, tree.size());
+    }
+
+    @Test
+    @DisplayName("Lookups agree with a linear scan through random inserts and removals")
+    void testAgainstLinearScan() {
+        Random random = new Random(42);
+        IntervalTree tree = new IntervalTree();
+        List<long[]> live = new ArrayList<>();
+
+        for (int step = 0; step < 5000; step++) {
+            if (!live.isEmpty() && random.nextInt(3) == 0) {
+                long[] removed = live.remove(random.nextInt(live.size()));
+                assertTrue(tree.remove((int) removed[0], removed[1]));
+            } else {
+                long start = random.nextInt(10_000);
+                long[] added = {step, start, start + random.nextInt(50)};
+                tree.insert(step, added[1], added[2]);
+                live.add(added);
+            }
+
+            long queryStart = random.nextInt(10_000);
+            long queryEnd = queryStart + random.nextInt(30);
+            boolean expected = live.stream().anyMatch(i -> i[1] <= queryEnd && queryStart <= i[2]);
+            int found = tree.findOverlap(queryStart, queryEnd);
+            assertEquals(expected, found >= 0, "step " + step);
+            if (found >= 0) {
+                long[] hit = live.stream().filter(i -> i[0] == found).findFirst().orElseThrow();
+                assertTrue(hit[1] <= queryEnd && queryStart <= hit[2]);
+            }
+        }
+        assertEquals(live.size(), tree.size());
+    }
+}
@@ -0,0 +1,101 @@
+package com.shipmanagement.cache;
+
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for the bounded read-through cache behind the ship cache
+ */
+public class TtlCacheTest {
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private String load(Integer key) {
+        loads.incrementAndGet();
+        return "value" + key;
+    }
+
+    @Test
+    @DisplayName("Repeated reads are served from the cache")
+    void testHits() throws SQLException {
+        TtlCache<Integer, String> cache = new TtlCache<>(10, 60_000);
+
+        assertEquals("value1", cache.get(1, this::load));
+        assertEquals("value1", cache.get(1, this::load));
+        assertEquals("value1", cache.get(1, this::load));
+
+        assertEquals(1, loads.get());
+        assertEquals(2L, cache.getStats().get("hits"));
+        assertEquals(1L, cache.getStats().get("misses"));
+    }
+
+    @Test
+    @DisplayName("The least recently used entry is evicted at capacity")
+    void testSizeEviction() throws SQLException {
+        TtlCache<Integer, String> cache = new TtlCache<>(2, 60_000);
+        cache.get(1, this::load);
+        cache.get(2, this::load);
+        cache.get(1, this::load);
+        cache.get(3, this::load);
+
+        assertEquals(2, cache.size());
+        assertEquals(1L, cache.getStats().get("evictions"));
+
+        // 1 was touched last, so 2 went
+        cache.get(1, this::load);
+        cache.get(2, this::load);
+        assertEquals(4, loads.get());
+    }
+
+    @Test
+    @DisplayName("Expired entries are reloaded")
+    void testTtlExpiry() throws Exception {
+        TtlCache<Integer, String> cache = new TtlCache<>(10, 20);
+        cache.get(1, this::load);
+        Thread.sleep(50);
+        cache.get(1, this::load);
+
+        assertEquals(2, loads.get());
+        assertEquals(1L, cache.getStats().get("expirations"));
+    }
+
+    @Test
+    @DisplayName("Invalidation forces the next read to load")
+    void testInvalidate() throws SQLException {
+        TtlCache<Integer, String> cache = new TtlCache<>(10, 60_000);
+        cache.get(1, this::load);
+        cache.invalidate(1);
+        cache.get(1, this::load);
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    @DisplayName("A load racing an invalidation is not cached")
+    void testLoadRacingInvalidation() throws SQLException {
+        TtlCache<Integer, String> cache = new TtlCache<>(10, 60_000);
+
+        // The row is written and invalidated while the first load is in flight
+        assertEquals("stale", cache.get(1, key -> {
+            cache.invalidate(key);
+            return "stale";
+        }));
+
+        assertEquals("value1", cache.get(1, this::load));
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    @DisplayName("Missing rows are not cached")
+    void testNullNotCached() throws SQLException {
+        TtlCache<Integer, String> cache = new TtlCache<>(10, 60_000);
+
+        assertNull(cache.get(1, key -> null));
+        assertEquals(0, cache.size());
+    }
+}
@@ -0,0 +1,175 @@
+package com.shipmanagement.dao;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.AfterEach;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.shipmanagement.DatabaseConnection;
+import com.shipmanagement.model.SearchResult;
+import com.shipmanagement.model.Staff;
+import com.shipmanagement.model.User;
+
+/**
+ * Integration tests for the full-text search index, the triggers that keep it in sync
+ * and the per-user visibility of tasks and problem reports
+ */
+public class SearchDAOTest {
+
+    private final SearchDAO searchDAO = new SearchDAO();
+    private final StaffDAO staffDAO = new StaffDAO();
+    // A word no other row contains, so results only come from this test's rows
+    private final String word = "xyl" + Long.toString(System.nanoTime(), 36);
+    private int staffId;
+    private int taskId;
+    private User admin;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        Staff staff = new Staff();
+        staff.setFirstName("Marguerite");
+        staff.setLastName(word);
+        staff.setUsername("search_test_" + word);
+        staff.setPassword("x");
+        staff.setRole("crew");
+        staff.setStatus("active");
+        staffId = staffDAO.createStaff(staff);
+        assertTrue(staffId > 0);
+        admin = new User();
+        admin.setRole("admin");
+
+        try (Connection conn = DatabaseConnection.getWriteConnection();
+             PreparedStatement pstmt = conn.prepareStatement(
+                 "INSERT INTO tasks (title, description) VALUES (?, ?)", Statement.RETURN_GENERATED_KEYS)) {
+            pstmt.setString(1, "Inspect ballast pumps");
+            pstmt.setString(2, "Check the " + word + " valve on the port side");
+            pstmt.executeUpdate();
+            try (ResultSet keys = pstmt.getGeneratedKeys()) {
+                keys.next();
+                taskId = keys.getInt(1);
+            }
+        }
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        execute("DELETE FROM tasks WHERE id = ?", taskId);
+        staffDAO.deleteStaff(staffId);
+    }
+
+    private void execute(String sql, int id) throws SQLException {
+        try (Connection conn = DatabaseConnection.getWriteConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setInt(1, id);
+            pstmt.executeUpdate();
+        }
+    }
+
+    private int insert(String sql, String text, int userId) throws SQLException {
+        try (Connection conn = DatabaseConnection.getWriteConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+            pstmt.setString(1, text);
+            pstmt.setInt(2, userId);
+            pstmt.executeUpdate();
+            try (ResultSet keys = pstmt.getGeneratedKeys()) {
+                keys.next();
+                return keys.getInt(1);
+            }
+        }
+    }
+
+    private User createUser(String name) {
+        assertTrue(DatabaseConnection.createUser(name + "_" + word, "secret123", "user"));
+        return DatabaseConnection.getUserByUsername(name + "_" + word);
+    }
+
+    @Test
+    @DisplayName("Free text becomes quoted prefix terms")
+    void testMatchQuery() {
+        assertEquals("\"eng\"* \"smi\"*", SearchDAO.toMatchQuery("eng smi"));
+        assertEquals("\"o\"* \"brien\"* \"NEAR\"*", SearchDAO.toMatchQuery("  o'brien NEAR( "));
+        assertNull(SearchDAO.toMatchQuery(" *\"- "));
+        assertNull(SearchDAO.toMatchQuery(null));
+    }
+
+    @Test
+    @DisplayName("Prefixes find rows across tables, title matches first")
+    void testRankedPrefixSearch() throws SQLException {
+        List<SearchResult> results = searchDAO.search(word.substring(0, 6), null, 10, 0, admin);
+
+        assertEquals(2, results.size());
+        // The staff row has the word in its title, the task only in its description
+        assertEquals("staff", results.get(0).getType());
+        assertEquals(staffId, results.get(0).getId());
+        assertEquals("task", results.get(1).getType());
+        assertEquals(taskId, results.get(1).getId());
+        assertTrue(results.get(0).getScore() > results.get(1).getScore());
+        assertTrue(results.get(1).getSnippet().contains("[" + word + "]"));
+
+        // Every word has to match
+        assertEquals(1, searchDAO.search("marg " + word, null, 10, 0, admin).size());
+        assertEquals(List.of(), searchDAO.search("ballast " + word, Set.of("staff"), 10, 0, admin));
+        assertEquals(1, searchDAO.search(word, null, 10, 1, admin).size());
+    }
+
+    @Test
+    @DisplayName("Updates and deletes are reflected in the index")
+    void testTriggersKeepIndexInSync() throws SQLException {
+        assertEquals(Set.of(taskId), searchDAO.findIds("task", word));
+
+        execute("UPDATE tasks SET description = 'Nothing to see' WHERE id = ?", taskId);
+        assertEquals(Set.of(), searchDAO.findIds("task", word));
+
+        Staff staff = staffDAO.getStaffById(staffId);
+        staff.setLastName("Renamed");
+        staff.setFirstName(word);
+        assertTrue(staffDAO.updateStaff(staff));
+        assertEquals(Set.of(staffId), searchDAO.findIds("staff", word));
+        assertEquals(Set.of(staffId), searchDAO.findIds("staff", "renam"));
+
+        assertTrue(staffDAO.deleteStaff(staffId));
+        assertEquals(Set.of(), searchDAO.findIds("staff", word));
+    }
+
+    @Test
+    @DisplayName("Non-admins only find their own tasks and problem reports")
+    void testSearchIsScopedToViewer() throws SQLException {
+        User owner = createUser("search_owner");
+        User other = createUser("search_other");
+        int ownTask = insert("INSERT INTO tasks (title, description, assigned_to) VALUES ('Chart update', ?, ?)",
+                             "Update " + word + " charts", owner.getId());
+        int ownReport = insert("INSERT INTO problem_reports (title, description, reported_by) VALUES ('Leak', ?, ?)",
+                               "Leak near " + word, owner.getId());
+        try {
+            assertEquals(4, searchDAO.search(word, null, 10, 0, admin).size());
+
+            Set<String> seenByOwner = new HashSet<>();
+            for (SearchResult result : searchDAO.search(word, null, 10, 0, owner)) {
+                seenByOwner.add(result.getType() + ":" + result.getId());
+            }
+            assertEquals(Set.of("staff:" + staffId, "task:" + ownTask, "problem_report:" + ownReport), seenByOwner);
+
+            List<SearchResult> seenByOther = searchDAO.search(word, null, 10, 0, other);
+            assertEquals(1, seenByOther.size());
+            assertEquals("staff", seenByOther.get(0).getType());
+            assertEquals(List.of(), searchDAO.search(word, Set.of("task", "problem_report"), 10, 0, other));
+        } finally {
+            execute("DELETE FROM problem_reports WHERE id = ?", ownReport);
+            execute("DELETE FROM tasks WHERE id = ?", ownTask);
+            execute("DELETE FROM users WHERE id = ?", owner.getId());
+            execute("DELETE FROM users WHERE id = ?", other.getId());
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.shipmanagement.dao;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.AfterEach;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.shipmanagement.CargoShip;
+import com.shipmanagement.model.Ship;
+
+/**
+ * Integration tests for keyset pagination, the cached ship count and the ship cache
+ */
+public class ShipDAOTest {
+
+    private final ShipDAO shipDAO = new ShipDAO();
+    private final List<Integer> createdIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        String prefix = "TEST-KEYSET-" + System.nanoTime() + "-";
+        for (int i = 0; i < 5; i++) {
+            Ship ship = new Ship();
+            ship.setName("Keyset Test " + i);
+            ship.setImoNumber(prefix + i);
+            ship.setType("Cargo");
+            ship.setStatus("Active");
+            ship.setCapacity(100);
+            assertTrue(shipDAO.addShip(ship));
+            createdIds.add(ship.getId());
+        }
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        for (int id : createdIds) {
+            shipDAO.deleteShip(id);
+        }
+    }
+
+    @Test
+    @DisplayName("Walking the cursor visits every ship once, newest first")
+    void testCursorWalk() throws SQLException {
+        Set<Integer> seen = new HashSet<>();
+        Integer after = null;
+        int previous = Integer.MAX_VALUE;
+
+        while (true) {
+            List<Ship> page = shipDAO.getShipsAfter(after, 2);
+            if (page.isEmpty()) {
+                break;
+            }
+            for (Ship ship : page) {
+                assertTrue(ship.getId() < previous, "Ships must come back in descending id order");
+                assertTrue(seen.add(ship.getId()), "Ship returned twice: " + ship.getId());
+                previous = ship.getId();
+            }
+            after = page.get(page.size() - 1).getId();
+        }
+
+        assertTrue(seen.containsAll(createdIds));
+        assertEquals(shipDAO.getShipCount(), seen.size());
+    }
+
+    @Test
+    @DisplayName("Cached count follows inserts and deletes")
+    void testCachedCount() throws SQLException {
+        int before = shipDAO.getShipCount();
+
+        assertTrue(shipDAO.deleteShip(createdIds.remove(0)));
+        assertEquals(before - 1, shipDAO.getShipCount());
+
+        // Deleting something that is not there leaves the count alone
+        shipDAO.deleteShip(-1);
+        assertEquals(before - 1, shipDAO.getShipCount());
+
+        ShipDAO.invalidateShipCount();
+        assertEquals(before - 1, shipDAO.getShipCount());
+    }
+
+    @Test
+    @DisplayName("Deleting through the legacy Ship model keeps the cached count current")
+    void testLegacyDeleteUpdatesCount() throws SQLException {
+        int before = shipDAO.getShipCount();
+
+        com.shipmanagement.Ship legacy = new CargoShip("Rotterdam", "Hamburg", null);
+        legacy.setId(createdIds.remove(0));
+        legacy.delete();
+
+        assertEquals(before - 1, shipDAO.getShipCount());
+    }
+
+    @Test
+    @DisplayName("Cached ships are refreshed after an update and dropped after a delete")
+    void testShipCacheInvalidation() throws SQLException {
+        int id = createdIds.get(0);
+        Ship ship = shipDAO.getShipById(id);
+
+        // Callers get a copy, so this must not leak into the cache
+        ship.setName("Changed locally");
+        assertEquals("Keyset Test 0", shipDAO.getShipById(id).getName());
+
+        ship.setName("Renamed");
+        assertTrue(shipDAO.updateShip(ship));
+        assertEquals("Renamed", shipDAO.getShipById(id).getName());
+
+        assertTrue(shipDAO.deleteShip(createdIds.remove(0)));
+        assertNull(shipDAO.getShipById(id));
+    }
+}
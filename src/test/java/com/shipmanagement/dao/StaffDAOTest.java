@@ -0,0 +1,183 @@
+package com.shipmanagement.dao;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.AfterEach;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.shipmanagement.DatabaseConnection;
+import com.shipmanagement.model.Ship;
+import com.shipmanagement.model.Staff;
+
+/**
+ * Integration tests for the single-query staff directory
+ */
+public class StaffDAOTest {
+
+    private final StaffDAO staffDAO = new StaffDAO();
+    private final ShipDAO shipDAO = new ShipDAO();
+    private int shipId;
+    private int staffId;
+    private int existingTaskCount;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        String suffix = String.valueOf(System.nanoTime());
+
+        Ship ship = new Ship();
+        ship.setName("Directory Test Ship");
+        ship.setImoNumber("TEST-DIR-" + suffix);
+        ship.setType("Cargo");
+        ship.setCapacity(100);
+        assertTrue(shipDAO.addShip(ship));
+        shipId = ship.getId();
+
+        Staff staff = new Staff();
+        staff.setFirstName("Dora");
+        staff.setLastName("Directory");
+        staff.setUsername("dir_test_" + suffix);
+        staff.setPassword("x");
+        staff.setRole("crew");
+        staff.setStatus("active");
+        staff.setShipId(shipId);
+        staffId = staffDAO.createStaff(staff);
+        assertTrue(staffId > 0);
+        
+        // Older rows may already point at this id (assigned_to is shared with user ids)
+        existingTaskCount = staffDAO.getStaffDirectoryEntry(staffId).getTaskCount();
+
+        // tasks.assigned_to is declared against users(id) but holds staff ids in practice
+        try (Connection conn = DatabaseConnection.getWriteConnection();
+             Statement stmt = conn.createStatement();
+             PreparedStatement pstmt = conn.prepareStatement(
+                 "INSERT INTO tasks (title, status, assigned_to) VALUES (?, ?, ?)")) {
+            stmt.execute("PRAGMA foreign_keys = OFF");
+            try {
+                for (String status : new String[] {"pending", "in_progress", "completed", "Cancelled"}) {
+                    pstmt.setString(1, "Directory task");
+                    pstmt.setString(2, status);
+                    pstmt.setInt(3, staffId);
+                    pstmt.executeUpdate();
+                }
+            } finally {
+                stmt.execute("PRAGMA foreign_keys = ON");
+            }
+        }
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        try (Connection conn = DatabaseConnection.getWriteConnection();
+             PreparedStatement pstmt = conn.prepareStatement(
+                 "DELETE FROM tasks WHERE assigned_to = ? AND title = 'Directory task'")) {
+            pstmt.setInt(1, staffId);
+            pstmt.executeUpdate();
+        }
+        staffDAO.deleteStaff(staffId);
+        shipDAO.deleteShip(shipId);
+    }
+
+    @Test
+    @DisplayName("Directory rows carry ship name and open task count")
+    void testDirectoryAggregate() {
+        Staff entry = staffDAO.getStaffDirectory().stream()
+            .filter(s -> s.getId() == staffId)
+            .findFirst()
+            .orElse(null);
+
+        assertNotNull(entry);
+        assertEquals("Directory Test Ship", entry.getShipName());
+        // Only the pending and in_progress tasks are open
+        assertEquals(existingTaskCount + 2, entry.getTaskCount());
+    }
+
+    @Test
+    @DisplayName("Single directory entry matches the list")
+    void testDirectoryEntry() {
+        Staff entry = staffDAO.getStaffDirectoryEntry(staffId);
+
+        assertNotNull(entry);
+        assertEquals("Dora", entry.getFirstName());
+        assertEquals(existingTaskCount + 2, entry.getTaskCount());
+    }
+
+    @Test
+    @DisplayName("Entries for a set of ids load only those staff, skipping unknown ids")
+    void testDirectoryEntries() {
+        List<Staff> entries = staffDAO.getStaffDirectoryEntries(Set.of(staffId, Integer.MAX_VALUE));
+
+        assertEquals(1, entries.size());
+        assertEquals(staffId, entries.get(0).getId());
+        assertEquals("Directory Test Ship", entries.get(0).getShipName());
+        assertEquals(existingTaskCount + 2, entries.get(0).getTaskCount());
+        assertTrue(staffDAO.getStaffDirectoryEntries(Set.of()).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Directory entries break task counts down by status")
+    void testCountsByStatus() {
+        Staff entry = staffDAO.getStaffDirectoryEntry(staffId);
+
+        assertNotNull(entry);
+        assertTrue(entry.getTaskCountsByStatus().get("pending") >= 1);
+        assertTrue(entry.getTaskCountsByStatus().get("in_progress") >= 1);
+        assertTrue(entry.getTaskCountsByStatus().get("completed") >= 1);
+    }
+
+    private static int recount(int assignee) throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement("SELECT COUNT(*) FROM tasks WHERE assigned_to = ?")) {
+            pstmt.setInt(1, assignee);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                rs.next();
+                return rs.getInt(1);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Task counters follow add, reassignment, completion and deletion")
+    void testCountersFollowTaskWrites() throws SQLException {
+        // addTask goes through the foreign key on users(id), so assign to user ids
+        int first;
+        int second;
+        try (Connection conn = DatabaseConnection.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT id FROM users ORDER BY id LIMIT 2")) {
+            assertTrue(rs.next());
+            first = rs.getInt(1);
+            assertTrue(rs.next());
+            second = rs.getInt(1);
+        }
+        int firstCount = DatabaseConnection.countStaffTasks(first);
+        int secondCount = DatabaseConnection.countStaffTasks(second);
+
+        int taskId = DatabaseConnection.addTask("Counter task", null, "In Progress", first, first, null, null);
+        assertTrue(taskId > 0);
+        assertEquals(firstCount + 1, DatabaseConnection.countStaffTasks(first));
+
+        assertTrue(DatabaseConnection.updateTask(taskId, "Counter task", null, "in_progress", second, null, null));
+        assertEquals(firstCount, DatabaseConnection.countStaffTasks(first));
+        assertEquals(secondCount + 1, DatabaseConnection.countStaffTasks(second));
+
+        assertTrue(DatabaseConnection.completeTask(taskId));
+        assertEquals(secondCount + 1, DatabaseConnection.countStaffTasks(second));
+        assertEquals(recount(second), DatabaseConnection.countStaffTasks(second));
+
+        assertTrue(DatabaseConnection.deleteTask(taskId));
+        assertEquals(secondCount, DatabaseConnection.countStaffTasks(second));
+        assertEquals(recount(first), DatabaseConnection.countStaffTasks(first));
+        assertEquals(recount(second), DatabaseConnection.countStaffTasks(second));
+    }
+}
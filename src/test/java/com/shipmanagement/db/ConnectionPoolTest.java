@@ -0,0 +1,119 @@
+package com.shipmanagement.db;
+
+import java.io.File;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.sqlite.SQLiteConfig;
+import org.sqlite.SQLiteDataSource;
+
+/**
+ * Tests for the bounded SQLite connection pool
+ */
+public class ConnectionPoolTest {
+
+    private File dbFile;
+    private ConnectionPool pool;
+
+    @BeforeEach
+    void setUp() throws IOException, SQLException {
+        dbFile = File.createTempFile("pool-test", ".db");
+
+        SQLiteConfig config = new SQLiteConfig();
+        config.setJournalMode(SQLiteConfig.JournalMode.WAL);
+        SQLiteDataSource dataSource = new SQLiteDataSource(config);
+        dataSource.setUrl("jdbc:sqlite:" + dbFile.getAbsolutePath());
+
+        // Two readers and a short timeout so exhaustion is quick to observe
+        pool = new ConnectionPool(dataSource, 2, 200);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.close();
+        dbFile.delete();
+        new File(dbFile.getPath() + "-wal").delete();
+        new File(dbFile.getPath() + "-shm").delete();
+    }
+
+    @Test
+    @DisplayName("Closing a pooled connection returns it to the pool")
+    void testCloseReturnsConnection() throws SQLException {
+        for (int i = 0; i < 10; i++) {
+            try (Connection conn = pool.getConnection()) {
+                assertFalse(conn.isClosed());
+            }
+        }
+
+        Map<String, Object> stats = pool.getStats();
+        assertEquals(10L, stats.get("readerAcquisitions"));
+        assertEquals(0, stats.get("readersInUse"));
+    }
+
+    @Test
+    @DisplayName("Exhausted pool times out instead of opening new connections")
+    void testReaderExhaustion() throws SQLException {
+        Connection first = pool.getConnection();
+        Connection second = pool.getConnection();
+
+        assertThrows(SQLException.class, () -> pool.getConnection());
+        assertEquals(1L, pool.getStats().get("timeouts"));
+
+        first.close();
+        second.close();
+    }
+
+    @Test
+    @DisplayName("Writer connection is reentrant for the owning thread")
+    void testWriterReentrant() throws SQLException {
+        try (Connection outer = pool.getWriteConnection()) {
+            try (Connection inner = pool.getWriteConnection();
+                 Statement stmt = inner.createStatement()) {
+                stmt.execute("CREATE TABLE t (id INTEGER)");
+            }
+            // The outer handle must still be usable after the inner one is released
+            assertFalse(outer.isClosed());
+            assertTrue((Boolean) pool.getStats().get("writerInUse"));
+        }
+        assertFalse((Boolean) pool.getStats().get("writerInUse"));
+    }
+
+    @Test
+    @DisplayName("Abandoned transactions are rolled back on release")
+    void testTransactionResetOnRelease() throws SQLException {
+        try (Connection conn = pool.getWriteConnection();
+             Statement stmt = conn.createStatement()) {
+            stmt.execute("CREATE TABLE t (id INTEGER)");
+            conn.setAutoCommit(false);
+            stmt.execute("INSERT INTO t VALUES (1)");
+            // Closed without commit
+        }
+
+        try (Connection conn = pool.getWriteConnection();
+             Statement stmt = conn.createStatement()) {
+            assertTrue(conn.getAutoCommit());
+            assertEquals(0, stmt.executeQuery("SELECT COUNT(*) FROM t").getInt(1));
+        }
+    }
+
+    @Test
+    @DisplayName("Released handle cannot be used again")
+    void testUseAfterClose() throws SQLException {
+        Connection conn = pool.getConnection();
+        conn.close();
+
+        assertTrue(conn.isClosed());
+        assertThrows(SQLException.class, conn::createStatement);
+    }
+}
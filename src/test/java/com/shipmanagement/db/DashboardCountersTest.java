@@ -0,0 +1,163 @@
+package com.shipmanagement.db;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.shipmanagement.DatabaseConnection;
+
+/**
+ * Integration tests for the trigger-maintained dashboard counts
+ */
+public class DashboardCountersTest {
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        DashboardCounters.rebuild();
+    }
+
+    private static int insert(String sql, Object... params) throws SQLException {
+        try (Connection conn = DatabaseConnection.getWriteConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+            for (int i = 0; i < params.length; i++) {
+                pstmt.setObject(i + 1, params[i]);
+            }
+            pstmt.executeUpdate();
+            try (ResultSet keys = pstmt.getGeneratedKeys()) {
+                keys.next();
+                return keys.getInt(1);
+            }
+        }
+    }
+
+    private static void execute(String sql, Object... params) throws SQLException {
+        DatabaseConnection.write(conn -> {
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                for (int i = 0; i < params.length; i++) {
+                    pstmt.setObject(i + 1, params[i]);
+                }
+                return pstmt.executeUpdate();
+            }
+        });
+    }
+
+    private static Map<String, Long> storedCounts() throws SQLException {
+        Map<String, Long> counts = new TreeMap<>();
+        try (Connection conn = DatabaseConnection.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT metric, key, count FROM dashboard_counts WHERE count <> 0")) {
+            while (rs.next()) {
+                counts.put(rs.getString(1) + "/" + rs.getString(2), rs.getLong(3));
+            }
+        }
+        return counts;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static long count(String group, String field, String key) throws SQLException {
+        Map<String, Object> section = (Map<String, Object>) DashboardCounters.summary().get(group);
+        return ((Map<String, Long>) section.get(field)).getOrDefault(key, 0L);
+    }
+
+    private static long value(String group, String field) throws SQLException {
+        return (Long) ((Map<?, ?>) DashboardCounters.summary().get(group)).get(field);
+    }
+
+    @Test
+    @DisplayName("Inserts, status changes and deletes keep the counts equal to a full recount")
+    void testTriggersMatchRecount() throws SQLException {
+        long available = value("docks", "available");
+        long openHigh = count("problems", "open_by_severity", "high");
+        long resolved = count("problems", "by_status", "resolved");
+
+        int dockId = insert("INSERT INTO docks (name, location, status) VALUES ('Counter Dock', 'Nowhere', 'Available')");
+        int problemId = insert("INSERT INTO problem_reports (title, description, reported_by, severity) " +
+                               "VALUES ('Counter problem', 'x', 1, 'high')");
+        assertEquals(available + 1, value("docks", "available"));
+        assertEquals(openHigh + 1, count("problems", "open_by_severity", "high"));
+
+        execute("UPDATE problem_reports SET status = 'resolved' WHERE id = ?", problemId);
+        assertEquals(openHigh, count("problems", "open_by_severity", "high"));
+        assertEquals(resolved + 1, count("problems", "by_status", "resolved"));
+
+        execute("UPDATE docks SET status = 'occupied' WHERE id = ?", dockId);
+        execute("UPDATE docks SET location = 'Elsewhere' WHERE id = ?", dockId);
+        assertEquals(available, value("docks", "available"));
+
+        Map<String, Long> maintained = storedCounts();
+        DashboardCounters.rebuild();
+        assertEquals(storedCounts(), maintained);
+
+        execute("DELETE FROM docks WHERE id = ?", dockId);
+        execute("DELETE FROM problem_reports WHERE id = ?", problemId);
+        assertEquals(resolved, count("problems", "by_status", "resolved"));
+
+        maintained = storedCounts();
+        DashboardCounters.rebuild();
+        assertEquals(storedCounts(), maintained);
+    }
+
+    @Test
+    @DisplayName("Spellings of a status that differ in case, spaces or underscores share one count")
+    void testNormalizedKeys() throws SQLException {
+        long underRepair = count("docks", "by_status", "under_repair");
+
+        int first = insert("INSERT INTO docks (name, location, status) VALUES ('Key Dock 1', 'Nowhere', 'Under Repair')");
+        int second = insert("INSERT INTO docks (name, location, status) VALUES ('Key Dock 2', 'Nowhere', 'under_repair')");
+        assertEquals(underRepair + 2, count("docks", "by_status", "under_repair"));
+        assertEquals(0, count("docks", "by_status", "under repair"));
+
+        // A change of spelling alone moves nothing
+        execute("UPDATE docks SET status = ' UNDER REPAIR ' WHERE id = ?", first);
+        assertEquals(underRepair + 2, count("docks", "by_status", "under_repair"));
+
+        Map<String, Long> maintained = storedCounts();
+        DashboardCounters.rebuild();
+        assertEquals(storedCounts(), maintained);
+
+        execute("DELETE FROM docks WHERE id IN (?, ?)", first, second);
+        assertEquals(underRepair, count("docks", "by_status", "under_repair"));
+    }
+
+    @Test
+    @DisplayName("Problems count as open whatever the spelling of their status")
+    void testOpenProblemSpellings() throws SQLException {
+        long openHigh = count("problems", "open_by_severity", "high");
+
+        int problemId = insert("INSERT INTO problem_reports (title, description, reported_by, severity, status) " +
+                               "VALUES ('Spelling problem', 'x', 1, 'high', 'In Progress')");
+        assertEquals(openHigh + 1, count("problems", "open_by_severity", "high"));
+
+        execute("UPDATE problem_reports SET status = ' OPEN ' WHERE id = ?", problemId);
+        assertEquals(openHigh + 1, count("problems", "open_by_severity", "high"));
+
+        Map<String, Long> maintained = storedCounts();
+        DashboardCounters.rebuild();
+        assertEquals(storedCounts(), maintained);
+
+        execute("UPDATE problem_reports SET status = 'Resolved' WHERE id = ?", problemId);
+        assertEquals(openHigh, count("problems", "open_by_severity", "high"));
+        execute("DELETE FROM problem_reports WHERE id = ?", problemId);
+    }
+
+    @Test
+    @DisplayName("The summary is served from memory until a count moves")
+    void testSnapshotReuse() throws SQLException {
+        Map<String, Object> first = DashboardCounters.summary();
+        assertSame(first, DashboardCounters.summary());
+
+        // Not a counted column, so nothing moves
+        execute("UPDATE docks SET location = location WHERE id = (SELECT MIN(id) FROM docks)");
+        assertSame(first, DashboardCounters.summary());
+    }
+}
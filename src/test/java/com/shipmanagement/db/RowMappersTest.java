@@ -0,0 +1,110 @@
+package com.shipmanagement.db;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import com.shipmanagement.model.ProblemReport;
+import com.shipmanagement.model.Task;
+
+/**
+ * Tests for the index-resolved row mappers
+ */
+public class RowMappersTest {
+
+    private Connection conn;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        conn = DriverManager.getConnection("jdbc:sqlite::memory:");
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("CREATE TABLE tasks (id INTEGER PRIMARY KEY, title TEXT, status TEXT, " +
+                         "assigned_to INTEGER, assigned_by INTEGER, ship_id INTEGER, created_at TEXT)");
+            stmt.execute("INSERT INTO tasks VALUES (1, 'Paint hull', 'pending', 7, 2, NULL, '2025-01-01')");
+            stmt.execute("INSERT INTO tasks VALUES (2, 'Check engine', 'completed', NULL, 2, 3, '2025-01-02')");
+        }
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        conn.close();
+    }
+
+    @Test
+    @DisplayName("Task rows map by position and keep SQL NULL as null")
+    void testTaskMapping() throws SQLException {
+        List<Task> tasks;
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT t.*, 'Sea Star' AS ship_name FROM tasks t ORDER BY id")) {
+            tasks = RowMappers.toList(rs, RowMappers::task);
+        }
+
+        assertEquals(2, tasks.size());
+        assertEquals("Paint hull", tasks.get(0).getTitle());
+        assertEquals(Integer.valueOf(7), tasks.get(0).getAssignedTo());
+        assertNull(tasks.get(0).getShipId());
+        assertNull(tasks.get(1).getAssignedTo());
+        assertEquals(Integer.valueOf(3), tasks.get(1).getShipId());
+        assertEquals("Sea Star", tasks.get(1).getShipName());
+        // Not selected by this query
+        assertNull(tasks.get(0).getUpdatedAt());
+    }
+
+    @Test
+    @DisplayName("Columns missing from the query do not fail the mapping")
+    void testMissingColumns() throws SQLException {
+        List<ProblemReport> problems;
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT id, title, status FROM tasks")) {
+            problems = RowMappers.toList(rs, RowMappers::problemReport);
+        }
+
+        assertEquals(2, problems.size());
+        assertNull(problems.get(0).getPriority());
+        assertEquals(0, problems.get(0).getReportedBy());
+    }
+
+    @Test
+    @DisplayName("Typed rows serialize with the API's snake_case keys")
+    void testJsonKeys() throws SQLException {
+        List<Task> tasks;
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT * FROM tasks WHERE id = 1")) {
+            tasks = RowMappers.toList(rs, RowMappers::task);
+        }
+
+        JsonObject json = new Gson().toJsonTree(tasks.get(0)).getAsJsonObject();
+        assertEquals(7, json.get("assigned_to").getAsInt());
+        assertEquals("2025-01-01", json.get("created_at").getAsString());
+        assertFalse(json.has("ship_id"));
+    }
+
+    @Test
+    @DisplayName("Generic map mapper keys rows by column label")
+    void testMapMapper() throws SQLException {
+        List<Map<String, Object>> rows;
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT id, title AS name FROM tasks ORDER BY id")) {
+            rows = RowMappers.toList(rs, RowMappers::map);
+        }
+
+        assertEquals(2, rows.size());
+        assertTrue(rows.get(0).containsKey("name"));
+        assertEquals("Check engine", rows.get(1).get("name"));
+    }
+}
@@ -0,0 +1,126 @@
+package com.shipmanagement.db;
+
+import java.io.File;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import org.junit.jupiter.api.AfterEach;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.sqlite.SQLiteDataSource;
+
+/**
+ * Tests for the versioned schema migrations and the index set they manage
+ */
+public class SchemaMigratorTest {
+
+    private File dbFile;
+    private Connection conn;
+    private SchemaMigrator migrator;
+
+    @BeforeEach
+    void setUp() throws IOException, SQLException {
+        dbFile = File.createTempFile("migration-test", ".db");
+        SQLiteDataSource dataSource = new SQLiteDataSource();
+        dataSource.setUrl("jdbc:sqlite:" + dbFile.getAbsolutePath());
+        conn = dataSource.getConnection();
+        migrator = new SchemaMigrator(Migrations.all());
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        conn.close();
+        dbFile.delete();
+    }
+
+    private String queryPlan(String sql) throws SQLException {
+        StringBuilder plan = new StringBuilder();
+        try (PreparedStatement pstmt = conn.prepareStatement("EXPLAIN QUERY PLAN " + sql)) {
+            int params = pstmt.getParameterMetaData().getParameterCount();
+            for (int i = 1; i <= params; i++) {
+                pstmt.setInt(i, 1);
+            }
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    plan.append(rs.getString("detail")).append('\n');
+                }
+            }
+        }
+        return plan.toString();
+    }
+
+    private void assertUsesIndex(String index, String sql) throws SQLException {
+        String plan = queryPlan(sql);
+        assertTrue(plan.contains(index), "Expected " + index + " in plan:\n" + plan);
+    }
+
+    @Test
+    @DisplayName("Fresh database is migrated to the latest version")
+    void testMigrateFreshDatabase() throws SQLException {
+        assertEquals(0, migrator.getCurrentVersion(conn));
+        assertEquals(migrator.getLatestVersion(), migrator.migrate(conn));
+        assertEquals(migrator.getLatestVersion(), migrator.getCurrentVersion(conn));
+    }
+
+    @Test
+    @DisplayName("Current schema runs no DDL")
+    void testCurrentSchemaIsNoOp() throws SQLException {
+        migrator.migrate(conn);
+        int changesBefore = totalChanges();
+
+        assertEquals(0, migrator.migrate(conn));
+        assertEquals(changesBefore, totalChanges());
+    }
+
+    @Test
+    @DisplayName("Older database with drifted tables is upgraded")
+    void testMigrateDriftedDatabase() throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            // Shape of tasks/bookings in databases created by earlier builds
+            stmt.execute("CREATE TABLE tasks (id INTEGER PRIMARY KEY AUTOINCREMENT, title TEXT NOT NULL, " +
+                         "description TEXT, status TEXT NOT NULL DEFAULT 'pending', assigned_to INTEGER, " +
+                         "ship_id INTEGER, due_date TEXT, created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP)");
+            stmt.execute("CREATE TABLE bookings (id INTEGER PRIMARY KEY AUTOINCREMENT, user_id INTEGER NOT NULL, " +
+                         "ship_id INTEGER NOT NULL, start_date TEXT NOT NULL, end_date TEXT NOT NULL, " +
+                         "status TEXT NOT NULL DEFAULT 'pending', created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP)");
+        }
+
+        migrator.migrate(conn);
+
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("INSERT INTO tasks (title, assigned_by, priority, updated_at) VALUES ('t', 1, 'high', CURRENT_TIMESTAMP)");
+            stmt.execute("INSERT INTO bookings (user_id, ship_id, start_date, end_date, purpose) VALUES (1, 1, 'a', 'b', 'p')");
+        }
+    }
+
+    @Test
+    @DisplayName("Hot lookups use an index instead of a table scan")
+    void testHotQueriesUseIndexes() throws SQLException {
+        migrator.migrate(conn);
+
+        assertUsesIndex("idx_tasks_assigned_to", "SELECT COUNT(*) FROM tasks WHERE assigned_to = ?");
+        assertUsesIndex("idx_tasks_assigned_by",
+            "SELECT t.* FROM tasks t WHERE t.assigned_to = ? OR t.assigned_by = ? ORDER BY t.created_at DESC");
+        assertUsesIndex("idx_bookings_user_id",
+            "SELECT b.*, s.name FROM bookings b JOIN ships s ON b.ship_id = s.id WHERE b.user_id = ?");
+        assertUsesIndex("idx_bookings_ship_id", "SELECT * FROM bookings WHERE ship_id = ?");
+        assertUsesIndex("idx_problem_reports_reported_by",
+            "SELECT p.* FROM problem_reports p WHERE p.reported_by = ? ORDER BY p.created_at DESC");
+        assertUsesIndex("idx_crew_members_ship_id", "SELECT * FROM crew_members WHERE ship_id = ?");
+        assertUsesIndex("idx_ship_locations_ship_id", "SELECT * FROM ship_locations WHERE ship_id = ?");
+    }
+
+    private int totalChanges() throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT total_changes()")) {
+            return rs.getInt(1);
+        }
+    }
+}
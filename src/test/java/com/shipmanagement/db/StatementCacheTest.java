@@ -0,0 +1,127 @@
+package com.shipmanagement.db;
+
+import java.io.File;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.sqlite.SQLiteConfig;
+import org.sqlite.SQLiteDataSource;
+
+/**
+ * Tests for the per-connection prepared statement cache
+ */
+public class StatementCacheTest {
+
+    private File dbFile;
+    private ConnectionPool pool;
+
+    @BeforeEach
+    void setUp() throws IOException, SQLException {
+        dbFile = File.createTempFile("stmt-cache-test", ".db");
+
+        SQLiteConfig config = new SQLiteConfig();
+        config.setJournalMode(SQLiteConfig.JournalMode.WAL);
+        SQLiteDataSource dataSource = new SQLiteDataSource(config);
+        dataSource.setUrl("jdbc:sqlite:" + dbFile.getAbsolutePath());
+
+        // One reader so every borrow gets the same physical connection, two cached statements
+        pool = new ConnectionPool(dataSource, 1, 200, 2);
+
+        try (Connection conn = pool.getWriteConnection();
+             Statement stmt = conn.createStatement()) {
+            stmt.execute("CREATE TABLE t (id INTEGER PRIMARY KEY, name TEXT)");
+            stmt.execute("INSERT INTO t (id, name) VALUES (1, 'one'), (2, 'two')");
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.close();
+        dbFile.delete();
+        new File(dbFile.getPath() + "-wal").delete();
+        new File(dbFile.getPath() + "-shm").delete();
+    }
+
+    @Test
+    @DisplayName("Repeated SQL is served from the cache")
+    void testCacheHit() throws SQLException {
+        for (int id = 1; id <= 2; id++) {
+            try (Connection conn = pool.getConnection();
+                 PreparedStatement stmt = conn.prepareStatement("SELECT name FROM t WHERE id = ?")) {
+                stmt.setInt(1, id);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    assertTrue(rs.next());
+                }
+            }
+        }
+
+        Map<String, Object> stats = pool.getStats();
+        assertEquals(1L, stats.get("statementCacheMisses"));
+        assertEquals(1L, stats.get("statementCacheHits"));
+    }
+
+    @Test
+    @DisplayName("Least recently used statement is evicted past capacity")
+    void testEviction() throws SQLException {
+        try (Connection conn = pool.getConnection()) {
+            for (String sql : new String[] {"SELECT 1", "SELECT 2", "SELECT 3"}) {
+                try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                    stmt.executeQuery().close();
+                }
+            }
+        }
+
+        Map<String, Object> stats = pool.getStats();
+        assertEquals(1L, stats.get("statementCacheEvictions"));
+        assertEquals(2, stats.get("cachedStatements"));
+    }
+
+    @Test
+    @DisplayName("Nested use of the same SQL gets an independent statement")
+    void testNestedSameSql() throws SQLException {
+        String sql = "SELECT name FROM t WHERE id = ?";
+        try (Connection conn = pool.getConnection();
+             PreparedStatement outer = conn.prepareStatement(sql);
+             PreparedStatement inner = conn.prepareStatement(sql)) {
+            outer.setInt(1, 1);
+            inner.setInt(1, 2);
+            try (ResultSet outerRs = outer.executeQuery();
+                 ResultSet innerRs = inner.executeQuery()) {
+                assertTrue(outerRs.next());
+                assertTrue(innerRs.next());
+                assertEquals("one", outerRs.getString(1));
+                assertEquals("two", innerRs.getString(1));
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Statements left open are reset when the connection is released")
+    void testResetOnRelease() throws SQLException {
+        Connection conn = pool.getConnection();
+        PreparedStatement stmt = conn.prepareStatement("SELECT name FROM t");
+        ResultSet rs = stmt.executeQuery();
+        conn.close();
+
+        assertTrue(rs.isClosed());
+
+        // The statement went back to the cache, so the next borrower hits it
+        try (Connection again = pool.getConnection();
+             PreparedStatement reused = again.prepareStatement("SELECT name FROM t")) {
+            assertFalse(reused.isClosed());
+            assertEquals(1L, pool.getStats().get("statementCacheHits"));
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.shipmanagement.db;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.shipmanagement.DatabaseConnection;
+
+/**
+ * Integration tests for the trigger-maintained table version counters
+ */
+public class TableVersionsTest {
+
+    private static void execute(String sql, Object... params) throws SQLException {
+        DatabaseConnection.write(conn -> {
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                for (int i = 0; i < params.length; i++) {
+                    pstmt.setObject(i + 1, params[i]);
+                }
+                return pstmt.executeUpdate();
+            }
+        });
+    }
+
+    @Test
+    @DisplayName("Every insert, update and delete bumps only its own table's version")
+    void testWritesBumpVersions() throws SQLException {
+        String before = TableVersions.current("docks", "ships");
+        assertTrue(before.matches("docks\\.\\d+\\.ships\\.\\d+"), before);
+
+        int dockId;
+        try (Connection conn = DatabaseConnection.getWriteConnection();
+             PreparedStatement pstmt = conn.prepareStatement(
+                 "INSERT INTO docks (name, location) VALUES ('Version Test Dock', 'Nowhere')",
+                 Statement.RETURN_GENERATED_KEYS)) {
+            pstmt.executeUpdate();
+            try (ResultSet keys = pstmt.getGeneratedKeys()) {
+                keys.next();
+                dockId = keys.getInt(1);
+            }
+        }
+        String inserted = TableVersions.current("docks", "ships");
+        assertNotEquals(before, inserted);
+        assertEquals(before.substring(before.indexOf(".ships")), inserted.substring(inserted.indexOf(".ships")));
+
+        execute("UPDATE docks SET status = 'maintenance' WHERE id = ?", dockId);
+        String updated = TableVersions.current("docks");
+        assertNotEquals(inserted.substring(0, inserted.indexOf(".ships")), updated);
+
+        execute("DELETE FROM docks WHERE id = ?", dockId);
+        assertNotEquals(updated, TableVersions.current("docks"));
+    }
+
+    @Test
+    @DisplayName("Asking for a table without counters is an error")
+    void testUnknownTable() {
+        assertThrows(IllegalArgumentException.class, () -> TableVersions.current("ship_locations"));
+    }
+}
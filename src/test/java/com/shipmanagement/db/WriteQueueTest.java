@@ -0,0 +1,163 @@
+package com.shipmanagement.db;
+
+import java.io.File;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.sqlite.SQLiteConfig;
+import org.sqlite.SQLiteDataSource;
+
+/**
+ * Tests for the group-commit write queue
+ */
+public class WriteQueueTest {
+
+    private File dbFile;
+    private ConnectionPool pool;
+    private WriteQueue queue;
+
+    @BeforeEach
+    void setUp() throws IOException, SQLException {
+        dbFile = File.createTempFile("write-queue-test", ".db");
+
+        SQLiteConfig config = new SQLiteConfig();
+        config.setJournalMode(SQLiteConfig.JournalMode.WAL);
+        SQLiteDataSource dataSource = new SQLiteDataSource(config);
+        dataSource.setUrl("jdbc:sqlite:" + dbFile.getAbsolutePath());
+
+        pool = new ConnectionPool(dataSource, 2, 2000);
+        try (Connection conn = pool.getWriteConnection();
+             Statement stmt = conn.createStatement()) {
+            stmt.execute("CREATE TABLE t (id INTEGER PRIMARY KEY AUTOINCREMENT, name TEXT NOT NULL)");
+        }
+
+        // A long linger so operations submitted back to back land in one batch
+        queue = new WriteQueue(pool, 16, 200);
+    }
+
+    @AfterEach
+    void tearDown() {
+        queue.close();
+        pool.close();
+        dbFile.delete();
+        new File(dbFile.getPath() + "-wal").delete();
+        new File(dbFile.getPath() + "-shm").delete();
+    }
+
+    private static WriteQueue.WriteOperation<Integer> insert(String name) {
+        return conn -> {
+            try (PreparedStatement pstmt = conn.prepareStatement(
+                    "INSERT INTO t (name) VALUES (?)", Statement.RETURN_GENERATED_KEYS)) {
+                pstmt.setString(1, name);
+                pstmt.executeUpdate();
+                try (ResultSet rs = pstmt.getGeneratedKeys()) {
+                    rs.next();
+                    return rs.getInt(1);
+                }
+            }
+        };
+    }
+
+    private int countRows() throws SQLException {
+        try (Connection conn = pool.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM t")) {
+            return rs.getInt(1);
+        }
+    }
+
+    @Test
+    @DisplayName("Concurrent writes share a batch and each get their own key")
+    void testBatchedResults() throws Exception {
+        List<CompletableFuture<Integer>> futures = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            futures.add(queue.submit(insert("row" + i)));
+        }
+
+        Set<Integer> keys = new HashSet<>();
+        for (CompletableFuture<Integer> future : futures) {
+            keys.add(future.get());
+        }
+
+        assertEquals(10, keys.size());
+        assertEquals(10, countRows());
+        assertEquals(1L, queue.getStats().get("batches"));
+    }
+
+    @Test
+    @DisplayName("A failing write is rolled back alone")
+    void testFailureIsolated() throws Exception {
+        CompletableFuture<Integer> before = queue.submit(insert("before"));
+        CompletableFuture<Integer> failing = queue.submit(insert(null));
+        CompletableFuture<Integer> after = queue.submit(insert("after"));
+
+        before.get();
+        after.get();
+        ExecutionException e = assertThrows(ExecutionException.class, failing::get);
+        assertInstanceOf(SQLException.class, e.getCause());
+
+        assertEquals(2, countRows());
+        assertEquals(1L, queue.getStats().get("failedOperations"));
+    }
+
+    @Test
+    @DisplayName("A write issued from inside a queued write runs inline")
+    void testNestedWrite() throws SQLException {
+        int outer = queue.execute(conn -> {
+            queue.execute(insert("inner"));
+            return insert("outer").execute(conn);
+        });
+
+        assertTrue(outer > 0);
+        assertEquals(2, countRows());
+    }
+
+    @Test
+    @DisplayName("Closing the queue flushes pending writes")
+    void testCloseFlushes() throws Exception {
+        CompletableFuture<Integer> pending = queue.submit(insert("pending"));
+        queue.close();
+
+        assertTrue(pending.get() > 0);
+        assertEquals(1, countRows());
+        assertThrows(ExecutionException.class, () -> queue.submit(insert("late")).get());
+    }
+
+    @Test
+    @DisplayName("An Error thrown by a write fails its batch and the queue keeps running")
+    void testErrorDoesNotKillWriter() throws Exception {
+        CompletableFuture<Integer> before = queue.submit(insert("before"));
+        CompletableFuture<Integer> failing = queue.submit(conn -> {
+            insert("doomed").execute(conn);
+            throw new AssertionError("boom");
+        });
+
+        ExecutionException e = assertThrows(ExecutionException.class, () -> failing.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(AssertionError.class, e.getCause());
+        // The batch is rolled back as a whole
+        assertThrows(ExecutionException.class, () -> before.get(5, TimeUnit.SECONDS));
+        assertEquals(0, countRows());
+
+        assertTrue(queue.execute(insert("later")) > 0);
+        assertEquals(1, countRows());
+    }
+}
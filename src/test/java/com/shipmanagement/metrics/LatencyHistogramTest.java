@@ -0,0 +1,68 @@
+package com.shipmanagement.metrics;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for the fixed-bucket latency histogram
+ */
+public class LatencyHistogramTest {
+
+    private static long millis(long ms) {
+        return TimeUnit.MILLISECONDS.toNanos(ms);
+    }
+
+    @Test
+    @DisplayName("An empty histogram reports zero")
+    void testEmpty() {
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.percentileNanos(99));
+        assertEquals(0, histogram.getMaxNanos());
+    }
+
+    @Test
+    @DisplayName("Count, sum and max track every recording")
+    void testTotals() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(millis(1));
+        histogram.record(millis(3));
+        histogram.record(millis(7));
+
+        assertEquals(3, histogram.getCount());
+        assertEquals(millis(11), histogram.getSumNanos());
+        assertEquals(millis(7), histogram.getMaxNanos());
+    }
+
+    @Test
+    @DisplayName("Percentiles fall in the right bucket and never exceed the max")
+    void testPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 0; i < 99; i++) {
+            histogram.record(millis(1));
+        }
+        histogram.record(millis(40));
+
+        long p50 = histogram.percentileNanos(50);
+        assertTrue(p50 > TimeUnit.MICROSECONDS.toNanos(500) && p50 <= millis(1), "p50 was " + p50);
+        assertTrue(histogram.percentileNanos(99) <= millis(1));
+        long p100 = histogram.percentileNanos(100);
+        assertTrue(p100 > millis(20) && p100 <= millis(40), "p100 was " + p100);
+    }
+
+    @Test
+    @DisplayName("Values beyond the last bound land in the overflow bucket")
+    void testOverflow() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(TimeUnit.SECONDS.toNanos(120));
+
+        long[] counts = histogram.getBucketCounts();
+        assertEquals(1, counts[counts.length - 1]);
+        assertEquals(TimeUnit.SECONDS.toNanos(120), histogram.percentileNanos(50));
+    }
+}
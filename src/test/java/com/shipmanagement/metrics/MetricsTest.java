@@ -0,0 +1,119 @@
+package com.shipmanagement.metrics;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for route labelling and the Prometheus text output
+ */
+public class MetricsTest {
+
+    private static RouteTable routeTable() {
+        List<String[]> routes = List.of(
+            new String[] {"get", "/api/ships"},
+            new String[] {"get", "/api/ships/cursor"},
+            new String[] {"get", "/api/ships/:id"},
+            new String[] {"get", "/api/ships/:id/crew"},
+            new String[] {"post", "/api/ships"},
+            new String[] {"before", "/api/*"},
+            new String[] {"get", "/"},
+            new String[] {"get", "/*"});
+        return new RouteTable(routes, List.of("/", "/*"));
+    }
+
+    @Test
+    @DisplayName("Requests are labelled with the first route pattern that matches")
+    void testRouteLabels() {
+        RouteTable table = routeTable();
+
+        assertEquals("/api/ships/:id", table.label("GET", "/api/ships/12", 200));
+        assertEquals("/api/ships/:id/crew", table.label("GET", "/api/ships/12/crew", 200));
+        assertEquals("/api/ships/cursor", table.label("GET", "/api/ships/cursor", 200));
+        assertEquals("/api/ships", table.label("POST", "/api/ships", 201));
+        assertEquals("/api/ships/:id", table.label("HEAD", "/api/ships/7", 200));
+        assertEquals("/api/ships/:id", table.label("GET", "/api/ships/7", 500));
+    }
+
+    @Test
+    @DisplayName("Static assets share one label, unmatched and 404 requests another")
+    void testBoundedLabels() {
+        RouteTable table = routeTable();
+
+        assertEquals(RouteTable.STATIC, table.label("GET", "/", 200));
+        assertEquals(RouteTable.STATIC, table.label("GET", "/css/app.3f2a9c1b0d.css", 200));
+        assertEquals(RouteTable.UNMATCHED, table.label("GET", "/nope-1", 404));
+        assertEquals(RouteTable.UNMATCHED, table.label("GET", "/api/ships/99", 404));
+        assertEquals(RouteTable.UNMATCHED, table.label("DELETE", "/api/ships/1", 405));
+        assertEquals(RouteTable.UNMATCHED, table.label("GET", null, 200));
+        assertEquals("OTHER", RouteTable.method("FOO"));
+        assertEquals("PATCH", RouteTable.method("PATCH"));
+    }
+
+    @Test
+    @DisplayName("Junk paths do not use up the series of real routes")
+    void testJunkPathsShareOneSeries() {
+        RouteTable table = routeTable();
+        TimerFamily family = new TimerFamily("http_request", "HTTP request", "method", "route");
+        for (int i = 0; i < 520; i++) {
+            family.record(1_000, false, "GET", table.label("GET", "/nope-" + i, 404));
+        }
+        family.record(1_000, false, "GET", table.label("GET", "/api/ships", 200));
+
+        StringBuilder out = new StringBuilder();
+        family.writeTo(out);
+        String text = out.toString();
+        assertTrue(text.contains("http_requests_total{method=\"GET\",route=\"unmatched\"} 520\n"));
+        assertTrue(text.contains("http_requests_total{method=\"GET\",route=\"/api/ships\"} 1\n"));
+        assertFalse(text.contains("route=\"other\""));
+    }
+
+    @Test
+    @DisplayName("A timer family writes counters, a cumulative histogram and percentile gauges")
+    void testTextFormat() {
+        TimerFamily family = new TimerFamily("http_request", "HTTP request", "method", "route");
+        family.record(TimeUnit.MILLISECONDS.toNanos(3), false, "GET", "/api/ships");
+        family.record(TimeUnit.MILLISECONDS.toNanos(30), true, "GET", "/api/ships");
+
+        StringBuilder out = new StringBuilder();
+        family.writeTo(out);
+        String text = out.toString();
+
+        assertTrue(text.contains("# TYPE http_request_duration_seconds histogram"));
+        assertTrue(text.contains("http_requests_total{method=\"GET\",route=\"/api/ships\"} 2\n"));
+        assertTrue(text.contains("http_request_errors_total{method=\"GET\",route=\"/api/ships\"} 1\n"));
+        assertTrue(text.contains("http_request_duration_seconds_bucket{method=\"GET\",route=\"/api/ships\",le=\"0.005\"} 1\n"));
+        assertTrue(text.contains("http_request_duration_seconds_bucket{method=\"GET\",route=\"/api/ships\",le=\"+Inf\"} 2\n"));
+        assertTrue(text.contains("http_request_duration_seconds_count{method=\"GET\",route=\"/api/ships\"} 2\n"));
+        assertTrue(text.contains("http_request_duration_max_seconds{method=\"GET\",route=\"/api/ships\"} 0.03\n"));
+        assertTrue(text.contains("quantile=\"0.99\""));
+    }
+
+    @Test
+    @DisplayName("Label values are escaped")
+    void testEscaping() {
+        TimerFamily family = new TimerFamily("db_call", "Database call", "method");
+        family.record(1000, false, "say \"hi\"");
+
+        StringBuilder out = new StringBuilder();
+        family.writeTo(out);
+
+        assertTrue(out.toString().contains("db_calls_total{method=\"say \\\"hi\\\"\"} 1\n"));
+    }
+
+    @Test
+    @DisplayName("Registered counters are read on every scrape")
+    void testCounters() {
+        long[] total = {3};
+        Metrics.registerCounter("test_things_total", "Things seen", () -> total[0]);
+        assertTrue(Metrics.scrape().contains("# TYPE test_things_total counter\ntest_things_total 3\n"));
+
+        total[0] = 5;
+        assertTrue(Metrics.scrape().contains("test_things_total 5\n"));
+    }
+}
@@ -0,0 +1,142 @@
+package com.shipmanagement.telemetry;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for the position grid, checked against a full scan
+ */
+public class PositionGridTest {
+
+    private static PositionReport at(int shipId, double latitude, double longitude, long time) {
+        return new PositionReport(shipId, latitude, longitude, null, null, time);
+    }
+
+    private static List<PositionReport> randomFleet(PositionGrid grid, int ships, Random random) {
+        List<PositionReport> fleet = new ArrayList<>();
+        for (int id = 1; id <= ships; id++) {
+            PositionReport report = at(id, random.nextDouble() * 180 - 90, random.nextDouble() * 360 - 180, 0);
+            grid.put(report);
+            fleet.add(report);
+        }
+        return fleet;
+    }
+
+    private static Set<Integer> ids(List<PositionReport> reports) {
+        return reports.stream().map(PositionReport::getShipId).collect(Collectors.toCollection(TreeSet::new));
+    }
+
+    @Test
+    @DisplayName("Radius queries match a full haversine scan, including near the antimeridian and poles")
+    void testNearMatchesScan() {
+        Random random = new Random(42);
+        PositionGrid grid = new PositionGrid(1.0);
+        List<PositionReport> fleet = randomFleet(grid, 5000, random);
+
+        double[][] queries = {
+            {51.9, 4.1, 300}, {0, 179.5, 400}, {-10, -179.9, 250}, {88, 20, 300}, {-89, 0, 120},
+            {35, 140, 2000}, {0, 0, 0}, {10, 10, 6000},
+        };
+        for (double[] q : queries) {
+            Set<Integer> expected = new TreeSet<>();
+            for (PositionReport r : fleet) {
+                if (PositionGrid.distanceNm(q[0], q[1], r.getLatitude(), r.getLongitude()) <= q[2]) {
+                    expected.add(r.getShipId());
+                }
+            }
+            List<PositionGrid.Hit> hits = grid.near(q[0], q[1], q[2], Integer.MAX_VALUE);
+            Set<Integer> actual = new TreeSet<>();
+            for (int i = 0; i < hits.size(); i++) {
+                actual.add(hits.get(i).getPosition().getShipId());
+                if (i > 0) {
+                    assertTrue(hits.get(i - 1).getDistanceNm() <= hits.get(i).getDistanceNm());
+                }
+            }
+            assertEquals(expected, actual, "near " + q[0] + "," + q[1] + " r=" + q[2]);
+        }
+    }
+
+    @Test
+    @DisplayName("Box queries match a full scan, including boxes across the antimeridian")
+    void testWithinMatchesScan() {
+        Random random = new Random(7);
+        PositionGrid grid = new PositionGrid(0.5);
+        List<PositionReport> fleet = randomFleet(grid, 5000, random);
+
+        double[][] boxes = {
+            {50, 0, 55, 10}, {-20, 170, 20, -170}, {-90, -180, 90, 180}, {10, 10, 10.5, 10.5}, {60, 179, 90, 180},
+        };
+        for (double[] b : boxes) {
+            Set<Integer> expected = new TreeSet<>();
+            for (PositionReport r : fleet) {
+                boolean lonIn = b[1] <= b[3]
+                    ? r.getLongitude() >= b[1] && r.getLongitude() <= b[3]
+                    : r.getLongitude() >= b[1] || r.getLongitude() <= b[3];
+                if (r.getLatitude() >= b[0] && r.getLatitude() <= b[2] && lonIn) {
+                    expected.add(r.getShipId());
+                }
+            }
+            assertEquals(expected, ids(grid.within(b[0], b[1], b[2], b[3], Integer.MAX_VALUE)),
+                "box " + b[0] + "," + b[1] + " - " + b[2] + "," + b[3]);
+        }
+    }
+
+    @Test
+    @DisplayName("Ships move between cells, older reports are ignored and removed ships disappear")
+    void testUpdates() {
+        PositionGrid grid = new PositionGrid(1.0);
+        grid.put(at(1, 10.2, 10.2, 1000));
+        grid.put(at(1, 40.5, -70.5, 2000));
+        grid.put(at(1, 10.3, 10.3, 1500)); // late report
+
+        assertEquals(40.5, grid.get(1).getLatitude());
+        assertTrue(grid.near(10.2, 10.2, 50, 10).isEmpty());
+        assertEquals(1, grid.near(40.5, -70.5, 1, 10).size());
+
+        grid.put(at(2, 90, 180, 0));
+        assertEquals(Set.of(2), ids(grid.within(89, 179, 90, 180, 10)));
+
+        grid.remove(1);
+        assertTrue(grid.near(40.5, -70.5, 1, 10).isEmpty());
+        assertEquals(1, grid.size());
+    }
+
+    @Test
+    @DisplayName("A future-dated position does not block newer reports")
+    void testFutureDatedPosition() {
+        PositionGrid grid = new PositionGrid(1.0);
+        long now = System.currentTimeMillis();
+        grid.put(at(1, 10.2, 10.2, now + 24 * 60 * 60_000L));
+        assertTrue(grid.put(at(1, 40.5, -70.5, now)));
+
+        assertEquals(40.5, grid.get(1).getLatitude());
+        assertTrue(grid.near(10.2, 10.2, 50, 10).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Limits are applied and invalid queries are rejected")
+    void testLimitsAndValidation() {
+        PositionGrid grid = new PositionGrid(1.0);
+        for (int id = 1; id <= 10; id++) {
+            grid.put(at(id, 0, id * 0.01, 0));
+        }
+        List<PositionGrid.Hit> nearest = grid.near(0, 0, 60, 3);
+        assertEquals(3, nearest.size());
+        assertEquals(1, nearest.get(0).getPosition().getShipId());
+        assertEquals(4, grid.within(-1, -1, 1, 1, 4).size());
+
+        assertThrows(IllegalArgumentException.class, () -> grid.near(91, 0, 10, 10));
+        assertThrows(IllegalArgumentException.class, () -> grid.near(0, 0, -1, 10));
+        assertThrows(IllegalArgumentException.class, () -> grid.within(10, 0, 5, 1, 10));
+    }
+}
@@ -0,0 +1,141 @@
+package com.shipmanagement.telemetry;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.jupiter.api.AfterEach;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.shipmanagement.DatabaseConnection;
+
+/**
+ * Tests for buffered position ingestion, against the real database
+ */
+public class PositionIngesterTest {
+
+    private static final int UNKNOWN_SHIP = Integer.MAX_VALUE;
+
+    private PositionIngester ingester;
+    private int shipId;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        shipId = DatabaseConnection.write(conn -> {
+            try (PreparedStatement pstmt = conn.prepareStatement(
+                    "INSERT INTO ships (name, type, capacity, status) VALUES ('Telemetry Test', 'Cargo', 100, 'Active')",
+                    Statement.RETURN_GENERATED_KEYS)) {
+                pstmt.executeUpdate();
+                try (ResultSet keys = pstmt.getGeneratedKeys()) {
+                    keys.next();
+                    return keys.getInt(1);
+                }
+            }
+        });
+        ingester = new PositionIngester(100, 10, 0);
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        ingester.close();
+        DatabaseConnection.write(conn -> {
+            try (PreparedStatement locations = conn.prepareStatement("DELETE FROM ship_locations WHERE ship_id = ?");
+                 PreparedStatement ship = conn.prepareStatement("DELETE FROM ships WHERE id = ?")) {
+                locations.setInt(1, shipId);
+                locations.executeUpdate();
+                ship.setInt(1, shipId);
+                return ship.executeUpdate();
+            }
+        });
+        ShipPositions.removeShip(shipId);
+    }
+
+    private int storedPositions() throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement("SELECT COUNT(*) FROM ship_locations WHERE ship_id = ?")) {
+            pstmt.setInt(1, shipId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                rs.next();
+                return rs.getInt(1);
+            }
+        }
+    }
+
+    private String line(int ship, double latitude, String timestamp) {
+        return "{\"ship_id\": " + ship + ", \"latitude\": " + latitude + ", \"longitude\": 4.0, " +
+               "\"status\": \"at sea\", \"timestamp\": \"" + timestamp + "\"}";
+    }
+
+    @Test
+    @DisplayName("Valid lines are stored and the newest becomes the latest position")
+    void testIngest() throws Exception {
+        String body = String.join("\n",
+            line(shipId, 51.0, "2024-05-01T12:00:00Z"),
+            line(shipId, 53.0, "2024-05-01T12:02:00Z"),
+            "",
+            line(shipId, 52.0, "2024-05-01T12:01:00Z"),
+            "{\"ship_id\": " + shipId + ", \"latitude\": 95}",
+            line(UNKNOWN_SHIP, 50.0, "2024-05-01T12:00:00Z"));
+
+        PositionIngester.Result result = ingester.ingest(new BufferedReader(new StringReader(body)), 100);
+
+        assertEquals(4, result.getAccepted());
+        assertEquals(1, result.getRejected());
+        assertFalse(result.isOverloaded());
+        assertEquals(5, result.getErrors().get(0).get("line"));
+
+        assertTrue(ingester.awaitDrained(5000));
+        assertEquals(3, storedPositions());
+        // The out-of-order 12:01 report does not replace 12:02
+        assertEquals(53.0, ShipPositions.latest(shipId).getLatitude());
+        assertNull(ShipPositions.latest(UNKNOWN_SHIP));
+        assertEquals(1L, ingester.getStats().get("unknownShip"));
+    }
+
+    @Test
+    @DisplayName("A batch that does not fit in the buffer is refused whole")
+    void testOverloaded() {
+        PositionIngester small = new PositionIngester(2, 10, 0);
+        try {
+            PositionReport report = new PositionReport(shipId, 1.0, 1.0, null, null, 0);
+            assertFalse(small.offer(Arrays.asList(report, report, report)));
+            assertEquals(3L, small.getStats().get("overloaded"));
+            assertTrue(small.offer(Collections.singletonList(report)));
+        } finally {
+            small.close();
+        }
+    }
+
+    @Test
+    @DisplayName("Too many lines in one request is an error")
+    void testMaxLines() {
+        String body = line(shipId, 1.0, "2024-05-01T12:00:00Z") + "\n" + line(shipId, 2.0, "2024-05-01T12:00:01Z");
+        assertThrows(IllegalArgumentException.class,
+            () -> ingester.ingest(new BufferedReader(new StringReader(body)), 1));
+    }
+
+    @Test
+    @DisplayName("Closing stores what is still buffered")
+    void testCloseDrains() throws Exception {
+        PositionIngester lingering = new PositionIngester(100, 10, 60_000);
+        PositionReport report = new PositionReport(shipId, 1.0, 1.0, null, null, 0);
+        assertTrue(lingering.offer(Arrays.asList(report, report)));
+        lingering.close();
+
+        assertEquals(2, storedPositions());
+        assertFalse(lingering.offer(Collections.singletonList(report)));
+    }
+}
@@ -0,0 +1,82 @@
+package com.shipmanagement.telemetry;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for parsing and validating NDJSON position reports
+ */
+public class PositionReportTest {
+
+    private static final long RECEIVED = 1_714_564_800_000L; // 2024-05-01T12:00:00Z
+
+    @Test
+    @DisplayName("A full report is parsed")
+    void testParse() {
+        PositionReport report = PositionReport.parse(
+            "{\"ship_id\": 3, \"latitude\": 51.95, \"longitude\": 4.05, \"status\": \"at sea\", " +
+            "\"current_port\": \"Rotterdam\", \"timestamp\": \"2024-05-01T11:30:00.250Z\"}", RECEIVED);
+
+        assertEquals(3, report.getShipId());
+        assertEquals(51.95, report.getLatitude());
+        assertEquals(4.05, report.getLongitude());
+        assertEquals("at sea", report.getStatus());
+        assertEquals("Rotterdam", report.getCurrentPort());
+        assertEquals("2024-05-01 11:30:00.250", report.getStoredTimestamp());
+    }
+
+    @Test
+    @DisplayName("Optional fields default; epoch millisecond timestamps are accepted")
+    void testDefaults() {
+        PositionReport report = PositionReport.parse("{\"ship_id\": 3, \"latitude\": 0, \"longitude\": 0}", RECEIVED);
+        assertNull(report.getStatus());
+        assertNull(report.getCurrentPort());
+        assertEquals(RECEIVED, report.getTimestampMillis());
+
+        report = PositionReport.parse(
+            "{\"ship_id\": 3, \"latitude\": 0, \"longitude\": 0, \"timestamp\": 1714564801000}", RECEIVED);
+        assertEquals(RECEIVED + 1000, report.getTimestampMillis());
+    }
+
+    @Test
+    @DisplayName("Invalid reports are rejected with an IllegalArgumentException")
+    void testInvalid() {
+        String[] lines = {
+            "not json",
+            "[1, 2]",
+            "{\"latitude\": 10, \"longitude\": 10}",
+            "{\"ship_id\": 0, \"latitude\": 10, \"longitude\": 10}",
+            "{\"ship_id\": 1.5, \"latitude\": 10, \"longitude\": 10}",
+            "{\"ship_id\": \"one\", \"latitude\": 10, \"longitude\": 10}",
+            "{\"ship_id\": 1, \"latitude\": 91, \"longitude\": 10}",
+            "{\"ship_id\": 1, \"latitude\": 10, \"longitude\": -180.5}",
+            "{\"ship_id\": 1, \"latitude\": 10, \"longitude\": 10, \"timestamp\": \"yesterday\"}",
+            "{\"ship_id\": 1, \"latitude\": 10, \"longitude\": 10, \"status\": {\"a\": 1}}",
+        };
+        for (String line : lines) {
+            assertThrows(IllegalArgumentException.class, () -> PositionReport.parse(line, RECEIVED), line);
+        }
+    }
+
+    @Test
+    @DisplayName("Timestamps more than the allowed skew past the time of receipt are rejected")
+    void testFutureTimestamp() {
+        long withinSkew = RECEIVED + PositionReport.MAX_CLOCK_SKEW_MILLIS;
+        PositionReport report = PositionReport.parse(
+            "{\"ship_id\": 3, \"latitude\": 0, \"longitude\": 0, \"timestamp\": " + withinSkew + "}", RECEIVED);
+        assertEquals(withinSkew, report.getTimestampMillis());
+
+        String[] lines = {
+            "{\"ship_id\": 3, \"latitude\": 0, \"longitude\": 0, \"timestamp\": " + (withinSkew + 1) + "}",
+            "{\"ship_id\": 3, \"latitude\": 0, \"longitude\": 0, \"timestamp\": \"2024-05-02T12:00:00Z\"}",
+            // Microseconds where milliseconds are expected
+            "{\"ship_id\": 3, \"latitude\": 0, \"longitude\": 0, \"timestamp\": " + RECEIVED * 1000 + "}",
+        };
+        for (String line : lines) {
+            assertThrows(IllegalArgumentException.class, () -> PositionReport.parse(line, RECEIVED), line);
+        }
+    }
+}
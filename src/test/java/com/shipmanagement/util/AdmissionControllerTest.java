@@ -0,0 +1,68 @@
+package com.shipmanagement.util;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.shipmanagement.util.AdmissionController.RouteClass;
+
+/**
+ * Tests for per-route-class admission control
+ */
+public class AdmissionControllerTest {
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> stats(AdmissionController controller, RouteClass routeClass) {
+        return (Map<String, Object>) controller.getStats().get(routeClass.name().toLowerCase());
+    }
+
+    @Test
+    @DisplayName("Requests are classified into read, write and auth budgets")
+    void testClassify() {
+        assertEquals(RouteClass.READ, AdmissionController.classify("GET", "/api/ships"));
+        assertEquals(RouteClass.WRITE, AdmissionController.classify("POST", "/api/bookings"));
+        assertEquals(RouteClass.WRITE, AdmissionController.classify("DELETE", "/api/staff/3"));
+        assertEquals(RouteClass.AUTH, AdmissionController.classify("POST", "/api/login"));
+        assertNull(AdmissionController.classify("GET", "/dashboard.html"));
+        assertNull(AdmissionController.classify("OPTIONS", "/api/ships"));
+    }
+
+    @Test
+    @DisplayName("A full class sheds once its wait budget runs out, other classes are unaffected")
+    void testShedsWhenFull() throws InterruptedException {
+        AdmissionController controller = new AdmissionController(1, 20);
+
+        assertTrue(controller.tryAdmit(RouteClass.WRITE, 0));
+        assertFalse(controller.tryAdmit(RouteClass.WRITE, 0));
+        assertTrue(controller.tryAdmit(RouteClass.READ, 0));
+
+        controller.release(RouteClass.WRITE);
+        assertTrue(controller.tryAdmit(RouteClass.WRITE, 0));
+
+        Map<String, Object> write = stats(controller, RouteClass.WRITE);
+        assertEquals(2L, write.get("admitted"));
+        assertEquals(1L, write.get("shedWaiting"));
+        assertEquals(1, write.get("inFlight"));
+    }
+
+    @Test
+    @DisplayName("A request that already queued past its budget is shed without waiting")
+    void testShedOnArrival() throws InterruptedException {
+        AdmissionController controller = new AdmissionController(4, 100);
+
+        long start = System.nanoTime();
+        assertFalse(controller.tryAdmit(RouteClass.READ, TimeUnit.MILLISECONDS.toNanos(150)));
+        assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(50));
+
+        Map<String, Object> read = stats(controller, RouteClass.READ);
+        assertEquals(1L, read.get("shedOnArrival"));
+        assertEquals(1L, read.get("shed"));
+        assertEquals(0, read.get("inFlight"));
+    }
+}
@@ -0,0 +1,67 @@
+package com.shipmanagement.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import spark.Request;
+import spark.Response;
+
+/**
+ * Tests for ETag generation and If-None-Match handling
+ */
+public class ConditionalGetTest {
+
+    private static Request request(String path, String query, String ifNoneMatch) {
+        Request req = mock(Request.class);
+        when(req.pathInfo()).thenReturn(path);
+        when(req.queryString()).thenReturn(query);
+        when(req.headers("If-None-Match")).thenReturn(ifNoneMatch);
+        return req;
+    }
+
+    @Test
+    @DisplayName("ETags change with the versions, the path and the query")
+    void testEtag() {
+        Request ships = request("/api/ships", null, null);
+        String etag = ConditionalGet.etag(ships, "ships.4");
+
+        assertTrue(etag.startsWith("W/\"") && etag.endsWith("\""));
+        assertEquals(etag, ConditionalGet.etag(ships, "ships.4"));
+        assertNotEquals(etag, ConditionalGet.etag(ships, "ships.5"));
+        assertNotEquals(etag, ConditionalGet.etag(request("/api/docks", null, null), "ships.4"));
+        assertNotEquals(etag, ConditionalGet.etag(request("/api/ships", "pretty=true", null), "ships.4"));
+    }
+
+    @Test
+    @DisplayName("If-None-Match matches weakly, in lists and as *")
+    void testMatches() {
+        assertTrue(ConditionalGet.matches("W/\"abc\"", "W/\"abc\""));
+        assertTrue(ConditionalGet.matches("\"abc\"", "W/\"abc\""));
+        assertTrue(ConditionalGet.matches("\"x\", W/\"abc\"", "W/\"abc\""));
+        assertTrue(ConditionalGet.matches("*", "W/\"abc\""));
+        assertFalse(ConditionalGet.matches("W/\"abd\"", "W/\"abc\""));
+        assertFalse(ConditionalGet.matches(null, "W/\"abc\""));
+    }
+
+    @Test
+    @DisplayName("A matching request gets 304, any other gets the ETag and a full response")
+    void testNotModified() {
+        Response res = mock(Response.class);
+        assertTrue(ConditionalGet.notModified(request("/api/ships", null, "W/\"abc\""), res, "W/\"abc\""));
+        verify(res).status(304);
+        verify(res).header("ETag", "W/\"abc\"");
+
+        Response fresh = mock(Response.class);
+        assertFalse(ConditionalGet.notModified(request("/api/ships", null, "W/\"old\""), fresh, "W/\"abc\""));
+        verify(fresh, never()).status(304);
+        verify(fresh).header("ETag", "W/\"abc\"");
+    }
+}
@@ -0,0 +1,190 @@
+package com.shipmanagement.util;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletResponse;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonParser;
+import com.shipmanagement.DatabaseConnection;
+import com.shipmanagement.db.RowMappers;
+import com.shipmanagement.model.Task;
+
+import spark.Request;
+import spark.Response;
+
+/**
+ * Tests for streaming JSON array responses and the database sources behind them
+ */
+public class JsonStreamTest {
+
+    private final Gson gson = new Gson();
+    private final ByteArrayOutputStream body = new ByteArrayOutputStream();
+    private Request req;
+    private Response res;
+    private HttpServletResponse raw;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        req = mock(Request.class);
+        res = mock(Response.class);
+        raw = mock(HttpServletResponse.class);
+        when(res.raw()).thenReturn(raw);
+        when(raw.getOutputStream()).thenReturn(new ServletOutputStream() {
+            @Override
+            public void write(int b) {
+                body.write(b);
+            }
+
+            @Override
+            public boolean isReady() {
+                return true;
+            }
+
+            @Override
+            public void setWriteListener(WriteListener listener) {
+            }
+        });
+    }
+
+    private static Task task(int id, String title) {
+        Task task = new Task();
+        task.setId(id);
+        task.setTitle(title);
+        return task;
+    }
+
+    private String written() {
+        return new String(body.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    @Test
+    @DisplayName("Rows are written as a compact array matching Gson's list output")
+    void testStreamsCompactArray() throws Exception {
+        Task first = task(1, "Paint hull");
+        Task second = task(2, "Check engine");
+
+        String result = JsonStream.writeArray(req, res, gson, Task.class, sink -> {
+            sink.accept(first);
+            sink.accept(second);
+            return 2;
+        });
+
+        assertEquals("", result);
+        assertEquals(gson.toJson(new Task[] {first, second}), written());
+        verify(res).type("application/json");
+    }
+
+    @Test
+    @DisplayName("An empty source still produces a valid array")
+    void testEmptyArray() throws Exception {
+        JsonStream.writeArray(req, res, gson, Task.class, sink -> 0);
+
+        assertEquals("[]", written());
+    }
+
+    @Test
+    @DisplayName("?pretty=true indents the output")
+    void testPrettyOutput() throws Exception {
+        when(req.queryParams("pretty")).thenReturn("true");
+
+        JsonStream.writeArray(req, res, gson, Task.class, sink -> {
+            sink.accept(task(1, "Paint hull"));
+            return 1;
+        });
+
+        JsonArray array = JsonParser.parseString(written()).getAsJsonArray();
+        assertEquals(1, array.size());
+        assertEquals("[\n  {", written().substring(0, 5));
+    }
+
+    @Test
+    @DisplayName("A query that fails before the first row leaves the response untouched")
+    void testFailureBeforeFirstRow() throws IOException {
+        assertThrows(SQLException.class, () ->
+            JsonStream.writeArray(req, res, gson, Task.class, sink -> {
+                throw new SQLException("no such table");
+            }));
+
+        verify(raw, never()).getOutputStream();
+        assertEquals("", written());
+    }
+
+    @Test
+    @DisplayName("Slow consumers of a database stream do not hold reader connections")
+    void testSlowConsumersReleaseReaders() throws Exception {
+        String title = "Slow consumer " + System.nanoTime();
+        assertTrue(DatabaseConnection.addReport(title, "Test", "Streamed to a stalled client", null, null));
+        int consumers = 6; // More than the default four readers
+        ExecutorService executor = Executors.newFixedThreadPool(consumers);
+        CountDownLatch stalled = new CountDownLatch(consumers);
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            List<Future<Integer>> results = new ArrayList<>();
+            for (int i = 0; i < consumers; i++) {
+                results.add(executor.submit(() -> DatabaseConnection.streamAllReports(new RowMappers.RowSink<>() {
+                    private boolean first = true;
+
+                    @Override
+                    public void accept(Map<String, Object> row) {
+                        if (first) {
+                            first = false;
+                            stalled.countDown();
+                            try {
+                                release.await(10, TimeUnit.SECONDS);
+                            } catch (InterruptedException e) {
+                                Thread.currentThread().interrupt();
+                            }
+                        }
+                    }
+                })));
+            }
+
+            assertTrue(stalled.await(4, TimeUnit.SECONDS), "Every consumer should get its rows");
+            try (Connection conn = DatabaseConnection.getConnection("JsonStreamTest")) {
+                assertNotNull(conn);
+            }
+
+            release.countDown();
+            for (Future<Integer> result : results) {
+                assertTrue(result.get(10, TimeUnit.SECONDS) > 0);
+            }
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+            try (Connection conn = DatabaseConnection.getWriteConnection("JsonStreamTest");
+                 PreparedStatement pstmt = conn.prepareStatement("DELETE FROM reports WHERE title = ?")) {
+                pstmt.setString(1, title);
+                pstmt.executeUpdate();
+            }
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.shipmanagement.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletResponse;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import spark.Request;
+import spark.Response;
+
+/**
+ * Tests for the in-memory, precompressed static asset cache
+ */
+public class StaticAssetsTest {
+
+    private static final String SCRIPT = "console.log('hello');\n".repeat(40);
+
+    private final ByteArrayOutputStream body = new ByteArrayOutputStream();
+    private StaticAssets assets;
+    private Response res;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        Map<String, byte[]> files = new LinkedHashMap<>();
+        files.put("/index.html", ("<script src=\"js/app.js\"></script><div style=\"background: url('images/bg.jpg')\">"
+            + "<img src=\"images/missing.jpg\"><a href=\"https://example.com/js/app.js\">x</a>")
+            .getBytes(StandardCharsets.UTF_8));
+        files.put("/js/app.js", SCRIPT.getBytes(StandardCharsets.UTF_8));
+        files.put("/js/app.js.br", new byte[] {1, 2, 3});
+        files.put("/images/bg.jpg", new byte[] {(byte) 0xff, (byte) 0xd8, 0, 0});
+        assets = new StaticAssets(files);
+
+        res = mock(Response.class);
+        HttpServletResponse raw = mock(HttpServletResponse.class);
+        when(res.raw()).thenReturn(raw);
+        when(raw.getOutputStream()).thenReturn(new ServletOutputStream() {
+            @Override
+            public void write(int b) {
+                body.write(b);
+            }
+
+            @Override
+            public boolean isReady() {
+                return true;
+            }
+
+            @Override
+            public void setWriteListener(WriteListener listener) {
+            }
+        });
+    }
+
+    private static Request request(String path, String acceptEncoding, String ifNoneMatch) {
+        Request req = mock(Request.class);
+        when(req.pathInfo()).thenReturn(path);
+        when(req.headers("Accept-Encoding")).thenReturn(acceptEncoding);
+        when(req.headers("If-None-Match")).thenReturn(ifNoneMatch);
+        return req;
+    }
+
+    @Test
+    @DisplayName("Pages point at fingerprinted URLs of known assets only")
+    void testRewritesPages() {
+        StaticAssets.Asset script = assets.find("/js/app.js");
+        StaticAssets.Asset image = assets.find("/images/bg.jpg");
+        String page = new String(assets.find("/").getIdentity(), StandardCharsets.UTF_8);
+
+        assertEquals("/js/app." + script.getHash() + ".js", script.getFingerprintedPath());
+        assertTrue(page.contains("src=\"" + script.getFingerprintedPath() + "\""), page);
+        assertTrue(page.contains("url('" + image.getFingerprintedPath() + "')"), page);
+        assertTrue(page.contains("src=\"images/missing.jpg\""), page);
+        assertTrue(page.contains("href=\"https://example.com/js/app.js\""), page);
+        assertNotNull(assets.find(script.getFingerprintedPath()));
+        assertNull(assets.find("/js/app.js.br"));
+    }
+
+    @Test
+    @DisplayName("Text is gzipped once; tiny and binary files are not")
+    void testPrecompression() throws IOException {
+        byte[] gzip = assets.find("/js/app.js").getGzip();
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(gzip))) {
+            assertArrayEquals(SCRIPT.getBytes(StandardCharsets.UTF_8), in.readAllBytes());
+        }
+        assertTrue(gzip.length < SCRIPT.length() / 5);
+        assertNull(assets.find("/images/bg.jpg").getGzip());
+        assertNull(assets.find("/index.html").getGzip());
+    }
+
+    @Test
+    @DisplayName("Accept-Encoding picks br over gzip and honours q=0")
+    void testChooseEncoding() {
+        assertEquals("br", StaticAssets.chooseEncoding("gzip, deflate, br", true, true));
+        assertEquals("gzip", StaticAssets.chooseEncoding("gzip, deflate, br", false, true));
+        assertEquals("gzip", StaticAssets.chooseEncoding("br;q=0, gzip;q=0.5", true, true));
+        assertEquals("gzip", StaticAssets.chooseEncoding("*", false, true));
+        assertNull(StaticAssets.chooseEncoding("gzip;q=0", false, true));
+        assertNull(StaticAssets.chooseEncoding("identity", true, true));
+        assertNull(StaticAssets.chooseEncoding(null, true, true));
+    }
+
+    @Test
+    @DisplayName("Fingerprinted URLs are immutable; plain URLs revalidate and get 304")
+    void testHandle() throws IOException {
+        StaticAssets.Asset script = assets.find("/js/app.js");
+
+        assertEquals("", assets.handle(request(script.getFingerprintedPath(), "gzip", null), res));
+        verify(res).header("Cache-Control", "public, max-age=31536000, immutable");
+        verify(res).header("Content-Encoding", "gzip");
+        verify(res).header("ETag", "\"" + script.getHash() + "-gzip\"");
+        assertArrayEquals(script.getGzip(), body.toByteArray());
+
+        Response revalidated = mock(Response.class);
+        assertEquals("", assets.handle(request("/js/app.js", "br", "\"" + script.getHash() + "-br\""), revalidated));
+        verify(revalidated).header("Cache-Control", "no-cache");
+        verify(revalidated).status(304);
+        verify(revalidated, never()).raw();
+
+        assertNull(assets.handle(request("/nope.js", null, null), mock(Response.class)));
+    }
+
+    @Test
+    @DisplayName("The real public directory loads")
+    void testLoadsClasspath() throws IOException {
+        StaticAssets real = StaticAssets.load("/public");
+        assertNotNull(real.find("/admin-dashboard.html"));
+        assertNotNull(real.find("/js/staff-fixes.js"));
+        String dashboard = new String(real.find("/dashboard.html").getIdentity(), StandardCharsets.UTF_8);
+        assertTrue(dashboard.contains(real.find("/js/staff-fixes.js").getFingerprintedPath()));
+    }
+}